@@ -1,37 +1,154 @@
+import bot.BotMetrics;
 import bot.BotRouter;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import bot.SendRateLimiter;
+import bot.SharedResources;
+import bot.StartupClock;
+import bot.StartupProbe;
+import bot.WarmUp;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import config.Config;
 import config.ConfigReaderEnvironment;
+import config.ModuleKind;
 import config.SystemEnvProvider;
-import okhttp3.OkHttpClient;
-import org.telegram.telegrambots.client.okhttp.OkHttpTelegramClient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.telegram.telegrambots.longpolling.TelegramBotsLongPollingApplication;
-import org.telegram.telegrambots.meta.TelegramUrl;
-import org.telegram.telegrambots.meta.generics.TelegramClient;
+import replication.ActiveLock;
+import replication.ReplicationSender;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Точка входа бота. Один процесс обслуживает одного или нескольких ботов (переменная BOTS,
+ * см. {@link ConfigReaderEnvironment#readAll()}): HTTP-клиент, пулы потоков, картинки и каталог
+ * фильмов у них общие ({@link SharedResources}), а модули, лимит отправки и метрики — свои.
+ * <p>
+ * С {@code -Dstartup.probe=true} бот не подключается к Telegram: синтетические обновления проходят
+ * через маршрутизатор каждого бота ({@link StartupProbe}), печатается время до первого обновления,
+ * и процесс завершается. Так сравнивается старт на обычной JVM, с архивом CDS и в native-image.
+ * <p>
+ * С {@code -Dwarmup.millis=N} перед подключением к Telegram бот прогревается ({@link WarmUp}) не дольше
+ * N миллисекунд. По умолчанию прогрева нет: он задерживает регистрацию ботов на весь бюджет, а ленивое
+ * создание модулей, архив CDS и native-image нужны как раз для быстрого старта. Кроме того, прогрев
+ * идёт на своём маршрутизаторе, так что модули настоящих ботов всё равно создаются при первой команде;
+ * прогретым оказывается только скомпилированный JIT код. Включать прогрев стоит, если важнее задержка
+ * первых обновлений, чем время до регистрации, и только с бюджетом, за который прогрев по замеру
+ * успевает дойти до стабильной компиляции.
+ */
 public class Application {
+
+    private static final Logger log = LogManager.getLogger(Application.class);
+
+    /**
+     * Порт резервного узла на этой машине; если задан, сессии Pomodoro реплицируются на него.
+     */
+    private static final String STANDBY_PORT = System.getProperty("replication.standbyPort");
+    private static final boolean STARTUP_PROBE = Boolean.getBoolean("startup.probe");
+    private static final long WARMUP_MILLIS = Long.getLong("warmup.millis", 0);
+    private static final long METRICS_REPORT_MINUTES = 5;
+    /**
+     * Блокировка активного узла держится до конца процесса; поле не даёт сборщику мусора закрыть её файл.
+     */
+    private static ActiveLock activeLock;
+
     public static void main(String[] args) {
 
         ConfigReaderEnvironment configReader = new ConfigReaderEnvironment(new SystemEnvProvider());
-        Config token = configReader.reader();
-        ObjectMapper mapper = new ObjectMapper();
-        TelegramUrl url = TelegramUrl.DEFAULT_URL;
-        OkHttpClient myClient = new OkHttpClient.Builder()
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
-        TelegramClient telegramClient = new OkHttpTelegramClient(mapper, myClient, token.botToken(), url);
-
-        try (TelegramBotsLongPollingApplication botApplication = new TelegramBotsLongPollingApplication()) {
-            botApplication.registerBot(token.botToken(), new BotRouter(telegramClient));
-            System.out.println("Бот запущен!");
+        List<Config> bots = configReader.readAll();
+
+        if (STARTUP_PROBE) {
+            runStartupProbe(bots);
+            return;
+        }
+
+        try (SharedResources shared = new SharedResources();
+             TelegramBotsLongPollingApplication botApplication = new TelegramBotsLongPollingApplication()) {
+            List<BotRouter> routers = new ArrayList<>();
+            for (Config bot : bots) {
+                BotMetrics metrics = new BotMetrics();
+                SendRateLimiter limiter = shared.sendLimiter(metrics);
+                routers.add(new BotRouter(shared.telegramClient(bot.botToken(), limiter), limiter, bot, shared, metrics));
+            }
+            if (STANDBY_PORT != null) {
+                if (routers.size() == 1) {
+                    startReplication(routers.get(0), Integer.parseInt(STANDBY_PORT));
+                } else {
+                    System.out.println("Репликация на резервный узел поддерживается только для одного бота, отключена");
+                }
+            }
+            if (WARMUP_MILLIS > 0) {
+                warmUp(bots);
+            }
+            for (int i = 0; i < bots.size(); i++) {
+                routers.get(i).resolveBotUsername();
+                botApplication.registerBot(bots.get(i).botToken(), routers.get(i));
+                System.out.println("Бот " + bots.get(i).name() + " запущен, модули: " + bots.get(i).modules());
+            }
+            startMetricsReport(shared, bots, routers);
+            System.out.println("Бот запущен! С запуска процесса прошло " + StartupClock.millisSinceStart() + " мс");
             Thread.currentThread().join();
         } catch (Exception e) {
             System.out.println(Arrays.toString(e.getStackTrace()));
         }
     }
+
+    private static void runStartupProbe(List<Config> bots) {
+        try (SharedResources shared = new SharedResources()) {
+            for (Config bot : bots) {
+                BotMetrics metrics = new BotMetrics();
+                BotRouter router = new BotRouter(StartupProbe.noOpClient(), shared.sendLimiter(metrics), bot, shared,
+                        metrics);
+                long firstUpdateMillis = StartupProbe.run(shared.mapper(), router);
+                System.out.println("Пробный прогон бота " + bot.name() + ": первое обновление через "
+                        + firstUpdateMillis + " мс после запуска процесса, " + router.metrics().summary());
+            }
+        } catch (JsonProcessingException e) {
+            System.out.println("Пробный прогон не удался: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Прогревает модули всех ботов до регистрации в Telegram, чтобы первые обновления
+     * не обрабатывал интерпретатор.
+     */
+    private static void warmUp(List<Config> bots) {
+        Set<ModuleKind> modules = EnumSet.noneOf(ModuleKind.class);
+        bots.forEach(bot -> modules.addAll(bot.modules()));
+        System.out.println("Прогрев модулей " + modules + ", не дольше " + WARMUP_MILLIS + " мс...");
+        WarmUp.Report report = new WarmUp(Duration.ofMillis(WARMUP_MILLIS)).run(modules);
+        System.out.println(report != null ? report.summary() : "Прогрев не удался, бот запускается без него");
+    }
+
+    /**
+     * Берёт блокировку активного узла и включает репликацию. Если блокировку держит резерв,
+     * уже принявший работу, узел ждёт и не опрашивает Telegram вместе с ним.
+     */
+    private static void startReplication(BotRouter router, int standbyPort) throws IOException, InterruptedException {
+        activeLock = ActiveLock.acquire(ActiveLock.pathFor(standbyPort));
+        ReplicationSender replication = new ReplicationSender(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), standbyPort), router::replicateAll);
+        router.setSessionReplicator(replication);
+        replication.start();
+        System.out.println("Репликация сессий на резервный узел, порт " + standbyPort);
+    }
+
+    /**
+     * Раз в {@value #METRICS_REPORT_MINUTES} минут пишет в лог метрики каждого бота.
+     */
+    private static void startMetricsReport(SharedResources shared, List<Config> bots, List<BotRouter> routers) {
+        shared.scheduler().scheduleWithFixedDelay(() -> {
+            for (int i = 0; i < bots.size(); i++) {
+                log.info("Бот {}: {}", bots.get(i).name(), routers.get(i).metrics().summary());
+            }
+        }, METRICS_REPORT_MINUTES, METRICS_REPORT_MINUTES, TimeUnit.MINUTES);
+    }
 }
@@ -0,0 +1,85 @@
+import bot.BotMetrics;
+import bot.BotRouter;
+import bot.SendRateLimiter;
+import bot.SharedResources;
+import cluster.ClusterFront;
+import cluster.ClusterWorker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.Config;
+import config.ConfigReaderEnvironment;
+import config.SystemEnvProvider;
+import org.telegram.telegrambots.longpolling.TelegramBotsLongPollingApplication;
+
+import java.net.URI;
+import java.util.Arrays;
+
+/**
+ * Точка входа кластерного режима: один фронт и несколько рабочих узлов на одной машине.
+ * <p>
+ * Использование:
+ * <ul>
+ *     <li>{@code ClusterApplication front [порт]} — получает обновления Telegram и распределяет чаты
+ *     по узлам (порт регистрации узлов по умолчанию {@value #DEFAULT_FRONT_PORT});</li>
+ *     <li>{@code ClusterApplication worker <порт> [порт фронта]} — узел со своими модулями бота,
+ *     отвечает пользователям напрямую через Telegram API.</li>
+ * </ul>
+ * Всем процессам нужен BOT_TOKEN. Каждый узел запускается из своего рабочего каталога:
+ * файлы {@code logs/} (статистика, пресеты, таблицы лидеров) у узлов свои.
+ */
+public class ClusterApplication {
+
+    private static final int DEFAULT_FRONT_PORT = 8090;
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !(args[0].equals("front") || args[0].equals("worker") && args.length >= 2)) {
+            System.out.println("Использование: ClusterApplication front [порт] | worker <порт> [порт фронта]");
+            return;
+        }
+        Config token = new ConfigReaderEnvironment(new SystemEnvProvider()).reader();
+        ObjectMapper mapper = new ObjectMapper();
+
+        try {
+            if (args[0].equals("front")) {
+                runFront(token, mapper, args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FRONT_PORT);
+            } else {
+                runWorker(token, mapper, Integer.parseInt(args[1]),
+                        args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_FRONT_PORT);
+            }
+        } catch (Exception e) {
+            System.out.println(Arrays.toString(e.getStackTrace()));
+        }
+    }
+
+    private static void runFront(Config token, ObjectMapper mapper, int port) throws Exception {
+        try (ClusterFront front = new ClusterFront(mapper, port);
+             TelegramBotsLongPollingApplication botApplication = new TelegramBotsLongPollingApplication()) {
+            front.start();
+            botApplication.registerBot(token.botToken(), front);
+            System.out.println("Фронт кластера запущен: " + front.uri());
+            Thread.currentThread().join();
+        }
+    }
+
+    private static void runWorker(Config token, ObjectMapper mapper, int port, int frontPort) throws Exception {
+        URI frontUri = URI.create("http://127.0.0.1:" + frontPort);
+        SharedResources shared = new SharedResources();
+        BotMetrics metrics = new BotMetrics();
+        SendRateLimiter limiter = shared.sendLimiter(metrics);
+        BotRouter router = new BotRouter(shared.telegramClient(token.botToken(), limiter), limiter, token, shared, metrics);
+        router.resolveBotUsername();
+        ClusterWorker worker = new ClusterWorker(router, router, mapper, port);
+        worker.start();
+        worker.join(frontUri);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                worker.leave(frontUri);
+            } catch (Exception e) {
+                System.out.println("Не удалось выйти из кластера: " + e.getMessage());
+            } finally {
+                worker.close();
+            }
+        }, "cluster-worker-leave"));
+        System.out.println("Узел кластера запущен: " + worker.address());
+        Thread.currentThread().join();
+    }
+}
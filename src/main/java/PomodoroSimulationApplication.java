@@ -0,0 +1,43 @@
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import pomodoro.bot.PomodoroSimulator;
+
+import java.time.Duration;
+
+/**
+ * Консольная точка входа для симуляции нагрузки Pomodoro-бота на виртуальном времени.
+ * <p>
+ * Использование: {@code java -cp sandbox-multi-bot.jar PomodoroSimulationApplication
+ * [пользователей] [часов] [--slab] [--seed=N] [--workers=N]}.
+ * По умолчанию 10000 пользователей, 24 часа, хранилище сессий на куче, 4 потока пула.
+ * Лог бота на время симуляции понижается до WARN, чтобы не писать строку на каждое сообщение.
+ */
+public class PomodoroSimulationApplication {
+    public static void main(String[] args) {
+        int users = 10_000;
+        long hours = 24;
+        boolean slab = false;
+        long seed = 42;
+        int workers = 4;
+        int positional = 0;
+
+        for (String arg : args) {
+            if (arg.equals("--slab")) {
+                slab = true;
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(arg.substring("--workers=".length()));
+            } else if (positional++ == 0) {
+                users = Integer.parseInt(arg);
+            } else {
+                hours = Long.parseLong(arg);
+            }
+        }
+
+        Configurator.setRootLevel(Level.WARN);
+        PomodoroSimulator.Report report = PomodoroSimulator.run(
+                new PomodoroSimulator.Options(users, Duration.ofHours(hours), seed, workers, slab));
+        System.out.println(report.summary());
+    }
+}
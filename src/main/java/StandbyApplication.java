@@ -0,0 +1,142 @@
+import bot.BotMetrics;
+import bot.BotRouter;
+import bot.SendRateLimiter;
+import bot.SharedResources;
+import config.Config;
+import config.ConfigReaderEnvironment;
+import config.SystemEnvProvider;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.telegram.telegrambots.longpolling.TelegramBotsLongPollingApplication;
+import pomodoro.bot.PomodoroSnapshot;
+import pomodoro.core.Phase;
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.core.SessionState;
+import replication.ActiveLock;
+import replication.ReplicationSender;
+import replication.StandbyReplica;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Точка входа резервного узла.
+ * <p>
+ * Использование:
+ * <ul>
+ *     <li>{@code StandbyApplication [порт] [--silence=секунд]} — принимает реплику сессий Pomodoro
+ *     от активного бота, запущенного с {@code -Dreplication.standbyPort=порт} (по умолчанию
+ *     {@value #DEFAULT_PORT}). Если активный узел молчит дольше {@code silence} секунд (по умолчанию
+ *     {@link StandbyReplica#DEFAULT_SILENCE}) и его процесс отпустил блокировку активного узла
+ *     ({@link ActiveLock}), резерв восстанавливает сессии с их дедлайнами и сам начинает получать
+ *     обновления по BOT_TOKEN;</li>
+ *     <li>{@code StandbyApplication --bench[=записей]} — замер пропускной способности и задержки
+ *     репликации через loopback без Telegram.</li>
+ * </ul>
+ */
+public class StandbyApplication {
+
+    private static final int DEFAULT_PORT = 9100;
+    private static final long REPORT_INTERVAL_SECONDS = 10;
+    private static final int BENCH_IN_FLIGHT = 1_024;
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        Duration silence = StandbyReplica.DEFAULT_SILENCE;
+        int bench = 0;
+
+        for (String arg : args) {
+            if (arg.startsWith("--silence=")) {
+                silence = Duration.ofSeconds(Long.parseLong(arg.substring("--silence=".length())));
+            } else if (arg.equals("--bench")) {
+                bench = 1_000_000;
+            } else if (arg.startsWith("--bench=")) {
+                bench = Integer.parseInt(arg.substring("--bench=".length()));
+            } else {
+                port = Integer.parseInt(arg);
+            }
+        }
+
+        try {
+            if (bench > 0) {
+                runBenchmark(bench);
+            } else {
+                runStandby(port, silence);
+            }
+        } catch (Exception e) {
+            System.out.println(Arrays.toString(e.getStackTrace()));
+        }
+    }
+
+    private static void runStandby(int port, Duration silence) throws Exception {
+        Config token = new ConfigReaderEnvironment(new SystemEnvProvider()).reader();
+        StandbyReplica replica = new StandbyReplica(port);
+        replica.start();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> System.out.println("Реплика: " + replica.summary()),
+                REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        System.out.println("Резервный узел ждёт активный на " + replica.address());
+
+        ActiveLock lock = replica.awaitActiveStopped(silence, ActiveLock.pathFor(port));
+        reporter.shutdownNow();
+        long started = System.nanoTime();
+        List<PomodoroSnapshot> snapshots = replica.takeOver();
+        SharedResources shared = new SharedResources();
+        BotMetrics metrics = new BotMetrics();
+        SendRateLimiter limiter = shared.sendLimiter(metrics);
+        BotRouter router = new BotRouter(shared.telegramClient(token.botToken(), limiter), limiter, token, shared, metrics);
+        router.importSessions(snapshots.stream().map(PomodoroSnapshot::toCsv).toList());
+        try (lock; TelegramBotsLongPollingApplication botApplication = new TelegramBotsLongPollingApplication()) {
+            botApplication.registerBot(token.botToken(), router);
+            System.out.printf("Резерв принял работу за %d мс, восстановлено сессий: %d%n",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), snapshots.size());
+            // имя бота узнаётся уже после перехода, чтобы не удлинять его
+            router.resolveBotUsername();
+            Thread.currentThread().join();
+        }
+    }
+
+    /**
+     * Гонит {@code records} изменений сессий через loopback, держа в очереди отправителя
+     * не больше {@value #BENCH_IN_FLIGHT} записей, и печатает скорость и задержку применения.
+     */
+    private static void runBenchmark(int records) throws Exception {
+        Configurator.setRootLevel(Level.WARN);
+        PomodoroServiceSettings settings = new PomodoroServiceSettings(
+                Duration.ofMinutes(25), Duration.ofMinutes(5), Duration.ofMinutes(15), 4);
+        Instant start = Instant.now();
+        try (StandbyReplica replica = new StandbyReplica(0);
+             ReplicationSender sender = new ReplicationSender(replica.address(), () -> {
+             })) {
+            replica.start();
+            sender.start();
+            while (sender.resyncCount() == 0) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            long began = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                while (i - sender.sentCount() > BENCH_IN_FLIGHT) {
+                    Thread.onSpinWait();
+                }
+                sender.sessionChanged(new PomodoroSnapshot(i % 10_000, SessionState.RUNNING, Phase.WORK, start,
+                        Duration.ofMinutes(25), i % 4, false, settings, null));
+            }
+            while (replica.recordCount() < records) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            System.out.printf("Записей: %d за %.2f с — %.0f записей/с, %.1f МБ/с%n",
+                    records, seconds, records / seconds, replica.byteCount() / seconds / (1 << 20));
+            System.out.println("Задержка репликации: " + replica.lag().summary());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import bot.utils.CsvResourceReader;
+import bot.utils.StatsUtils;
+import pomodoro.bot.PomodoroPaths;
+import pomodoro.core.StatsReport;
+import pomodoro.service.StatsReportEngine;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Консольная точка входа для сводного отчёта по статистике Pomodoro.
+ * <p>
+ * Использование: {@code java -cp sandbox-multi-bot.jar StatsReportApplication [каталог] [--full]}.
+ * По умолчанию читает каталог {@code logs} и продолжает с результатов прошлого запуска;
+ * ключ {@code --full} пересчитывает отчёт с нуля.
+ */
+public class StatsReportApplication {
+    public static void main(String[] args) {
+        Path statsDir = Path.of(PomodoroPaths.LOGS_DIR);
+        boolean incremental = true;
+
+        for (String arg : args) {
+            if (arg.equals("--full")) {
+                incremental = false;
+            } else {
+                statsDir = Path.of(arg);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            StatsReportEngine engine = new StatsReportEngine(
+                    statsDir,
+                    statsDir.resolve(PomodoroPaths.REPORT_STATE_FILE),
+                    new CsvResourceReader(),
+                    pool,
+                    Clock.systemDefaultZone());
+            StatsReport report = engine.run(incremental);
+            System.out.println(new StatsUtils().getReportMessage(report, engine.today()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package bot;
+
+import movie_quiz.service.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики одного бота: обработка обновлений и вызовы Telegram API.
+ * <p>
+ * Боты одного процесса делят HTTP-клиент и пулы потоков, поэтому метрики ведутся отдельно,
+ * чтобы было видно, какой бот нагружает общие ресурсы и упирается в свой лимит отправки.
+ */
+public class BotMetrics {
+
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong apiCalls = new AtomicLong();
+    private final AtomicLong apiErrors = new AtomicLong();
+    private final AtomicLong tooManyRequests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private final LatencyHistogram updateLatency = new LatencyHistogram();
+    private final LatencyHistogram apiLatency = new LatencyHistogram();
+
+    /**
+     * Учитывает обработанное обновление.
+     *
+     * @param nanos время обработки, нс
+     */
+    public void updateHandled(long nanos) {
+        updates.incrementAndGet();
+        updateLatency.record(nanos);
+    }
+
+    /**
+     * Учитывает вызов Telegram API.
+     *
+     * @param nanos      время вызова, нс
+     * @param statusCode HTTP-код ответа или -1, если ответа нет
+     */
+    public void apiCalled(long nanos, int statusCode) {
+        apiCalls.incrementAndGet();
+        apiLatency.record(nanos);
+        if (statusCode == 429) {
+            tooManyRequests.incrementAndGet();
+        }
+        if (statusCode < 200 || statusCode >= 300) {
+            apiErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Учитывает вызов, который ждал свободного места в лимите отправки.
+     *
+     * @param nanos время ожидания, нс
+     */
+    public void throttled(long nanos) {
+        throttled.incrementAndGet();
+        throttledNanos.addAndGet(nanos);
+    }
+
+    /**
+     * @return число обработанных обновлений
+     */
+    public long updateCount() {
+        return updates.get();
+    }
+
+    /**
+     * @return число вызовов Telegram API
+     */
+    public long apiCallCount() {
+        return apiCalls.get();
+    }
+
+    /**
+     * @return число вызовов, ждавших лимита отправки
+     */
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    /**
+     * @return строка с числом обновлений, вызовов API, ошибок, ожиданий лимита и задержками для лога
+     */
+    public String summary() {
+        return "обновлений=%d (%s), вызовов API=%d (%s), ошибок=%d, из них 429=%d, ожиданий лимита=%d на %d мс".formatted(
+                updates.get(), updateLatency.summary(), apiCalls.get(), apiLatency.summary(),
+                apiErrors.get(), tooManyRequests.get(), throttled.get(),
+                TimeUnit.NANOSECONDS.toMillis(throttledNanos.get()));
+    }
+}
@@ -1,254 +1,705 @@
 package bot;
 
+import bot.utils.AssetCache;
+import bot.utils.PhotoCache;
 import bot.utils.ReplyUtils;
+import cluster.SessionHandoff;
 import command.CommandDispatcher;
+import command.CommandMatcher;
+import command.CommandMovieQuiz;
+import command.CommandMyRank;
+import command.CommandPomodoro;
+import command.CommandQuizStats;
+import command.CommandStart;
+import command.CommandTop;
+import command.LazyCommand;
+import config.Config;
+import config.ModuleKind;
 import markups.PomodoroKeyboardFactory;
 import movie_quiz.bot.BotReply;
 import movie_quiz.bot.MovieQuizBot;
+import movie_quiz.bot.MovieQuizMessages;
+import movie_quiz.bot.QuizSender;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateConsumer;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.GetMe;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 import pomodoro.bot.PomodoroBot;
+import pomodoro.bot.PomodoroMessages;
+import pomodoro.bot.PomodoroPaths;
 import pomodoro.bot.PomodoroReply;
 import pomodoro.bot.PomodoroSender;
+import pomodoro.bot.PomodoroSnapshot;
+import pomodoro.bot.SessionReplicator;
+
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
 
 /**
  * Маршрутизатор обновлений Telegram:
  * принимает {@link Update}, определяет тип сообщения
- * и перенаправляет его в обработчики команд и квиза.
+ * и перенаправляет его в обработчики команд или в модуль с активной сессией.
+ * <p>
+ * Модули описываются маршрутами {@link ModuleRoute} в {@link ModuleRegistry};
+ * отправка ответов всех модулей идёт через общий этап {@link #sendReply}.
+ * <p>
+ * Маршрутизатор обслуживает один бот: у него свои модули, картинки ({@link PhotoCache}) и метрики
+ * ({@link BotMetrics}), а пулы потоков и данные модулей берутся из {@link SharedResources} процесса.
+ * Модули, выключенные в конфигурации бота, не создаются, и их команды не регистрируются.
+ * Включённые модули создаются при первой команде модуля ({@link LazyModule}): до неё бот не читает
+ * каталог фильмов и мотивационные картинки и не запускает пулы потоков модулей.
+ * <p>
+ * В кластерном режиме маршрутизатор работает на узле и отдаёт или принимает сессии Pomodoro
+ * переходящих чатов ({@link SessionHandoff}). Сессии квиза короткие и не переносятся: квиз
+ * переходящего чата нужно начать заново.
+ * <p>
+ * Сообщения, которые модули отправляют сами, вне обработки обновления ({@link QuizSender},
+ * {@link PomodoroSender}), уходят через очередь отправки бота ({@code outbox}) — свой поток на каждый бот. Потоки планировщиков
+ * модулей не ждут ни Telegram, ни лимита отправки бота ({@link SendRateLimiter}). Правки живых статусов
+ * тоже идут через очередь и входят в лимит бота; тикер ставит их, только пока в лимите есть место
+ * сверх уже поставленных сообщений ({@link #liveStatusBudget()}).
  */
-public class BotRouter implements LongPollingSingleThreadUpdateConsumer, PomodoroSender {
+public class BotRouter implements LongPollingSingleThreadUpdateConsumer, PomodoroSender, QuizSender, SessionHandoff {
 
     private static final Logger log = LogManager.getLogger(BotRouter.class);
 
+    private static final long USERNAME_RETRY_MIN_MILLIS = 60_000;
+    private static final long USERNAME_RETRY_MAX_MILLIS = 30 * 60_000;
+
     private final TelegramClient client;
     private final CommandDispatcher commandDispatcher;
-    private MovieQuizBot movieQuizBot;
-    private PomodoroBot pomodoroBot;
+    private final ModuleRegistry moduleRegistry = new ModuleRegistry();
+    private final LazyModule<PomodoroBot> pomodoroBot;
+    private volatile ModuleRoute<BotReply> quizRoute;
+    private volatile ModuleRoute<PomodoroReply> pomodoroRoute;
+    private volatile SessionReplicator replicator;
+    private final PomodoroKeyboardFactory pomodoroKeyboardFactory = new PomodoroKeyboardFactory();
+    private final PhotoCache photos;
+    private final BotMetrics metrics;
+    private final AtomicBoolean firstUpdate = new AtomicBoolean(true);
+    private final Executor outbox;
+    private final SendRateLimiter limiter;
+    /**
+     * Отправки, поставленные в очередь и ещё не начатые: они займут лимит раньше правок живых статусов.
+     */
+    private final AtomicInteger queuedSends = new AtomicInteger();
+    private volatile String botUsername;
+    private volatile long usernameRetryAt = System.nanoTime();
+    private long usernameRetryDelayMillis = USERNAME_RETRY_MIN_MILLIS;
 
     /**
-     * Создаёт маршрутизатор с новым экземпляром квиз-бота.
+     * Создаёт маршрутизатор с новыми экземплярами модулей.
      *
      * @param client Telegram-клиент для отправки сообщений
      */
     public BotRouter(TelegramClient client) {
+        this(client, Set.of());
+    }
+
+    /**
+     * Создаёт маршрутизатор единственного бота процесса со всеми модулями.
+     *
+     * @param client       Telegram-клиент для отправки сообщений
+     * @param adminChatIds идентификаторы чатов администраторов для служебных команд
+     */
+    public BotRouter(TelegramClient client, Set<Long> adminChatIds) {
+        this(client, adminChatIds, EnumSet.allOf(ModuleKind.class), new SharedResources(), new BotMetrics(),
+                Path.of(PomodoroPaths.LOGS_DIR));
+    }
+
+    private BotRouter(TelegramClient client,
+                      Set<Long> adminChatIds,
+                      Set<ModuleKind> modules,
+                      SharedResources shared,
+                      BotMetrics metrics,
+                      Path dataDir) {
+        this(client, shared.sendLimiter(metrics), adminChatIds, modules, shared, metrics, dataDir);
+    }
+
+    /**
+     * Создаёт маршрутизатор одного из ботов процесса.
+     *
+     * @param client  Telegram-клиент бота
+     * @param limiter лимит отправки, с которым создан клиент
+     * @param config  конфигурация бота: администраторы и включённые модули
+     * @param shared  общие ресурсы процесса
+     * @param metrics метрики бота
+     */
+    public BotRouter(TelegramClient client, SendRateLimiter limiter, Config config, SharedResources shared,
+                     BotMetrics metrics) {
+        this(client, limiter, config, shared, metrics, dataDir(config));
+    }
+
+    /**
+     * Создаёт маршрутизатор, который хранит файлы модулей в заданном каталоге.
+     *
+     * @param client  Telegram-клиент бота
+     * @param limiter лимит отправки, с которым создан клиент
+     * @param config  конфигурация бота: администраторы и включённые модули
+     * @param shared  общие ресурсы процесса
+     * @param metrics метрики бота
+     * @param dataDir каталог файлов модулей
+     */
+    public BotRouter(TelegramClient client, SendRateLimiter limiter, Config config, SharedResources shared,
+                     BotMetrics metrics, Path dataDir) {
+        this(client, limiter, config.adminChatIds(), config.modules(), shared, metrics, dataDir);
+    }
+
+    private BotRouter(TelegramClient client,
+                      SendRateLimiter limiter,
+                      Set<Long> adminChatIds,
+                      Set<ModuleKind> modules,
+                      SharedResources shared,
+                      BotMetrics metrics,
+                      Path dataDir) {
         this.client = client;
-        this.movieQuizBot = new MovieQuizBot();
-        this.pomodoroBot = new PomodoroBot(this);
-        this.commandDispatcher = new CommandDispatcher(client, movieQuizBot, pomodoroBot);
+        this.limiter = limiter;
+        this.metrics = metrics;
+        this.outbox = newOutbox();
+        this.photos = new PhotoCache(shared.assets());
+        this.commandDispatcher = new CommandDispatcher()
+                .register("/start", new CommandStart(client, modules));
+        if (modules.contains(ModuleKind.MOVIE_QUIZ)) {
+            LazyModule<MovieQuizBot> quiz = new LazyModule<>("MovieQuiz", () -> attachQuiz(
+                    new MovieQuizBot(this, shared.catalog(), shared.quizScheduler(), dataDir)));
+            commandDispatcher
+                    .register("/playmoviequiz", new LazyCommand(() ->
+                            new CommandMovieQuiz(client, quiz.get(), false, photos)))
+                    .register("/daily", new LazyCommand(() -> new CommandMovieQuiz(client, quiz.get(), true, photos)))
+                    .register("/top", new LazyCommand(() -> new CommandTop(client, quiz.get().getLeaderboards())))
+                    .register("/myrank", new LazyCommand(() -> new CommandMyRank(client, quiz.get().getLeaderboards())))
+                    .register("/quizstats", new LazyCommand(() ->
+                            new CommandQuizStats(client, quiz.get().getMovieStats(), adminChatIds)));
+        }
+        if (modules.contains(ModuleKind.POMODORO)) {
+            LazyModule<PomodoroBot> pomodoro = new LazyModule<>("Pomodoro", () -> attachPomodoro(
+                    new PomodoroBot(this, shared.motivationPhotos(), shared.scheduler(), shared.pomodoroActors(),
+                            shared.statsExecutor(), dataDir)));
+            commandDispatcher.register("/startpomodoro",
+                    new LazyCommand(() -> new CommandPomodoro(pomodoro.get())));
+            this.pomodoroBot = pomodoro;
+        } else {
+            this.pomodoroBot = null;
+        }
     }
 
     /**
-     * Специальный конструктор для удобного тестирования
+     * Специальный конструктор для удобного тестирования: сообщения модулей отправляются
+     * в вызывающем потоке
      */
     BotRouter(TelegramClient client,
               CommandDispatcher commandDispatcher,
               MovieQuizBot quizBot,
               PomodoroBot pomodoroBot) {
+        this(client, commandDispatcher, quizBot, pomodoroBot, Runnable::run);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    BotRouter(TelegramClient client,
+              CommandDispatcher commandDispatcher,
+              MovieQuizBot quizBot,
+              PomodoroBot pomodoroBot,
+              Executor outbox) {
         this.client = client;
+        this.outbox = outbox;
         this.commandDispatcher = commandDispatcher;
-        this.movieQuizBot = quizBot;
-        this.pomodoroBot = pomodoroBot;
+        this.photos = new PhotoCache(new AssetCache(BotRouter.class.getClassLoader()));
+        this.metrics = new BotMetrics();
+        this.limiter = new SendRateLimiter(30, 30, metrics);
+        this.quizRoute = quizRoute(quizBot);
+        this.pomodoroRoute = pomodoroRoute(pomodoroBot);
+        moduleRegistry.register(quizRoute);
+        moduleRegistry.register(pomodoroRoute);
+        this.pomodoroBot = LazyModule.of("Pomodoro", pomodoroBot);
+    }
+
+    /**
+     * Подключает только что созданный кино-квиз к маршрутизатору.
+     */
+    private MovieQuizBot attachQuiz(MovieQuizBot movieQuizBot) {
+        quizRoute = quizRoute(movieQuizBot);
+        moduleRegistry.register(quizRoute);
+        movieQuizBot.setSessionListener(moduleRegistry);
+        return movieQuizBot;
+    }
+
+    /**
+     * Подключает только что созданный Pomodoro к маршрутизатору и включает ему репликацию,
+     * если её включили раньше.
+     */
+    private PomodoroBot attachPomodoro(PomodoroBot pomodoro) {
+        pomodoroRoute = pomodoroRoute(pomodoro);
+        moduleRegistry.register(pomodoroRoute);
+        pomodoro.setSessionListener(moduleRegistry);
+        if (replicator != null) {
+            pomodoro.setReplicator(replicator);
+        }
+        return pomodoro;
+    }
+
+    /**
+     * Очередь отправки бота: один поток, чтобы сообщения одного чата уходили по порядку.
+     * Поток завершается, когда отправлять нечего, поэтому маршрутизатор не нужно закрывать.
+     */
+    private static Executor newOutbox() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "bot-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Файлы единственного бота лежат прямо в logs/, файлы именованных ботов — в logs/имя/.
+     */
+    private static Path dataDir(Config config) {
+        return Config.DEFAULT_NAME.equals(config.name())
+                ? Path.of(PomodoroPaths.LOGS_DIR)
+                : Path.of(PomodoroPaths.LOGS_DIR, config.name());
+    }
+
+    private static ModuleRoute<BotReply> quizRoute(MovieQuizBot quizBot) {
+        return new ModuleRoute<>(
+                "MovieQuiz",
+                quizBot,
+                MovieQuizMessages.SESSION_ALREADY_RUNNING,
+                ReplyUtils::sendPhotoQuiz,
+                ReplyUtils::sendMessageQuiz,
+                reply -> reply.text().isBlank(),
+                MovieQuizMessages.PHOTO_FALLBACK_SUFFIX);
+    }
+
+    private static ModuleRoute<PomodoroReply> pomodoroRoute(PomodoroBot pomodoroBot) {
+        return new ModuleRoute<>(
+                "Pomodoro",
+                pomodoroBot,
+                PomodoroMessages.SESSION_ALREADY_RUNNING,
+                (reply, chatId, photos) -> reply.imagePath() != null
+                        ? ReplyUtils.sendPhotoPomodoro(reply, chatId, photos)
+                        : null,
+                ReplyUtils::sendMessagePomodoro,
+                reply -> reply.text().isBlank() && reply.imagePath() == null,
+                PomodoroMessages.PHOTO_FALLBACK_SUFFIX);
+    }
+
+    ModuleRegistry moduleRegistry() {
+        return moduleRegistry;
+    }
+
+    /**
+     * @return метрики бота
+     */
+    public BotMetrics metrics() {
+        return metrics;
     }
 
     /**
      * Обрабатывает входящее обновление Telegram.
      * <ul>
-     *     <li>Игнорирует обновления без текстового сообщения.</li>
-     *     <li>Команды (начинаются с '/') отправляет в {@link CommandDispatcher}.</li>
-     *     <li>Остальные сообщения либо отклоняет без активной сессии квиза,
-     *     либо передаёт в {@link MovieQuizBot}.</li>
+     *     <li>Нажатия инлайн-кнопок передаёт модулю с активной сессией и подтверждает через
+     *     answerCallbackQuery.</li>
+     *     <li>Игнорирует остальные обновления без текстового сообщения.</li>
+     *     <li>Команды (начинаются с '/') отправляет в {@link CommandDispatcher},
+     *     если в чате нет активной сессии какого-либо модуля.</li>
+     *     <li>Остальные сообщения передаёт модулю с активной сессией
+     *     или отвечает системным сообщением, если сессии нет.</li>
      * </ul>
      *
      * @param update обновление от Telegram
      */
     @Override
     public void consume(Update update) {
+        long started = System.nanoTime();
+        try {
+            route(update);
+        } finally {
+            metrics.updateHandled(System.nanoTime() - started);
+            if (firstUpdate.compareAndSet(true, false)) {
+                log.info("Первое обновление обработано через {} мс после запуска процесса",
+                        StartupClock.millisSinceStart());
+            }
+        }
+    }
+
+    private void route(Update update) {
         if (update == null) {
             log.error("Получено null update");
             return;
         }
 
+        if (update.hasCallbackQuery()) {
+            handleCallback(update.getCallbackQuery());
+            return;
+        }
+
         if (!update.hasMessage() || !update.getMessage().hasText()) {
             log.debug("Пропуск обновления без текстового сообщения: updateId={}", update.getUpdateId());
             return;
         }
 
-        String messageText = update.getMessage().getText().stripLeading();
+        String messageText = update.getMessage().getText();
         Long chatId = update.getMessage().getChatId();
+        ModuleRoute<?> activeRoute = moduleRegistry.activeRoute(chatId);
 
-        if (messageText.startsWith("/")) {
-            if (movieQuizBot.hasSession(chatId)) {
-                SendMessage message = SendMessage.builder()
-                        .chatId(chatId)
-                        .text("\uD83C\uDFAC Квиз уже запущен.\n" +
-                                "\n" +
-                                "❌ Нельзя одновременно запускать два бота.\n" +
-                                "\uD83D\uDCFD Сначала завершите работу с ботом Movie Quiz, а потом попробуйте запустить другого.\n")
-                        .build();
-                log.warn("Попытка запустить commandText={} для chatId={}, когда movieQuizBot уже запущен.", messageText, chatId);
-                try {
-                    client.execute(message);
-                } catch (TelegramApiException e) {
-                    log.error("Ошибка при отправке ответа movieQuizBot в чат chatId={}", chatId, e);
-                }
-            }
-            if (pomodoroBot.hasSession(chatId)) {
-                SendMessage message = SendMessage.builder()
-                        .chatId(chatId)
-                        .text("\uD83E\uDD16 У вас уже запущен бот Pomodoro.\n" +
-                                "\uD83C\uDF45 Пожалуйста, сначала завершите текущую сессию, а затем запускайте другого бота.\n")
-                        .build();
-                log.warn("Попытка запустить commandText={} для chatId={}, когда PomodoroBot уже запущен.", messageText, chatId);
-
-                try {
-                    client.execute(message);
-                } catch (TelegramApiException e) {
-                    log.error("Ошибка при отправке ответа Pomodoro в чат chatId={}", chatId, e);
-                }
+        if (isCommand(messageText)) {
+            String botUsername = messageText.indexOf('@') >= 0 ? botUsername() : null;
+            if (!CommandMatcher.isAddressedTo(messageText, botUsername)) {
+                log.debug("Пропуск команды другому боту '{}' в chatId={}", messageText, chatId);
                 return;
             }
-            if (!movieQuizBot.hasSession(chatId) && !pomodoroBot.hasSession(chatId)) {
-                log.info("Получена команда '{}' от chatId={}", messageText, chatId);
-                commandDispatcher.dispatch(messageText, update);
+            if (activeRoute != null) {
+                log.warn("Попытка запустить commandText={} для chatId={}, когда {} уже запущен.",
+                        messageText, chatId, activeRoute.name());
+                sendText(chatId, activeRoute.busyMessage());
                 return;
             }
+            log.info("Получена команда '{}' от chatId={}", messageText, chatId);
+            commandDispatcher.dispatch(messageText, botUsername, update);
+            return;
         }
 
-        if (!movieQuizBot.hasSession(chatId) && !pomodoroBot.hasSession(chatId)) {
-
+        if (activeRoute == null) {
             var from = update.getMessage().getFrom();
             String firstName = from != null ? from.getFirstName() : "unknown";
             String userName = from != null ? from.getUserName() : "unknown";
             log.info("Получено обычное сообщение без активной сессии, chatId={}, firstName={}, userName={}, text={}",
                     chatId, firstName, userName, messageText);
 
-            SendMessage message = SendMessage.builder()
-                    .chatId(chatId)
-                    .text("Сейчас я понимаю только команды, выберите в меню новую команду или введите вручную.\n")
-                    .build();
-
-            try {
-                client.execute(message);
-            } catch (TelegramApiException e) {
-                log.error("Не удалось отправить системное сообщение пользователю, chatId={}", chatId, e);
-            }
+            sendText(chatId, "Сейчас я понимаю только команды, выберите в меню новую команду или введите вручную.\n");
+            return;
         }
 
-        if (movieQuizBot.hasSession(chatId)) {
-            log.info("Обработка ответа квиза от chatId={}", chatId);
+        log.info("Обработка ответа {} от chatId={}", activeRoute.name(), chatId);
+        handleWithModule(activeRoute, update, chatId);
+    }
 
-            BotReply reply = movieQuizBot.handleAnswer(update);
-            SendPhoto sendPhoto = ReplyUtils.sendPhotoQuiz(reply, chatId, getClass().getClassLoader());
-            SendMessage sendMessage = ReplyUtils.sendMessageQuiz(reply, chatId);
+    private <R> void handleWithModule(ModuleRoute<R> route, Update update, Long chatId) {
+        R reply = route.module().handleAnswer(update);
+        sendReply(route, chatId, reply);
+    }
 
-            try {
-                if (sendPhoto != null) {
-                    client.execute(sendPhoto);
-                }
-                client.execute(sendMessage);
-            } catch (TelegramApiException e) {
-                log.error("Ошибка при отправке ответа квиза в чат chatId={}", chatId, e);
-                SendMessage fallback = SendMessage.builder()
-                        .chatId(chatId)
-                        .text(sendMessage.getText() + "\n\n(⚠️ Картинку отправить не удалось из-за ошибки соединения.)")
-                        .build();
-                try {
-                    client.execute(fallback);
-                } catch (TelegramApiException ex) {
-                    log.error("Ошибка при отправке fallback-сообщения квиза в чат chatId={}", chatId, ex);
-                }
-            }
+    private void handleCallback(CallbackQuery callbackQuery) {
+        if (callbackQuery.getMessage() == null) {
+            log.debug("Пропуск нажатия кнопки без сообщения: callbackId={}", callbackQuery.getId());
+            answerCallback(callbackQuery, MovieQuizMessages.STALE_ANSWER);
+            return;
         }
 
-        if (pomodoroBot.hasSession(chatId)) {
-            log.info("Обработка ответа Pomodoro от chatId={}", chatId);
-
-            PomodoroReply reply = pomodoroBot.handleAnswer(update);
-            SendPhoto sendPhoto = null;
-
-            if (reply.imagePath() != null) {
-                sendPhoto = ReplyUtils.sendPhotoPomodoro(reply, chatId, getClass().getClassLoader());
-            }
-
-            SendMessage sendMessage = ReplyUtils.sendMessagePomodoro(reply, chatId);
-
-            try {
-                if (sendPhoto != null) {
-                    client.execute(sendPhoto);
-                }
-                if (sendMessage == null || sendMessage.getText().isBlank()) {
-                    log.warn("Пропуск отправки пустого сообщения Pomodoro для chatId={}", chatId);
-                    return;
-                }
-                client.execute(sendMessage);
-            } catch (TelegramApiException e) {
-                log.error("Ошибка при отправке ответа Pomodoro в чат chatId={}", chatId, e);
-                SendMessage fallback = SendMessage.builder()
-                        .chatId(chatId)
-                        .text(sendMessage.getText() + "\n\n(⚠️ Мотивашку с картинкой отправить не удалось из-за ошибки соединения.)")
-                        .build();
-                try {
-                    client.execute(fallback);
-                } catch (TelegramApiException ex) {
-                    log.error("Ошибка при отправке fallback-сообщения Pomodoro в чат chatId={}", chatId, ex);
-                }
-            }
+        Long chatId = callbackQuery.getMessage().getChatId();
+        ModuleRoute<?> activeRoute = moduleRegistry.activeRoute(chatId);
+        if (activeRoute == null || !handleCallbackWithModule(activeRoute, callbackQuery, chatId)) {
+            answerCallback(callbackQuery, MovieQuizMessages.STALE_ANSWER);
         }
     }
 
-    @Override
-    public void sendPomodoroReply(Long chatId, PomodoroReply reply) {
-        log.info("Обработка сигнала планировщика Pomodoro для chatId={}", chatId);
-
-        SendPhoto sendPhoto = null;
+    private <R> boolean handleCallbackWithModule(ModuleRoute<R> route, CallbackQuery callbackQuery, Long chatId) {
+        R reply = route.module().handleCallback(callbackQuery);
+        if (reply == null) {
+            return false;
+        }
+        log.info("Обработка нажатия кнопки {} от chatId={}", route.name(), chatId);
+        answerCallback(callbackQuery, null);
+        sendReply(route, chatId, reply);
+        return true;
+    }
 
-        if (reply.imagePath() != null) {
-            sendPhoto = ReplyUtils.sendPhotoPomodoro(reply, chatId, getClass().getClassLoader());
+    /**
+     * Подтверждает нажатие инлайн-кнопки, чтобы Telegram убрал индикатор загрузки.
+     *
+     * @param text всплывающее уведомление или null
+     */
+    private void answerCallback(CallbackQuery callbackQuery, String text) {
+        AnswerCallbackQuery answer = AnswerCallbackQuery.builder()
+                .callbackQueryId(callbackQuery.getId())
+                .text(text)
+                .build();
+        try {
+            client.execute(answer);
+        } catch (TelegramApiException e) {
+            log.error("Не удалось подтвердить нажатие кнопки, callbackId={}", callbackQuery.getId(), e);
         }
+    }
 
-        SendMessage sendMessage = ReplyUtils.sendMessagePomodoro(reply, chatId);
+    /**
+     * Общий этап отправки ответа модуля: фото (если есть), затем текст.
+     * Ответ «принято молча» ({@link ModuleRoute#silent()}) — обычный случай: модуль принял сообщение
+     * и ответит позже или не ответит вовсе, например ответ в групповом раунде или действие Pomodoro.
+     * При ошибке отправки пытается доставить хотя бы текст с припиской о сбое.
+     */
+    private <R> void sendReply(ModuleRoute<R> route, Long chatId, R reply) {
+        if (reply != null && route.silent().test(reply)) {
+            log.debug("Ответ {} для chatId={} принят молча, отправлять нечего", route.name(), chatId);
+            return;
+        }
+        SendPhoto sendPhoto = route.photoFactory().create(reply, chatId, photos);
+        SendMessage sendMessage = route.messageFactory().create(reply, chatId);
 
         try {
             if (sendPhoto != null) {
-                client.execute(sendPhoto);
+                photos.remember(sendPhoto, client.execute(sendPhoto));
             }
             if (sendMessage == null || sendMessage.getText().isBlank()) {
-                log.warn("Пропуск отправки пустого сообщения Pomodoro для chatId={}", chatId);
+                log.warn("Пропуск отправки пустого сообщения {} для chatId={}", route.name(), chatId);
                 return;
             }
             client.execute(sendMessage);
         } catch (TelegramApiException e) {
-            log.error("Ошибка при отправке ответа Pomodoro в чат chatId={}", chatId, e);
+            log.error("Ошибка при отправке ответа {} в чат chatId={}", route.name(), chatId, e);
+            if (sendMessage == null) {
+                return;
+            }
             SendMessage fallback = SendMessage.builder()
                     .chatId(chatId)
-                    .text(sendMessage.getText() + "\n\n(⚠️ Мотивашку с картинкой отправить не удалось из-за ошибки соединения.)")
+                    .text(sendMessage.getText() + route.fallbackSuffix())
                     .build();
             try {
                 client.execute(fallback);
             } catch (TelegramApiException ex) {
-                log.error("Ошибка при отправке fallback-сообщения Pomodoro в чат chatId={}", chatId, ex);
+                log.error("Ошибка при отправке fallback-сообщения {} в чат chatId={}", route.name(), chatId, ex);
             }
         }
     }
 
-    @Override
-    public void sendFinalStatsQuestion(Long chatId, String text) {
-        PomodoroKeyboardFactory factory = new PomodoroKeyboardFactory();
+    private void sendText(Long chatId, String text) {
         SendMessage message = SendMessage.builder()
                 .chatId(chatId)
                 .text(text)
-                .replyMarkup(factory.createFinalAskKeyboard())
                 .build();
         try {
             client.execute(message);
         } catch (TelegramApiException e) {
-            log.error("Ошибка при отправке вопроса о выводе статистики Pomodoro в чат chatId={}", chatId, e);
+            log.error("Не удалось отправить системное сообщение пользователю, chatId={}", chatId, e);
+        }
+    }
+
+    /**
+     * Узнаёт имя бота в Telegram для проверки суффикса {@code @ИмяБота} у команд в группах.
+     * Вызывается при запуске, до опроса обновлений. Если узнать не удалось, следующая попытка
+     * будет при команде с суффиксом, но не раньше, чем через растущую паузу
+     * от {@value #USERNAME_RETRY_MIN_MILLIS} до {@value #USERNAME_RETRY_MAX_MILLIS} мс.
+     *
+     * @return true, если имя известно
+     */
+    public synchronized boolean resolveBotUsername() {
+        if (botUsername != null) {
+            return true;
+        }
+        try {
+            User me = client.execute(new GetMe());
+            if (me != null && me.getUserName() != null) {
+                botUsername = me.getUserName();
+                log.info("Имя бота в Telegram: @{}", botUsername);
+                return true;
+            }
+            log.warn("Telegram не вернул имя бота, повтор через {} мс; до этого суффикс @ИмяБота не проверяется",
+                    usernameRetryDelayMillis);
+        } catch (TelegramApiException e) {
+            log.warn("Не удалось узнать имя бота, повтор через {} мс; до этого суффикс @ИмяБота не проверяется",
+                    usernameRetryDelayMillis, e);
+        }
+        usernameRetryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(usernameRetryDelayMillis);
+        usernameRetryDelayMillis = Math.min(usernameRetryDelayMillis * 2, USERNAME_RETRY_MAX_MILLIS);
+        return false;
+    }
+
+    /**
+     * @return имя бота или null, если его пока не удалось узнать: тогда команды принимаются
+     * без проверки суффикса
+     */
+    private String botUsername() {
+        if (botUsername == null && System.nanoTime() - usernameRetryAt >= 0) {
+            resolveBotUsername();
+        }
+        return botUsername;
+    }
+
+    /**
+     * Проверяет, что первый непробельный символ сообщения — '/', не копируя строку.
+     */
+    private static boolean isCommand(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '/';
+            }
         }
+        return false;
+    }
+
+    @Override
+    public List<String> exportSessions(LongPredicate moving) {
+        PomodoroBot pomodoro = createdPomodoro();
+        if (pomodoro == null) {
+            return List.of();
+        }
+        return pomodoro.exportSessions(moving).stream().map(PomodoroSnapshot::toCsv).toList();
+    }
+
+    @Override
+    public void importSessions(List<String> snapshots) {
+        if (pomodoroBot == null) {
+            log.warn("Пропуск {} сессий Pomodoro: модуль выключен", snapshots.size());
+            return;
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        pomodoroBot.get().importSessions(snapshots.stream().map(PomodoroSnapshot::parse).toList());
+    }
+
+    /**
+     * Включает репликацию сессий Pomodoro на резервный узел. Сессии квиза не реплицируются:
+     * после перехода на резерв квиз нужно начать заново.
+     */
+    public void setSessionReplicator(SessionReplicator replicator) {
+        this.replicator = replicator;
+        PomodoroBot pomodoro = createdPomodoro();
+        if (pomodoro != null) {
+            pomodoro.setReplicator(replicator);
+        }
+    }
+
+    /**
+     * Передаёт репликатору текущее состояние всех сессий Pomodoro.
+     * Если Pomodoro ещё не создан, сессий нет и передавать нечего.
+     */
+    public void replicateAll() {
+        PomodoroBot pomodoro = createdPomodoro();
+        if (pomodoro != null) {
+            pomodoro.replicateAll();
+        }
+    }
+
+    /**
+     * @return Pomodoro или null, если он выключен или ещё не создан
+     */
+    private PomodoroBot createdPomodoro() {
+        return pomodoroBot != null ? pomodoroBot.getIfCreated() : null;
+    }
+
+    /**
+     * Ставит сообщение Pomodoro в очередь отправки бота и сразу возвращается.
+     */
+    @Override
+    public void sendPomodoroReply(Long chatId, PomodoroReply reply) {
+        log.info("Обработка сигнала планировщика Pomodoro для chatId={}", chatId);
+        ModuleRoute<PomodoroReply> route = pomodoroRoute;
+        enqueue(() -> sendReply(route, chatId, reply));
+    }
+
+    /**
+     * Ставит сообщение кино-квиза в очередь отправки бота и сразу возвращается.
+     */
+    @Override
+    public void sendQuizReply(Long chatId, BotReply reply) {
+        log.info("Отправка сообщения кино-квиза по таймеру для chatId={}", chatId);
+        ModuleRoute<BotReply> route = quizRoute;
+        enqueue(() -> sendReply(route, chatId, reply));
+    }
+
+    /**
+     * Ставит вопрос о выводе статистики в очередь отправки бота, после предыдущих сообщений чата.
+     */
+    @Override
+    public void sendFinalStatsQuestion(Long chatId, String text) {
+        SendMessage message = SendMessage.builder()
+                .chatId(chatId)
+                .text(text)
+                .replyMarkup(pomodoroKeyboardFactory.createFinalAskKeyboard())
+                .build();
+        enqueue(() -> {
+            try {
+                client.execute(message);
+            } catch (TelegramApiException e) {
+                log.error("Ошибка при отправке вопроса о выводе статистики Pomodoro в чат chatId={}", chatId, e);
+            }
+        });
+    }
+
+    /**
+     * Ставит сообщение с живым статусом в очередь отправки бота.
+     */
+    @Override
+    public CompletableFuture<Integer> sendLiveStatus(Long chatId, String text) {
+        SendMessage message = SendMessage.builder()
+                .chatId(chatId)
+                .text(text)
+                .build();
+        CompletableFuture<Integer> messageId = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                Message sent = client.execute(message);
+                messageId.complete(sent != null ? sent.getMessageId() : null);
+            } catch (TelegramApiException e) {
+                log.error("Ошибка при отправке живого статуса Pomodoro в чат chatId={}", chatId, e);
+                messageId.complete(null);
+            }
+        });
+        return messageId;
+    }
+
+    /**
+     * Ставит правку живого статуса в очередь отправки бота, после сообщений, поставленных раньше.
+     */
+    @Override
+    public CompletableFuture<Boolean> editLiveStatus(Long chatId, int messageId, String text) {
+        EditMessageText edit = EditMessageText.builder()
+                .chatId(chatId)
+                .messageId(messageId)
+                .text(text)
+                .build();
+        CompletableFuture<Boolean> edited = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                client.execute(edit);
+                edited.complete(true);
+            } catch (TelegramApiException e) {
+                log.warn("Ошибка при обновлении живого статуса Pomodoro в чате chatId={}, messageId={}",
+                        chatId, messageId, e);
+                edited.complete(false);
+            }
+        });
+        return edited;
+    }
+
+    /**
+     * Свободное место в лимите отправки бота за вычетом уже поставленных в очередь сообщений.
+     */
+    @Override
+    public int liveStatusBudget() {
+        return limiter.available() - queuedSends.get();
+    }
+
+    private void enqueue(Runnable send) {
+        queuedSends.incrementAndGet();
+        outbox.execute(() -> {
+            queuedSends.decrementAndGet();
+            send.run();
+        });
     }
 }
@@ -0,0 +1,69 @@
+package bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Модуль бота, который создаётся при первом обращении к нему: первой команде модуля
+ * или приёме сессий с другого узла.
+ * <p>
+ * Пока модулем никто не пользуется, процесс не читает его данные и не создаёт его пулы потоков,
+ * поэтому бот начинает получать обновления быстрее.
+ *
+ * @param <M> тип модуля
+ */
+final class LazyModule<M> {
+
+    private static final Logger log = LogManager.getLogger(LazyModule.class);
+
+    private final String name;
+    private final Supplier<M> factory;
+    private volatile M module;
+
+    /**
+     * @param name    имя модуля для лога
+     * @param factory создаёт модуль; вызывается не больше одного раза
+     */
+    LazyModule(String name, Supplier<M> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * @return уже созданный модуль
+     */
+    static <M> LazyModule<M> of(String name, M module) {
+        LazyModule<M> lazy = new LazyModule<>(name, () -> module);
+        lazy.module = module;
+        return lazy;
+    }
+
+    /**
+     * @return модуль; при первом вызове создаёт его
+     */
+    M get() {
+        M current = module;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (module == null) {
+                long started = System.nanoTime();
+                module = factory.get();
+                log.info("Модуль {} создан за {} мс", name,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+            return module;
+        }
+    }
+
+    /**
+     * @return модуль или null, если его ещё не создавали
+     */
+    M getIfCreated() {
+        return module;
+    }
+}
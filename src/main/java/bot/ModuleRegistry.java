@@ -0,0 +1,76 @@
+package bot;
+
+import interfaces.BotModule;
+import interfaces.SessionListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Таблица маршрутов к модулям бота и индекс активного модуля для каждого чата.
+ * <p>
+ * Модули сообщают о начале и завершении своих сессий, поэтому для маршрутизации
+ * обновления достаточно одного поиска по chatId.
+ * <p>
+ * Обе таблицы потокобезопасны: модули создаются при первой команде ({@link LazyModule}), и маршрут
+ * регистрируется в потоке обновлений, пока потоки других модулей уже сообщают о своих сессиях.
+ * Модули не переопределяют {@code equals}, поэтому таблица маршрутов по-прежнему ищет модуль по ссылке.
+ */
+public class ModuleRegistry implements SessionListener {
+
+    private static final Logger log = LogManager.getLogger(ModuleRegistry.class);
+
+    private final Map<BotModule<?>, ModuleRoute<?>> routes = new ConcurrentHashMap<>();
+    private final Map<Long, ModuleRoute<?>> activeRoutes = new ConcurrentHashMap<>();
+
+    /**
+     * Добавляет маршрут к модулю. Может вызываться и после начала обработки обновлений,
+     * когда модуль создаётся при первой команде.
+     *
+     * @param route маршрут модуля
+     */
+    public void register(ModuleRoute<?> route) {
+        if (routes.putIfAbsent(route.module(), route) != null) {
+            throw new IllegalArgumentException("Модуль уже зарегистрирован: " + route.name());
+        }
+    }
+
+    /**
+     * @param chatId идентификатор чата
+     * @return маршрут модуля, у которого в чате активная сессия, или null
+     */
+    public ModuleRoute<?> activeRoute(Long chatId) {
+        return activeRoutes.get(chatId);
+    }
+
+    /**
+     * @param module модуль бота
+     * @return маршрут зарегистрированного модуля или null
+     */
+    public ModuleRoute<?> routeOf(BotModule<?> module) {
+        return routes.get(module);
+    }
+
+    @Override
+    public void onSessionStarted(Long chatId, BotModule<?> module) {
+        ModuleRoute<?> route = routes.get(module);
+        if (route == null) {
+            log.warn("Сессия начата незарегистрированным модулем для chatId={}", chatId);
+            return;
+        }
+        ModuleRoute<?> previous = activeRoutes.put(chatId, route);
+        if (previous != null && previous != route) {
+            log.warn("Сессия {} для chatId={} заменена сессией {}", previous.name(), chatId, route.name());
+        }
+    }
+
+    @Override
+    public void onSessionEnded(Long chatId, BotModule<?> module) {
+        ModuleRoute<?> route = routes.get(module);
+        if (route != null) {
+            activeRoutes.remove(chatId, route);
+        }
+    }
+}
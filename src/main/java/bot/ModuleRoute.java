@@ -0,0 +1,40 @@
+package bot;
+
+import bot.utils.PhotoCache;
+import interfaces.BotModule;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+
+import java.util.function.Predicate;
+
+/**
+ * Описание маршрута к модулю бота: сам модуль, способ превратить его ответ
+ * в сообщения Telegram и тексты для служебных ответов.
+ *
+ * @param name           имя модуля для логов
+ * @param module         модуль бота
+ * @param busyMessage    ответ на команду, пока в чате идёт сессия модуля
+ * @param photoFactory   создаёт фото по ответу модуля (может вернуть null)
+ * @param messageFactory создаёт текстовое сообщение по ответу модуля
+ * @param silent         отличает ответ «принято молча», по которому ничего не отправляется
+ * @param fallbackSuffix приписка к тексту, если отправить ответ не удалось
+ * @param <R>            тип ответа модуля
+ */
+public record ModuleRoute<R>(String name,
+                             BotModule<R> module,
+                             String busyMessage,
+                             PhotoFactory<R> photoFactory,
+                             MessageFactory<R> messageFactory,
+                             Predicate<R> silent,
+                             String fallbackSuffix) {
+
+    @FunctionalInterface
+    public interface PhotoFactory<R> {
+        SendPhoto create(R reply, Long chatId, PhotoCache photos);
+    }
+
+    @FunctionalInterface
+    public interface MessageFactory<R> {
+        SendMessage create(R reply, Long chatId);
+    }
+}
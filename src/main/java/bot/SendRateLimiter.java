@@ -0,0 +1,97 @@
+package bot;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Лимит отправки одного бота для его HTTP-клиента Telegram.
+ * <p>
+ * Telegram ограничивает число сообщений в секунду для каждого токена, поэтому у каждого бота
+ * свой лимит, хотя пул соединений общий. Лимит — ведро на {@code burst} вызовов, которое
+ * наполняется со скоростью {@code perSecond} вызовов в секунду. Вызов сверх лимита не отклоняется,
+ * а ждёт своей очереди в вызывающем потоке; ожидание и итог вызова попадают в {@link BotMetrics} бота.
+ * <p>
+ * Поэтому клиент бота вызывается только из потоков самого бота: потока обновлений и очереди
+ * отправки {@link BotRouter}. Общие пулы {@link SharedResources} в лимит одного бота не упираются.
+ * Фоновые отправки, которые можно отложить (правки живых статусов), сверяются с {@link #available()}
+ * и не ставятся в очередь, пока лимит занят.
+ */
+public class SendRateLimiter implements Interceptor {
+
+    private final BotMetrics metrics;
+    private final LongSupplier nanoTime;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private long nextFreeNanos = Long.MIN_VALUE;
+
+    /**
+     * @param perSecond вызовов в секунду в среднем
+     * @param burst     вызовов подряд без ожидания
+     * @param metrics   метрики бота
+     */
+    public SendRateLimiter(int perSecond, int burst, BotMetrics metrics) {
+        this(perSecond, burst, metrics, System::nanoTime);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    SendRateLimiter(int perSecond, int burst, BotMetrics metrics, LongSupplier nanoTime) {
+        if (perSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Лимит отправки должен быть больше 0");
+        }
+        this.metrics = metrics;
+        this.nanoTime = nanoTime;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / perSecond;
+        this.burstNanos = intervalNanos * (burst - 1);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            metrics.throttled(waitNanos);
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Ожидание лимита отправки прервано");
+            }
+        }
+        long started = nanoTime.getAsLong();
+        int statusCode = -1;
+        try {
+            Response response = chain.proceed(chain.request());
+            statusCode = response.code();
+            return response;
+        } finally {
+            metrics.apiCalled(nanoTime.getAsLong() - started, statusCode);
+        }
+    }
+
+    /**
+     * @return сколько вызовов лимит пропустит прямо сейчас без ожидания
+     */
+    public synchronized int available() {
+        long now = nanoTime.getAsLong();
+        long next = Math.max(nextFreeNanos, now - burstNanos);
+        return next > now ? 0 : (int) ((now - next) / intervalNanos) + 1;
+    }
+
+    /**
+     * Занимает место в лимите.
+     *
+     * @return сколько нужно подождать до вызова, нс; 0 — можно вызывать сразу
+     */
+    synchronized long reserve() {
+        long now = nanoTime.getAsLong();
+        long next = Math.max(nextFreeNanos, now - burstNanos);
+        nextFreeNanos = next + intervalNanos;
+        return Math.max(0, next - now);
+    }
+}
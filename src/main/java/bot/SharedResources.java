@@ -0,0 +1,171 @@
+package bot;
+
+import bot.utils.AssetCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import movie_quiz.bot.MovieQuizBot;
+import movie_quiz.core.MovieCatalog;
+import okhttp3.OkHttpClient;
+import org.telegram.telegrambots.client.okhttp.OkHttpTelegramClient;
+import org.telegram.telegrambots.meta.TelegramUrl;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+import pomodoro.bot.PomodoroBot;
+import pomodoro.core.MotivationPhoto;
+import pomodoro.core.Phase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ресурсы, которые делят все боты одного процесса: HTTP-клиент Telegram с пулом соединений,
+ * пулы потоков, картинки, каталог фильмов и мотивационные картинки Pomodoro.
+ * <p>
+ * Пулы потоков и данные создаются при первом обращении, поэтому процесс с ботами без кино-квиза
+ * не читает каталог фильмов. HTTP-клиент каждого бота — копия общего ({@link OkHttpClient#newBuilder()}):
+ * соединения и потоки у них общие, а лимит отправки ({@link SendRateLimiter}) и метрики свои.
+ * <p>
+ * Общие планировщики не отправляют сообщения сами: модули передают их в очередь отправки своего бота
+ * ({@link BotRouter}), и бот, упёршийся в лимит, не задерживает таймеры и снимки других ботов.
+ */
+public class SharedResources implements AutoCloseable {
+
+    /**
+     * Сообщений в секунду на один токен, после которых Telegram начинает отвечать 429.
+     */
+    private static final int SEND_PER_SECOND = 30;
+    private static final int SEND_BURST = 30;
+    private static final int POMODORO_THREADS = 4;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final OkHttpClient httpClient = new OkHttpClient.Builder()
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .writeTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .build();
+    private final AssetCache assets = new AssetCache(SharedResources.class.getClassLoader());
+    private ScheduledExecutorService scheduler;
+    private ScheduledExecutorService quizScheduler;
+    private ExecutorService statsExecutor;
+    private ExecutorService pomodoroActors;
+    private MovieCatalog catalog;
+    private Map<Phase, List<MotivationPhoto>> motivationPhotos;
+
+    /**
+     * @param metrics метрики бота
+     * @return новый лимит отправки одного бота
+     */
+    public SendRateLimiter sendLimiter(BotMetrics metrics) {
+        return new SendRateLimiter(SEND_PER_SECOND, SEND_BURST, metrics);
+    }
+
+    /**
+     * Создаёт Telegram-клиент бота поверх общего пула соединений.
+     *
+     * @param botToken токен бота
+     * @param limiter  лимит отправки бота ({@link #sendLimiter(BotMetrics)})
+     * @return клиент со своим лимитом отправки
+     */
+    public TelegramClient telegramClient(String botToken, SendRateLimiter limiter) {
+        OkHttpClient client = httpClient.newBuilder()
+                .addInterceptor(limiter)
+                .build();
+        return new OkHttpTelegramClient(mapper, client, botToken, TelegramUrl.DEFAULT_URL);
+    }
+
+    /**
+     * @return ObjectMapper, которым клиенты Telegram разбирают ответы
+     */
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /**
+     * @return общий кэш картинок
+     */
+    public AssetCache assets() {
+        return assets;
+    }
+
+    /**
+     * @return общий планировщик Pomodoro: таймеры фаз, живые статусы, пресеты
+     */
+    public synchronized ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            AtomicInteger threads = new AtomicInteger();
+            scheduler = Executors.newScheduledThreadPool(POMODORO_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "pomodoro-scheduler-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * @return общий однопоточный планировщик кино-квиза
+     */
+    public synchronized ScheduledExecutorService quizScheduler() {
+        if (quizScheduler == null) {
+            quizScheduler = MovieQuizBot.newScheduler();
+        }
+        return quizScheduler;
+    }
+
+    /**
+     * @return общий пул акторов чатов Pomodoro
+     */
+    public synchronized ExecutorService pomodoroActors() {
+        if (pomodoroActors == null) {
+            pomodoroActors = PomodoroBot.newActorExecutor();
+        }
+        return pomodoroActors;
+    }
+
+    /**
+     * @return общий пул чтения статистики Pomodoro
+     */
+    public synchronized ExecutorService statsExecutor() {
+        if (statsExecutor == null) {
+            statsExecutor = PomodoroBot.newStatsExecutor();
+        }
+        return statsExecutor;
+    }
+
+    /**
+     * @return каталог фильмов, прочитанный один раз на процесс
+     */
+    public synchronized MovieCatalog catalog() {
+        if (catalog == null) {
+            catalog = MovieQuizBot.loadCatalog();
+        }
+        return catalog;
+    }
+
+    /**
+     * @return мотивационные картинки Pomodoro, прочитанные один раз на процесс
+     */
+    public synchronized Map<Phase, List<MotivationPhoto>> motivationPhotos() {
+        if (motivationPhotos == null) {
+            motivationPhotos = PomodoroBot.loadMotivationPhotos();
+        }
+        return motivationPhotos;
+    }
+
+    /**
+     * Останавливает общие пулы потоков и закрывает соединения.
+     */
+    @Override
+    public synchronized void close() {
+        for (ExecutorService executor : new ExecutorService[]{scheduler, quizScheduler, pomodoroActors, statsExecutor}) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+}
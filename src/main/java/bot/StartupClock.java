@@ -0,0 +1,24 @@
+package bot;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Время с запуска процесса. По нему сравнивается старт бота на обычной JVM, на JVM с архивом
+ * классов (CDS) и в native-image: отсчёт идёт от запуска процесса, а не от {@code main},
+ * поэтому в замер попадает и загрузка самой JVM.
+ */
+public final class StartupClock {
+
+    private StartupClock() {
+    }
+
+    /**
+     * @return миллисекунды с запуска процесса или -1, если ОС не сообщает время запуска
+     */
+    public static long millisSinceStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+}
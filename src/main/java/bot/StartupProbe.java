@@ -0,0 +1,88 @@
+package bot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Пробный прогон бота без Telegram: синтетические обновления разбираются тем же Jackson,
+ * что и ответы getUpdates, и проходят через настоящий маршрутизатор, модули и сборку ответов,
+ * а отправка уходит в клиент-заглушку.
+ * <p>
+ * По прогону замеряется время до первого обновления для обычной JVM, JVM с архивом классов (CDS)
+ * и native-image; он же служит обучающим прогоном при сборке архива CDS.
+ */
+public final class StartupProbe {
+
+    /**
+     * Команды прогона; каждая отправляется в свой чат, чтобы сессии модулей не мешали друг другу.
+     */
+    static final List<String> COMMANDS = List.of("/start", "/startpomodoro", "/playmoviequiz", "/top");
+    private static final long FIRST_CHAT_ID = 1;
+
+    private StartupProbe() {
+    }
+
+    /**
+     * @return Telegram-клиент, который ничего не отправляет и на каждый вызов возвращает null
+     */
+    public static TelegramClient noOpClient() {
+        return (TelegramClient) Proxy.newProxyInstance(
+                TelegramClient.class.getClassLoader(),
+                new Class<?>[]{TelegramClient.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "TelegramClient без отправки";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> method.getReturnType() == CompletableFuture.class
+                            ? CompletableFuture.completedFuture(null)
+                            : null;
+                });
+    }
+
+    /**
+     * Собирает обновление с текстовым сообщением так, как его прислал бы Telegram.
+     * Дата нужна настоящая: сообщение с датой 0 Jackson разбирает как недоступное.
+     *
+     * @param mapper   ObjectMapper, которым разбираются ответы Telegram
+     * @param updateId номер обновления
+     * @param chatId   идентификатор личного чата
+     * @param text     текст сообщения
+     * @return разобранное обновление
+     * @throws JsonProcessingException если JSON не разобрался
+     */
+    public static Update update(ObjectMapper mapper, int updateId, long chatId, String text)
+            throws JsonProcessingException {
+        String json = """
+                {"update_id":%d,"message":{"message_id":%d,"date":%d,"chat":{"id":%d,"type":"private"},\
+                "from":{"id":%d,"is_bot":false,"first_name":"probe"},"text":%s}}"""
+                .formatted(updateId, updateId, Instant.now().getEpochSecond(), chatId, chatId,
+                        mapper.writeValueAsString(text));
+        return mapper.readValue(json, Update.class);
+    }
+
+    /**
+     * Прогоняет через маршрутизатор по одному обновлению на каждую команду {@link #COMMANDS}.
+     *
+     * @param mapper ObjectMapper, которым разбираются ответы Telegram
+     * @param router маршрутизатор бота, созданный с {@link #noOpClient()}
+     * @return миллисекунды с запуска процесса до конца обработки первого обновления
+     * @throws JsonProcessingException если синтетическое обновление не разобралось
+     */
+    public static long run(ObjectMapper mapper, BotRouter router) throws JsonProcessingException {
+        long firstUpdateMillis = -1;
+        for (int i = 0; i < COMMANDS.size(); i++) {
+            router.consume(update(mapper, i + 1, FIRST_CHAT_ID + i, COMMANDS.get(i)));
+            if (i == 0) {
+                firstUpdateMillis = StartupClock.millisSinceStart();
+            }
+        }
+        return firstUpdateMillis;
+    }
+}
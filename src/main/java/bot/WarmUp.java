@@ -0,0 +1,296 @@
+package bot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.Config;
+import config.ModuleKind;
+import movie_quiz.bot.MovieQuizMessages;
+import movie_quiz.service.LatencyHistogram;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import pomodoro.bot.PomodoroMessages;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Прогрев бота перед подключением к Telegram.
+ * <p>
+ * Сразу после запуска обновления обрабатывает интерпретатор: разбор {@code Update} в Jackson,
+ * маршрутизатор, модули и сборка ответов ещё не скомпилированы JIT, и задержка первых тысяч
+ * обновлений в разы выше обычной. Прогрев гоняет через отдельный маршрутизатор с клиентом-заглушкой
+ * ({@link StartupProbe#noOpClient()}) раунды синтетических диалогов — по новому чату на каждый
+ * сценарий, чтобы сессии проходили от команды до конца, — пока JIT не перестанет компилировать
+ * или не кончится бюджет времени.
+ * <p>
+ * У прогрева свои {@link SharedResources} и временный каталог файлов: его сессии, таблицы лидеров
+ * и периодические задачи не попадают к настоящим ботам и останавливаются после прогрева.
+ * На время прогрева логгеры пакетов, через которые идут синтетические диалоги ({@link #QUIET_LOGGERS}),
+ * переключаются на ERROR, чтобы диалоги не вытеснили из ротации настоящие логи. Корневой уровень
+ * не меняется: репликация и другие части процесса, работающие во время прогрева, пишут как обычно.
+ */
+public class WarmUp {
+
+    private static final Logger log = LogManager.getLogger(WarmUp.class);
+
+    /**
+     * Компиляция считается стабильной, если за период проверки JIT потратил не больше этого времени.
+     */
+    private static final long STABLE_COMPILATION_MILLIS = 10;
+    /**
+     * Сколько проверок подряд компиляция должна быть стабильной.
+     */
+    private static final int STABLE_CHECKS = 3;
+    private static final Duration CHECK_PERIOD = Duration.ofMillis(500);
+    private static final int QUIZ_ANSWERS = 3;
+    /**
+     * Пакеты маршрутизатора и модулей, которые пишут в лог синтетические диалоги.
+     */
+    static final List<String> QUIET_LOGGERS = List.of("bot", "command", "movie_quiz", "pomodoro");
+
+    private final Duration budget;
+    private final Duration checkPeriod;
+    private final LongSupplier compilationMillis;
+
+    /**
+     * @param budget наибольшая длительность прогрева
+     */
+    public WarmUp(Duration budget) {
+        this(budget, CHECK_PERIOD, WarmUp::totalCompilationMillis);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    WarmUp(Duration budget, Duration checkPeriod, LongSupplier compilationMillis) {
+        this.budget = budget;
+        this.checkPeriod = checkPeriod;
+        this.compilationMillis = compilationMillis;
+    }
+
+    /**
+     * @return суммарное время JIT-компиляции, мс, или -1, если JIT нет (native-image, -Xint)
+     * или JVM его не считает
+     */
+    static long totalCompilationMillis() {
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        if (compilation == null || !compilation.isCompilationTimeMonitoringSupported()) {
+            return -1;
+        }
+        return compilation.getTotalCompilationTime();
+    }
+
+    /**
+     * Прогревает модули, включённые хотя бы у одного бота.
+     * Сбой прогрева не мешает запуску: бот просто стартует непрогретым.
+     *
+     * @param modules модули для прогрева
+     * @return итог прогрева или null, если прогрев не удался
+     */
+    public Report run(Set<ModuleKind> modules) {
+        Runnable restoreLoggers = quietLoggers();
+        Path dataDir = null;
+        Report report = null;
+        try (SharedResources shared = new SharedResources()) {
+            dataDir = Files.createTempDirectory("warmup-");
+            BotMetrics metrics = new BotMetrics();
+            BotRouter router = new BotRouter(StartupProbe.noOpClient(), shared.sendLimiter(metrics),
+                    new Config("warmup", Set.of(), "warmup", modules), shared, metrics, dataDir);
+            report = warmUp(router, shared.mapper(), scripts(modules));
+        } catch (IOException | RuntimeException e) {
+            log.error("Прогрев не удался", e);
+        } finally {
+            restoreLoggers.run();
+            deleteQuietly(dataDir);
+        }
+        if (report != null) {
+            log.info(report.summary());
+        }
+        return report;
+    }
+
+    private Report warmUp(BotRouter router, ObjectMapper mapper, List<List<String>> scripts)
+            throws JsonProcessingException {
+        long started = System.nanoTime();
+        long deadline = started + budget.toNanos();
+        LatencyHistogram before = new LatencyHistogram();
+        runRound(router, mapper, scripts, 0, before);
+        int rounds = 1;
+
+        long compiledAtCheck = compilationMillis.getAsLong();
+        Outcome outcome = compiledAtCheck < 0 ? Outcome.NO_JIT : Outcome.BUDGET;
+        LatencyHistogram after = before;
+        LatencyHistogram window = new LatencyHistogram();
+        long nextCheck = System.nanoTime() + checkPeriod.toNanos();
+        int stableChecks = 0;
+        while (outcome != Outcome.NO_JIT && System.nanoTime() < deadline) {
+            runRound(router, mapper, scripts, rounds++, window);
+            long now = System.nanoTime();
+            if (now < nextCheck) {
+                continue;
+            }
+            long compiled = compilationMillis.getAsLong();
+            stableChecks = compiled - compiledAtCheck <= STABLE_COMPILATION_MILLIS ? stableChecks + 1 : 0;
+            compiledAtCheck = compiled;
+            nextCheck = now + checkPeriod.toNanos();
+            after = window;
+            window = new LatencyHistogram();
+            if (stableChecks >= STABLE_CHECKS) {
+                outcome = Outcome.STABLE;
+                break;
+            }
+        }
+        if (window.count() > 0 && outcome == Outcome.BUDGET) {
+            after = window;
+        }
+        return new Report(outcome, rounds, router.metrics().updateCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), before, after);
+    }
+
+    /**
+     * Проводит каждый сценарий в своём новом чате; в задержку входит разбор JSON обновления.
+     */
+    private static void runRound(BotRouter router, ObjectMapper mapper, List<List<String>> scripts, int round,
+                                 LatencyHistogram latency) throws JsonProcessingException {
+        for (int i = 0; i < scripts.size(); i++) {
+            long chatId = (long) round * scripts.size() + i + 1;
+            for (String text : scripts.get(i)) {
+                long started = System.nanoTime();
+                router.consume(StartupProbe.update(mapper, round, chatId, text));
+                latency.record(System.nanoTime() - started);
+            }
+        }
+    }
+
+    /**
+     * Сценарии диалогов для включённых модулей: от команды до конца сессии.
+     */
+    static List<List<String>> scripts(Set<ModuleKind> modules) {
+        List<List<String>> scripts = new ArrayList<>();
+        scripts.add(List.of("/start", "привет"));
+        if (modules.contains(ModuleKind.POMODORO)) {
+            scripts.add(List.of("/startpomodoro", "25", "5", "15", "4",
+                    PomodoroMessages.START_MESSAGE,
+                    PomodoroMessages.PAUSE_MESSAGE,
+                    PomodoroMessages.END_SEANCE_MESSAGE,
+                    PomodoroMessages.YES_ANSWER_MESSAGE));
+        }
+        if (modules.contains(ModuleKind.MOVIE_QUIZ)) {
+            List<String> quiz = new ArrayList<>();
+            quiz.add("/playmoviequiz");
+            for (int i = 0; i < QUIZ_ANSWERS; i++) {
+                quiz.add("ответ");
+            }
+            quiz.add(MovieQuizMessages.END_GAME_BUTTON);
+            scripts.add(quiz);
+            scripts.add(List.of("/top", "/myrank"));
+        }
+        return scripts;
+    }
+
+    /**
+     * Переключает {@link #QUIET_LOGGERS} на ERROR.
+     *
+     * @return действие, которое возвращает прежние уровни и убирает добавленные настройки логгеров
+     */
+    private static Runnable quietLoggers() {
+        LoggerContext context = LoggerContext.getContext(false);
+        Configuration configuration = context.getConfiguration();
+        Map<LoggerConfig, Level> changed = new HashMap<>();
+        List<String> added = new ArrayList<>();
+        for (String name : QUIET_LOGGERS) {
+            LoggerConfig existing = configuration.getLoggers().get(name);
+            if (existing != null) {
+                changed.put(existing, existing.getLevel());
+                existing.setLevel(Level.ERROR);
+            } else {
+                configuration.addLogger(name, new LoggerConfig(name, Level.ERROR, true));
+                added.add(name);
+            }
+        }
+        context.updateLoggers();
+        return () -> {
+            changed.forEach(LoggerConfig::setLevel);
+            added.forEach(configuration::removeLogger);
+            context.updateLoggers();
+        };
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный каталог прогрева {}", dir, e);
+        }
+    }
+
+    /**
+     * Чем закончился прогрев.
+     */
+    public enum Outcome {
+        /**
+         * JIT перестал компилировать.
+         */
+        STABLE("компиляция стабилизировалась"),
+        /**
+         * Кончился бюджет времени.
+         */
+        BUDGET("бюджет времени исчерпан"),
+        /**
+         * JIT нет, прогревать нечего: проведён один раунд для замера.
+         */
+        NO_JIT("JIT не используется");
+
+        private final String description;
+
+        Outcome(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * Итог прогрева.
+     *
+     * @param outcome чем закончился прогрев
+     * @param rounds  число раундов
+     * @param updates число синтетических обновлений
+     * @param millis  длительность прогрева, мс
+     * @param before  задержка обновлений в первом раунде
+     * @param after   задержка обновлений за последний период проверки
+     */
+    public record Report(Outcome outcome,
+                         int rounds,
+                         long updates,
+                         long millis,
+                         LatencyHistogram before,
+                         LatencyHistogram after) {
+
+        /**
+         * @return строка для лога
+         */
+        public String summary() {
+            return "Прогрев за %d мс (%s): раундов=%d, обновлений=%d; задержка до: %s; после: %s".formatted(
+                    millis, outcome.description, rounds, updates, before.summary(), after.summary());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package bot.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Картинки из classpath, прочитанные в память один раз на процесс.
+ * <p>
+ * Один кэш делят все боты процесса: каждому боту картинка нужна только для первой загрузки
+ * в Telegram, дальше он отправляет её по своему file_id ({@link PhotoCache}).
+ */
+public class AssetCache {
+
+    private static final Logger log = LogManager.getLogger(AssetCache.class);
+
+    private final ClassLoader classLoader;
+    private final Map<String, Optional<byte[]>> assets = new ConcurrentHashMap<>();
+
+    /**
+     * @param classLoader загрузчик классов, из которого читаются картинки
+     */
+    public AssetCache(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param path путь к ресурсу в classpath
+     * @return содержимое ресурса или null, если ресурс не найден или не читается
+     */
+    public byte[] get(String path) {
+        return assets.computeIfAbsent(path, this::load).orElse(null);
+    }
+
+    /**
+     * @return число байт картинок в памяти
+     */
+    public long byteCount() {
+        long total = 0;
+        for (Optional<byte[]> asset : assets.values()) {
+            total += asset.map(bytes -> bytes.length).orElse(0);
+        }
+        return total;
+    }
+
+    private Optional<byte[]> load(String path) {
+        try (InputStream is = classLoader.getResourceAsStream(path)) {
+            if (is == null) {
+                return Optional.empty();
+            }
+            return Optional.of(is.readAllBytes());
+        } catch (IOException e) {
+            log.error("Не удалось прочитать ресурс '{}'", path, e);
+            return Optional.empty();
+        }
+    }
+}
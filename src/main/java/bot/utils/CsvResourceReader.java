@@ -1,23 +1,41 @@
 package bot.utils;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Универсальный ридер CSV из ресурсов. Парсит в List<String[]>, маппинг — снаружи.
+ * Универсальный ридер CSV из ресурсов.
+ * <p>
+ * Разбирает поток за один проход по символам, без регулярных выражений и промежуточных строк.
+ * Поддерживает поля в двойных кавычках (внутри них допускаются разделитель, перевод строки
+ * и экранированная кавычка {@code ""}). Пустые строки пропускаются, пустые поля в конце
+ * строки отбрасываются — так же, как это делал {@link String#split(String)}.
  */
 public class CsvResourceReader {
 
+    private static final int BUFFER_SIZE = 8192;
+    private static final String[] EMPTY_ROW = new String[0];
+
     /**
-     * Читает CSV и применяет mapper к каждой строке (пропускает заголовок).
+     * Читает CSV и применяет mapper к каждой строке.
      *
      * @param inputStream поток CSV
      * @param delimiter разделитель (',' или ';')
      * @param mapper преобразует String[] в T
-     * @return список объектов
+     * @return неизменяемый список объектов
      */
     public <T> List<T> read(InputStream inputStream, char delimiter, Function<String[], T> mapper) {
         if (inputStream == null) {
@@ -27,36 +45,298 @@ public class CsvResourceReader {
             throw new IllegalArgumentException("Mapper не может быть null");
         }
 
-        List<String[]> rows = parseRows(inputStream, delimiter);
-        return rows.stream().map(mapper).toList();
+        List<T> result = new ArrayList<>();
+        forEach(inputStream, delimiter, row -> result.add(mapper.apply(row)));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Потоково обходит строки CSV, не накапливая их в памяти.
+     * Поток закрывается после обхода.
+     *
+     * @param inputStream поток CSV
+     * @param delimiter разделитель (',' или ';')
+     * @param action обработчик очередной строки
+     */
+    public void forEach(InputStream inputStream, char delimiter, Consumer<String[]> action) {
+        forEach(inputStream, delimiter, action, null);
+    }
+
+    /**
+     * Потоково обходит строки CSV, пропуская строки с ошибкой формата: вместо исключения
+     * ошибка передаётся в {@code onMalformed}, и разбор продолжается со следующей строки.
+     * Поток закрывается после обхода.
+     *
+     * @param inputStream поток CSV
+     * @param delimiter   разделитель (',' или ';')
+     * @param action      обработчик очередной строки
+     * @param onMalformed обработчик ошибки формата; null — бросить исключение
+     */
+    public void forEach(InputStream inputStream, char delimiter, Consumer<String[]> action,
+                        Consumer<IllegalArgumentException> onMalformed) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action не может быть null");
+        }
+
+        try (RowSpliterator rows = new RowSpliterator(inputStream, delimiter, onMalformed)) {
+            while (rows.tryAdvance(action)) {
+                // обработка выполняется в action
+            }
+        }
+    }
+
+    /**
+     * Возвращает ленивый {@link Stream} строк CSV.
+     * Поток данных закрывается вместе со стримом, поэтому его нужно использовать в try-with-resources.
+     *
+     * @param inputStream поток CSV
+     * @param delimiter разделитель (',' или ';')
+     * @return последовательный стрим строк
+     */
+    public Stream<String[]> stream(InputStream inputStream, char delimiter) {
+        RowSpliterator rows = new RowSpliterator(inputStream, delimiter, null);
+        return StreamSupport.stream(rows, false).onClose(rows::close);
     }
 
     /**
-     * Только парсит CSV в сырые строки, без заголовка.
+     * Однопроходный разборщик: читает символы блоками и выдаёт строки CSV по одной.
      */
-    private List<String[]> parseRows(InputStream inputStream, char delimiter) {
-        List<String[]> rows = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+    private static final class RowSpliterator extends Spliterators.AbstractSpliterator<String[]>
+            implements AutoCloseable {
 
-            String line;
-            int lineNumber = 0;
+        private final Reader reader;
+        private final char delimiter;
+        private final Consumer<IllegalArgumentException> onMalformed;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder pending = new StringBuilder();
+        private int position;
+        private int limit;
+        private int lineNumber;
+        private boolean eof;
 
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
+        RowSpliterator(InputStream inputStream, char delimiter, Consumer<IllegalArgumentException> onMalformed) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            if (inputStream == null) {
+                throw new IllegalArgumentException("InputStream не может быть null");
+            }
+            if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+                throw new IllegalArgumentException("Недопустимый разделитель: '" + delimiter + "'");
+            }
+            this.reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+            this.delimiter = delimiter;
+            this.onMalformed = onMalformed;
+        }
 
-                if (line.trim().isBlank()) continue;
+        @Override
+        public boolean tryAdvance(Consumer<? super String[]> action) {
+            try {
+                String[] row;
+                do {
+                    row = nextRowOrSkip();
+                    if (row == null) {
+                        return false;
+                    }
+                } while (row.length == 0);
+                action.accept(row);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка чтения CSV", e);
+            }
+        }
 
-                String[] fields = line.split(String.valueOf(delimiter));
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка закрытия CSV", e);
+            }
+        }
 
-                if (fields.length < 2) {
-                    throw new IllegalArgumentException("Некорректный формат в строке " + lineNumber + ": '" + line + "'");
+        /**
+         * Как {@link #nextRow()}, но строку с ошибкой формата отдаёт в {@code onMalformed}
+         * и возвращает вместо неё пустой массив, если обработчик задан.
+         */
+        private String[] nextRowOrSkip() throws IOException {
+            try {
+                return nextRow();
+            } catch (IllegalArgumentException e) {
+                if (onMalformed == null) {
+                    throw e;
                 }
-                rows.add(fields);
+                onMalformed.accept(e);
+                return EMPTY_ROW;
+            }
+        }
+
+        /**
+         * Разбор после ошибки продолжается с начала следующей строки.
+         *
+         * @return поля строки, пустой массив для пустой строки или null в конце потока
+         */
+        private String[] nextRow() throws IOException {
+            if (!ensureData()) {
+                return null;
+            }
+            lineNumber++;
+            int rowLine = lineNumber;
+            fields.clear();
+
+            boolean rowEnded;
+            do {
+                rowEnded = readField();
+            } while (!rowEnded);
+
+            return finishRow(rowLine);
+        }
+
+        /**
+         * Читает одно поле и определяет, завершилась ли на нём строка.
+         *
+         * @return true, если после поля встретился конец строки или потока
+         */
+        private boolean readField() throws IOException {
+            if (!ensureData()) {
+                fields.add("");
+                return true;
+            }
+            if (buffer[position] == '"') {
+                position++;
+                return readQuotedField();
+            }
+
+            pending.setLength(0);
+            boolean spilled = false;
+            int start = position;
+
+            while (true) {
+                if (position == limit) {
+                    pending.append(buffer, start, position - start);
+                    spilled = true;
+                    if (!fill()) {
+                        fields.add(pending.toString());
+                        return true;
+                    }
+                    start = position;
+                }
+
+                char c = buffer[position];
+                if (c == delimiter) {
+                    addField(start, spilled);
+                    position++;
+                    return false;
+                }
+                if (c == '\n' || c == '\r') {
+                    addField(start, spilled);
+                    consumeLineBreak();
+                    return true;
+                }
+                position++;
+            }
+        }
+
+        private boolean readQuotedField() throws IOException {
+            pending.setLength(0);
+
+            while (true) {
+                if (!ensureData()) {
+                    throw new IllegalArgumentException("Незакрытая кавычка в строке " + lineNumber);
+                }
+
+                char c = buffer[position++];
+                if (c != '"') {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    pending.append(c);
+                    continue;
+                }
+                if (ensureData() && buffer[position] == '"') {
+                    pending.append('"');
+                    position++;
+                    continue;
+                }
+
+                fields.add(pending.toString());
+
+                if (!ensureData()) {
+                    return true;
+                }
+                char next = buffer[position];
+                if (next == delimiter) {
+                    position++;
+                    return false;
+                }
+                if (next == '\n' || next == '\r') {
+                    consumeLineBreak();
+                    return true;
+                }
+                skipLine();
+                throw new IllegalArgumentException("Некорректный формат в строке " + lineNumber
+                        + ": после закрывающей кавычки ожидается разделитель");
+            }
+        }
+
+        private void addField(int start, boolean spilled) {
+            if (spilled) {
+                pending.append(buffer, start, position - start);
+                fields.add(pending.toString());
+            } else {
+                fields.add(new String(buffer, start, position - start));
+            }
+        }
+
+        private void skipLine() throws IOException {
+            while (ensureData()) {
+                char c = buffer[position];
+                if (c == '\n' || c == '\r') {
+                    consumeLineBreak();
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private void consumeLineBreak() throws IOException {
+            char c = buffer[position++];
+            if (c == '\r' && ensureData() && buffer[position] == '\n') {
+                position++;
+            }
+        }
+
+        private String[] finishRow(int rowLine) {
+            int size = fields.size();
+            if (size == 1 && fields.getFirst().isBlank()) {
+                return EMPTY_ROW;
+            }
+
+            while (size > 0 && fields.get(size - 1).isEmpty()) {
+                size--;
+            }
+            if (size < 2) {
+                throw new IllegalArgumentException("Некорректный формат в строке " + rowLine + ": '"
+                        + String.join(String.valueOf(delimiter), fields) + "'");
+            }
+            return fields.subList(0, size).toArray(EMPTY_ROW);
+        }
+
+        private boolean ensureData() throws IOException {
+            return position < limit || fill();
+        }
+
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            int read = reader.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                eof = true;
+                return false;
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Ошибка чтения CSV", e);
+            position = 0;
+            limit = read;
+            return true;
         }
-        return rows;
     }
 }
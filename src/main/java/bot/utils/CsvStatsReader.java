@@ -9,12 +9,11 @@ import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 
 /**
  * Считает статистику Pomodoro за последние 30 дней по CSV-файлу пользователя.
  * Агрегирует длительность работы и отдыха и количество завершённых рабочих сессий и
- * сессий отдыха.
+ * сессий отдыха. Строки файла обрабатываются потоково и не накапливаются в памяти.
  */
 public class CsvStatsReader implements StatsReader {
 
@@ -30,56 +29,51 @@ public class CsvStatsReader implements StatsReader {
 
     @Override
     public PomodoroStats readMonthlyStats(Long chatId) {
-        PomodoroStats stats = new PomodoroStats();
-        stats.setWorkMinutes(Duration.ZERO);
-        stats.setRestMinutes(Duration.ZERO);
-        stats.setWorkSessions(0);
-        stats.setRestSessions(0);
-
         Path file = baseDir.resolve("stats_" + chatId + ".csv");
 
         if (!Files.exists(file)) {
-            return stats;
+            return emptyStats();
         }
 
-        List<RawEvent> rawEvents;
+        long monthAgo = Instant.now(clock).minus(Duration.ofDays(30)).getEpochSecond();
+        long[] totals = new long[4];
 
         try (InputStream inputStream = Files.newInputStream(file)) {
-            rawEvents = reader.read(inputStream, ',', raw -> new RawEvent(raw[0], raw[1], raw[2]));
-        } catch (Exception e) {
-            throw new RuntimeException("Ошибка чтения CSV", e);
-        }
-
-        Instant now = Instant.now(clock);
-        Instant monthAgo = now.minus(Duration.ofDays(30));
-
-        for (RawEvent event : rawEvents) {
-            Phase currentPhase = (Phase.valueOf(event.phase()));
-            Instant finishedAt = Instant.ofEpochSecond(Long.parseLong(event.finishedAt()));
-            Duration duration = Duration.ofMinutes(Long.parseLong(event.durationMinutes()));
-            if (finishedAt.isAfter(monthAgo)) {
-                switch (currentPhase) {
+            reader.forEach(inputStream, ',', row -> {
+                long finishedAt = Long.parseLong(row[2]);
+                if (finishedAt <= monthAgo) {
+                    return;
+                }
+                long minutes = Long.parseLong(row[1]);
+                switch (Phase.valueOf(row[0])) {
                     case WORK -> {
-                        Duration allDuration = stats.getWorkMinutes();
-                        int allSessions = stats.getWorkSessions();
-
-                        stats.setWorkMinutes(allDuration.plus(duration));
-                        stats.setWorkSessions(allSessions + 1);
+                        totals[0] += minutes;
+                        totals[1]++;
                     }
                     case SHORT_BREAK, LONG_BREAK -> {
-                        Duration allDuration = stats.getRestMinutes();
-                        int allSessions = stats.getRestSessions();
-
-                        stats.setRestMinutes(allDuration.plus(duration));
-                        stats.setRestSessions(allSessions + 1);
+                        totals[2] += minutes;
+                        totals[3]++;
                     }
                 }
-            }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Ошибка чтения CSV", e);
         }
 
+        PomodoroStats stats = new PomodoroStats();
+        stats.setWorkMinutes(Duration.ofMinutes(totals[0]));
+        stats.setWorkSessions((int) totals[1]);
+        stats.setRestMinutes(Duration.ofMinutes(totals[2]));
+        stats.setRestSessions((int) totals[3]);
         return stats;
     }
-}
 
-record RawEvent(String phase, String durationMinutes, String finishedAt) {
+    private static PomodoroStats emptyStats() {
+        PomodoroStats stats = new PomodoroStats();
+        stats.setWorkMinutes(Duration.ZERO);
+        stats.setRestMinutes(Duration.ZERO);
+        stats.setWorkSessions(0);
+        stats.setRestSessions(0);
+        return stats;
+    }
 }
@@ -0,0 +1,81 @@
+package bot.utils;
+
+import movie_quiz.core.LeaderboardEntry;
+import movie_quiz.service.Leaderboard;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Формирует тексты таблиц лидеров кино-квиза.
+ */
+public class LeaderboardUtils {
+
+    /**
+     * Формирует сообщение с топом игроков за всё время и за неделю.
+     */
+    public String getTopMessage(Leaderboard allTime, Leaderboard weekly) {
+        StringBuilder builder = new StringBuilder("🏆 Лучшие игроки кино-квиза\n");
+        appendTop(builder, "\n⭐ За всё время:\n", allTime.top());
+        appendTop(builder, "\n📅 За эту неделю:\n", weekly.top());
+        return builder.toString();
+    }
+
+    /**
+     * Формирует сообщение с топом игроков за всё время, за неделю и рейтингом вызова дня.
+     * Рейтинг дня выводится, только если сегодня кто-то прошёл вызов.
+     */
+    public String getTopMessage(Leaderboard allTime, Leaderboard weekly, Leaderboard daily) {
+        String top = getTopMessage(allTime, weekly);
+        if (daily.size() == 0) {
+            return top;
+        }
+        StringBuilder builder = new StringBuilder(top);
+        appendTop(builder, "\n🗓 Вызов дня (/daily):\n", daily.top());
+        return builder.toString();
+    }
+
+    /**
+     * Формирует сообщение с топом участников групповых раундов чата.
+     */
+    public String getGroupTopMessage(Leaderboard group) {
+        StringBuilder builder = new StringBuilder("🏆 Лучшие игроки кино-квиза\n");
+        appendTop(builder, "\n👥 В этом чате:\n", group.top());
+        return builder.toString();
+    }
+
+    /**
+     * Формирует сообщение с лучшим результатом и местом игрока.
+     */
+    public String getRankMessage(Leaderboard allTime, Leaderboard weekly, long playerId) {
+        OptionalInt best = allTime.bestScore(playerId);
+        if (best.isEmpty()) {
+            return "Вы ещё не попали в рейтинг 🎬\nСыграйте в кино-квиз: /playmoviequiz";
+        }
+
+        StringBuilder builder = new StringBuilder("🏅 Ваш рейтинг в кино-квизе\n\n");
+        builder.append("За всё время: лучший результат %d, место %d из %d\n"
+                .formatted(best.getAsInt(), allTime.rank(playerId), allTime.size()));
+        OptionalInt weeklyBest = weekly.bestScore(playerId);
+        if (weeklyBest.isPresent()) {
+            builder.append("За эту неделю: лучший результат %d, место %d из %d"
+                    .formatted(weeklyBest.getAsInt(), weekly.rank(playerId), weekly.size()));
+        } else {
+            builder.append("За эту неделю вы ещё не играли");
+        }
+        return builder.toString();
+    }
+
+    private static void appendTop(StringBuilder builder, String title, List<LeaderboardEntry> top) {
+        builder.append(title);
+        if (top.isEmpty()) {
+            builder.append("пока пусто\n");
+            return;
+        }
+        int place = 1;
+        for (LeaderboardEntry entry : top) {
+            String name = entry.name() == null || entry.name().isBlank() ? "Игрок" : entry.name();
+            builder.append(place++).append(". ").append(name).append(" — ").append(entry.score()).append('\n');
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bot.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Периодическое сохранение состояния на диск: флаг изменений, задача планировщика и атомарная запись файла.
+ * <p>
+ * Владелец состояния отмечает изменения через {@link #markDirty()}, а планировщик раз в период вызывает
+ * {@link #save()}. Без изменений запись пропускается; если запись не удалась, флаг возвращается,
+ * и она повторится в следующий период. Ошибка фоновой записи попадает в лог и не останавливает задачу.
+ * Снапшоты пишутся через {@link #writeAtomically(Path, CharSequence)}, поэтому после сбоя на диске
+ * остаётся либо старый, либо новый файл целиком.
+ */
+public final class PeriodicSnapshot {
+
+    private static final Logger log = LogManager.getLogger(PeriodicSnapshot.class);
+
+    /**
+     * Запись состояния на диск.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write() throws IOException;
+    }
+
+    private final String name;
+    private final Writer writer;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * @param name   что сохраняется, для лога: например, «снапшот статистики фильмов»
+     * @param writer запись состояния на диск
+     */
+    public PeriodicSnapshot(String name, Writer writer) {
+        this.name = name;
+        this.writer = writer;
+    }
+
+    /**
+     * Отмечает, что состояние изменилось и его нужно сохранить.
+     */
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * Запускает периодическое сохранение.
+     */
+    public void start(ScheduledExecutorService scheduler, Duration period) {
+        long periodMillis = period.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                save();
+            } catch (RuntimeException e) {
+                log.error("Не удалось сохранить {}", name, e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Сохраняет состояние, если с прошлого сохранения были изменения.
+     *
+     * @return true, если состояние записано
+     * @throws UncheckedIOException если запись не удалась; изменения останутся отмеченными
+     */
+    public boolean save() {
+        if (!dirty.getAndSet(false)) {
+            return false;
+        }
+        try {
+            writer.write();
+        } catch (IOException e) {
+            dirty.set(true);
+            throw new UncheckedIOException("Не удалось сохранить " + name, e);
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Пишет содержимое во временный файл рядом с {@code file} и атомарно подменяет им {@code file}.
+     */
+    public static void writeAtomically(Path file, CharSequence content) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, content, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,76 @@
+package bot.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.api.objects.photo.PhotoSize;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Картинки одного бота.
+ * <p>
+ * После первой загрузки картинки Telegram возвращает её file_id; он запоминается по пути ресурса
+ * ({@link #remember}), и дальше та же картинка отправляется по file_id без повторной загрузки.
+ * file_id действует только для бота, который загрузил картинку, поэтому у каждого бота свой
+ * {@code PhotoCache}, а байты картинок для первой загрузки берутся из общего {@link AssetCache}.
+ */
+public class PhotoCache {
+
+    private static final Logger log = LogManager.getLogger(PhotoCache.class);
+
+    private final AssetCache assets;
+    private final Map<String, String> fileIds = new ConcurrentHashMap<>();
+
+    /**
+     * @param assets общий кэш картинок процесса
+     */
+    public PhotoCache(AssetCache assets) {
+        this.assets = assets;
+    }
+
+    /**
+     * @param imagePath путь к картинке в classpath
+     * @param chatId    идентификатор чата для логов
+     * @return file_id, если картинка уже загружалась этим ботом, иначе её содержимое;
+     * null, если ресурс не найден
+     */
+    public InputFile input(String imagePath, Long chatId) {
+        String fileId = fileIds.get(imagePath);
+        if (fileId != null) {
+            log.debug("Создание SendPhoto для chatId={} по file_id картинки '{}'", chatId, imagePath);
+            return new InputFile(fileId);
+        }
+
+        byte[] bytes = assets.get(imagePath);
+        if (bytes == null) {
+            log.warn("Ресурс с изображением не найден по пути '{}' для chatId={}", imagePath, chatId);
+            return null;
+        }
+
+        log.debug("Создание SendPhoto для chatId={} с imagePath='{}'", chatId, imagePath);
+        return new InputFile(new ByteArrayInputStream(bytes), imagePath);
+    }
+
+    /**
+     * Запоминает file_id загруженной картинки, чтобы отправлять её повторно без загрузки файла.
+     *
+     * @param request отправленный запрос с картинкой
+     * @param sent    сообщение, которое вернул Telegram, или null
+     */
+    public void remember(SendPhoto request, Message sent) {
+        if (request == null || sent == null || !sent.hasPhoto() || !request.getPhoto().isNew()) {
+            return;
+        }
+        List<PhotoSize> sizes = sent.getPhoto();
+        String fileId = sizes.get(sizes.size() - 1).getFileId();
+        if (fileId != null && fileIds.putIfAbsent(request.getPhoto().getMediaName(), fileId) == null) {
+            log.debug("Запомнен file_id картинки '{}'", request.getPhoto().getMediaName());
+        }
+    }
+}
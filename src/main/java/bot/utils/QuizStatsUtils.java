@@ -0,0 +1,58 @@
+package bot.utils;
+
+import movie_quiz.core.MovieStat;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Формирует текст отчёта о сложности фильмов кино-квиза.
+ */
+public class QuizStatsUtils {
+
+    private static final int REPORT_SIZE = 5;
+
+    /**
+     * Формирует отчёт: общие итоги, самые сложные и самые простые фильмы.
+     * Сортирует только итоговые строки каталога, журнал событий не читается.
+     */
+    public String getReportMessage(List<MovieStat> stats) {
+        if (stats.isEmpty()) {
+            return "📊 Статистика кино-квиза пока пуста";
+        }
+
+        long shown = 0;
+        long correct = 0;
+        long timedOut = 0;
+        for (MovieStat stat : stats) {
+            shown += stat.shown();
+            correct += stat.correct();
+            timedOut += stat.timedOut();
+        }
+
+        StringBuilder builder = new StringBuilder("📊 Статистика кино-квиза\n\n");
+        builder.append("Фильмов: %d, вопросов: %d, верных: %d%%, истекло время: %d\n"
+                .formatted(stats.size(), shown, percent(correct, shown), timedOut));
+
+        List<MovieStat> byAccuracy = stats.stream()
+                .sorted(Comparator.comparingDouble(MovieStat::accuracy).thenComparing(MovieStat::title))
+                .toList();
+        appendMovies(builder, "\n🧩 Самые сложные:\n", byAccuracy.subList(0, Math.min(REPORT_SIZE, byAccuracy.size())));
+        appendMovies(builder, "\n🍿 Самые простые:\n",
+                byAccuracy.subList(Math.max(0, byAccuracy.size() - REPORT_SIZE), byAccuracy.size()).reversed());
+        return builder.toString();
+    }
+
+    private static void appendMovies(StringBuilder builder, String title, List<MovieStat> movies) {
+        builder.append(title);
+        for (MovieStat stat : movies) {
+            builder.append("%s — %d%% из %d, среднее время %.1f с\n".formatted(
+                    stat.title(), percent(stat.correct(), stat.shown()), stat.shown(),
+                    stat.meanLatencyMillis() / 1000.0));
+        }
+    }
+
+    private static long percent(long part, long total) {
+        return total == 0 ? 0 : Math.round(100.0 * part / total);
+    }
+}
@@ -8,21 +8,26 @@ import org.apache.logging.log4j.Logger;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
 import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboard;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardRemove;
 import pomodoro.bot.PomodoroReply;
 
-import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Утилитарный класс для преобразования {@link BotReply}
  * в Telegram API объекты {@link SendMessage} и {@link SendPhoto}.
  * <p>
  * Содержит только статические методы и не предполагает создание экземпляров.
+ * <p>
+ * Картинки берутся из {@link PhotoCache} бота: по запомненному file_id или из общего кэша ресурсов.
  */
 public class ReplyUtils {
 
     private static final MovieQuizKeyboardFactory keyboardFactoryQuiz = new MovieQuizKeyboardFactory();
     private static final PomodoroKeyboardFactory keyboardFactoryPomodoro = new PomodoroKeyboardFactory();
+    private static final ReplyKeyboardRemove REMOVE_KEYBOARD = new ReplyKeyboardRemove(true);
     private static final Logger log = LogManager.getLogger(ReplyUtils.class);
 
     /**
@@ -32,6 +37,14 @@ public class ReplyUtils {
         throw new UnsupportedOperationException("Utility class");
     }
 
+    /**
+     * Заранее строит клавиатуры общих вопросов кино-квиза,
+     * см. {@link MovieQuizKeyboardFactory#shareOptionsKeyboards}.
+     */
+    public static void shareQuizKeyboards(Collection<List<String>> optionLists) {
+        keyboardFactoryQuiz.shareOptionsKeyboards(optionLists);
+    }
+
     /**
      * Создаёт объект {@link SendPhoto} по данным ответа бота MovieQuiz.
      * <p>
@@ -40,10 +53,10 @@ public class ReplyUtils {
      *
      * @param reply       доменный ответ бота, содержащий путь к изображению
      * @param chatId      идентификатор чата, в который необходимо отправить фото
-     * @param classLoader загрузчик классов, из которого будет читаться ресурс-изображение
+     * @param photos      картинки бота, отправляющего фото
      * @return настроенный {@link SendPhoto} или {@code null}, если фото отправить нельзя
      */
-    public static SendPhoto sendPhotoQuiz(BotReply reply, Long chatId, ClassLoader classLoader) {
+    public static SendPhoto sendPhotoQuiz(BotReply reply, Long chatId, PhotoCache photos) {
         log.info("Вызов sendPhotoQuiz для chatId={}", chatId);
 
         if (reply == null) {
@@ -61,15 +74,11 @@ public class ReplyUtils {
             return null;
         }
 
-        InputStream is = classLoader.getResourceAsStream(imagePath);
-        if (is == null) {
-            log.warn("Ресурс с изображением не найден по пути '{}' для chatId={}", imagePath, chatId);
+        InputFile inputFile = photos.input(imagePath, chatId);
+        if (inputFile == null) {
             return null;
         }
 
-        log.debug("Создание SendPhoto для chatId={} с imagePath='{}'", chatId, imagePath);
-        InputFile inputFile = new InputFile(is, imagePath);
-
         return SendPhoto.builder()
                 .chatId(chatId)
                 .photo(inputFile)
@@ -80,8 +89,9 @@ public class ReplyUtils {
      * Создаёт объект {@link SendMessage} по данным ответа бота.
      * <p>
      * Если квиз завершён ({@link BotReply#isFinished()} == true),
-     * клавиатура удаляется с помощью {@link ReplyKeyboardRemove}.
-     * В противном случае создаётся клавиатура с вариантами фильмов.
+     * клавиатура удаляется общей разметкой {@link ReplyKeyboardRemove}.
+     * В противном случае создаётся клавиатура с вариантами фильмов:
+     * инлайн-клавиатура с callback-данными, если ответ в инлайн-режиме, иначе обычная.
      *
      * @param reply  доменный ответ бота, содержащий текст и состояние квиза
      * @param chatId идентификатор чата, в который необходимо отправить сообщение
@@ -104,15 +114,18 @@ public class ReplyUtils {
             return SendMessage.builder()
                     .chatId(chatId)
                     .text(reply.text())
-                    .replyMarkup(new ReplyKeyboardRemove(true))
+                    .replyMarkup(REMOVE_KEYBOARD)
                     .build();
         }
 
         log.info("Отправка игрового сообщения в чат chatId={}", chatId);
+        ReplyKeyboard keyboard = reply.isInline()
+                ? keyboardFactoryQuiz.createInlineOptionsKeyboard(reply.movieTitles(), reply.callbackPrefix())
+                : keyboardFactoryQuiz.createOptionsKeyboard(reply.movieTitles());
         return SendMessage.builder()
                 .chatId(chatId)
                 .text(reply.text())
-                .replyMarkup(keyboardFactoryQuiz.createOptionsKeyboard(reply.movieTitles()))
+                .replyMarkup(keyboard)
                 .build();
     }
 
@@ -124,10 +137,10 @@ public class ReplyUtils {
      *
      * @param reply       доменный ответ бота, содержащий путь к изображению
      * @param chatId      идентификатор чата, в который необходимо отправить фото
-     * @param classLoader загрузчик классов, из которого будет читаться ресурс-изображение
+     * @param photos      картинки бота, отправляющего фото
      * @return настроенный {@link SendPhoto} или {@code null}, если фото отправить нельзя
      */
-    public static SendPhoto sendPhotoPomodoro(PomodoroReply reply, Long chatId, ClassLoader classLoader) {
+    public static SendPhoto sendPhotoPomodoro(PomodoroReply reply, Long chatId, PhotoCache photos) {
         log.info("Вызов sendPhotoPomodoro для chatId={}", chatId);
 
         if (reply == null) {
@@ -145,15 +158,11 @@ public class ReplyUtils {
             return null;
         }
 
-        InputStream is = classLoader.getResourceAsStream(imagePath);
-        if (is == null) {
-            log.warn("Ресурс с изображением не найден по пути '{}' для chatId={}", imagePath, chatId);
+        InputFile inputFile = photos.input(imagePath, chatId);
+        if (inputFile == null) {
             return null;
         }
 
-        log.debug("Создание SendPhoto для chatId={} с imagePath='{}'", chatId, imagePath);
-        InputFile inputFile = new InputFile(is, imagePath);
-
         return SendPhoto.builder()
                 .chatId(chatId)
                 .photo(inputFile)
@@ -164,8 +173,10 @@ public class ReplyUtils {
      * Создаёт объект {@link SendMessage} по данным ответа бота.
      * <p>
      * Если сессия завершена ({@link PomodoroReply#isFinished()} == true),
-     * клавиатура удаляется с помощью {@link ReplyKeyboardRemove}.
-     * В противном случае создаётся клавиатура с тремя вариантами ответа.
+     * клавиатура удаляется общей разметкой {@link ReplyKeyboardRemove}.
+     * Если ответ предлагает прошлые настройки ({@link PomodoroReply#offersPreset()} == true),
+     * показывается клавиатура с кнопкой их применения.
+     * В противном случае используется заранее построенная клавиатура с тремя вариантами ответа.
      *
      * @param reply  доменный ответ бота, содержащий текст и состояние Pomodoro
      * @param chatId идентификатор чата, в который необходимо отправить сообщение
@@ -183,12 +194,21 @@ public class ReplyUtils {
             return null;
         }
 
+        if (reply.offersPreset()) {
+            log.info("Отправка предложения прошлых настроек в чат chatId={}", chatId);
+            return SendMessage.builder()
+                    .chatId(chatId)
+                    .text(reply.text())
+                    .replyMarkup(keyboardFactoryPomodoro.createPresetKeyboard())
+                    .build();
+        }
+
         if (reply.isFinished()) {
             log.info("Отправка финального сообщения в чат chatId={}", chatId);
             return SendMessage.builder()
                     .chatId(chatId)
                     .text(reply.text())
-                    .replyMarkup(new ReplyKeyboardRemove(true))
+                    .replyMarkup(REMOVE_KEYBOARD)
                     .build();
         }
 
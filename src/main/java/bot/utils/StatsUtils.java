@@ -1,6 +1,10 @@
 package bot.utils;
 
+import pomodoro.core.Phase;
 import pomodoro.core.PomodoroStats;
+import pomodoro.core.StatsReport;
+
+import java.util.Map;
 
 public class StatsUtils {
 
@@ -29,4 +33,32 @@ public class StatsUtils {
                 restHours, restMinutes
         );
     }
+
+    /**
+     * Формирует текст сводного отчёта по всем пользователям.
+     *
+     * @param report   сводный отчёт
+     * @param epochDay день, относительно которого считаются DAU и MAU
+     * @return текст отчёта
+     */
+    public String getReportMessage(StatsReport report, long epochDay) {
+        long focusMinutes = report.getTotalFocusMinutes();
+        StringBuilder builder = new StringBuilder("""
+                📊 Сводная статистика Pomodoro:
+                -----------------------------------------
+                💼 Общее время фокуса: %d час. %d мин.
+                👤 DAU: %d, MAU: %d
+                -----------------------------------------
+                """.formatted(focusMinutes / 60, focusMinutes % 60,
+                report.dailyActiveUsers(epochDay), report.monthlyActiveUsers(epochDay)));
+
+        for (Phase phase : Phase.values()) {
+            builder.append("%s: %d фаз, %d мин.%n".formatted(
+                    phase.name(), report.getPhaseCount(phase), report.getPhaseMinutes(phase)));
+            for (Map.Entry<Long, Long> bucket : report.getCycleHistogram(phase).entrySet()) {
+                builder.append("    %3d мин. — %d%n".formatted(bucket.getKey(), bucket.getValue()));
+            }
+        }
+        return builder.toString();
+    }
 }
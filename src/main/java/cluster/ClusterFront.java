@@ -0,0 +1,464 @@
+package cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateConsumer;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фронт кластера: получает обновления Telegram и пересылает каждое узлу-владельцу чата.
+ * <p>
+ * Владелец определяется кольцом консистентного хеширования {@link HashRing} по chatId, поэтому
+ * все обновления чата попадают на один узел, где живут его сессии Pomodoro и квиза. У каждого узла
+ * своя очередь пересылки со своим потоком: обновления одного чата уходят по порядку, а медленный
+ * узел не задерживает остальные. Узел подтверждает обновление, как только поставил его в свою
+ * очередь обработки, поэтому пересылка не ждёт ответов пользователям.
+ * <p>
+ * Узлы регистрируются и уходят запросами {@link #JOIN_PATH} и {@link #LEAVE_PATH}; при каждом изменении
+ * состава фронт дожидается пересылки уже принятых обновлений, забирает у прежних владельцев снимки
+ * сессий переходящих чатов и передаёт их новым. Пока идёт перебалансировка, новые обновления ждут,
+ * поэтому обновление чата не может обогнать перенос его сессии.
+ * <p>
+ * Ошибка пересылки не исключает узел: обновление остаётся в очереди и отправляется повторно.
+ * Исключает узел только проверка здоровья ({@link ClusterWorker#HEALTH_PATH}), если он не ответил
+ * {@value #HEALTH_FAILURES} раза подряд; его сессии при этом забираются, как при выходе, а очередь
+ * вместе с неподтверждённым обновлением пересылается новым владельцам. Выгрузку сессий у такого узла
+ * фронт ждёт недолго, так как пересылка всех чатов в это время стоит; если узел не успел ответить,
+ * его сессии теряются.
+ */
+public class ClusterFront implements LongPollingSingleThreadUpdateConsumer, AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(ClusterFront.class);
+
+    static final String JOIN_PATH = "/nodes/join";
+    static final String LEAVE_PATH = "/nodes/leave";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration HEALTH_PERIOD = Duration.ofSeconds(2);
+    private static final Duration HEALTH_TIMEOUT = Duration.ofSeconds(2);
+    private static final int HEALTH_FAILURES = 3;
+    private static final Duration RETRY_DELAY = Duration.ofMillis(500);
+
+    private final ObjectMapper mapper;
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService health;
+    private final Duration healthPeriod;
+    private final Map<String, NodeLink> links = new HashMap<>();
+    private final Map<String, Integer> healthFailures = new HashMap<>();
+    private HashRing ring = new HashRing(List.of());
+
+    /**
+     * @param mapper JSON-маппер обновлений Telegram
+     * @param port   порт на loopback-интерфейсе для регистрации узлов, 0 — любой свободный
+     * @throws IOException если порт занят
+     */
+    public ClusterFront(ObjectMapper mapper, int port) throws IOException {
+        this(mapper, port, HEALTH_PERIOD);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    ClusterFront(ObjectMapper mapper, int port, Duration healthPeriod) throws IOException {
+        this.mapper = mapper;
+        this.healthPeriod = healthPeriod;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "cluster-front"));
+        this.health = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "cluster-front-health"));
+        server.setExecutor(executor);
+        server.createContext(JOIN_PATH, exchange -> handleMembership(exchange, true));
+        server.createContext(LEAVE_PATH, exchange -> handleMembership(exchange, false));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public void start() {
+        server.start();
+        health.scheduleWithFixedDelay(this::checkHealth,
+                healthPeriod.toMillis(), healthPeriod.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Фронт кластера слушает {}", uri());
+    }
+
+    /**
+     * @return адрес фронта для регистрации узлов
+     */
+    public URI uri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * @return адреса узлов кластера
+     */
+    public synchronized List<String> nodes() {
+        return ring.nodes();
+    }
+
+    /**
+     * Ставит обновление в очередь пересылки узла-владельца чата. Под монитором фронта выполняется
+     * только выбор узла, сама пересылка идёт в потоке узла. Обновления без чата, которые модули
+     * всё равно не обрабатывают, отбрасываются.
+     */
+    @Override
+    public void consume(Update update) {
+        if (update == null) {
+            log.error("Получено null update");
+            return;
+        }
+        Long chatId = chatIdOf(update);
+        if (chatId == null) {
+            log.debug("Пропуск обновления без чата: updateId={}", update.getUpdateId());
+            return;
+        }
+        String json;
+        try {
+            json = mapper.writeValueAsString(update);
+        } catch (JsonProcessingException e) {
+            log.error("Не удалось сериализовать обновление updateId={}", update.getUpdateId(), e);
+            return;
+        }
+        forward(new Forward(chatId, json));
+    }
+
+    private synchronized void forward(Forward forward) {
+        if (ring.isEmpty()) {
+            log.error("В кластере нет узлов, обновление chatId={} отброшено", forward.chatId());
+            return;
+        }
+        links.get(ring.nodeFor(forward.chatId())).enqueue(forward);
+    }
+
+    /**
+     * Добавляет узел и переносит на него его чаты с прежних владельцев.
+     */
+    public synchronized void join(String node) {
+        if (ring.contains(node)) {
+            return;
+        }
+        HashRing next = ring.with(node);
+        links.values().forEach(NodeLink::awaitIdle);
+        rebalance(ring.nodes(), next, REQUEST_TIMEOUT);
+        links.put(node, new NodeLink(node));
+        ring = next;
+        log.info("Узел {} вошёл в кластер, узлов: {}", node, next.nodes().size());
+    }
+
+    /**
+     * Переносит сессии узла его преемникам и исключает узел из кольца.
+     * Сессии последнего узла переносить некуда, они закрываются вместе с ним.
+     */
+    public synchronized void leave(String node) {
+        if (!ring.contains(node)) {
+            return;
+        }
+        links.get(node).awaitIdle();
+        remove(node, REQUEST_TIMEOUT);
+        log.info("Узел {} вышел из кластера, узлов: {}", node, ring.nodes().size());
+    }
+
+    /**
+     * Исключает узел, который не прошёл проверку здоровья: забирает его сессии, если он ещё
+     * отвечает на выгрузку, и пересылает его очередь новым владельцам чатов. Выгрузку ждём
+     * не дольше {@link #HEALTH_TIMEOUT}: всё это время пересылка остальных чатов стоит.
+     */
+    synchronized void evict(String node) {
+        if (!ring.contains(node)) {
+            return;
+        }
+        log.warn("Узел {} не отвечает на проверку здоровья, исключаем его из кластера", node);
+        remove(node, HEALTH_TIMEOUT);
+    }
+
+    /**
+     * @param exportTimeout сколько ждать выгрузки сессий узла
+     */
+    private void remove(String node, Duration exportTimeout) {
+        HashRing next = ring.without(node);
+        if (!next.isEmpty()) {
+            rebalance(List.of(node), next, exportTimeout);
+        }
+        List<Forward> pending = links.remove(node).close();
+        healthFailures.remove(node);
+        ring = next;
+        pending.forEach(this::forward);
+    }
+
+    /**
+     * Забирает у узлов {@code sources} сессии чатов, владельцы которых в {@code next} другие,
+     * и передаёт их новым владельцам.
+     *
+     * @param exportTimeout сколько ждать выгрузки сессий от каждого узла {@code sources}
+     */
+    private void rebalance(Collection<String> sources, HashRing next, Duration exportTimeout) {
+        String members = String.join("\n", next.nodes());
+        Map<String, List<String>> byOwner = new HashMap<>();
+        for (String source : sources) {
+            try {
+                for (String snapshot : post(source, ClusterWorker.EXPORT_PATH, members, exportTimeout).lines().toList()) {
+                    if (snapshot.isBlank()) {
+                        continue;
+                    }
+                    long chatId = Long.parseLong(snapshot.substring(0, snapshot.indexOf(',')));
+                    byOwner.computeIfAbsent(next.nodeFor(chatId), owner -> new ArrayList<>()).add(snapshot);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Не удалось забрать сессии у узла {}", source, e);
+            }
+        }
+        byOwner.forEach((owner, snapshots) -> {
+            try {
+                post(owner, ClusterWorker.IMPORT_PATH, String.join("\n", snapshots), REQUEST_TIMEOUT);
+                log.info("Узлу {} передано сессий: {}", owner, snapshots.size());
+            } catch (IOException | RuntimeException e) {
+                log.error("Не удалось передать узлу {} сессий: {}", owner, snapshots.size(), e);
+            }
+        });
+    }
+
+    /**
+     * Опрашивает узлы и исключает те, что не ответили {@value #HEALTH_FAILURES} раза подряд.
+     * Опрос идёт без монитора фронта, чтобы не задерживать пересылку.
+     */
+    private void checkHealth() {
+        for (String node : nodes()) {
+            boolean healthy = isHealthy(node);
+            boolean failed;
+            synchronized (this) {
+                int failures = healthy ? 0 : healthFailures.getOrDefault(node, 0) + 1;
+                healthFailures.put(node, failures);
+                failed = failures >= HEALTH_FAILURES;
+            }
+            if (failed) {
+                evict(node);
+            }
+        }
+    }
+
+    private boolean isHealthy(String node) {
+        try {
+            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create("http://" + node + ClusterWorker.HEALTH_PATH))
+                            .timeout(HEALTH_TIMEOUT)
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            log.debug("Узел {} не ответил на проверку здоровья", node, e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    private String post(String node, String path, String body, Duration timeout) throws IOException {
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://" + node + path))
+                            .timeout(timeout)
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Узел " + node + " ответил " + response.statusCode() + " на " + path);
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Запрос к узлу " + node + " прерван", e);
+        }
+    }
+
+    private void handleMembership(HttpExchange exchange, boolean joining) throws IOException {
+        List<String> lines = ClusterWorker.readLines(exchange);
+        if (lines.size() != 1) {
+            ClusterWorker.respond(exchange, 400, "");
+            return;
+        }
+        if (joining) {
+            join(lines.get(0).strip());
+        } else {
+            leave(lines.get(0).strip());
+        }
+        ClusterWorker.respond(exchange, 204, "");
+    }
+
+    private static Long chatIdOf(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasCallbackQuery()) {
+            var callback = update.getCallbackQuery();
+            return callback.getMessage() != null ? callback.getMessage().getChatId() : callback.getFrom().getId();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        health.shutdownNow();
+        synchronized (this) {
+            links.values().forEach(NodeLink::close);
+            links.clear();
+        }
+    }
+
+    /**
+     * Обновление чата в очереди пересылки.
+     */
+    private record Forward(long chatId, String json) {
+    }
+
+    /**
+     * Очередь пересылки одного узла со своим потоком. Обновление снимается с очереди, только когда
+     * узел его принял, поэтому при сбое оно отправляется повторно, а порядок обновлений сохраняется.
+     */
+    private final class NodeLink implements Runnable {
+
+        private final String node;
+        private final URI updateUri;
+        private final ArrayDeque<Forward> queue = new ArrayDeque<>();
+        private final Thread thread;
+        private boolean sending;
+        private boolean closed;
+
+        NodeLink(String node) {
+            this.node = node;
+            this.updateUri = URI.create("http://" + node + ClusterWorker.UPDATE_PATH);
+            this.thread = daemon(this, "cluster-link-" + node);
+            thread.start();
+        }
+
+        synchronized void enqueue(Forward forward) {
+            queue.add(forward);
+            notifyAll();
+        }
+
+        /**
+         * Ждёт, пока узел примет уже поставленные в очередь обновления, но не дольше таймаута запроса:
+         * недоступный узел не должен навсегда остановить перебалансировку.
+         */
+        synchronized void awaitIdle() {
+            long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+            try {
+                while (!closed && (sending || !queue.isEmpty())) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        log.warn("Узел {} не принял {} обновлений до перебалансировки", node, queue.size());
+                        return;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Останавливает поток узла.
+         *
+         * @return обновления, которые узел ещё не подтвердил, включая отправляемое сейчас: если узел
+         * всё же успел его принять, новый владелец получит его повторно, но обновление не потеряется
+         */
+        synchronized List<Forward> close() {
+            closed = true;
+            thread.interrupt();
+            List<Forward> pending = new ArrayList<>(queue);
+            queue.clear();
+            notifyAll();
+            return pending;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Forward next;
+                synchronized (this) {
+                    try {
+                        while (queue.isEmpty() && !closed) {
+                            wait();
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    next = queue.peek();
+                    sending = true;
+                }
+                boolean accepted = send(next);
+                synchronized (this) {
+                    sending = false;
+                    if (accepted && !queue.isEmpty() && queue.peek() == next) {
+                        queue.poll();
+                    }
+                    notifyAll();
+                }
+                if (!accepted) {
+                    try {
+                        Thread.sleep(RETRY_DELAY.toMillis());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return true, если обновление больше не нужно отправлять: узел его принял или отверг как некорректное
+         */
+        private boolean send(Forward forward) {
+            try {
+                HttpResponse<Void> response = http.send(HttpRequest.newBuilder(updateUri)
+                                .timeout(REQUEST_TIMEOUT)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(forward.json()))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 503) {
+                    log.debug("Очередь узла {} заполнена, повтор обновления chatId={}", node, forward.chatId());
+                    return false;
+                }
+                if (response.statusCode() / 100 != 2) {
+                    log.error("Узел {} ответил {} на обновление chatId={}", node, response.statusCode(), forward.chatId());
+                }
+                return true;
+            } catch (IOException e) {
+                log.warn("Узел {} не принял обновление chatId={}, повтор", node, forward.chatId(), e);
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateConsumer;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рабочий узел кластера: принимает от фронта обновления своих чатов и снимки переносимых сессий.
+ * <p>
+ * Узел слушает только loopback-интерфейс: протокол между фронтом и узлами не аутентифицирован
+ * и рассчитан на запуск всех процессов на одной машине. Принятое обновление ставится в очередь
+ * узла, и фронт сразу получает ответ 202, не дожидаясь ответов пользователям. Очередь разбирает
+ * один поток, как и в обычном режиме long polling, поэтому порядок обновлений сохраняется.
+ * Выгрузка и приём сессий идут через ту же очередь: снимок делается после уже принятых
+ * обновлений, а не посреди их обработки. Если очередь заполнена, узел отвечает 503,
+ * и фронт повторяет обновление позже.
+ */
+public class ClusterWorker implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(ClusterWorker.class);
+
+    static final String UPDATE_PATH = "/update";
+    static final String EXPORT_PATH = "/sessions/export";
+    static final String IMPORT_PATH = "/sessions/import";
+    static final String HEALTH_PATH = "/health";
+    private static final Duration MEMBERSHIP_TIMEOUT = Duration.ofMinutes(1);
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final LongPollingSingleThreadUpdateConsumer consumer;
+    private final SessionHandoff handoff;
+    private final ObjectMapper mapper;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor updates;
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final String address;
+
+    /**
+     * @param consumer обработчик обновлений узла, обычно {@link bot.BotRouter}
+     * @param handoff  перенос сессий узла
+     * @param mapper   JSON-маппер обновлений Telegram
+     * @param port     порт на loopback-интерфейсе, 0 — любой свободный
+     * @throws IOException если порт занят
+     */
+    public ClusterWorker(LongPollingSingleThreadUpdateConsumer consumer,
+                         SessionHandoff handoff,
+                         ObjectMapper mapper,
+                         int port) throws IOException {
+        this.consumer = consumer;
+        this.handoff = handoff;
+        this.mapper = mapper;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.address = server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.updates = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "cluster-worker-updates");
+            thread.setDaemon(true);
+            return thread;
+        });
+        updates.prestartCoreThread();
+        server.setExecutor(executor);
+        server.createContext(UPDATE_PATH, this::handleUpdate);
+        server.createContext(EXPORT_PATH, this::handleExport);
+        server.createContext(IMPORT_PATH, this::handleImport);
+        server.createContext(HEALTH_PATH, exchange -> respond(exchange, 204, ""));
+    }
+
+    public void start() {
+        server.start();
+        log.info("Узел кластера слушает {}", address);
+    }
+
+    /**
+     * @return адрес узла в кольце, {@code host:port}
+     */
+    public String address() {
+        return address;
+    }
+
+    /**
+     * Регистрирует узел во фронте. Возвращается после того, как фронт перенёс на узел его чаты.
+     *
+     * @param front адрес фронта, например {@code http://127.0.0.1:8080}
+     */
+    public void join(URI front) throws IOException, InterruptedException {
+        membership(front.resolve(ClusterFront.JOIN_PATH));
+    }
+
+    /**
+     * Выводит узел из кластера. Возвращается после того, как фронт забрал с узла все сессии.
+     */
+    public void leave(URI front) throws IOException, InterruptedException {
+        membership(front.resolve(ClusterFront.LEAVE_PATH));
+    }
+
+    private void membership(URI uri) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri)
+                        .timeout(MEMBERSHIP_TIMEOUT)
+                        .POST(HttpRequest.BodyPublishers.ofString(address))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Фронт ответил " + response.statusCode() + " на " + uri);
+        }
+    }
+
+    private void handleUpdate(HttpExchange exchange) throws IOException {
+        Update update;
+        try (InputStream body = exchange.getRequestBody()) {
+            update = mapper.readValue(body, Update.class);
+        } catch (IOException e) {
+            log.error("Не удалось разобрать обновление от фронта", e);
+            respond(exchange, 400, "");
+            return;
+        }
+        try {
+            updates.execute(() -> {
+                try {
+                    consumer.consume(update);
+                } catch (RuntimeException e) {
+                    log.error("Ошибка обработки обновления updateId={}", update.getUpdateId(), e);
+                }
+            });
+            respond(exchange, 202, "");
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь обновлений узла заполнена, updateId={}", update.getUpdateId());
+            respond(exchange, 503, "");
+        }
+    }
+
+    private void handleExport(HttpExchange exchange) throws IOException {
+        HashRing next = new HashRing(readLines(exchange));
+        if (next.isEmpty()) {
+            respond(exchange, 400, "");
+            return;
+        }
+        List<String> snapshots = afterQueued(exchange,
+                () -> handoff.exportSessions(chatId -> !next.nodeFor(chatId).equals(address)));
+        if (snapshots != null) {
+            log.info("Отдано фронту сессий: {}", snapshots.size());
+            respond(exchange, 200, String.join("\n", snapshots));
+        }
+    }
+
+    private void handleImport(HttpExchange exchange) throws IOException {
+        List<String> snapshots = readLines(exchange);
+        Boolean imported = afterQueued(exchange, () -> {
+            handoff.importSessions(snapshots);
+            return true;
+        });
+        if (imported != null) {
+            log.info("Принято от фронта сессий: {}", snapshots.size());
+            respond(exchange, 204, "");
+        }
+    }
+
+    /**
+     * Выполняет задачу в очереди обновлений после уже принятых обновлений и ждёт результата.
+     * Если очередь заполнена, задача ждёт места, а не отклоняется: перенос сессий нельзя пропустить.
+     *
+     * @return результат задачи или null, если она не выполнилась; тогда ответ 500 уже отправлен
+     */
+    private <T> T afterQueued(HttpExchange exchange, Callable<T> task) throws IOException {
+        FutureTask<T> future = new FutureTask<>(task);
+        try {
+            updates.getQueue().put(future);
+            return future.get();
+        } catch (ExecutionException e) {
+            log.error("Ошибка переноса сессий", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        respond(exchange, 500, "");
+        return null;
+    }
+
+    static List<String> readLines(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            String text = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            return text.lines().filter(line -> !line.isBlank()).toList();
+        }
+    }
+
+    static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        updates.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Кольцо консистентного хеширования чатов по узлам кластера.
+ * <p>
+ * Каждый узел занимает на кольце {@code virtualNodes} точек; чат принадлежит узлу первой точки
+ * не меньше хеша chatId (по кругу). При добавлении или удалении узла меняют владельца только
+ * чаты соседних с его точками дуг — в среднем 1/N всех чатов. Кольцо неизменяемое: фронт и
+ * узлы строят его по одному и тому же списку адресов и получают одинаковое распределение.
+ */
+public final class HashRing {
+
+    /**
+     * Число точек одного узла на кольце по умолчанию.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final List<String> nodes;
+    private final int virtualNodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public HashRing(Collection<String> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param nodes        адреса узлов, порядок не важен
+     * @param virtualNodes число точек одного узла на кольце
+     * @throws IllegalArgumentException если число точек не положительное
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Число точек узла на кольце должно быть положительным: " + virtualNodes);
+        }
+        this.nodes = List.copyOf(new TreeSet<>(nodes));
+        this.virtualNodes = virtualNodes;
+        long[][] entries = new long[this.nodes.size() * virtualNodes][];
+        int next = 0;
+        for (int node = 0; node < this.nodes.size(); node++) {
+            for (int i = 0; i < virtualNodes; i++) {
+                entries[next++] = new long[]{pointOf(this.nodes.get(node), i), node};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.nodes.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * @return узел-владелец чата
+     * @throws IllegalStateException если в кольце нет узлов
+     */
+    public String nodeFor(long chatId) {
+        if (points.length == 0) {
+            throw new IllegalStateException("В кластере нет узлов");
+        }
+        int index = Arrays.binarySearch(points, mix(chatId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * @return кольцо с добавленным узлом
+     */
+    public HashRing with(String node) {
+        List<String> grown = new ArrayList<>(nodes);
+        grown.add(node);
+        return new HashRing(grown, virtualNodes);
+    }
+
+    /**
+     * @return кольцо без узла
+     */
+    public HashRing without(String node) {
+        List<String> shrunk = new ArrayList<>(nodes);
+        shrunk.remove(node);
+        return new HashRing(shrunk, virtualNodes);
+    }
+
+    /**
+     * @return адреса узлов по возрастанию
+     */
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public boolean contains(String node) {
+        return nodes.contains(node);
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    private static long pointOf(String node, int index) {
+        long hash = 0xCBF2_9CE4_8422_2325L;
+        for (byte b : (node + '#' + index).getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x0100_0000_01B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3: соседние chatId расходятся по всему кольцу.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51_AFD7_ED55_8CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CE_B9FE_1A85_EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
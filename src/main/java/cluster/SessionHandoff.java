@@ -0,0 +1,24 @@
+package cluster;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Перенос сессий чатов между узлами кластера при изменении состава узлов.
+ * Снимки передаются строками, формат которых знает только сам узел.
+ */
+public interface SessionHandoff {
+
+    /**
+     * Снимает и закрывает на этом узле сессии переносимых чатов.
+     *
+     * @param moving отбирает чаты, которые переходят к другому узлу
+     * @return снимки сессий, по одной строке на чат; первое поле строки — chatId
+     */
+    List<String> exportSessions(LongPredicate moving);
+
+    /**
+     * Восстанавливает сессии по снимкам, снятым другим узлом.
+     */
+    void importSessions(List<String> snapshots);
+}
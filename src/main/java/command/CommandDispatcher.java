@@ -1,56 +1,54 @@
 package command;
 
-import movie_quiz.bot.MovieQuizBot;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.generics.TelegramClient;
-import pomodoro.bot.PomodoroBot;
-
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Диспетчер команд Telegram-бота.
  * По тексту команды находит соответствующую реализацию {@link Command} и выполняет её.
+ * Команды добавляются через {@link #register(String, Command)}.
  */
 public class CommandDispatcher {
 
     private static final Logger log = LogManager.getLogger(CommandDispatcher.class);
 
-    private final Map<String, Command> commandMap = new HashMap<>();
+    private final CommandMatcher matcher = new CommandMatcher();
 
     /**
-     * Регистрирует базовый набор команд бота.
+     * Регистрирует команду бота.
      *
-     * @param telegramClient клиент Telegram для отправки ответов
-     * @param quizBot        экземпляр квиз-бота для игровых команд
-     * @param pomodoroBot    экземпляр помодоро бота
+     * @param name    имя команды, например {@code /start}
+     * @param command реализация команды
+     * @return этот же диспетчер для цепочки вызовов
+     * @throws IllegalArgumentException если имя некорректно или уже зарегистрировано
      */
-    public CommandDispatcher(TelegramClient telegramClient, MovieQuizBot quizBot, PomodoroBot pomodoroBot) {
-        commandMap.put("/start", new CommandStart(telegramClient));
-        commandMap.put("/playmoviequiz", new CommandMovieQuiz(telegramClient, quizBot));
-        commandMap.put("/startpomodoro", new CommandPomodoro(telegramClient, pomodoroBot));
+    public CommandDispatcher register(String name, Command command) {
+        matcher.register(name, command);
+        log.debug("Зарегистрирована команда '{}'", name);
+        return this;
     }
 
     /**
      * Находит и выполняет команду по тексту сообщения.
+     * Поддерживает суффикс {@code @ИмяБота} и аргументы после имени команды;
+     * команды, адресованные другому боту, пропускает.
      * Если команда не найдена, пишет предупреждение в лог.
      *
      * @param commandText полный текст введённой команды
+     * @param botUsername имя этого бота без '@' или null, если оно неизвестно
      * @param update      исходное обновление Telegram
      */
-    public void dispatch(String commandText, Update update) {
-        String commandKey = commandText.split("\\s")[0].toLowerCase();
-        Command command = commandMap.get(commandKey);
-
-        log.info("Обработка команды '{}'", commandKey);
-
-        if (command != null) {
-            command.execute(update);
+    public void dispatch(String commandText, String botUsername, Update update) {
+        CommandMatcher.RegisteredCommand registered = matcher.match(commandText, botUsername);
+
+        if (registered != null) {
+            log.info("Обработка команды '{}'", registered.name());
+            registered.command().execute(update);
+        } else if (!CommandMatcher.isAddressedTo(commandText, botUsername)) {
+            log.debug("Пропуск команды другому боту: '{}'", commandText);
         } else {
-            log.warn("Команда '{}' не найдена, исходный текст: '{}'", commandKey, commandText);
+            log.warn("Команда не найдена, исходный текст: '{}'", commandText);
         }
     }
 }
-
@@ -0,0 +1,171 @@
+package command;
+
+import java.util.Arrays;
+
+/**
+ * Префиксное дерево команд Telegram-бота.
+ * <p>
+ * Сопоставляет текст сообщения с зарегистрированной командой без создания промежуточных строк:
+ * текст просматривается на месте, регистр символов не учитывается, ведущие пробелы пропускаются.
+ * Имя команды заканчивается на пробельном символе, на конце текста или на суффиксе
+ * {@code @ИмяБота}, который Telegram добавляет к командам в групповых чатах. Команда с суффиксом
+ * другого бота не совпадает ни с одной зарегистрированной.
+ * <p>
+ * Регистрация команд не потокобезопасна и должна выполняться до начала обработки обновлений.
+ */
+public class CommandMatcher {
+
+    private final Node root = new Node();
+
+    /**
+     * Зарегистрированная команда вместе с её каноническим именем.
+     *
+     * @param name    имя команды в нижнем регистре, например {@code /start}
+     * @param command реализация команды
+     */
+    public record RegisteredCommand(String name, Command command) {
+    }
+
+    /**
+     * Регистрирует команду.
+     *
+     * @param name    имя команды, начинающееся с '/'
+     * @param command реализация команды
+     * @throws IllegalArgumentException если имя некорректно или уже зарегистрировано
+     */
+    public void register(String name, Command command) {
+        if (name == null || name.length() < 2 || name.charAt(0) != '/') {
+            throw new IllegalArgumentException("Имя команды должно начинаться с '/' и быть непустым: " + name);
+        }
+        if (command == null) {
+            throw new IllegalArgumentException("Команда не может быть null");
+        }
+
+        Node node = root;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c) || c == '@') {
+                throw new IllegalArgumentException("Имя команды не может содержать пробелы и '@': " + name);
+            }
+            node = node.childOrCreate(Character.toLowerCase(c));
+        }
+        if (node.registered != null) {
+            throw new IllegalArgumentException("Команда уже зарегистрирована: " + name);
+        }
+        node.registered = new RegisteredCommand(name.toLowerCase(), command);
+    }
+
+    /**
+     * Находит команду по тексту сообщения.
+     *
+     * @param text        текст сообщения, например {@code "/Start@SandBoxBot аргументы"}
+     * @param botUsername имя этого бота без '@' или null, если оно неизвестно и суффикс не проверяется
+     * @return зарегистрированная команда или null, если команда не найдена или адресована другому боту
+     */
+    public RegisteredCommand match(CharSequence text, String botUsername) {
+        if (text == null) {
+            return null;
+        }
+
+        int length = text.length();
+        int i = skipWhitespace(text, 0);
+
+        Node node = root;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '@') {
+                break;
+            }
+            node = node.child(Character.toLowerCase(c));
+            if (node == null) {
+                return null;
+            }
+        }
+        if (i < length && text.charAt(i) == '@' && !suffixMatches(text, i + 1, botUsername)) {
+            return null;
+        }
+        return node.registered;
+    }
+
+    /**
+     * Проверяет, адресована ли команда этому боту. В групповых чатах Telegram добавляет к команде
+     * суффикс {@code @ИмяБота}; команда без суффикса адресована всем ботам чата.
+     *
+     * @param text        текст команды
+     * @param botUsername имя этого бота без '@' или null, если оно неизвестно
+     * @return false, только если суффикс указывает на другого бота
+     */
+    public static boolean isAddressedTo(CharSequence text, String botUsername) {
+        int length = text.length();
+        for (int i = skipWhitespace(text, 0); i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                return true;
+            }
+            if (c == '@') {
+                return suffixMatches(text, i + 1, botUsername);
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Сравнивает суффикс от {@code start} до пробела или конца текста с именем бота без учёта регистра,
+     * как это делает Telegram.
+     */
+    private static boolean suffixMatches(CharSequence text, int start, String botUsername) {
+        if (botUsername == null) {
+            return true;
+        }
+        int i = start;
+        for (int j = 0; j < botUsername.length(); j++, i++) {
+            if (i >= text.length()
+                    || Character.toLowerCase(text.charAt(i)) != Character.toLowerCase(botUsername.charAt(j))) {
+                return false;
+            }
+        }
+        return i == text.length() || Character.isWhitespace(text.charAt(i));
+    }
+
+    /**
+     * Узел дерева. Дочерние узлы хранятся в параллельных массивах: у команд мало общих
+     * префиксов, поэтому линейный поиск по нескольким символам быстрее хеширования.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private RegisteredCommand registered;
+
+        private Node child(char key) {
+            char[] localKeys = keys;
+            for (int i = 0; i < localKeys.length; i++) {
+                if (localKeys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char key) {
+            Node existing = child(key);
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node();
+            int size = keys.length;
+            keys = Arrays.copyOf(keys, size + 1);
+            children = Arrays.copyOf(children, size + 1);
+            keys[size] = key;
+            children[size] = created;
+            return created;
+        }
+    }
+}
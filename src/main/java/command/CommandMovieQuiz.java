@@ -1,5 +1,7 @@
 package command;
 
+import bot.utils.AssetCache;
+import bot.utils.PhotoCache;
 import bot.utils.ReplyUtils;
 import movie_quiz.bot.BotReply;
 import movie_quiz.bot.MovieQuizBot;
@@ -13,7 +15,7 @@ import org.telegram.telegrambots.meta.generics.TelegramClient;
 
 /**
  * Команда запуска киноквиза.
- * Инициализирует новую игру и отправляет пользователю первый вопрос.
+ * Инициализирует новую игру (или вызов дня) и отправляет пользователю первый вопрос.
  */
 public class CommandMovieQuiz implements Command {
 
@@ -21,6 +23,8 @@ public class CommandMovieQuiz implements Command {
 
     private final TelegramClient telegramClient;
     private final MovieQuizBot quizBot;
+    private final boolean daily;
+    private final PhotoCache photos;
 
     /**
      * Создаёт команду запуска киноквиза.
@@ -29,8 +33,33 @@ public class CommandMovieQuiz implements Command {
      * @param quizBot экземпляр квиз-бота
      */
     public CommandMovieQuiz(TelegramClient client, MovieQuizBot quizBot) {
+        this(client, quizBot, false);
+    }
+
+    /**
+     * Создаёт команду запуска киноквиза.
+     *
+     * @param client  Telegram-клиент для отправки сообщений
+     * @param quizBot экземпляр квиз-бота
+     * @param daily   true для команды вызова дня
+     */
+    public CommandMovieQuiz(TelegramClient client, MovieQuizBot quizBot, boolean daily) {
+        this(client, quizBot, daily, new PhotoCache(new AssetCache(CommandMovieQuiz.class.getClassLoader())));
+    }
+
+    /**
+     * Создаёт команду запуска киноквиза.
+     *
+     * @param client  Telegram-клиент для отправки сообщений
+     * @param quizBot экземпляр квиз-бота
+     * @param daily   true для команды вызова дня
+     * @param photos  картинки бота, которому принадлежит команда
+     */
+    public CommandMovieQuiz(TelegramClient client, MovieQuizBot quizBot, boolean daily, PhotoCache photos) {
         this.telegramClient = client;
         this.quizBot = quizBot;
+        this.daily = daily;
+        this.photos = photos;
     }
 
     /**
@@ -47,16 +76,16 @@ public class CommandMovieQuiz implements Command {
         }
 
         Long chatId = update.getMessage().getChatId();
-        log.info("Запуск новой игры MovieQuiz для chatId={}", chatId);
+        log.info("Запуск новой игры MovieQuiz для chatId={}, daily={}", chatId, daily);
 
-        BotReply reply = quizBot.startGame(update);
+        BotReply reply = daily ? quizBot.startDaily(update) : quizBot.startGame(update);
 
-        SendPhoto sendPhoto = ReplyUtils.sendPhotoQuiz(reply, chatId, getClass().getClassLoader());
+        SendPhoto sendPhoto = ReplyUtils.sendPhotoQuiz(reply, chatId, photos);
         SendMessage sendMessage = ReplyUtils.sendMessageQuiz(reply, chatId);
 
         try {
             if (sendPhoto != null) {
-                telegramClient.execute(sendPhoto);
+                photos.remember(sendPhoto, telegramClient.execute(sendPhoto));
             }
             telegramClient.execute(sendMessage);
         } catch (TelegramApiException e) {
@@ -0,0 +1,54 @@
+package command;
+
+import bot.utils.LeaderboardUtils;
+import movie_quiz.service.QuizLeaderboards;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+/**
+ * Команда /myrank.
+ * Отправляет лучший результат игрока и его место в таблицах лидеров кино-квиза.
+ */
+public class CommandMyRank implements Command {
+
+    private static final Logger log = LogManager.getLogger(CommandMyRank.class);
+
+    private final TelegramClient telegramClient;
+    private final QuizLeaderboards leaderboards;
+    private final LeaderboardUtils leaderboardUtils = new LeaderboardUtils();
+
+    /**
+     * @param telegramClient клиент Telegram для отправки сообщения
+     * @param leaderboards   таблицы лидеров кино-квиза
+     */
+    public CommandMyRank(TelegramClient telegramClient, QuizLeaderboards leaderboards) {
+        this.telegramClient = telegramClient;
+        this.leaderboards = leaderboards;
+    }
+
+    @Override
+    public void execute(Update update) {
+        if (update == null || !update.hasMessage()) {
+            log.error("CommandMyRank.execute вызван с некорректным update");
+            return;
+        }
+
+        Long chatId = update.getMessage().getChatId();
+        log.info("Обработка команды /myrank для chatId={}", chatId);
+
+        SendMessage sendMessage = SendMessage.builder()
+                .chatId(chatId)
+                .text(leaderboardUtils.getRankMessage(leaderboards.allTime(), leaderboards.weekly(), chatId))
+                .build();
+
+        try {
+            telegramClient.execute(sendMessage);
+        } catch (TelegramApiException e) {
+            log.error("Не удалось отправить рейтинг игрока для chatId={}", chatId, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package command;
+
+import bot.utils.QuizStatsUtils;
+import movie_quiz.service.MovieStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+import java.util.Set;
+
+/**
+ * Команда /quizstats.
+ * Отправляет администратору отчёт о сложности фильмов кино-квиза.
+ * Остальным пользователям отвечает отказом.
+ */
+public class CommandQuizStats implements Command {
+
+    private static final Logger log = LogManager.getLogger(CommandQuizStats.class);
+
+    static final String ADMINS_ONLY = "⛔ Команда доступна только администраторам бота";
+
+    private final TelegramClient telegramClient;
+    private final MovieStats movieStats;
+    private final Set<Long> adminChatIds;
+    private final QuizStatsUtils quizStatsUtils = new QuizStatsUtils();
+
+    /**
+     * @param telegramClient клиент Telegram для отправки сообщения
+     * @param movieStats     статистика фильмов кино-квиза
+     * @param adminChatIds   идентификаторы чатов администраторов
+     */
+    public CommandQuizStats(TelegramClient telegramClient, MovieStats movieStats, Set<Long> adminChatIds) {
+        this.telegramClient = telegramClient;
+        this.movieStats = movieStats;
+        this.adminChatIds = adminChatIds;
+    }
+
+    @Override
+    public void execute(Update update) {
+        if (update == null || !update.hasMessage()) {
+            log.error("CommandQuizStats.execute вызван с некорректным update");
+            return;
+        }
+
+        Long chatId = update.getMessage().getChatId();
+        boolean admin = adminChatIds.contains(chatId);
+        log.info("Обработка команды /quizstats для chatId={}, admin={}", chatId, admin);
+
+        SendMessage sendMessage = SendMessage.builder()
+                .chatId(chatId)
+                .text(admin ? quizStatsUtils.getReportMessage(movieStats.snapshot()) : ADMINS_ONLY)
+                .build();
+
+        try {
+            telegramClient.execute(sendMessage);
+        } catch (TelegramApiException e) {
+            log.error("Не удалось отправить статистику квиза для chatId={}", chatId, e);
+        }
+    }
+}
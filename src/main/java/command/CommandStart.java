@@ -1,5 +1,6 @@
 package command;
 
+import config.ModuleKind;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
@@ -7,6 +8,9 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Команда /start.
  * Отправляет пользовательское приветствие и краткое описание возможностей бота.
@@ -15,31 +19,80 @@ public class CommandStart implements Command {
 
     private static final Logger log = LogManager.getLogger(CommandStart.class);
 
-    private final String startText = """
+    private static final String INTRO = """
             Я — бот‑роутер этого чата 🤖
             Помогаю выбрать, чем заняться прямо сейчас:
+            """;
+
+    private static final String POMODORO_INTRO = """
             
             Хочешь сфокусироваться и меньше отвлекаться — запусти таймер по методу помидора 🍅
+            """;
+
+    private static final String QUIZ_INTRO = """
             
             Хочешь отдохнуть — сыграй в кино‑квиз по кадрам из фильмов 🎬
-            
-            Отправь:
+            """;
+
+    private static final String POMODORO_COMMANDS = """
             
             /startpomodoro — включить помидор‑таймер (циклы работа/отдых) ⏱️
+            """;
+
+    private static final String QUIZ_COMMANDS = """
             
             /playmoviequiz — сыграть в кино‑квиз с вариантами ответов 🍿
             
+            /daily — вызов дня: одни и те же вопросы для всех, одна попытка 📅
+            
+            /top и /myrank — таблица лидеров кино‑квиза и твоё место в ней 🏆
+            """;
+
+    private static final String OUTRO = """
+            
             Выбери режим, а дальше каждый бот возьмёт тебя за руку в своём сценарии ✋""";
 
+    private final String startText;
     private final TelegramClient telegramClient;
 
     /**
-     * Создаёт команду /start.
+     * Создаёт команду /start для бота со всеми модулями.
      *
      * @param telegramClient клиент Telegram для отправки приветственного сообщения
      */
     public CommandStart(TelegramClient telegramClient) {
+        this(telegramClient, EnumSet.allOf(ModuleKind.class));
+    }
+
+    /**
+     * Создаёт команду /start, которая описывает только включённые модули бота.
+     *
+     * @param telegramClient клиент Telegram для отправки приветственного сообщения
+     * @param modules        включённые модули бота
+     */
+    public CommandStart(TelegramClient telegramClient, Set<ModuleKind> modules) {
         this.telegramClient = telegramClient;
+        this.startText = startText(modules);
+    }
+
+    private static String startText(Set<ModuleKind> modules) {
+        boolean pomodoro = modules.contains(ModuleKind.POMODORO);
+        boolean quiz = modules.contains(ModuleKind.MOVIE_QUIZ);
+        StringBuilder text = new StringBuilder(INTRO);
+        if (pomodoro) {
+            text.append(POMODORO_INTRO);
+        }
+        if (quiz) {
+            text.append(QUIZ_INTRO);
+        }
+        text.append("\nОтправь:\n");
+        if (pomodoro) {
+            text.append(POMODORO_COMMANDS);
+        }
+        if (quiz) {
+            text.append(QUIZ_COMMANDS);
+        }
+        return text.append(OUTRO).toString();
     }
 
     /**
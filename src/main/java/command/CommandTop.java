@@ -0,0 +1,58 @@
+package command;
+
+import bot.utils.LeaderboardUtils;
+import movie_quiz.service.QuizLeaderboards;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+/**
+ * Команда /top.
+ * Отправляет топ игроков кино-квиза за всё время, за текущую неделю и рейтинг вызова дня,
+ * а в групповом чате — топ участников групповых раундов этого чата.
+ */
+public class CommandTop implements Command {
+
+    private static final Logger log = LogManager.getLogger(CommandTop.class);
+
+    private final TelegramClient telegramClient;
+    private final QuizLeaderboards leaderboards;
+    private final LeaderboardUtils leaderboardUtils = new LeaderboardUtils();
+
+    /**
+     * @param telegramClient клиент Telegram для отправки сообщения
+     * @param leaderboards   таблицы лидеров кино-квиза
+     */
+    public CommandTop(TelegramClient telegramClient, QuizLeaderboards leaderboards) {
+        this.telegramClient = telegramClient;
+        this.leaderboards = leaderboards;
+    }
+
+    @Override
+    public void execute(Update update) {
+        if (update == null || !update.hasMessage()) {
+            log.error("CommandTop.execute вызван с некорректным update");
+            return;
+        }
+
+        Long chatId = update.getMessage().getChatId();
+        log.info("Обработка команды /top для chatId={}", chatId);
+
+        String text = chatId < 0
+                ? leaderboardUtils.getGroupTopMessage(leaderboards.group(chatId))
+                : leaderboardUtils.getTopMessage(leaderboards.allTime(), leaderboards.weekly(), leaderboards.daily());
+        SendMessage sendMessage = SendMessage.builder()
+                .chatId(chatId)
+                .text(text)
+                .build();
+
+        try {
+            telegramClient.execute(sendMessage);
+        } catch (TelegramApiException e) {
+            log.error("Не удалось отправить топ игроков для chatId={}", chatId, e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package command;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.function.Supplier;
+
+/**
+ * Команда, которая создаётся при первом вызове.
+ * Нужна командам модулей, которые сами создаются при первом обращении:
+ * пока команду не вызвали, её модуль не создаётся.
+ */
+public class LazyCommand implements Command {
+
+    private final Supplier<Command> factory;
+    private Command command;
+
+    /**
+     * @param factory создаёт команду; вызывается не больше одного раза
+     */
+    public LazyCommand(Supplier<Command> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public void execute(Update update) {
+        command().execute(update);
+    }
+
+    private synchronized Command command() {
+        if (command == null) {
+            command = factory.get();
+        }
+        return command;
+    }
+}
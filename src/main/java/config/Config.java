@@ -1,18 +1,59 @@
 package config;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Класс отвечающий за сборку конфигурацию Telegram-бота.
  * Хранит токен бота и проверяет его корректность при создании.
+ *
+ * @param botToken     токен бота
+ * @param adminChatIds идентификаторы чатов администраторов, которым доступны служебные команды
+ * @param name         имя бота в логах и в пути к его файлам; {@value #DEFAULT_NAME}, если бот один
+ * @param modules      включённые модули бота
  */
-public record Config(String botToken) {
+public record Config(String botToken, Set<Long> adminChatIds, String name, Set<ModuleKind> modules) {
+
+    /**
+     * Имя единственного бота, настроенного через BOT_TOKEN.
+     */
+    public static final String DEFAULT_NAME = "default";
 
     /**
      * Проверяет токен бота при создании конфигурации.
+     * Без имени бот получает имя {@value #DEFAULT_NAME}, без списка модулей — все модули.
      * @throws IllegalStateException если токен равен null или пустой.
      */
     public Config {
         if (botToken == null || botToken.isEmpty()) {
             throw new IllegalStateException("Токен не введен!");
         }
+        adminChatIds = adminChatIds == null ? Set.of() : Set.copyOf(adminChatIds);
+        name = name == null || name.isBlank() ? DEFAULT_NAME : name;
+        modules = modules == null || modules.isEmpty()
+                ? Set.copyOf(EnumSet.allOf(ModuleKind.class))
+                : Set.copyOf(modules);
+    }
+
+    /**
+     * Создаёт конфигурацию единственного бота со всеми модулями.
+     */
+    public Config(String botToken, Set<Long> adminChatIds) {
+        this(botToken, adminChatIds, DEFAULT_NAME, null);
+    }
+
+    /**
+     * Создаёт конфигурацию без администраторов.
+     */
+    public Config(String botToken) {
+        this(botToken, Set.of());
+    }
+
+    /**
+     * @param module модуль бота
+     * @return true, если модуль включён для этого бота
+     */
+    public boolean hasModule(ModuleKind module) {
+        return modules.contains(module);
     }
 }
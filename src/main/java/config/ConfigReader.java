@@ -1,5 +1,7 @@
 package config;
 
+import java.util.List;
+
 /**
  * Базовый контракт для чтения конфигурации бота.
  * Реализация отвечает за получение и построение объекта {@link Config}.
@@ -12,4 +14,13 @@ public interface ConfigReader {
      * @return сконструированная конфигурация бота
      */
     Config reader();
+
+    /**
+     * Читает конфигурации всех ботов, которых обслуживает процесс.
+     *
+     * @return конфигурации ботов; по умолчанию — единственный бот из {@link #reader()}
+     */
+    default List<Config> readAll() {
+        return List.of(reader());
+    }
 }
@@ -1,5 +1,12 @@
 package config;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
 /**
  * Реализация {@link ConfigReader}, которая читает настройки бота
  * из переменных окружения.
@@ -18,14 +25,98 @@ public class ConfigReaderEnvironment implements ConfigReader {
     }
 
     /**
-     * Читает токен бота из переменной окружения BOT_TOKEN
-     * и возвращает сконструированный {@link Config}.
+     * Читает токен бота из переменной окружения BOT_TOKEN, идентификаторы администраторов
+     * из ADMIN_CHAT_IDS (через запятую, необязательна) и возвращает сконструированный {@link Config}.
      *
      * @return конфигурация бота
+     * @throws IllegalStateException если ADMIN_CHAT_IDS содержит не число
      */
     @Override
     public Config reader() {
         String token = envProvider.getEnv("BOT_TOKEN");
-        return new Config(token);
+        return new Config(token, parseChatIds(envProvider.getEnv("ADMIN_CHAT_IDS")));
+    }
+
+    /**
+     * Читает конфигурации нескольких ботов. Если переменная BOTS не задана, возвращает
+     * единственного бота из {@link #reader()}.
+     * <p>
+     * BOTS содержит имена ботов через запятую. Для бота с именем {@code name} читаются:
+     * <ul>
+     *     <li>BOT_TOKEN_NAME — токен (обязательна);</li>
+     *     <li>BOT_MODULES_NAME — модули через запятую: {@code pomodoro}, {@code moviequiz};
+     *     без неё включены все модули;</li>
+     *     <li>ADMIN_CHAT_IDS_NAME — администраторы; без неё используется общая ADMIN_CHAT_IDS.</li>
+     * </ul>
+     * Суффикс переменных — имя бота в верхнем регистре.
+     *
+     * @return конфигурации ботов в порядке перечисления в BOTS
+     * @throws IllegalStateException если токен не задан, имя или токен повторяются, модуль неизвестен
+     */
+    @Override
+    public List<Config> readAll() {
+        String names = envProvider.getEnv("BOTS");
+        if (names == null || names.isBlank()) {
+            return List.of(reader());
+        }
+        List<Config> configs = new ArrayList<>();
+        Set<String> seenNames = new HashSet<>();
+        Set<String> seenTokens = new HashSet<>();
+        for (String part : names.split(",")) {
+            String name = part.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String suffix = "_" + name.toUpperCase(Locale.ROOT);
+            if (!seenNames.add(suffix)) {
+                throw new IllegalStateException("Бот указан в BOTS дважды: " + name);
+            }
+            String token = envProvider.getEnv("BOT_TOKEN" + suffix);
+            if (token != null && !seenTokens.add(token)) {
+                throw new IllegalStateException("Токен бота " + name + " совпадает с токеном другого бота");
+            }
+            String admins = envProvider.getEnv("ADMIN_CHAT_IDS" + suffix);
+            configs.add(new Config(
+                    token,
+                    parseChatIds(admins != null ? admins : envProvider.getEnv("ADMIN_CHAT_IDS")),
+                    name,
+                    parseModules(envProvider.getEnv("BOT_MODULES" + suffix))));
+        }
+        if (configs.isEmpty()) {
+            throw new IllegalStateException("В BOTS не указано ни одного бота");
+        }
+        return configs;
+    }
+
+    private static Set<ModuleKind> parseModules(String value) {
+        Set<ModuleKind> modules = EnumSet.noneOf(ModuleKind.class);
+        if (value == null || value.isBlank()) {
+            return modules;
+        }
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                modules.add(ModuleKind.parse(part));
+            }
+        }
+        return modules;
+    }
+
+    private static Set<Long> parseChatIds(String value) {
+        Set<Long> chatIds = new HashSet<>();
+        if (value == null || value.isBlank()) {
+            return chatIds;
+        }
+        for (String part : value.split(",")) {
+            String id = part.strip();
+            if (id.isEmpty()) {
+                continue;
+            }
+            try {
+                chatIds.add(Long.parseLong(id));
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Некорректный идентификатор в ADMIN_CHAT_IDS: " + id, e);
+            }
+        }
+        return chatIds;
     }
 }
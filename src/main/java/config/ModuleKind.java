@@ -0,0 +1,40 @@
+package config;
+
+import java.util.Locale;
+
+/**
+ * Модули, которые можно включить для бота в конфигурации.
+ */
+public enum ModuleKind {
+
+    POMODORO("pomodoro"),
+    MOVIE_QUIZ("moviequiz");
+
+    private final String configName;
+
+    ModuleKind(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * @return имя модуля в переменных окружения
+     */
+    public String configName() {
+        return configName;
+    }
+
+    /**
+     * @param name имя модуля без учёта регистра, например {@code pomodoro}
+     * @return модуль с этим именем
+     * @throws IllegalStateException если модуля с таким именем нет
+     */
+    public static ModuleKind parse(String name) {
+        String normalized = name.strip().toLowerCase(Locale.ROOT);
+        for (ModuleKind kind : values()) {
+            if (kind.configName.equals(normalized)) {
+                return kind;
+            }
+        }
+        throw new IllegalStateException("Неизвестный модуль: " + name);
+    }
+}
@@ -1,8 +1,43 @@
 package interfaces;
 
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
-public interface BotModule<R>{
+/**
+ * Модуль бота (Pomodoro, Movie Quiz и т.д.), который ведёт собственные сессии в чатах.
+ *
+ * @param <R> тип ответа модуля
+ */
+public interface BotModule<R> {
+
+    /**
+     * @param chatId идентификатор чата
+     * @return true, если в чате есть активная сессия модуля
+     */
     boolean hasSession(Long chatId);
+
+    /**
+     * Обрабатывает сообщение пользователя в рамках активной сессии.
+     *
+     * @param update обновление Telegram
+     * @return ответ модуля
+     */
     R handleAnswer(Update update);
+
+    /**
+     * Обрабатывает нажатие инлайн-кнопки в рамках активной сессии.
+     *
+     * @param callbackQuery данные нажатой кнопки
+     * @return ответ модуля или null, если нажатие устарело или модуль не использует инлайн-кнопки
+     */
+    default R handleCallback(CallbackQuery callbackQuery) {
+        return null;
+    }
+
+    /**
+     * Устанавливает слушателя начала и завершения сессий модуля.
+     *
+     * @param listener слушатель сессий
+     */
+    void setSessionListener(SessionListener listener);
 }
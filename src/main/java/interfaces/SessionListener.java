@@ -0,0 +1,36 @@
+package interfaces;
+
+/**
+ * Получает уведомления о начале и завершении сессий модулей бота.
+ */
+public interface SessionListener {
+
+    /**
+     * Слушатель, который ничего не делает. Используется по умолчанию.
+     */
+    SessionListener NONE = new SessionListener() {
+        @Override
+        public void onSessionStarted(Long chatId, BotModule<?> module) {
+        }
+
+        @Override
+        public void onSessionEnded(Long chatId, BotModule<?> module) {
+        }
+    };
+
+    /**
+     * Вызывается, когда модуль начал сессию в чате.
+     *
+     * @param chatId идентификатор чата
+     * @param module модуль, владеющий сессией
+     */
+    void onSessionStarted(Long chatId, BotModule<?> module);
+
+    /**
+     * Вызывается, когда модуль завершил сессию в чате.
+     *
+     * @param chatId идентификатор чата
+     * @param module модуль, владевший сессией
+     */
+    void onSessionEnded(Long chatId, BotModule<?> module);
+}
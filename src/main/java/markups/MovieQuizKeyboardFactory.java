@@ -1,17 +1,51 @@
 package markups;
 
+import movie_quiz.bot.MovieQuizMessages;
+import movie_quiz.bot.QuizCallback;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardRow;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Фабрика клавиатур для кино-квиза.
  * Строит разметку с вариантами ответов и кнопкой завершения игры.
+ * <p>
+ * Кнопки с названиями фильмов кешируются по названию (их не больше, чем фильмов в каталоге),
+ * а строка "Завершить игру" общая для всех клавиатур. На каждый вопрос собираются только
+ * две строки из готовых кнопок. Для вопросов, общих для многих игроков (вызов дня), клавиатуры
+ * строятся заранее целиком через {@link #shareOptionsKeyboards(Collection)} и отдаются всем игрокам.
+ * Кешированные объекты не должны изменяться вызывающим кодом.
  */
 public class MovieQuizKeyboardFactory {
 
+    private static final KeyboardRow END_GAME_ROW =
+            new KeyboardRow(new KeyboardButton(MovieQuizMessages.END_GAME_BUTTON));
+
+    private final Map<String, KeyboardButton> titleButtons = new ConcurrentHashMap<>();
+    private volatile Map<List<String>, ReplyKeyboardMarkup> sharedKeyboards = Map.of();
+
+    /**
+     * Заранее строит клавиатуры для общих вопросов и заменяет ими ранее подготовленные.
+     *
+     * @param optionLists списки вариантов ответа общих вопросов
+     */
+    public void shareOptionsKeyboards(Collection<List<String>> optionLists) {
+        Map<List<String>, ReplyKeyboardMarkup> keyboards = new HashMap<>();
+        for (List<String> options : optionLists) {
+            keyboards.put(options, buildOptionsKeyboard(options));
+        }
+        sharedKeyboards = Map.copyOf(keyboards);
+    }
+
     /**
      * Создаёт клавиатуру с четырьмя вариантами ответа
      * и кнопкой "Завершить игру".
@@ -24,29 +58,55 @@ public class MovieQuizKeyboardFactory {
         if (options == null || options.size() < 4) {
             throw new IllegalArgumentException("Список вариантов должен содержать минимум 4 элемента");
         }
+        ReplyKeyboardMarkup shared = sharedKeyboards.get(options);
+        return shared != null ? shared : buildOptionsKeyboard(options);
+    }
+
+    private ReplyKeyboardMarkup buildOptionsKeyboard(List<String> options) {
+        KeyboardRow row1 = new KeyboardRow(button(options.get(0)), button(options.get(1)));
+        KeyboardRow row2 = new KeyboardRow(button(options.get(2)), button(options.get(3)));
 
-        KeyboardButton btn1 = new KeyboardButton(options.get(0));
-        KeyboardButton btn2 = new KeyboardButton(options.get(1));
-        KeyboardButton btn3 = new KeyboardButton(options.get(2));
-        KeyboardButton btn4 = new KeyboardButton(options.get(3));
+        ReplyKeyboardMarkup keyboard = new ReplyKeyboardMarkup(List.of(row1, row2, END_GAME_ROW));
+        keyboard.setResizeKeyboard(true);
+        keyboard.setOneTimeKeyboard(true);
 
-        KeyboardRow row1 = new KeyboardRow();
-        row1.add(btn1);
-        row1.add(btn2);
+        return keyboard;
+    }
 
-        KeyboardRow row2 = new KeyboardRow();
-        row2.add(btn3);
-        row2.add(btn4);
+    /**
+     * Создаёт инлайн-клавиатуру с четырьмя вариантами ответа и кнопкой "Завершить игру".
+     * Каждая кнопка несёт компактные данные {@link QuizCallback}: префикс вопроса и индекс варианта.
+     *
+     * @param options        список из четырёх вариантов ответа
+     * @param callbackPrefix префикс данных кнопок текущего вопроса
+     * @return инлайн-разметка для Telegram
+     * @throws IllegalArgumentException если размер списка меньше 4
+     */
+    public InlineKeyboardMarkup createInlineOptionsKeyboard(List<String> options, String callbackPrefix) {
+        if (options == null || options.size() < 4) {
+            throw new IllegalArgumentException("Список вариантов должен содержать минимум 4 элемента");
+        }
 
-        KeyboardRow row3 = new KeyboardRow();
-        row3.add(new KeyboardButton("Завершить игру \uD83C\uDFAC\uD83C\uDFC1"));
+        InlineKeyboardRow row1 = new InlineKeyboardRow(
+                inlineButton(options.get(0), QuizCallback.optionData(callbackPrefix, 0)),
+                inlineButton(options.get(1), QuizCallback.optionData(callbackPrefix, 1)));
+        InlineKeyboardRow row2 = new InlineKeyboardRow(
+                inlineButton(options.get(2), QuizCallback.optionData(callbackPrefix, 2)),
+                inlineButton(options.get(3), QuizCallback.optionData(callbackPrefix, 3)));
+        InlineKeyboardRow row3 = new InlineKeyboardRow(
+                inlineButton(MovieQuizMessages.END_GAME_BUTTON, QuizCallback.endGameData(callbackPrefix)));
 
-        List<KeyboardRow> rows = List.of(row1, row2, row3);
+        return new InlineKeyboardMarkup(List.of(row1, row2, row3));
+    }
 
-        ReplyKeyboardMarkup keyboard = new ReplyKeyboardMarkup(rows);
-        keyboard.setResizeKeyboard(true);
-        keyboard.setOneTimeKeyboard(true);
+    private static InlineKeyboardButton inlineButton(String text, String callbackData) {
+        return InlineKeyboardButton.builder()
+                .text(text)
+                .callbackData(callbackData)
+                .build();
+    }
 
-        return keyboard;
+    private KeyboardButton button(String title) {
+        return titleButtons.computeIfAbsent(title, KeyboardButton::new);
     }
 }
@@ -10,45 +10,78 @@ import java.util.List;
 /**
  * Фабрика клавиатур для Pomodoro-бота.
  * Строит разметку с вариантами ответов и кнопкой завершения игры.
+ * <p>
+ * Клавиатуры Pomodoro не зависят от состояния сессии, поэтому строятся один раз
+ * при загрузке класса и переиспользуются во всех сообщениях. Возвращаемые объекты
+ * общие для всех чатов и не должны изменяться вызывающим кодом.
  */
 public class PomodoroKeyboardFactory {
 
+    private static final ReplyKeyboardMarkup BUTTONS_KEYBOARD = buildButtonsKeyboard();
+    private static final ReplyKeyboardMarkup FINAL_ASK_KEYBOARD = buildFinalAskKeyboard();
+    private static final ReplyKeyboardMarkup PRESET_KEYBOARD = buildPresetKeyboard();
+
     /**
-     * Создает клавиатуру с двумя вариантами ответа и
+     * Возвращает клавиатуру с кнопками старта, паузы, живого таймера и
      * кнопкой завершить игру
      *
-     * @return разметка клавиатуры для Telegram
+     * @return общая разметка клавиатуры для Telegram
      */
     public ReplyKeyboardMarkup createButtonsKeyboard() {
+        return BUTTONS_KEYBOARD;
+    }
+
+    /**
+     * Возвращает клавиатуру с вопросом о выводе итоговой статистики (да/нет).
+     *
+     * @return общая разметка клавиатуры для Telegram
+     */
+    public ReplyKeyboardMarkup createFinalAskKeyboard() {
+        return FINAL_ASK_KEYBOARD;
+    }
+
+    /**
+     * Возвращает клавиатуру настройки с кнопкой применения прошлых настроек.
+     *
+     * @return общая разметка клавиатуры для Telegram
+     */
+    public ReplyKeyboardMarkup createPresetKeyboard() {
+        return PRESET_KEYBOARD;
+    }
 
+    private static ReplyKeyboardMarkup buildPresetKeyboard() {
+        KeyboardRow row = new KeyboardRow();
+        row.add(new KeyboardButton(PomodoroMessages.USE_LAST_SETTINGS_MESSAGE));
+
+        ReplyKeyboardMarkup keyboard = new ReplyKeyboardMarkup(List.of(row));
+        keyboard.setResizeKeyboard(true);
+        keyboard.setOneTimeKeyboard(true);
+
+        return keyboard;
+    }
+
+    private static ReplyKeyboardMarkup buildButtonsKeyboard() {
         KeyboardRow row1 = new KeyboardRow();
         KeyboardRow row2 = new KeyboardRow();
 
         row1.add(new KeyboardButton(PomodoroMessages.START_MESSAGE));
         row1.add(new KeyboardButton(PomodoroMessages.PAUSE_MESSAGE));
+        row2.add(new KeyboardButton(PomodoroMessages.LIVE_STATUS_MESSAGE));
         row2.add(new KeyboardButton(PomodoroMessages.END_SEANCE_MESSAGE));
 
-        List<KeyboardRow> rows = List.of(row1, row2);
-
-        ReplyKeyboardMarkup keyboardMarkup = new ReplyKeyboardMarkup(rows);
+        ReplyKeyboardMarkup keyboardMarkup = new ReplyKeyboardMarkup(List.of(row1, row2));
         keyboardMarkup.setResizeKeyboard(true);
         keyboardMarkup.setOneTimeKeyboard(false);
 
         return keyboardMarkup;
     }
 
-    public ReplyKeyboardMarkup createFinalAskKeyboard() {
-        KeyboardButton yes = new KeyboardButton(PomodoroMessages.YES_ANSWER_MESSAGE);
-        KeyboardButton no = new KeyboardButton(PomodoroMessages.NO_ANSWER_MESSAGE);
-
+    private static ReplyKeyboardMarkup buildFinalAskKeyboard() {
         KeyboardRow row = new KeyboardRow();
-        row.add(yes);
-        row.add(no);
-
-        List<KeyboardRow> rows = List.of(row);
+        row.add(new KeyboardButton(PomodoroMessages.YES_ANSWER_MESSAGE));
+        row.add(new KeyboardButton(PomodoroMessages.NO_ANSWER_MESSAGE));
 
-        ReplyKeyboardMarkup keyboard = new ReplyKeyboardMarkup(rows);
-        keyboard.setKeyboard(List.of(row));
+        ReplyKeyboardMarkup keyboard = new ReplyKeyboardMarkup(List.of(row));
         keyboard.setResizeKeyboard(true);
         keyboard.setOneTimeKeyboard(true);
 
@@ -5,9 +5,21 @@ import java.util.List;
 /**
  * Ответ кино-квиза для Telegram-бота.
  * Содержит текст сообщения, варианты фильмов, флаг завершения игры и путь к изображению.
+ * <p>
+ * В инлайн-режиме {@code callbackPrefix} содержит префикс данных кнопок текущего вопроса
+ * (см. {@link QuizCallback}); для обычной клавиатуры он равен null.
  */
 public record BotReply(String text,
                        List<String> movieTitles,
                        boolean isFinished,
-                       String imagePath) {
+                       String imagePath,
+                       String callbackPrefix) {
+
+    public BotReply(String text, List<String> movieTitles, boolean isFinished, String imagePath) {
+        this(text, movieTitles, isFinished, imagePath, null);
+    }
+
+    public boolean isInline() {
+        return callbackPrefix != null;
+    }
 }
@@ -1,79 +1,291 @@
 package movie_quiz.bot;
 
 import bot.utils.CsvResourceReader;
+import bot.utils.ReplyUtils;
+import interfaces.BotModule;
+import interfaces.SessionListener;
+import movie_quiz.service.DailyChallenges;
+import movie_quiz.service.DailyRun;
+import movie_quiz.service.DeadlineWheel;
 import movie_quiz.service.GameManager;
+import movie_quiz.service.GroupRound;
+import movie_quiz.service.LatencyHistogram;
+import movie_quiz.service.Leaderboard;
+import movie_quiz.service.MovieStats;
+import movie_quiz.service.QuizEventLog;
+import movie_quiz.service.SeenMovieStore;
+import movie_quiz.service.QuizLeaderboards;
+import movie_quiz.core.DailyChallenge;
+import movie_quiz.core.Difficulty;
 import movie_quiz.core.Movie;
+import movie_quiz.core.MovieCatalog;
 import movie_quiz.core.MovieQuizRank;
 import movie_quiz.core.QuestionView;
+import movie_quiz.core.QuizEvent;
 import org.apache.logging.log4j.LogManager;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
 import org.telegram.telegrambots.meta.api.objects.message.Message;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Основной сервис кино-квиза.
  * Управляет сессиями игр, стартом и обработкой ответов.
  */
-public class MovieQuizBot {
+public class MovieQuizBot implements BotModule<BotReply> {
 
     private static final org.apache.logging.log4j.Logger log = LogManager.getLogger(MovieQuizBot.class);
-    private final List<Movie> movies;
-    private final Map<Long, GameManager> sessions = new HashMap<>();
+    private static final int LEADERBOARD_TOP_SIZE = 10;
+    private static final Duration LEADERBOARD_SNAPSHOT_PERIOD = Duration.ofMinutes(5);
+    private static final int GROUP_QUESTION_LIMIT = 10;
+    private static final Duration GROUP_ANSWER_WINDOW = Duration.ofSeconds(20);
+    private static final Duration DEADLINE_TICK = Duration.ofMillis(250);
+    private static final int DEADLINE_WHEEL_SIZE = 512;
+    private static final Duration EVENT_LOG_FLUSH_PERIOD = Duration.ofSeconds(2);
+    private static final int EVENT_LOG_MAX_PENDING = 100_000;
+    private static final int DAILY_QUESTION_LIMIT = 10;
+    private static final Duration LATENCY_REPORT_PERIOD = Duration.ofMinutes(5);
+    /**
+     * Подготовка следующего вопроса заранее, включается {@code -DmovieQuiz.prefetch=true}.
+     * По умолчанию выключена: варианты строятся по готовому индексу похожих фильмов за микросекунды,
+     * и на замерах время ответа с подготовкой не уменьшилось. Сравнить можно по логу времени ответа.
+     */
+    private static final boolean PREFETCH = Boolean.parseBoolean(System.getProperty("movieQuiz.prefetch", "false"));
+    private static final BotReply ACCEPTED_SILENTLY = new BotReply("", List.of(), false, null);
+    private final MovieCatalog catalog;
+    private final QuizLeaderboards leaderboards;
+    private final QuizEventLog eventLog;
+    private final MovieStats movieStats;
+    private final SeenMovieStore seenMovies;
+    private final DailyChallenges dailyChallenges;
+    private final boolean prefetch;
+    private final LatencyHistogram replyLatency = new LatencyHistogram();
+    private final QuizSender sender;
+    private final ScheduledExecutorService scheduler;
+    private final DeadlineWheel deadlines = new DeadlineWheel(DEADLINE_TICK, DEADLINE_WHEEL_SIZE);
+    private final Map<Long, GameManager> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, GroupRound> groupRounds = new ConcurrentHashMap<>();
+    private final Map<Long, DailyRun> dailyRuns = new ConcurrentHashMap<>();
+    private final Map<Long, DeadlineWheel.Timeout> questionDeadlines = new ConcurrentHashMap<>();
+    private volatile SessionListener sessionListener = SessionListener.NONE;
 
     public MovieQuizBot() {
+        this(QuizSender.NONE);
+    }
+
+    /**
+     * @param sender отправитель сообщений, не связанных с входящим обновлением (итоги групповых вопросов)
+     */
+    public MovieQuizBot(QuizSender sender) {
+        this(sender, loadCatalog(), newScheduler(), Path.of(MovieQuizPaths.LEADERBOARD_DIR));
+    }
+
+    /**
+     * Создаёт квиз на общих ресурсах процесса: каталог и планировщик могут принадлежать
+     * нескольким ботам, а таблицы лидеров, журнал ответов и статистика хранятся в каталоге бота.
+     *
+     * @param sender    отправитель сообщений, не связанных с входящим обновлением
+     * @param catalog   каталог фильмов
+     * @param scheduler планировщик снапшотов и колеса дедлайнов; для колеса нужен один поток
+     * @param dataDir   каталог файлов бота
+     */
+    public MovieQuizBot(QuizSender sender, MovieCatalog catalog, ScheduledExecutorService scheduler, Path dataDir) {
         CsvResourceReader reader = new CsvResourceReader();
+        this.catalog = catalog;
+        this.leaderboards = new QuizLeaderboards(catalog.size(), LEADERBOARD_TOP_SIZE, Clock.systemDefaultZone(),
+                dataDir, reader);
+        leaderboards.load();
+        this.eventLog = new QuizEventLog(dataDir.resolve(MovieQuizPaths.EVENTS_FILE), EVENT_LOG_MAX_PENDING);
+        this.movieStats = new MovieStats(dataDir.resolve(MovieQuizPaths.MOVIE_STATS_FILE), reader);
+        movieStats.load();
+        this.seenMovies = SeenMovieStore.open(dataDir.resolve(MovieQuizPaths.SEEN_MOVIES_FILE), catalog);
+        this.dailyChallenges = newDailyChallenges(catalog);
+        this.prefetch = PREFETCH;
+        this.sender = sender;
+        this.scheduler = scheduler;
+        leaderboards.start(scheduler, LEADERBOARD_SNAPSHOT_PERIOD);
+        eventLog.start(scheduler, EVENT_LOG_FLUSH_PERIOD);
+        movieStats.start(scheduler, LEADERBOARD_SNAPSHOT_PERIOD);
+        seenMovies.start(scheduler, LEADERBOARD_SNAPSHOT_PERIOD);
+        deadlines.start(scheduler);
+        long reportMillis = LATENCY_REPORT_PERIOD.toMillis();
+        scheduler.scheduleWithFixedDelay(this::logReplyLatency, reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+    }
 
-        try (InputStream is = getClass()
+    /**
+     * Читает каталог фильмов из {@link MovieQuizPaths#MOVIES_FILE} и строит индекс похожих фильмов.
+     */
+    public static MovieCatalog loadCatalog() {
+        try (InputStream is = MovieQuizBot.class
                 .getClassLoader()
-                .getResourceAsStream("assets/movies/movies.csv")) {
+                .getResourceAsStream(MovieQuizPaths.MOVIES_FILE)) {
 
-            this.movies = reader.read(is, ',', row -> new Movie(row[0], row[1]));
+            MovieCatalog catalog = MovieCatalog.of(new CsvResourceReader().read(is, ',', Movie::fromCsvRow));
+            log.info("Загружен каталог кино-квиза: фильмов={}, индекс похожих фильмов построен за {} мс",
+                    catalog.size(), TimeUnit.NANOSECONDS.toMillis(catalog.getBuildNanos()));
+            return catalog;
         } catch (IOException e) {
             log.error("Не удалось прочитать файл movies.csv", e);
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Общий планировщик квиза: снапшоты таблиц лидеров и тики колеса дедлайнов вопросов.
+     */
+    public static ScheduledExecutorService newScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quiz-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     public MovieQuizBot(List<Movie> listMovies) {
-        this.movies = listMovies;
+        this(listMovies, new QuizLeaderboards(listMovies.size(), LEADERBOARD_TOP_SIZE, Clock.systemDefaultZone()));
+    }
+
+    public MovieQuizBot(List<Movie> listMovies, QuizLeaderboards leaderboards) {
+        this(listMovies, leaderboards, QuizSender.NONE, newScheduler());
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    MovieQuizBot(List<Movie> listMovies,
+                 QuizLeaderboards leaderboards,
+                 QuizSender sender,
+                 ScheduledExecutorService scheduler) {
+        this(listMovies, leaderboards, sender, scheduler, PREFETCH);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    MovieQuizBot(List<Movie> listMovies,
+                 QuizLeaderboards leaderboards,
+                 QuizSender sender,
+                 ScheduledExecutorService scheduler,
+                 boolean prefetch) {
+        this.catalog = MovieCatalog.of(listMovies);
+        this.leaderboards = leaderboards;
+        this.eventLog = new QuizEventLog(null, 0);
+        this.movieStats = new MovieStats();
+        this.seenMovies = SeenMovieStore.inMemory(catalog.size());
+        this.dailyChallenges = newDailyChallenges(catalog);
+        this.prefetch = prefetch;
+        this.sender = sender;
+        this.scheduler = scheduler;
+        deadlines.start(scheduler);
+    }
+
+    /**
+     * Вызов дня строится один раз в день; клавиатуры его вопросов готовятся сразу и отдаются всем игрокам.
+     */
+    private static DailyChallenges newDailyChallenges(MovieCatalog catalog) {
+        return new DailyChallenges(catalog, DAILY_QUESTION_LIMIT, Difficulty.NORMAL, Clock.systemDefaultZone(),
+                challenge -> ReplyUtils.shareQuizKeyboards(
+                        challenge.questions().stream().map(DailyChallenge.Question::options).toList()));
     }
 
     /**
      * Запускает новую игру для пользователя и возвращает первый вопрос.
+     * Если команда передана с аргументом {@code inline}, ответы принимаются инлайн-кнопками,
+     * а числовой аргумент задаёт лимит времени на вопрос в секундах (см. {@link QuizStartOptions}).
+     * В групповых чатах запускается групповой раунд.
      */
     public BotReply startGame(Update update) {
         Long chatId = update.getMessage().getChatId();
-        GameManager manager = new GameManager(movies);
+        QuizStartOptions options = QuizStartOptions.parse(update.getMessage().getText());
+        if (isGroupChat(update.getMessage())) {
+            return startGroupRound(chatId, options);
+        }
+        GameManager manager = new GameManager(catalog, options.difficulty(), options.inline(), options.timeLimit(),
+                seenMovies.history(chatId));
+        cancelDeadline(chatId);
         sessions.put(chatId, manager);
+        sessionListener.onSessionStarted(chatId, this);
         var from = update.getMessage().getFrom();
         String firstName = from != null ? from.getFirstName() : "unknown";
         String userName = from != null ? from.getUserName() : "unknown";
 
         QuestionView movieTitles = manager.getNextQuestion().orElseThrow();
-        Movie current = manager.getCurrentMovie();
 
-        log.info("Старт новой сессии MovieQuiz для chatId={}, firstName={}, userName={}", chatId, firstName, userName);
+        log.info("Старт новой сессии MovieQuiz для chatId={}, firstName={}, userName={}, inline={}, timeLimit={}",
+                chatId, firstName, userName, options.inline(), options.timeLimit());
+
+        String text = MovieQuizMessages.GUESS_MOVIE;
+        if (manager.isTimed()) {
+            text = String.format(MovieQuizMessages.QUESTION_TIME_LIMIT, manager.getTimeLimit().toSeconds()) + text;
+        }
+        synchronized (manager) {
+            armDeadline(chatId, manager, firstName, userName);
+        }
+        prefetchNextQuestion(manager);
+        return questionReply(manager, text, movieTitles);
+    }
+
+    /**
+     * Запускает вызов дня: общий для всех игроков набор вопросов, одна попытка в день.
+     * Если игрок уже прошёл сегодняшний вызов, возвращает его результат и место в рейтинге дня.
+     * Пока попытка идёт, новая не начинается: иначе игрок мог бы перезапустить вызов,
+     * уже увидев вопросы.
+     */
+    public BotReply startDaily(Update update) {
+        Long chatId = update.getMessage().getChatId();
+        DailyChallenge challenge = dailyChallenges.today();
+        Leaderboard today = leaderboards.daily();
+        OptionalInt played = today.bestScore(chatId);
+        if (played.isPresent()) {
+            return new BotReply(String.format(MovieQuizMessages.DAILY_ALREADY_PLAYED,
+                    played.getAsInt(), challenge.size(), today.rank(chatId), today.size()), List.of(), true, null);
+        }
+
+        DailyRun run = new DailyRun(challenge);
+        if (dailyRuns.putIfAbsent(chatId, run) != null) {
+            log.warn("Повторный запуск вызова дня во время попытки, chatId={}", chatId);
+            return new BotReply(MovieQuizMessages.DAILY_IN_PROGRESS, List.of(), false, null);
+        }
+        sessionListener.onSessionStarted(chatId, this);
+        log.info("Старт вызова дня MovieQuiz {} для chatId={}", challenge.date(), chatId);
 
-        return new BotReply(MovieQuizMessages.GUESS_MOVIE,
-                movieTitles.movieTitles(),
-                false,
-                current.imageFileName());
+        String text = String.format(MovieQuizMessages.DAILY_START, challenge.date(), challenge.size())
+                + MovieQuizMessages.GUESS_MOVIE;
+        return dailyQuestionReply(run, text);
     }
 
     /**
      * Обрабатывает ответ пользователя и возвращает следующий шаг игры.
      */
+    @Override
     public BotReply handleAnswer(Update update) {
+        long started = System.nanoTime();
         Long chatId = update.getMessage().getChatId();
+        if (groupRounds.containsKey(chatId)) {
+            return ACCEPTED_SILENTLY;
+        }
+        DailyRun run = dailyRuns.get(chatId);
+        if (run != null) {
+            return handleDailyAnswer(chatId, run, update.getMessage());
+        }
         GameManager manager = sessions.get(chatId);
-        StringBuilder builder = new StringBuilder();
         Message message = update.getMessage();
         var from = update.getMessage().getFrom();
         String firstName = from != null ? from.getFirstName() : "unknown";
@@ -82,25 +294,209 @@ public class MovieQuizBot {
         if (manager == null) {
             log.warn("Ответ без активной игровой сессии: manager is null, chatId={}, firstName={}, userName={}",
                     chatId, firstName, userName);
-            builder.append(MovieQuizMessages.ANSWER_WITHOUT_SESSION);
-            return new BotReply(builder.toString(),
+            return new BotReply(MovieQuizMessages.ANSWER_WITHOUT_SESSION,
                     List.of(),
                     true,
                     null);
         }
 
-        if (message.getText().equalsIgnoreCase(MovieQuizMessages.END_GAME_BUTTON)) {
-            int score = manager.getScore();
-            String rank = MovieQuizRank.fromScore(score);
-            builder.append(String.format(MovieQuizMessages.ANSWER_END_GAME_WITH_RANK, score, rank));
-            sessions.remove(chatId);
-            log.info("Завершение игровой сессии по желанию игрока, chatId={}, firstName={}, userName={}", chatId, firstName, userName);
+        synchronized (manager) {
+            if (message.getText().equalsIgnoreCase(MovieQuizMessages.END_GAME_BUTTON)) {
+                return endGameByPlayer(chatId, manager, firstName, userName);
+            }
+            if (!claimQuestion(chatId)) {
+                log.debug("Ответ пришёл после дедлайна вопроса, chatId={}", chatId);
+                return ACCEPTED_SILENTLY;
+            }
+            Movie movie = manager.getCurrentMovie();
+            long latencyMillis = manager.getQuestionAgeMillis();
+            int option = manager.optionIndex(message.getText());
+            boolean correct = manager.checkAnswer(message.getText());
+            recordOutcome(chatId, movie, option, correct, latencyMillis);
+            BotReply reply = answerReply(chatId, manager, correct, firstName, userName);
+            replyLatency.record(System.nanoTime() - started);
+            return reply;
+        }
+    }
 
-            return new BotReply(builder.toString(), List.of(), true, null);
+    /**
+     * Обрабатывает нажатие инлайн-кнопки с ответом.
+     * Нажатия по кнопкам прошлых вопросов, прошлых игр и повторные нажатия отбрасываются
+     * сравнением nonce и номера вопроса.
+     *
+     * @return следующий шаг игры или null, если нажатие устарело
+     */
+    @Override
+    public BotReply handleCallback(CallbackQuery callbackQuery) {
+        long started = System.nanoTime();
+        Long chatId = callbackQuery.getMessage().getChatId();
+        QuizCallback callback = QuizCallback.parse(callbackQuery.getData());
+        GroupRound round = groupRounds.get(chatId);
+        if (round != null) {
+            return callback == null ? null : handleGroupCallback(chatId, round, callback, callbackQuery.getFrom());
         }
+        GameManager manager = sessions.get(chatId);
+        if (manager == null || callback == null) {
+            log.debug("Отброшено нажатие кнопки квиза без игры, chatId={}, data={}", chatId, callbackQuery.getData());
+            return null;
+        }
+
+        User from = callbackQuery.getFrom();
+        String firstName = from != null ? from.getFirstName() : "unknown";
+        String userName = from != null ? from.getUserName() : "unknown";
+
+        synchronized (manager) {
+            if (!manager.isCurrentQuestion(callback.nonce(), callback.questionNumber())) {
+                log.debug("Отброшено устаревшее нажатие кнопки квиза, chatId={}, data={}", chatId, callbackQuery.getData());
+                return null;
+            }
+            if (callback.isEndGame()) {
+                return endGameByPlayer(chatId, manager, firstName, userName);
+            }
+            if (!claimQuestion(chatId)) {
+                log.debug("Нажатие пришло после дедлайна вопроса, chatId={}", chatId);
+                return null;
+            }
+            Movie movie = manager.getCurrentMovie();
+            long latencyMillis = manager.getQuestionAgeMillis();
+            boolean correct = manager.checkAnswer(callback.option());
+            recordOutcome(chatId, movie, callback.option(), correct, latencyMillis);
+            BotReply reply = answerReply(chatId, manager, correct, firstName, userName);
+            replyLatency.record(System.nanoTime() - started);
+            return reply;
+        }
+    }
+
+    /**
+     * Ставит дедлайн на текущий вопрос игры с лимитом времени.
+     * Вызывается под монитором менеджера игры.
+     */
+    private void armDeadline(Long chatId, GameManager manager, String firstName, String userName) {
+        if (!manager.isTimed()) {
+            return;
+        }
+        int questionNumber = manager.getQuestionNumber();
+        questionDeadlines.put(chatId, deadlines.schedule(manager.getTimeLimit(),
+                () -> onQuestionDeadline(chatId, manager, questionNumber, firstName, userName)));
+    }
+
+    /**
+     * Забирает текущий вопрос у дедлайна: ответ и дедлайн соревнуются за один CAS,
+     * поэтому вопрос закрывает ровно одна сторона.
+     *
+     * @return true, если ответ можно проверять; false, если дедлайн уже сработал
+     */
+    private boolean claimQuestion(Long chatId) {
+        DeadlineWheel.Timeout timeout = questionDeadlines.remove(chatId);
+        return timeout == null || timeout.cancel();
+    }
+
+    /**
+     * Записывает исход вопроса в журнал событий, в статистику фильмов и в историю игрока.
+     */
+    private void recordOutcome(Long chatId, Movie movie, int option, boolean correct, long latencyMillis) {
+        QuizEvent event = new QuizEvent(System.currentTimeMillis(), chatId, movie.title(), option, correct, latencyMillis);
+        eventLog.append(event);
+        movieStats.record(event);
+        seenMovies.record(chatId, catalog.indexOf(movie), !correct);
+    }
+
+    private void cancelDeadline(Long chatId) {
+        DeadlineWheel.Timeout timeout = questionDeadlines.remove(chatId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Засчитывает неверный ответ на вопрос, время которого истекло, и отправляет
+     * правильный ответ вместе со следующим вопросом или итогами игры.
+     * Выполняется в потоке колеса дедлайнов: под блокировкой сессии вопрос только закрывается,
+     * а ответ передаётся {@link QuizSender}, который не ждёт Telegram.
+     */
+    void onQuestionDeadline(Long chatId, GameManager manager, int questionNumber, String firstName, String userName) {
+        try {
+            BotReply reply;
+            synchronized (manager) {
+                if (sessions.get(chatId) != manager || manager.getQuestionNumber() != questionNumber) {
+                    return;
+                }
+                cancelDeadline(chatId);
+                recordOutcome(chatId, manager.getCurrentMovie(), QuizEvent.TIMED_OUT, false,
+                        manager.getQuestionAgeMillis());
+                manager.expireQuestion();
+                log.info("Время на вопрос истекло, chatId={}, questionNumber={}", chatId, questionNumber);
+                reply = answerReply(chatId, manager, new StringBuilder(MovieQuizMessages.TIME_UP), false,
+                        firstName, userName);
+            }
+            sender.sendQuizReply(chatId, reply);
+        } catch (RuntimeException e) {
+            log.error("Ошибка при закрытии вопроса по дедлайну, chatId={}", chatId, e);
+        }
+    }
+
+    private BotReply endGameByPlayer(Long chatId, GameManager manager, String firstName, String userName) {
+        int score = manager.getScore();
+        String rank = MovieQuizRank.fromScore(score);
+        endSession(chatId);
+        log.info("Завершение игровой сессии по желанию игрока, chatId={}, firstName={}, userName={}", chatId, firstName, userName);
 
-        boolean checkAnswer = manager.checkAnswer(message.getText());
+        String text = String.format(MovieQuizMessages.ANSWER_END_GAME_WITH_RANK, score, rank)
+                + recordScore(chatId, firstName, userName, score);
+        return new BotReply(text, List.of(), true, null);
+    }
+
+    /**
+     * Заносит результат игры в таблицы лидеров.
+     *
+     * @return строка с местом игрока в общем рейтинге
+     */
+    private String recordScore(Long chatId, String firstName, String userName, int score) {
+        String name = firstName != null && !"unknown".equals(firstName) ? firstName : userName;
+        leaderboards.record(chatId, name, score);
+        return String.format(MovieQuizMessages.LEADERBOARD_PLACE,
+                leaderboards.allTime().rank(chatId),
+                leaderboards.allTime().size());
+    }
+
+    GameManager getSession(Long chatId) {
+        return sessions.get(chatId);
+    }
+
+    GroupRound getGroupRound(Long chatId) {
+        return groupRounds.get(chatId);
+    }
+
+    DailyRun getDailyRun(Long chatId) {
+        return dailyRuns.get(chatId);
+    }
+
+    public MovieStats getMovieStats() {
+        return movieStats;
+    }
+
+    LatencyHistogram getReplyLatency() {
+        return replyLatency;
+    }
+
+    SeenMovieStore getSeenMovies() {
+        return seenMovies;
+    }
+
+    public QuizLeaderboards getLeaderboards() {
+        return leaderboards;
+    }
+
+    private BotReply answerReply(Long chatId, GameManager manager, boolean checkAnswer, String firstName, String userName) {
+        return answerReply(chatId, manager, new StringBuilder(), checkAnswer, firstName, userName);
+    }
 
+    private BotReply answerReply(Long chatId,
+                                 GameManager manager,
+                                 StringBuilder builder,
+                                 boolean checkAnswer,
+                                 String firstName,
+                                 String userName) {
         if (!checkAnswer) {
             String rightAnswer = manager.getRightAnswer();
             builder.append(String.format(MovieQuizMessages.WRONG_ANSWER, rightAnswer));
@@ -116,20 +512,246 @@ public class MovieQuizBot {
                     MovieQuizMessages.END_GAME_MESSAGE,
                     score,
                     MovieQuizRank.fromScore(score)));
+            builder.append(recordScore(chatId, firstName, userName, score));
 
-            sessions.remove(chatId);
+            endSession(chatId);
             log.info("Завершение игровой сессии по логике игры, chatId={}, firstName={}, userName={}", chatId, firstName, userName);
 
             return new BotReply(builder.toString(), List.of(), true, null);
-        } else {
-            Movie current = manager.getCurrentMovie();
-            List<String> titles = questions.get().movieTitles();
+        }
+        builder.append(MovieQuizMessages.NEXT_QUESTION);
+        armDeadline(chatId, manager, firstName, userName);
+        prefetchNextQuestion(manager);
+        return questionReply(manager, builder.toString(), questions.get());
+    }
+
+    /**
+     * Готовит варианты следующего вопроса на планировщике, пока игрок думает над текущим,
+     * чтобы на пути ответа осталась только проверка и форматирование.
+     */
+    private void prefetchNextQuestion(GameManager manager) {
+        if (!prefetch) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                try {
+                    synchronized (manager) {
+                        manager.prepareNextQuestion();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Не удалось подготовить следующий вопрос квиза", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Планировщик квиза остановлен, следующий вопрос не подготовлен");
+        }
+    }
+
+    private void logReplyLatency() {
+        if (replyLatency.count() > 0) {
+            log.info("Время ответа кино-квиза (prefetch={}): {}", prefetch, replyLatency.summary());
+        }
+    }
+
+    private BotReply questionReply(GameManager manager, String text, QuestionView question) {
+        Movie current = manager.getCurrentMovie();
+        String callbackPrefix = manager.isInlineMode()
+                ? QuizCallback.questionPrefix(manager.getNonce(), manager.getQuestionNumber())
+                : null;
+        return new BotReply(text, question.movieTitles(), false, current.imageFileName(), callbackPrefix);
+    }
+
+    private BotReply handleDailyAnswer(Long chatId, DailyRun run, Message message) {
+        synchronized (run) {
+            if (dailyRuns.get(chatId) != run) {
+                return ACCEPTED_SILENTLY;
+            }
+            if (message.getText().equalsIgnoreCase(MovieQuizMessages.END_GAME_BUTTON)) {
+                return finishDaily(chatId, run, new StringBuilder(), message.getFrom());
+            }
+            String rightAnswer = run.current().movie().title();
+            StringBuilder builder = new StringBuilder();
+            if (run.answer(message.getText())) {
+                builder.append(String.format(MovieQuizMessages.RIGHT_ANSWER, run.getScore()));
+            } else {
+                builder.append(String.format(MovieQuizMessages.WRONG_ANSWER, rightAnswer));
+            }
+            if (run.isFinished()) {
+                return finishDaily(chatId, run, builder, message.getFrom());
+            }
             builder.append(MovieQuizMessages.NEXT_QUESTION);
-            return new BotReply(builder.toString(), titles, false, current.imageFileName());
+            return dailyQuestionReply(run, builder.toString());
+        }
+    }
+
+    private BotReply dailyQuestionReply(DailyRun run, String text) {
+        DailyChallenge.Question question = run.current();
+        String numbered = String.format(MovieQuizMessages.DAILY_QUESTION_NUMBER,
+                run.getQuestionNumber(), run.getChallenge().size()) + text;
+        return new BotReply(numbered, question.options(), false, question.movie().imageFileName());
+    }
+
+    /**
+     * Завершает вызов дня и заносит результат в рейтинг дня. Досрочное завершение тоже считается попыткой.
+     */
+    private BotReply finishDaily(Long chatId, DailyRun run, StringBuilder builder, User from) {
+        dailyRuns.remove(chatId, run);
+        sessionListener.onSessionEnded(chatId, this);
+        LocalDate date = run.getChallenge().date();
+        leaderboards.recordDaily(chatId, displayName(from), run.getScore(), date);
+        Leaderboard day = leaderboards.daily(date);
+        log.info("Завершение вызова дня MovieQuiz {}, chatId={}, score={}", date, chatId, run.getScore());
+        if (day == null) {
+            builder.append(String.format(MovieQuizMessages.DAILY_FINISHED_CLOSED, run.getScore(),
+                    run.getChallenge().size()));
+        } else {
+            builder.append(String.format(MovieQuizMessages.DAILY_FINISHED, run.getScore(),
+                    run.getChallenge().size(), day.rank(chatId), day.size()));
         }
+        return new BotReply(builder.toString(), List.of(), true, null);
     }
 
+    private BotReply startGroupRound(Long chatId, QuizStartOptions options) {
+        GroupRound round = new GroupRound(catalog, options.difficulty(), GROUP_QUESTION_LIMIT);
+        groupRounds.put(chatId, round);
+        sessionListener.onSessionStarted(chatId, this);
+
+        QuestionView question = round.openNextQuestion().orElseThrow();
+        scheduleGroupDeadline(chatId, round, round.getQuestionNumber());
+        log.info("Старт группового раунда MovieQuiz для chatId={}", chatId);
+
+        String text = String.format(MovieQuizMessages.GROUP_ROUND_START,
+                GROUP_QUESTION_LIMIT, GROUP_ANSWER_WINDOW.toSeconds()) + MovieQuizMessages.GUESS_MOVIE;
+        return questionReply(round.getManager(), text, question);
+    }
+
+    /**
+     * Принимает ответ участника группового раунда. Ответы не получают отдельного сообщения:
+     * итоги отправляются одним сообщением после закрытия вопроса.
+     *
+     * @return пустой ответ, если ответ принят; итог раунда при досрочном завершении; null, если нажатие устарело
+     */
+    private BotReply handleGroupCallback(Long chatId, GroupRound round, QuizCallback callback, User from) {
+        if (callback.isEndGame()) {
+            if (!round.getNonce().equals(callback.nonce())) {
+                return null;
+            }
+            synchronized (round) {
+                if (groupRounds.get(chatId) != round) {
+                    return null;
+                }
+                GroupRound.QuestionResult result = round.closeQuestion(round.getQuestionNumber());
+                StringBuilder builder = new StringBuilder();
+                if (result != null) {
+                    appendQuestionResult(builder, result);
+                }
+                log.info("Групповой раунд MovieQuiz завершён досрочно, chatId={}", chatId);
+                return finishGroupRound(chatId, round, builder);
+            }
+        }
+
+        long userId = from != null ? from.getId() : chatId;
+        GroupRound.AnswerResult result = round.answer(callback.nonce(), callback.questionNumber(),
+                userId, displayName(from), callback.option());
+        return result == GroupRound.AnswerResult.ACCEPTED ? ACCEPTED_SILENTLY : null;
+    }
+
+    private void scheduleGroupDeadline(Long chatId, GroupRound round, int questionNumber) {
+        questionDeadlines.put(chatId, deadlines.schedule(GROUP_ANSWER_WINDOW,
+                () -> onGroupDeadline(chatId, round, questionNumber)));
+    }
+
+    /**
+     * Закрывает вопрос группового раунда по истечении времени и отправляет его итог
+     * вместе со следующим вопросом или итогами всего раунда.
+     * Как и {@link #onQuestionDeadline}, не ждёт отправки в потоке колеса дедлайнов.
+     */
+    void onGroupDeadline(Long chatId, GroupRound round, int questionNumber) {
+        try {
+            BotReply reply;
+            synchronized (round) {
+                if (groupRounds.get(chatId) != round) {
+                    return;
+                }
+                GroupRound.QuestionResult result = round.closeQuestion(questionNumber);
+                if (result == null) {
+                    return;
+                }
+                StringBuilder builder = new StringBuilder();
+                appendQuestionResult(builder, result);
+
+                Optional<QuestionView> next = round.openNextQuestion();
+                if (next.isEmpty()) {
+                    reply = finishGroupRound(chatId, round, builder);
+                } else {
+                    builder.append('\n').append(MovieQuizMessages.NEXT_QUESTION);
+                    scheduleGroupDeadline(chatId, round, round.getQuestionNumber());
+                    reply = questionReply(round.getManager(), builder.toString(), next.get());
+                }
+            }
+            sender.sendQuizReply(chatId, reply);
+        } catch (RuntimeException e) {
+            log.error("Ошибка при закрытии вопроса группового раунда, chatId={}", chatId, e);
+        }
+    }
+
+    private static void appendQuestionResult(StringBuilder builder, GroupRound.QuestionResult result) {
+        builder.append(String.format(MovieQuizMessages.GROUP_QUESTION_RESULT,
+                result.questionNumber(), result.rightAnswer(), result.correctAnswers(), result.totalAnswers()));
+        if (result.winnerName() != null) {
+            builder.append(String.format(MovieQuizMessages.GROUP_FIRST_CORRECT, result.winnerName()));
+        } else {
+            builder.append(MovieQuizMessages.GROUP_NO_CORRECT);
+        }
+    }
+
+    private BotReply finishGroupRound(Long chatId, GroupRound round, StringBuilder builder) {
+        groupRounds.remove(chatId, round);
+        cancelDeadline(chatId);
+        sessionListener.onSessionEnded(chatId, this);
+
+        builder.append(MovieQuizMessages.GROUP_ROUND_FINISHED);
+        List<GroupRound.Standing> standings = round.standings();
+        if (standings.isEmpty()) {
+            builder.append(MovieQuizMessages.GROUP_NO_SCORES);
+        }
+        int place = 1;
+        for (GroupRound.Standing standing : standings) {
+            builder.append(String.format(MovieQuizMessages.GROUP_STANDING, place++, standing.name(), standing.score()));
+            leaderboards.recordGroup(chatId, standing.userId(), standing.name(), (int) standing.score());
+        }
+        return new BotReply(builder.toString(), List.of(), true, null);
+    }
+
+    private static String displayName(User user) {
+        if (user == null) {
+            return MovieQuizMessages.UNKNOWN_PLAYER;
+        }
+        if (user.getFirstName() != null && !user.getFirstName().isBlank()) {
+            return user.getFirstName();
+        }
+        return user.getUserName() != null ? user.getUserName() : MovieQuizMessages.UNKNOWN_PLAYER;
+    }
+
+    private static boolean isGroupChat(Message message) {
+        return message.getChat() != null
+                && (message.getChat().isGroupChat() || message.getChat().isSuperGroupChat());
+    }
+
+    @Override
     public boolean hasSession(Long chatID) {
-        return sessions.containsKey(chatID);
+        return sessions.containsKey(chatID) || groupRounds.containsKey(chatID) || dailyRuns.containsKey(chatID);
+    }
+
+    @Override
+    public void setSessionListener(SessionListener listener) {
+        this.sessionListener = listener;
+    }
+
+    private void endSession(Long chatId) {
+        cancelDeadline(chatId);
+        sessions.remove(chatId);
+        sessionListener.onSessionEnded(chatId, this);
     }
 }
@@ -23,6 +23,10 @@ public final class MovieQuizMessages {
             К сожалению ответ не верный. \uD83D\uDE14
             Правильный ответ: %s ✅""";
 
+    public static final String TIME_UP = "⏰ Время на ответ вышло!\n";
+
+    public static final String QUESTION_TIME_LIMIT = "⏱\uFE0F На каждый вопрос — %d сек.\n";
+
     public static final String RIGHT_ANSWER = """
             Это правильный ответ! \uD83C\uDF89
             Поздравляем! \uD83C\uDFC6
@@ -34,5 +38,69 @@ public final class MovieQuizMessages {
             Вам присваивается звание: %s""";
 
 
+    public static final String LEADERBOARD_PLACE = "\n\uD83C\uDFC5 Ваше место в общем рейтинге: %d из %d";
+
+    public static final String GROUP_ROUND_START = """
+            \uD83D\uDC65 Групповой раунд кино-квиза!
+            Вопросов: %d, на каждый — %d сек. ⏱\uFE0F
+            Отвечайте кнопками под кадром: за верный ответ 1 очко, самому быстрому ещё +1 ⚡
+            
+            """;
+
+    public static final String GROUP_QUESTION_RESULT = """
+            ⏰ Вопрос %d закрыт.
+            Правильный ответ: %s ✅
+            Верных ответов: %d из %d
+            """;
+
+    public static final String GROUP_FIRST_CORRECT = "⚡ Первым ответил верно: %s\n";
+
+    public static final String GROUP_NO_CORRECT = "Никто не угадал \uD83D\uDE14\n";
+
+    public static final String GROUP_ROUND_FINISHED = "\n\uD83C\uDFC1 Раунд завершён! Итоги:\n";
+
+    public static final String GROUP_STANDING = "%d. %s — %d\n";
+
+    public static final String GROUP_NO_SCORES = "Очков никто не набрал \uD83C\uDFAC\n";
+
+    public static final String UNKNOWN_PLAYER = "Игрок";
+
+    public static final String DAILY_START = """
+            \uD83D\uDCC5 Вызов дня %s!
+            %d вопросов — одинаковых для всех игроков. Попытка одна, результат попадёт в рейтинг дня.
+
+            """;
+
+    public static final String DAILY_QUESTION_NUMBER = "Вопрос %d из %d\n";
+
+    public static final String DAILY_FINISHED = """
+
+            \uD83C\uDFC1 Вызов дня пройден: %d из %d.
+            \uD83D\uDCC5 Ваше место в рейтинге дня: %d из %d""";
+
+    public static final String DAILY_FINISHED_CLOSED = """
+
+            \uD83C\uDFC1 Вызов дня пройден: %d из %d.
+            \uD83D\uDCC5 Рейтинг этого дня уже закрыт, результат учтён в общих таблицах""";
+
+    public static final String DAILY_ALREADY_PLAYED = """
+            Вы уже прошли сегодняшний вызов дня: %d из %d \uD83C\uDFAC
+            \uD83D\uDCC5 Ваше место в рейтинге дня: %d из %d
+            Новый вызов появится завтра!""";
+
+    public static final String DAILY_IN_PROGRESS =
+            "Вызов дня уже идёт: ответьте на текущий вопрос или завершите игру \uD83C\uDFAC";
+
+    public static final String INLINE_MODE_ARGUMENT = "inline";
+
+    public static final String STALE_ANSWER = "Этот вопрос уже закрыт ⏳";
+
     public static final String NEXT_QUESTION = "Следующий вопрос: ➡\uFE0F\n";
+
+    public static final String SESSION_ALREADY_RUNNING = "\uD83C\uDFAC Квиз уже запущен.\n" +
+            "\n" +
+            "❌ Нельзя одновременно запускать два бота.\n" +
+            "\uD83D\uDCFD Сначала завершите работу с ботом Movie Quiz, а потом попробуйте запустить другого.\n";
+
+    public static final String PHOTO_FALLBACK_SUFFIX = "\n\n(⚠️ Картинку отправить не удалось из-за ошибки соединения.)";
 }
@@ -0,0 +1,18 @@
+package movie_quiz.bot;
+
+public class MovieQuizPaths {
+
+    private MovieQuizPaths() {
+
+    }
+
+    public static final String MOVIES_FILE = "assets/movies/movies.csv";
+
+    public static final String LEADERBOARD_DIR = "logs";
+
+    public static final String EVENTS_FILE = "quiz_events.csv";
+
+    public static final String MOVIE_STATS_FILE = "quiz_movie_stats.csv";
+
+    public static final String SEEN_MOVIES_FILE = "quiz_seen_movies.bin";
+}
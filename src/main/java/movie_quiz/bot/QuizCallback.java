@@ -0,0 +1,76 @@
+package movie_quiz.bot;
+
+/**
+ * Компактные данные callback-кнопки инлайн-режима кино-квиза.
+ * <p>
+ * Формат: {@code q:<nonce>:<номер вопроса>:<индекс варианта | x>}, где {@code x} — кнопка завершения игры.
+ * Nonce сессии и номер вопроса позволяют отбросить нажатия по кнопкам старых вопросов и старых игр
+ * без сравнения строк, а индекс варианта сравнивается с индексом правильного ответа.
+ *
+ * @param nonce          случайный идентификатор игровой сессии
+ * @param questionNumber номер вопроса в сессии, начиная с 1
+ * @param option         индекс выбранного варианта или {@link #END_GAME_OPTION}
+ */
+public record QuizCallback(String nonce, int questionNumber, int option) {
+
+    public static final String PREFIX = "q:";
+
+    public static final int END_GAME_OPTION = -1;
+
+    private static final String END_GAME_TOKEN = "x";
+
+    /**
+     * Возвращает общий префикс данных всех кнопок вопроса.
+     */
+    public static String questionPrefix(String nonce, int questionNumber) {
+        return PREFIX + nonce + ':' + questionNumber + ':';
+    }
+
+    /**
+     * Формирует данные кнопки варианта ответа.
+     */
+    public static String optionData(String questionPrefix, int option) {
+        return questionPrefix + option;
+    }
+
+    /**
+     * Формирует данные кнопки завершения игры.
+     */
+    public static String endGameData(String questionPrefix) {
+        return questionPrefix + END_GAME_TOKEN;
+    }
+
+    /**
+     * Разбирает данные callback-кнопки.
+     *
+     * @param data строка callback_data
+     * @return разобранные данные или null, если строка не относится к квизу или повреждена
+     */
+    public static QuizCallback parse(String data) {
+        if (data == null || !data.startsWith(PREFIX)) {
+            return null;
+        }
+        int nonceEnd = data.indexOf(':', PREFIX.length());
+        int numberEnd = nonceEnd < 0 ? -1 : data.indexOf(':', nonceEnd + 1);
+        if (nonceEnd <= PREFIX.length() || numberEnd < 0 || numberEnd == data.length() - 1) {
+            return null;
+        }
+        try {
+            int questionNumber = Integer.parseInt(data, nonceEnd + 1, numberEnd, 10);
+            String optionToken = data.substring(numberEnd + 1);
+            int option = END_GAME_TOKEN.equals(optionToken)
+                    ? END_GAME_OPTION
+                    : Integer.parseInt(optionToken);
+            if (option < END_GAME_OPTION) {
+                return null;
+            }
+            return new QuizCallback(data.substring(PREFIX.length(), nonceEnd), questionNumber, option);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isEndGame() {
+        return option == END_GAME_OPTION;
+    }
+}
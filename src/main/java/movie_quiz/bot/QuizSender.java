@@ -0,0 +1,19 @@
+package movie_quiz.bot;
+
+/**
+ * Отправка сообщений кино-квиза вне обработки входящего обновления,
+ * например по истечении времени на вопрос.
+ * <p>
+ * Вызывается из потока дедлайнов квиза, поэтому не должен ждать Telegram:
+ * реализация только ставит сообщение в очередь отправки.
+ */
+public interface QuizSender {
+
+    /**
+     * Отправитель, который ничего не отправляет.
+     */
+    QuizSender NONE = (chatId, reply) -> {
+    };
+
+    void sendQuizReply(Long chatId, BotReply reply);
+}
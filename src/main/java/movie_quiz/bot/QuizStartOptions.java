@@ -0,0 +1,79 @@
+package movie_quiz.bot;
+
+import movie_quiz.core.Difficulty;
+
+import java.time.Duration;
+
+/**
+ * Настройки игры, переданные аргументами команды {@code /playMovieQuiz}.
+ * <p>
+ * Поддерживаются аргументы {@code inline} (ответы инлайн-кнопками), лимит времени на вопрос
+ * в секундах и сложность ({@code easy}, {@code normal}, {@code hard} или по-русски),
+ * например {@code /playMovieQuiz inline 30 hard}. Лимит ограничивается диапазоном
+ * от {@link #MIN_TIME_LIMIT} до {@link #MAX_TIME_LIMIT}; неизвестные аргументы игнорируются.
+ *
+ * @param inline     true, если ответы принимаются инлайн-кнопками
+ * @param timeLimit  лимит времени на вопрос или null, если вопрос ждёт ответа без ограничения
+ * @param difficulty сложность вопросов
+ */
+public record QuizStartOptions(boolean inline, Duration timeLimit, Difficulty difficulty) {
+
+    public static final Duration MIN_TIME_LIMIT = Duration.ofSeconds(5);
+
+    public static final Duration MAX_TIME_LIMIT = Duration.ofMinutes(10);
+
+    public static final QuizStartOptions DEFAULT = new QuizStartOptions(false, null, Difficulty.NORMAL);
+
+    /**
+     * Разбирает аргументы команды запуска игры.
+     *
+     * @param commandText полный текст команды
+     * @return настройки игры
+     */
+    public static QuizStartOptions parse(String commandText) {
+        if (commandText == null) {
+            return DEFAULT;
+        }
+        boolean inline = false;
+        Duration timeLimit = null;
+        Difficulty difficulty = DEFAULT.difficulty();
+        String[] parts = commandText.strip().split("\\s+");
+        for (int i = 1; i < parts.length; i++) {
+            Difficulty parsedDifficulty = Difficulty.fromArgument(parts[i]);
+            if (parts[i].equalsIgnoreCase(MovieQuizMessages.INLINE_MODE_ARGUMENT)) {
+                inline = true;
+            } else if (parsedDifficulty != null) {
+                difficulty = parsedDifficulty;
+            } else {
+                Duration parsed = parseSeconds(parts[i]);
+                if (parsed != null) {
+                    timeLimit = parsed;
+                }
+            }
+        }
+        return new QuizStartOptions(inline, timeLimit, difficulty);
+    }
+
+    public boolean isTimed() {
+        return timeLimit != null;
+    }
+
+    private static Duration parseSeconds(String argument) {
+        String digits = argument.endsWith("s") || argument.endsWith("с")
+                ? argument.substring(0, argument.length() - 1)
+                : argument;
+        if (digits.isEmpty() || digits.length() > 6) {
+            return null;
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) {
+                return null;
+            }
+        }
+        Duration limit = Duration.ofSeconds(Long.parseLong(digits));
+        if (limit.compareTo(MIN_TIME_LIMIT) < 0) {
+            return MIN_TIME_LIMIT;
+        }
+        return limit.compareTo(MAX_TIME_LIMIT) > 0 ? MAX_TIME_LIMIT : limit;
+    }
+}
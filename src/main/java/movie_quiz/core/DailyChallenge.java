@@ -0,0 +1,87 @@
+package movie_quiz.core;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Вызов дня кино-квиза: один набор вопросов на дату, общий для всех игроков.
+ * <p>
+ * Порядок фильмов и варианты ответов вычисляются один раз из зерна, полученного из даты,
+ * поэтому в течение дня (и после перезапуска бота) все игроки получают одни и те же вопросы.
+ * Объект неизменяемый и разделяется между игроками; состояние игрока — только номер
+ * текущего вопроса и счёт.
+ */
+public final class DailyChallenge {
+
+    private static final long SEED_MIX = 0x9E37_79B9_7F4A_7C15L;
+
+    private final LocalDate date;
+    private final List<Question> questions;
+
+    /**
+     * Вопрос вызова дня.
+     *
+     * @param movie        фильм, который нужно угадать
+     * @param options      неизменяемый список вариантов ответа
+     * @param correctIndex индекс правильного варианта
+     */
+    public record Question(Movie movie, List<String> options, int correctIndex) {
+    }
+
+    private DailyChallenge(LocalDate date, List<Question> questions) {
+        this.date = date;
+        this.questions = questions;
+    }
+
+    /**
+     * Строит вызов дня для даты. Для одной даты и одного каталога результат всегда одинаковый.
+     *
+     * @param catalog    каталог фильмов
+     * @param date       дата вызова
+     * @param length     число вопросов; ограничивается размером каталога
+     * @param difficulty сложность вопросов
+     * @throws IllegalArgumentException если число вопросов не положительное
+     */
+    public static DailyChallenge generate(MovieCatalog catalog, LocalDate date, int length, Difficulty difficulty) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Число вопросов вызова дня должно быть положительным: " + length);
+        }
+        SplittableRandom random = new SplittableRandom(date.toEpochDay() * SEED_MIX);
+        int count = Math.min(length, catalog.size());
+
+        int[] order = new int[catalog.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int pick = i + random.nextInt(order.length - i);
+            int movieIndex = order[pick];
+            order[pick] = order[i];
+            order[i] = movieIndex;
+
+            Movie movie = catalog.get(movieIndex);
+            List<String> options = List.copyOf(QuestionMovie.buildOptions(catalog, difficulty, movie, random));
+            questions.add(new Question(movie, options, options.indexOf(movie.title())));
+        }
+        return new DailyChallenge(date, List.copyOf(questions));
+    }
+
+    public LocalDate date() {
+        return date;
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    public Question question(int index) {
+        return questions.get(index);
+    }
+
+    public List<Question> questions() {
+        return questions;
+    }
+}
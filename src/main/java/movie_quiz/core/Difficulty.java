@@ -0,0 +1,53 @@
+package movie_quiz.core;
+
+/**
+ * Сложность вопросов кино-квиза: сколько неверных вариантов берётся из похожих фильмов.
+ */
+public enum Difficulty {
+
+    /**
+     * Все неверные варианты случайные.
+     */
+    EASY(0, "easy", "легко"),
+
+    /**
+     * Два неверных варианта из похожих фильмов, остальные случайные.
+     */
+    NORMAL(2, "normal", "нормально"),
+
+    /**
+     * Все неверные варианты из похожих фильмов.
+     */
+    HARD(3, "hard", "сложно");
+
+    private final int similarDistractors;
+    private final String[] aliases;
+
+    Difficulty(int similarDistractors, String... aliases) {
+        this.similarDistractors = similarDistractors;
+        this.aliases = aliases;
+    }
+
+    /**
+     * @return сколько неверных вариантов выбирать из похожих фильмов
+     */
+    public int similarDistractors() {
+        return similarDistractors;
+    }
+
+    /**
+     * Находит сложность по аргументу команды без учёта регистра.
+     *
+     * @return сложность или null, если аргумент не задаёт сложность
+     */
+    public static Difficulty fromArgument(String argument) {
+        for (Difficulty difficulty : values()) {
+            for (String alias : difficulty.aliases) {
+                if (alias.equalsIgnoreCase(argument)) {
+                    return difficulty;
+                }
+            }
+        }
+        return null;
+    }
+}
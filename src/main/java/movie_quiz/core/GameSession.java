@@ -11,6 +11,11 @@ import java.util.*;
 @Data
 public class GameSession {
 
+    /**
+     * Сколько новых фильмов идёт между повторами не угаданных.
+     */
+    public static final int REPEAT_SPACING = 3;
+
     private final Queue<Movie> movies;
     private Movie currentMovie;
     private int score;
@@ -34,6 +39,58 @@ public class GameSession {
         nextMovie();
     }
 
+    /**
+     * Создаёт сессию, в которой фильмы идут с учётом истории игрока.
+     * <p>
+     * Сначала идут не виденные фильмы в случайном порядке, а не угаданные раньше фильмы
+     * вставляются между ними через каждые {@link #REPEAT_SPACING} новых — так ошибки повторяются,
+     * но не подряд. Уже угаданные фильмы идут последними. Номер бита истории — индекс фильма в списке.
+     *
+     * @param listMovies список фильмов каталога
+     * @param history    история игрока
+     * @throws IllegalArgumentException если список null или пустой
+     */
+    public GameSession(List<Movie> listMovies, MovieHistory history) {
+        if (listMovies == null || listMovies.isEmpty()) {
+            throw new IllegalArgumentException("Список фильмов не может быть пустым");
+        }
+
+        List<Movie> unseen = new ArrayList<>();
+        List<Movie> missed = new ArrayList<>();
+        List<Movie> known = new ArrayList<>();
+        for (int i = 0; i < listMovies.size(); i++) {
+            if (history.missed().get(i)) {
+                missed.add(listMovies.get(i));
+            } else if (history.seen().get(i)) {
+                known.add(listMovies.get(i));
+            } else {
+                unseen.add(listMovies.get(i));
+            }
+        }
+        Collections.shuffle(unseen);
+        Collections.shuffle(missed);
+        Collections.shuffle(known);
+
+        List<Movie> fresh = unseen.isEmpty() ? known : unseen;
+        Deque<Movie> ordered = new ArrayDeque<>(listMovies.size());
+        Iterator<Movie> repeats = missed.iterator();
+        int sinceRepeat = 0;
+        for (Movie movie : fresh) {
+            ordered.add(movie);
+            if (++sinceRepeat == REPEAT_SPACING && repeats.hasNext()) {
+                ordered.add(repeats.next());
+                sinceRepeat = 0;
+            }
+        }
+        repeats.forEachRemaining(ordered::add);
+        if (fresh == unseen) {
+            ordered.addAll(known);
+        }
+
+        this.movies = ordered;
+        nextMovie();
+    }
+
     /**
      * Переходит к следующему фильму.
      * Помечает сессию завершённой, если фильмы закончились.
@@ -0,0 +1,11 @@
+package movie_quiz.core;
+
+/**
+ * Строка таблицы лидеров кино-квиза.
+ *
+ * @param playerId идентификатор игрока (чата)
+ * @param name     отображаемое имя игрока
+ * @param score    лучший результат игрока
+ */
+public record LeaderboardEntry(long playerId, String name, int score) {
+}
@@ -2,11 +2,21 @@ package movie_quiz.core;
 
 /**
  * Модель фильма для киноквиза.
- * Хранит имя файла изображения и название фильма.
+ * Хранит имя файла изображения, название фильма и необязательные метаданные каталога,
+ * по которым подбираются похожие фильмы для вариантов ответа.
+ *
+ * @param imageFileName имя файла изображения
+ * @param title         название фильма
+ * @param genres        жанры через '|', например {@code crime|drama}, или null
+ * @param year          год выхода или 0, если неизвестен
+ * @param country       код страны, например {@code US}, или null
  */
 public record Movie(
         String imageFileName,
-        String title) {
+        String title,
+        String genres,
+        int year,
+        String country) {
 
     /**
      * Валидирует данные фильма при создании.
@@ -21,4 +31,35 @@ public record Movie(
             throw new IllegalArgumentException("Название фильма не может быть пустым");
         }
     }
+
+    /**
+     * Создаёт фильм без метаданных каталога.
+     */
+    public Movie(String imageFileName, String title) {
+        this(imageFileName, title, null, 0, null);
+    }
+
+    /**
+     * Создаёт фильм из строки movies.csv: {@code картинка,название[,жанры[,год[,страна]]]}.
+     * Отсутствующие и пустые колонки метаданных считаются неизвестными.
+     *
+     * @throws IllegalArgumentException если год не является числом
+     */
+    public static Movie fromCsvRow(String[] row) {
+        String genres = column(row, 2);
+        String year = column(row, 3);
+        try {
+            return new Movie(row[0], row[1], genres, year == null ? 0 : Integer.parseInt(year), column(row, 4));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный год фильма '" + row[1] + "': " + year, e);
+        }
+    }
+
+    private static String column(String[] row, int index) {
+        if (row.length <= index) {
+            return null;
+        }
+        String value = row[index].strip();
+        return value.isEmpty() ? null : value;
+    }
 }
@@ -0,0 +1,223 @@
+package movie_quiz.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Каталог фильмов кино-квиза с заранее построенным индексом похожих фильмов.
+ * <p>
+ * Для каждого фильма при загрузке каталога вычисляется до {@code neighbourCount} ближайших соседей
+ * по метаданным: общие жанры, та же страна, близкий год выхода. Соседи хранятся массивами индексов,
+ * поэтому выбор похожего фильма при формировании вопроса — O(1).
+ * <p>
+ * Чтобы построение оставалось быстрым на больших каталогах, кандидаты в соседи ищутся только среди
+ * фильмов того же основного (первого) жанра в окне {@code candidateWindow} фильмов, ближайших по году.
+ * Стоимость построения — O(n · candidateWindow). Фильмы без жанра соседей не получают.
+ */
+public final class MovieCatalog {
+
+    /**
+     * Число соседей по умолчанию.
+     */
+    public static final int DEFAULT_NEIGHBOURS = 12;
+
+    /**
+     * Окно кандидатов по умолчанию: столько фильмов проверяется с каждой стороны по году.
+     */
+    public static final int DEFAULT_CANDIDATE_WINDOW = 64;
+
+    private static final int[] NO_NEIGHBOURS = new int[0];
+    private static final int GENRE_WEIGHT = 4;
+    private static final int COUNTRY_WEIGHT = 2;
+    private static final int YEAR_WEIGHT = 3;
+    private static final int YEARS_PER_POINT = 5;
+
+    private final List<Movie> movies;
+    private final Map<Movie, Integer> indexes;
+    private final int[][] neighbours;
+    private final long buildNanos;
+
+    /**
+     * Строит каталог с параметрами индекса по умолчанию.
+     */
+    public static MovieCatalog of(List<Movie> movies) {
+        return new MovieCatalog(movies, DEFAULT_NEIGHBOURS, DEFAULT_CANDIDATE_WINDOW);
+    }
+
+    /**
+     * @param movies          фильмы каталога
+     * @param neighbourCount  сколько соседей хранить для каждого фильма
+     * @param candidateWindow сколько фильмов того же жанра проверять с каждой стороны по году
+     * @throws IllegalArgumentException если список фильмов пустой
+     */
+    public MovieCatalog(List<Movie> movies, int neighbourCount, int candidateWindow) {
+        if (movies == null || movies.isEmpty()) {
+            throw new IllegalArgumentException("Каталог фильмов не может быть пустым");
+        }
+        long started = System.nanoTime();
+        this.movies = List.copyOf(movies);
+        this.indexes = new HashMap<>(this.movies.size() * 2);
+        for (int i = 0; i < this.movies.size(); i++) {
+            indexes.putIfAbsent(this.movies.get(i), i);
+        }
+        this.neighbours = buildNeighbours(this.movies, neighbourCount, candidateWindow);
+        this.buildNanos = System.nanoTime() - started;
+    }
+
+    public int size() {
+        return movies.size();
+    }
+
+    public Movie get(int index) {
+        return movies.get(index);
+    }
+
+    public List<Movie> movies() {
+        return movies;
+    }
+
+    /**
+     * @return индекс фильма в каталоге или -1, если фильма в каталоге нет
+     */
+    public int indexOf(Movie movie) {
+        Integer index = indexes.get(movie);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Отпечаток первых {@code count} фильмов каталога (FNV-1a по картинкам и названиям по порядку).
+     * По нему данные, индексированные номером фильма, узнают, что каталог не просто дополнился
+     * новыми фильмами в конце, а изменился и старые номера указывают на другие фильмы.
+     *
+     * @param count число фильмов от начала каталога, не больше {@link #size()}
+     */
+    public long fingerprint(int count) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < count; i++) {
+            Movie movie = movies.get(i);
+            hash = fnv(fnv(hash, movie.imageFileName()), movie.title());
+        }
+        return hash;
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return (hash ^ '\n') * 0x100000001b3L;
+    }
+
+    /**
+     * Возвращает индексы похожих фильмов, от самого похожего. Массив нельзя изменять.
+     */
+    public int[] neighbours(int index) {
+        return neighbours[index];
+    }
+
+    /**
+     * @return неизменяемый список соседей фильма, удобный для отладки и тестов
+     */
+    public List<Movie> similarMovies(int index) {
+        int[] near = neighbours[index];
+        List<Movie> similar = new ArrayList<>(near.length);
+        for (int neighbour : near) {
+            similar.add(movies.get(neighbour));
+        }
+        return Collections.unmodifiableList(similar);
+    }
+
+    /**
+     * @return время построения индекса похожих фильмов, нс
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    private static int[][] buildNeighbours(List<Movie> movies, int neighbourCount, int candidateWindow) {
+        int size = movies.size();
+        long[] genreMasks = new long[size];
+        int[] countries = new int[size];
+        int[] years = new int[size];
+        Map<String, List<Integer>> byPrimaryGenre = new HashMap<>();
+        Map<String, Integer> genreIds = new HashMap<>();
+        Map<String, Integer> countryIds = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            Movie movie = movies.get(i);
+            years[i] = movie.year();
+            countries[i] = movie.country() == null
+                    ? -1
+                    : countryIds.computeIfAbsent(movie.country().toUpperCase(Locale.ROOT), c -> countryIds.size());
+            if (movie.genres() == null) {
+                continue;
+            }
+            String[] genres = movie.genres().toLowerCase(Locale.ROOT).split("\\|");
+            for (String genre : genres) {
+                int id = genreIds.computeIfAbsent(genre.strip(), g -> genreIds.size());
+                genreMasks[i] |= 1L << (id & 63);
+            }
+            byPrimaryGenre.computeIfAbsent(genres[0].strip(), g -> new ArrayList<>()).add(i);
+        }
+
+        int[][] result = new int[size][];
+        Arrays.fill(result, NO_NEIGHBOURS);
+        int[] bestIndexes = new int[neighbourCount];
+        int[] bestScores = new int[neighbourCount];
+
+        for (List<Integer> group : byPrimaryGenre.values()) {
+            group.sort((a, b) -> Integer.compare(years[a], years[b]));
+            int groupSize = group.size();
+            for (int position = 0; position < groupSize; position++) {
+                int movie = group.get(position);
+                int found = 0;
+                int from = Math.max(0, position - candidateWindow);
+                int to = Math.min(groupSize - 1, position + candidateWindow);
+                for (int candidatePosition = from; candidatePosition <= to; candidatePosition++) {
+                    int candidate = group.get(candidatePosition);
+                    if (candidate == movie || movies.get(candidate).title().equals(movies.get(movie).title())) {
+                        continue;
+                    }
+                    int score = GENRE_WEIGHT * Long.bitCount(genreMasks[movie] & genreMasks[candidate])
+                            + (countries[movie] >= 0 && countries[movie] == countries[candidate] ? COUNTRY_WEIGHT : 0)
+                            + yearScore(years[movie], years[candidate]);
+                    found = insertTop(bestIndexes, bestScores, found, candidate, score);
+                }
+                result[movie] = found == 0 ? NO_NEIGHBOURS : Arrays.copyOf(bestIndexes, found);
+            }
+        }
+        return result;
+    }
+
+    private static int yearScore(int year, int otherYear) {
+        if (year == 0 || otherYear == 0) {
+            return 0;
+        }
+        return Math.max(0, YEAR_WEIGHT - Math.abs(year - otherYear) / YEARS_PER_POINT);
+    }
+
+    /**
+     * Вставляет кандидата в отсортированный по убыванию оценки топ фиксированного размера.
+     *
+     * @return новый размер топа
+     */
+    private static int insertTop(int[] indexes, int[] scores, int size, int candidate, int score) {
+        int capacity = indexes.length;
+        if (capacity == 0 || (size == capacity && scores[size - 1] >= score)) {
+            return size;
+        }
+        int position = Math.min(size, capacity - 1);
+        while (position > 0 && scores[position - 1] < score) {
+            indexes[position] = indexes[position - 1];
+            scores[position] = scores[position - 1];
+            position--;
+        }
+        indexes[position] = candidate;
+        scores[position] = score;
+        return Math.min(size + 1, capacity);
+    }
+}
@@ -0,0 +1,22 @@
+package movie_quiz.core;
+
+import java.util.BitSet;
+
+/**
+ * История игрока по фильмам каталога: какие фильмы он уже видел и какие не угадал.
+ * Номер бита — индекс фильма в каталоге.
+ *
+ * @param seen   фильмы, которые игрок уже видел
+ * @param missed фильмы, которые игрок не угадал в последний раз
+ */
+public record MovieHistory(BitSet seen, BitSet missed) {
+
+    /**
+     * История игрока, который ещё не играл.
+     */
+    public static final MovieHistory EMPTY = new MovieHistory(new BitSet(), new BitSet());
+
+    public boolean isEmpty() {
+        return seen.isEmpty() && missed.isEmpty();
+    }
+}
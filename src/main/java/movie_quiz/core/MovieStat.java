@@ -0,0 +1,28 @@
+package movie_quiz.core;
+
+/**
+ * Накопленная статистика ответов по одному фильму.
+ *
+ * @param title              название фильма
+ * @param shown              сколько раз фильм загадывался
+ * @param correct            сколько раз его угадали
+ * @param timedOut           сколько раз время на ответ истекло
+ * @param totalLatencyMillis суммарное время ответов без учёта истёкших вопросов, мс
+ */
+public record MovieStat(String title, long shown, long correct, long timedOut, long totalLatencyMillis) {
+
+    /**
+     * @return доля верных ответов от 0 до 1 или 0, если фильм ещё не загадывался
+     */
+    public double accuracy() {
+        return shown == 0 ? 0 : (double) correct / shown;
+    }
+
+    /**
+     * @return среднее время ответа, мс, или 0, если ответов не было
+     */
+    public long meanLatencyMillis() {
+        long answered = shown - timedOut;
+        return answered <= 0 ? 0 : totalLatencyMillis / answered;
+    }
+}
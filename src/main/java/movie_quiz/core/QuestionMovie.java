@@ -4,27 +4,51 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
- * Формирует вопросы киноквиза по списку фильмов.
+ * Формирует вопросы киноквиза по каталогу фильмов.
  * Выдаёт варианты ответов и проверяет правильность ответа.
+ * <p>
+ * В зависимости от {@link Difficulty} часть неверных вариантов берётся из заранее посчитанных
+ * похожих фильмов каталога ({@link MovieCatalog#neighbours(int)}), остальные — случайно.
  */
 public class QuestionMovie {
 
-    private final List<Movie> listTitles;
+    private static final int OPTIONS_COUNT = 4;
+    private static final int[] NO_SIMILAR = new int[0];
+
+    private final MovieCatalog catalog;
+    private final Difficulty difficulty;
     private Movie currentMovie;
+    private int correctIndex = -1;
 
     /**
-     * Создаёт генератор вопросов на основе списка фильмов.
+     * Создаёт генератор вопросов на основе списка фильмов со случайными неверными вариантами.
      *
      * @param listTitles список фильмов для построения вариантов ответа
      * @throws IllegalArgumentException если список null или пустой
      */
     public QuestionMovie(List<Movie> listTitles) {
+        this(catalogOf(listTitles), Difficulty.EASY);
+    }
+
+    /**
+     * Создаёт генератор вопросов на основе общего каталога.
+     *
+     * @param catalog    каталог фильмов с индексом похожих фильмов
+     * @param difficulty сложность вопросов
+     */
+    public QuestionMovie(MovieCatalog catalog, Difficulty difficulty) {
+        this.catalog = catalog;
+        this.difficulty = difficulty;
+    }
+
+    private static MovieCatalog catalogOf(List<Movie> listTitles) {
         if (listTitles == null || listTitles.isEmpty()) {
             throw new IllegalArgumentException("Список фильмов для построения вопросов не может быть пустым");
         }
-        this.listTitles = new ArrayList<>(listTitles);
+        return MovieCatalog.of(listTitles);
     }
 
     /**
@@ -40,27 +64,75 @@ public class QuestionMovie {
             throw new IllegalStateException("Нельзя формировать варианты без текущего фильма в сессии");
         }
 
-        List<String> questions = new ArrayList<>();
         currentMovie = session.getCurrentMovie();
+        List<String> questions = buildOptions(catalog, difficulty, currentMovie, ThreadLocalRandom.current());
+        correctIndex = questions.indexOf(currentMovie.title());
+        return questions;
+    }
+
+    /**
+     * Формирует варианты ответа для произвольного фильма, не меняя текущий вопрос.
+     * Используется, чтобы подготовить следующий вопрос заранее.
+     *
+     * @param movie фильм, который нужно будет угадать
+     * @return список вариантов ответа
+     */
+    public List<String> optionsFor(Movie movie) {
+        return buildOptions(catalog, difficulty, movie, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Делает текущим вопрос с заранее сформированными вариантами (см. {@link #optionsFor(Movie)}).
+     *
+     * @param movie   фильм вопроса
+     * @param options варианты ответа, среди которых есть название фильма
+     */
+    public void useQuestion(Movie movie, List<String> options) {
+        currentMovie = movie;
+        correctIndex = options.indexOf(movie.title());
+    }
 
-        questions.add(currentMovie.title());
+    /**
+     * Формирует перемешанные варианты ответа для фильма: правильное название, похожие фильмы
+     * по сложности и случайные названия каталога. С генератором, засеянным одним значением,
+     * результат воспроизводим.
+     *
+     * @param catalog    каталог фильмов
+     * @param difficulty сложность вопроса
+     * @param movie      фильм, который нужно угадать
+     * @param random     генератор случайных чисел
+     * @return список вариантов ответа (обычно 4 элемента)
+     */
+    public static List<String> buildOptions(MovieCatalog catalog, Difficulty difficulty, Movie movie,
+                                            RandomGenerator random) {
+        List<String> questions = new ArrayList<>(OPTIONS_COUNT);
+        questions.add(movie.title());
 
-        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int optionsCount = Math.min(OPTIONS_COUNT, catalog.size());
 
-        while (questions.size() < 4 && questions.size() < listTitles.size()) {
-            int index = random.nextInt(listTitles.size());
-            Movie candidate = listTitles.get(index);
+        int movieIndex = catalog.indexOf(movie);
+        int[] similar = movieIndex < 0 ? NO_SIMILAR : catalog.neighbours(movieIndex);
+        int similarTarget = Math.min(optionsCount, 1 + difficulty.similarDistractors());
+        int start = similar.length == 0 ? 0 : random.nextInt(similar.length);
+        for (int i = 0; questions.size() < similarTarget && i < similar.length; i++) {
+            addOption(questions, movie, catalog.get(similar[(start + i) % similar.length]));
+        }
 
-            String title = candidate.title();
-            if (!title.equals(currentMovie.title()) && !questions.contains(title)) {
-                questions.add(title);
-            }
+        while (questions.size() < optionsCount) {
+            addOption(questions, movie, catalog.get(random.nextInt(catalog.size())));
         }
 
-        Collections.shuffle(questions);
+        Collections.shuffle(questions, random);
         return questions;
     }
 
+    private static void addOption(List<String> questions, Movie movie, Movie candidate) {
+        String title = candidate.title();
+        if (!title.equals(movie.title()) && !questions.contains(title)) {
+            questions.add(title);
+        }
+    }
+
     /**
      * Проверяет, совпадает ли переданное название с текущим фильмом.
      *
@@ -75,6 +147,20 @@ public class QuestionMovie {
         return currentMovie.title().equalsIgnoreCase(title);
     }
 
+    /**
+     * Проверяет, что выбран вариант с правильным ответом, по его индексу в последнем списке вариантов.
+     *
+     * @param optionIndex индекс выбранного варианта
+     * @return true, если ответ верный, иначе false
+     * @throws IllegalStateException если варианты для текущего фильма ещё не сформированы
+     */
+    public boolean isCorrectOption(int optionIndex) {
+        if (currentMovie == null || correctIndex < 0) {
+            throw new IllegalStateException("Текущий фильм не установлен, невозможно проверить ответ");
+        }
+        return optionIndex == correctIndex;
+    }
+
     /**
      * Возвращает правильное название текущего фильма.
      *
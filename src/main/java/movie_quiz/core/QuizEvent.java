@@ -0,0 +1,33 @@
+package movie_quiz.core;
+
+/**
+ * Исход одного вопроса кино-квиза для журнала событий.
+ *
+ * @param timestampMillis время ответа, мс с начала эпохи
+ * @param chatId          идентификатор чата игрока
+ * @param movieTitle      название фильма, которое нужно было угадать
+ * @param option          индекс выбранного варианта, {@link #NO_OPTION} или {@link #TIMED_OUT}
+ * @param correct         true, если ответ верный
+ * @param latencyMillis   время от выдачи вопроса до ответа, мс
+ */
+public record QuizEvent(long timestampMillis,
+                        long chatId,
+                        String movieTitle,
+                        int option,
+                        boolean correct,
+                        long latencyMillis) {
+
+    /**
+     * Ответ введён текстом и не совпал ни с одним вариантом.
+     */
+    public static final int NO_OPTION = -1;
+
+    /**
+     * Время на вопрос истекло.
+     */
+    public static final int TIMED_OUT = -2;
+
+    public boolean timedOut() {
+        return option == TIMED_OUT;
+    }
+}
@@ -0,0 +1,64 @@
+package movie_quiz.service;
+
+import movie_quiz.core.DailyChallenge;
+import movie_quiz.core.Difficulty;
+import movie_quiz.core.MovieCatalog;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Источник вызова дня: строит {@link DailyChallenge} при первом обращении в новый день
+ * и отдаёт один и тот же объект всем игрокам до конца дня.
+ * <p>
+ * При смене дня вызывается слушатель, например, чтобы заранее подготовить клавиатуры вопросов.
+ */
+public class DailyChallenges {
+
+    private static final Logger log = LogManager.getLogger(DailyChallenges.class);
+
+    private final MovieCatalog catalog;
+    private final int length;
+    private final Difficulty difficulty;
+    private final Clock clock;
+    private final Consumer<DailyChallenge> onNewChallenge;
+    private final AtomicReference<DailyChallenge> current = new AtomicReference<>();
+
+    /**
+     * @param catalog        каталог фильмов
+     * @param length         число вопросов вызова
+     * @param difficulty     сложность вопросов
+     * @param clock          часы для определения текущего дня
+     * @param onNewChallenge слушатель построения нового вызова
+     */
+    public DailyChallenges(MovieCatalog catalog, int length, Difficulty difficulty, Clock clock,
+                           Consumer<DailyChallenge> onNewChallenge) {
+        this.catalog = catalog;
+        this.length = length;
+        this.difficulty = difficulty;
+        this.clock = clock;
+        this.onNewChallenge = onNewChallenge;
+    }
+
+    /**
+     * Возвращает вызов текущего дня, при смене дня строя новый.
+     */
+    public DailyChallenge today() {
+        LocalDate date = LocalDate.now(clock);
+        DailyChallenge challenge = current.get();
+        if (challenge != null && challenge.date().equals(date)) {
+            return challenge;
+        }
+        DailyChallenge fresh = DailyChallenge.generate(catalog, date, length, difficulty);
+        if (current.compareAndSet(challenge, fresh)) {
+            log.info("Построен вызов дня кино-квиза на {}: вопросов={}", date, fresh.size());
+            onNewChallenge.accept(fresh);
+            return fresh;
+        }
+        return current.get();
+    }
+}
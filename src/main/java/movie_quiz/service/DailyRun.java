@@ -0,0 +1,67 @@
+package movie_quiz.service;
+
+import movie_quiz.core.DailyChallenge;
+
+/**
+ * Прохождение вызова дня одним игроком.
+ * <p>
+ * Вопросы, варианты и правильные ответы берутся из общего {@link DailyChallenge};
+ * собственное состояние игрока — только номер текущего вопроса и счёт.
+ */
+public class DailyRun {
+
+    private final DailyChallenge challenge;
+    private int cursor;
+    private int score;
+
+    public DailyRun(DailyChallenge challenge) {
+        this.challenge = challenge;
+    }
+
+    /**
+     * @return текущий вопрос
+     * @throws IllegalStateException если вызов уже пройден
+     */
+    public DailyChallenge.Question current() {
+        if (isFinished()) {
+            throw new IllegalStateException("Вызов дня уже пройден");
+        }
+        return challenge.question(cursor);
+    }
+
+    /**
+     * Проверяет ответ на текущий вопрос и переходит к следующему.
+     *
+     * @param answer текст ответа игрока
+     * @return true, если ответ верный
+     * @throws IllegalStateException если вызов уже пройден
+     */
+    public boolean answer(String answer) {
+        DailyChallenge.Question question = current();
+        boolean correct = question.movie().title().equalsIgnoreCase(answer);
+        if (correct) {
+            score++;
+        }
+        cursor++;
+        return correct;
+    }
+
+    public boolean isFinished() {
+        return cursor >= challenge.size();
+    }
+
+    public DailyChallenge getChallenge() {
+        return challenge;
+    }
+
+    /**
+     * @return номер текущего вопроса, начиная с 1
+     */
+    public int getQuestionNumber() {
+        return cursor + 1;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,242 @@
+package movie_quiz.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Хешированное колесо таймеров для дедлайнов вопросов квиза.
+ * <p>
+ * Все дедлайны обслуживаются одной периодической задачей общего планировщика, а не отдельной
+ * задачей на каждый вопрос. Колесо состоит из {@code wheelSize} ячеек, каждая соответствует
+ * одному тику; дедлайн дальше одного оборота хранит число оставшихся оборотов.
+ * Стоимость постановки и отмены — O(1), тика — число дедлайнов в текущей ячейке.
+ * <p>
+ * Новые дедлайны попадают в неблокирующую очередь и раскладываются по ячейкам в потоке тика,
+ * поэтому сами ячейки доступны только этому потоку. Отмена ленивая: дедлайн помечается,
+ * а из ячейки удаляется при следующем проходе.
+ * <p>
+ * Состояние дедлайна меняется одним CAS из {@code PENDING} либо в {@code CANCELLED}, либо в
+ * {@code EXPIRED}. Если ответ и дедлайн пришли одновременно, ровно одна сторона выигрывает CAS:
+ * {@link Timeout#cancel()} вернёт false, если задача дедлайна уже запущена, и наоборот.
+ * <p>
+ * Задачи дедлайнов выполняются в потоке тика и должны быть короткими.
+ */
+public class DeadlineWheel {
+
+    private static final Logger log = LogManager.getLogger(DeadlineWheel.class);
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final List<ArrayDeque<Timeout>> buckets;
+    private final int mask;
+    private final long tickNanos;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final AtomicInteger pending = new AtomicInteger();
+    private long currentTick;
+    private ScheduledFuture<?> task;
+
+    /**
+     * Отложенная задача, которую можно отменить до срабатывания.
+     */
+    public final class Timeout {
+        private final Runnable action;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long remainingRounds;
+
+        private Timeout(Runnable action, long deadlineNanos) {
+            this.action = action;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Отменяет дедлайн.
+         *
+         * @return true, если дедлайн отменён; false, если он уже сработал или был отменён раньше
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private boolean expire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param tick      длительность одного тика, она же точность срабатывания
+     * @param wheelSize число ячеек колеса, округляется вверх до степени двойки
+     */
+    public DeadlineWheel(Duration tick, int wheelSize) {
+        this(tick, wheelSize, System::nanoTime);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    DeadlineWheel(Duration tick, int wheelSize, LongSupplier nanoTime) {
+        if (tick == null || !tick.isPositive()) {
+            throw new IllegalArgumentException("Длительность тика должна быть положительной");
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 20) {
+            throw new IllegalArgumentException("Размер колеса должен быть от 1 до 2^20: " + wheelSize);
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+        this.tickNanos = tick.toNanos();
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Запускает обработку дедлайнов на переданном планировщике.
+     */
+    public synchronized void start(ScheduledExecutorService scheduler) {
+        if (task != null) {
+            return;
+        }
+        task = scheduler.scheduleAtFixedRate(this::safeTick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        log.info("Запущено колесо дедлайнов квиза: тик={} мс, ячеек={}",
+                TimeUnit.NANOSECONDS.toMillis(tickNanos), buckets.size());
+    }
+
+    /**
+     * Останавливает обработку дедлайнов. Поставленные дедлайны сохраняются.
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    /**
+     * Ставит задачу на выполнение через заданное время.
+     *
+     * @param delay  задержка до срабатывания
+     * @param action задача дедлайна
+     * @return дедлайн, который можно отменить
+     */
+    public Timeout schedule(Duration delay, Runnable action) {
+        Timeout timeout = new Timeout(action, nanoTime.getAsLong() + Math.max(0, delay.toNanos()));
+        pending.incrementAndGet();
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return число ещё не сработавших и не отменённых дедлайнов
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    /**
+     * Обрабатывает все тики, наступившие к текущему моменту.
+     *
+     * @return число сработавших дедлайнов
+     */
+    synchronized int tick() {
+        long now = nanoTime.getAsLong();
+        long targetTick = (now - startNanos) / tickNanos;
+        int expired = 0;
+        while (currentTick <= targetTick) {
+            transferIncoming();
+            expired += expireBucket(buckets.get((int) (currentTick & mask)), now);
+            currentTick++;
+        }
+        return expired;
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long deadlineTick = Math.max(currentTick, ceilDiv(timeout.deadlineNanos - startNanos, tickNanos));
+            timeout.remainingRounds = (deadlineTick - currentTick) / buckets.size();
+            buckets.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    private int expireBucket(Queue<Timeout> bucket, long now) {
+        int expired = 0;
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.state.get() != PENDING) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else if (timeout.deadlineNanos <= now) {
+                iterator.remove();
+                if (timeout.expire()) {
+                    expired++;
+                    run(timeout);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private static void run(Timeout timeout) {
+        try {
+            timeout.action.run();
+        } catch (RuntimeException e) {
+            log.error("Ошибка в задаче дедлайна квиза", e);
+        }
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            log.error("Ошибка в тике колеса дедлайнов", e);
+        }
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return value <= 0 ? 0 : (value + divisor - 1) / divisor;
+    }
+}
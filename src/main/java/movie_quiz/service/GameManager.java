@@ -1,21 +1,40 @@
 package movie_quiz.service;
 
+import movie_quiz.core.Difficulty;
 import movie_quiz.core.QuestionMovie;
 import movie_quiz.core.GameSession;
 import movie_quiz.core.Movie;
+import movie_quiz.core.MovieCatalog;
+import movie_quiz.core.MovieHistory;
 import movie_quiz.core.QuestionView;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Управляет игровой сессией кино-квиза:
  * выдаёт вопросы, проверяет ответы и считает очки.
+ * <p>
+ * Варианты следующего вопроса можно подготовить заранее ({@link #prepareNextQuestion()}), пока игрок
+ * думает над текущим; тогда {@link #getNextQuestion()} только забирает готовые варианты.
  */
 public class GameManager {
 
+    private static final int NO_OPTION = -1;
+
     private final GameSession gameSession;
     private final QuestionMovie questionMovie;
+    private final boolean inlineMode;
+    private final Duration timeLimit;
+    private final String nonce;
+    private int questionNumber;
+    private List<String> currentOptions = List.of();
+    private long questionIssuedNanos;
+    private Movie preparedMovie;
+    private List<String> preparedOptions;
 
     /**
      * Создаёт менеджер игры на основе списка фильмов.
@@ -23,8 +42,67 @@ public class GameManager {
      * @param movieList список доступных фильмов для вопросов
      */
     public GameManager(List<Movie> movieList) {
+        this(movieList, false);
+    }
+
+    /**
+     * Создаёт менеджер игры на основе списка фильмов.
+     *
+     * @param movieList  список доступных фильмов для вопросов
+     * @param inlineMode true, если ответы принимаются инлайн-кнопками
+     */
+    public GameManager(List<Movie> movieList, boolean inlineMode) {
+        this(movieList, inlineMode, null);
+    }
+
+    /**
+     * Создаёт менеджер игры на основе списка фильмов.
+     *
+     * @param movieList  список доступных фильмов для вопросов
+     * @param inlineMode true, если ответы принимаются инлайн-кнопками
+     * @param timeLimit  лимит времени на вопрос или null без ограничения
+     */
+    public GameManager(List<Movie> movieList, boolean inlineMode, Duration timeLimit) {
         this.gameSession = new GameSession(movieList);
         this.questionMovie = new QuestionMovie(movieList);
+        this.inlineMode = inlineMode;
+        this.timeLimit = timeLimit;
+        this.nonce = newNonce();
+    }
+
+    /**
+     * Создаёт менеджер игры на основе общего каталога фильмов.
+     *
+     * @param catalog    каталог фильмов с индексом похожих фильмов
+     * @param difficulty сложность вопросов
+     * @param inlineMode true, если ответы принимаются инлайн-кнопками
+     * @param timeLimit  лимит времени на вопрос или null без ограничения
+     */
+    public GameManager(MovieCatalog catalog, Difficulty difficulty, boolean inlineMode, Duration timeLimit) {
+        this(catalog, difficulty, inlineMode, timeLimit, MovieHistory.EMPTY);
+    }
+
+    /**
+     * Создаёт менеджер игры на основе общего каталога фильмов с учётом истории игрока:
+     * сначала идут не виденные фильмы, не угаданные раньше повторяются с интервалом.
+     *
+     * @param catalog    каталог фильмов с индексом похожих фильмов
+     * @param difficulty сложность вопросов
+     * @param inlineMode true, если ответы принимаются инлайн-кнопками
+     * @param timeLimit  лимит времени на вопрос или null без ограничения
+     * @param history    история игрока по индексам каталога
+     */
+    public GameManager(MovieCatalog catalog, Difficulty difficulty, boolean inlineMode, Duration timeLimit,
+                       MovieHistory history) {
+        this.gameSession = new GameSession(catalog.movies(), history);
+        this.questionMovie = new QuestionMovie(catalog, difficulty);
+        this.inlineMode = inlineMode;
+        this.timeLimit = timeLimit;
+        this.nonce = newNonce();
+    }
+
+    private static String newNonce() {
+        return Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), Character.MAX_RADIX);
     }
 
     /**
@@ -37,7 +115,43 @@ public class GameManager {
         if (gameSession.isFinished()) {
             return Optional.empty();
         }
-        return Optional.of(new QuestionView(questionMovie.getQuestions(gameSession)));
+        questionNumber++;
+        Movie movie = gameSession.getCurrentMovie();
+        if (preparedMovie == movie && preparedOptions != null) {
+            currentOptions = preparedOptions;
+            questionMovie.useQuestion(movie, currentOptions);
+        } else {
+            currentOptions = questionMovie.getQuestions(gameSession);
+        }
+        preparedMovie = null;
+        preparedOptions = null;
+        questionIssuedNanos = System.nanoTime();
+        return Optional.of(new QuestionView(currentOptions));
+    }
+
+    /**
+     * Готовит варианты следующего вопроса, если он есть и ещё не подготовлен.
+     * Вызывается вне пути ответа, под тем же монитором, что и остальные методы менеджера.
+     *
+     * @return true, если следующий вопрос подготовлен
+     */
+    public boolean prepareNextQuestion() {
+        Movie next = gameSession.getMovies().peek();
+        if (next == null) {
+            return false;
+        }
+        if (preparedMovie != next) {
+            preparedOptions = questionMovie.optionsFor(next);
+            preparedMovie = next;
+        }
+        return true;
+    }
+
+    /**
+     * @return true, если варианты следующего вопроса уже подготовлены
+     */
+    public boolean hasPreparedQuestion() {
+        return preparedMovie != null && preparedMovie == gameSession.getMovies().peek();
     }
 
     /**
@@ -49,9 +163,7 @@ public class GameManager {
      * @throws IllegalStateException если вопрос ещё не был выдан
      */
     public boolean checkAnswer(String answer) {
-        if (questionMovie.getCurrentMovie() == null) {
-            throw new IllegalStateException("Нельзя проверять ответ до выдачи вопроса");
-        }
+        requireQuestion();
         boolean currentAnswer = questionMovie.getAnswer(answer);
         if (currentAnswer) {
             gameSession.incrementScore();
@@ -60,6 +172,98 @@ public class GameManager {
         return currentAnswer;
     }
 
+    /**
+     * Проверяет ответ пользователя по индексу выбранного варианта.
+     * Увеличивает счёт при верном ответе и переходит к следующему фильму.
+     *
+     * @param optionIndex индекс варианта в последнем выданном вопросе
+     * @return true, если ответ верный, иначе false
+     * @throws IllegalStateException если вопрос ещё не был выдан
+     */
+    public boolean checkAnswer(int optionIndex) {
+        requireQuestion();
+        boolean currentAnswer = questionMovie.isCorrectOption(optionIndex);
+        if (currentAnswer) {
+            gameSession.incrementScore();
+        }
+        gameSession.nextMovie();
+        return currentAnswer;
+    }
+
+    private void requireQuestion() {
+        if (questionMovie.getCurrentMovie() == null) {
+            throw new IllegalStateException("Нельзя проверять ответ до выдачи вопроса");
+        }
+    }
+
+    /**
+     * Засчитывает неверный ответ на текущий вопрос, время которого истекло,
+     * и переходит к следующему фильму так же, как {@link #checkAnswer(int)}.
+     */
+    public void expireQuestion() {
+        checkAnswer(NO_OPTION);
+    }
+
+    /**
+     * Пропускает текущий вопрос без начисления очков и переходит к следующему фильму.
+     */
+    public void skipQuestion() {
+        gameSession.nextMovie();
+    }
+
+    /**
+     * Проверяет, что нажатая кнопка относится к этой игре и к текущему вопросу.
+     *
+     * @param callbackNonce          nonce из данных кнопки
+     * @param callbackQuestionNumber номер вопроса из данных кнопки
+     * @return true, если ответ на текущий вопрос ещё не принят
+     */
+    public boolean isCurrentQuestion(String callbackNonce, int callbackQuestionNumber) {
+        return callbackQuestionNumber == questionNumber && nonce.equals(callbackNonce);
+    }
+
+    /**
+     * Возвращает индекс варианта текущего вопроса, совпадающего с введённым текстом.
+     *
+     * @param answer ответ пользователя
+     * @return индекс варианта или -1, если текст не совпал ни с одним вариантом
+     */
+    public int optionIndex(String answer) {
+        for (int i = 0; i < currentOptions.size(); i++) {
+            if (currentOptions.get(i).equalsIgnoreCase(answer)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return время с выдачи текущего вопроса, мс
+     */
+    public long getQuestionAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - questionIssuedNanos);
+    }
+
+    public boolean isInlineMode() {
+        return inlineMode;
+    }
+
+    public boolean isTimed() {
+        return timeLimit != null;
+    }
+
+    public Duration getTimeLimit() {
+        return timeLimit;
+    }
+
+    public String getNonce() {
+        return nonce;
+    }
+
+    public int getQuestionNumber() {
+        return questionNumber;
+    }
+
     /**
      * Возвращает текущий фильм в игре.
      *
@@ -0,0 +1,203 @@
+package movie_quiz.service;
+
+import movie_quiz.core.Difficulty;
+import movie_quiz.core.Movie;
+import movie_quiz.core.MovieCatalog;
+import movie_quiz.core.QuestionView;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Групповой раунд кино-квиза: один вопрос на весь чат, отвечают все участники.
+ * <p>
+ * Состояние вопроса меняется без блокировок:
+ * <ul>
+ *     <li>каждый участник отвечает один раз — {@code putIfAbsent} в карту ответов вопроса;</li>
+ *     <li>первый верный ответ определяется CAS на идентификаторе победителя и даёт бонусное очко;</li>
+ *     <li>очки участников копятся в {@link LongAdder} внутри {@link ConcurrentHashMap};</li>
+ *     <li>вопрос закрывается ровно один раз — CAS флага закрытия, поэтому дедлайн и досрочное
+ *     завершение не могут подвести итоги дважды.</li>
+ * </ul>
+ * Ответ, пришедший одновременно с закрытием, может быть засчитан в очки, но не попасть в итог вопроса.
+ * Выдача следующего вопроса выполняется тем, кто закрыл текущий, поэтому {@link GameManager}
+ * используется из одного потока за раз.
+ */
+public class GroupRound {
+
+    private static final long NO_WINNER = Long.MIN_VALUE;
+
+    private final GameManager manager;
+    private final int questionLimit;
+    private final Map<Long, LongAdder> scores = new ConcurrentHashMap<>();
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final AtomicReference<GroupQuestion> current = new AtomicReference<>();
+
+    /**
+     * Результат попытки ответить.
+     */
+    public enum AnswerResult {
+        ACCEPTED,
+        DUPLICATE,
+        STALE
+    }
+
+    /**
+     * Итог закрытого вопроса.
+     *
+     * @param questionNumber номер вопроса
+     * @param rightAnswer    правильное название фильма
+     * @param winnerName     имя первого ответившего верно или null
+     * @param correctAnswers число верных ответов
+     * @param totalAnswers   число всех ответов
+     */
+    public record QuestionResult(int questionNumber,
+                                 String rightAnswer,
+                                 String winnerName,
+                                 int correctAnswers,
+                                 int totalAnswers) {
+    }
+
+    /**
+     * Очки участника раунда.
+     */
+    public record Standing(long userId, String name, long score) {
+    }
+
+    /**
+     * @param movies        фильмы для вопросов
+     * @param questionLimit максимальное число вопросов в раунде
+     */
+    public GroupRound(List<Movie> movies, int questionLimit) {
+        this(MovieCatalog.of(movies), Difficulty.EASY, questionLimit);
+    }
+
+    /**
+     * @param catalog       каталог фильмов
+     * @param difficulty    сложность вопросов
+     * @param questionLimit максимальное число вопросов в раунде
+     */
+    public GroupRound(MovieCatalog catalog, Difficulty difficulty, int questionLimit) {
+        this.manager = new GameManager(catalog, difficulty, true, null);
+        this.questionLimit = questionLimit;
+    }
+
+    /**
+     * Открывает следующий вопрос.
+     *
+     * @return варианты ответа или пустой Optional, если раунд закончен
+     */
+    public Optional<QuestionView> openNextQuestion() {
+        if (manager.getQuestionNumber() >= questionLimit) {
+            return Optional.empty();
+        }
+        Optional<QuestionView> question = manager.getNextQuestion();
+        question.ifPresent(view -> current.set(new GroupQuestion(
+                manager.getQuestionNumber(),
+                view.movieTitles().indexOf(manager.getCurrentMovie().title()),
+                manager.getCurrentMovie().title())));
+        return question;
+    }
+
+    /**
+     * Регистрирует ответ участника на текущий вопрос.
+     */
+    public AnswerResult answer(String nonce, int questionNumber, long userId, String name, int option) {
+        GroupQuestion question = current.get();
+        if (question == null || question.closed.get()
+                || question.number != questionNumber || !manager.getNonce().equals(nonce)) {
+            return AnswerResult.STALE;
+        }
+        if (question.answers.putIfAbsent(userId, option) != null) {
+            return AnswerResult.DUPLICATE;
+        }
+        if (name != null) {
+            names.putIfAbsent(userId, name);
+        }
+        if (option == question.correctOption) {
+            LongAdder score = scores.computeIfAbsent(userId, id -> new LongAdder());
+            score.increment();
+            if (question.winner.compareAndSet(NO_WINNER, userId)) {
+                score.increment();
+            }
+        }
+        return AnswerResult.ACCEPTED;
+    }
+
+    /**
+     * Закрывает вопрос, если он ещё открыт, и подводит его итог.
+     *
+     * @param questionNumber номер закрываемого вопроса
+     * @return итог вопроса или null, если вопрос уже закрыт или устарел
+     */
+    public QuestionResult closeQuestion(int questionNumber) {
+        GroupQuestion question = current.get();
+        if (question == null || question.number != questionNumber || !question.closed.compareAndSet(false, true)) {
+            return null;
+        }
+        int correct = 0;
+        for (Integer option : question.answers.values()) {
+            if (option == question.correctOption) {
+                correct++;
+            }
+        }
+        long winner = question.winner.get();
+        String winnerName = winner == NO_WINNER ? null : names.getOrDefault(winner, "");
+        manager.skipQuestion();
+        return new QuestionResult(question.number, question.rightAnswer, winnerName, correct, question.answers.size());
+    }
+
+    /**
+     * Возвращает очки участников по убыванию.
+     */
+    public List<Standing> standings() {
+        List<Standing> standings = new ArrayList<>(scores.size());
+        scores.forEach((userId, score) ->
+                standings.add(new Standing(userId, names.getOrDefault(userId, ""), score.sum())));
+        standings.sort(Comparator.comparingLong(Standing::score).reversed().thenComparingLong(Standing::userId));
+        return standings;
+    }
+
+    /**
+     * @return true, если текущий вопрос открыт и принимает ответы
+     */
+    public boolean isQuestionOpen() {
+        GroupQuestion question = current.get();
+        return question != null && !question.closed.get();
+    }
+
+    public GameManager getManager() {
+        return manager;
+    }
+
+    public String getNonce() {
+        return manager.getNonce();
+    }
+
+    public int getQuestionNumber() {
+        return manager.getQuestionNumber();
+    }
+
+    private static final class GroupQuestion {
+        private final int number;
+        private final int correctOption;
+        private final String rightAnswer;
+        private final Map<Long, Integer> answers = new ConcurrentHashMap<>();
+        private final AtomicLong winner = new AtomicLong(NO_WINNER);
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private GroupQuestion(int number, int correctOption, String rightAnswer) {
+            this.number = number;
+            this.correctOption = correctOption;
+            this.rightAnswer = rightAnswer;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package movie_quiz.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек с логарифмическими корзинами для оценки перцентилей.
+ * <p>
+ * Корзина {@code i} покрывает задержки от {@code 2^(i-1)} до {@code 2^i} микросекунд, поэтому
+ * перцентиль оценивается сверху с точностью до двух раз — этого достаточно, чтобы сравнивать
+ * режимы работы между собой. Запись — один атомарный инкремент без блокировок.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Учитывает одну задержку.
+     *
+     * @param nanos задержка, нс
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * @return число учтённых задержек
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Оценивает перцентиль задержки.
+     *
+     * @param percentile перцентиль от 0 до 100
+     * @return верхняя граница корзины перцентиля, мкс; 0, если задержек ещё не было
+     */
+    public long percentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * @return строка с числом замеров и перцентилями p50, p95 и p99 для лога
+     */
+    public String summary() {
+        return "n=%d, p50≤%d мкс, p95≤%d мкс, p99≤%d мкс".formatted(
+                count(), percentileMicros(50), percentileMicros(95), percentileMicros(99));
+    }
+}
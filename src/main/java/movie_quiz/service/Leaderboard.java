@@ -0,0 +1,192 @@
+package movie_quiz.service;
+
+import movie_quiz.core.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасная таблица лидеров по лучшему результату игрока.
+ * <p>
+ * Результаты ограничены сверху ({@code maxScore}), поэтому место игрока считается деревом Фенвика
+ * по значениям очков: место = 1 + число игроков с большим результатом, O(log maxScore) без блокировок.
+ * Упорядоченный {@link ConcurrentSkipListSet} хранит игроков по убыванию очков и служит для выдачи
+ * топа и снапшотов; вставка и удаление — O(log n).
+ * <p>
+ * Топ-K кешируется. Результаты игроков только растут, поэтому порог попадания в топ не убывает:
+ * кеш сбрасывается, только если новый результат проходит в топ, а остальные отправки его не трогают.
+ */
+public class Leaderboard {
+
+    private static final Comparator<Key> ORDER = Comparator
+            .comparingInt(Key::score).reversed()
+            .thenComparingLong(Key::playerId);
+
+    private final int maxScore;
+    private final int topSize;
+    private final ConcurrentSkipListSet<Key> ordered = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Integer> scores = new ConcurrentHashMap<>();
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final AtomicLongArray fenwick;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong topVersion = new AtomicLong();
+    private volatile TopSnapshot topCache;
+
+    /**
+     * @param maxScore максимально возможный результат; большие значения обрезаются до него
+     * @param topSize  размер кешируемого топа
+     */
+    public Leaderboard(int maxScore, int topSize) {
+        if (maxScore < 0) {
+            throw new IllegalArgumentException("maxScore не может быть отрицательным");
+        }
+        if (topSize <= 0) {
+            throw new IllegalArgumentException("Размер топа должен быть больше 0");
+        }
+        this.maxScore = maxScore;
+        this.topSize = topSize;
+        this.fenwick = new AtomicLongArray(maxScore + 2);
+    }
+
+    /**
+     * Учитывает результат игры. Сохраняется только лучший результат игрока.
+     *
+     * @param playerId идентификатор игрока
+     * @param name     отображаемое имя
+     * @param score    результат игры
+     * @return true, если лучший результат игрока изменился
+     */
+    public boolean submit(long playerId, String name, int score) {
+        int clamped = Math.clamp(score, 0, maxScore);
+        if (name != null) {
+            names.put(playerId, name);
+        }
+
+        boolean[] improved = new boolean[1];
+        scores.compute(playerId, (id, previous) -> {
+            if (previous != null && previous >= clamped) {
+                return previous;
+            }
+            Key key = new Key(playerId, clamped);
+            if (previous == null) {
+                size.incrementAndGet();
+            } else {
+                ordered.remove(new Key(playerId, previous));
+                addCount(previous, -1);
+            }
+            ordered.add(key);
+            addCount(clamped, 1);
+            invalidateTopIfReached(key);
+            improved[0] = true;
+            return clamped;
+        });
+        return improved[0];
+    }
+
+    /**
+     * @return лучший результат игрока или пустое значение, если игрок ещё не играл
+     */
+    public OptionalInt bestScore(long playerId) {
+        Integer score = scores.get(playerId);
+        return score == null ? OptionalInt.empty() : OptionalInt.of(score);
+    }
+
+    /**
+     * Возвращает место игрока (1 — лучший). Игроки с равным результатом делят место.
+     *
+     * @return место игрока или 0, если игрок ещё не играл
+     */
+    public int rank(long playerId) {
+        Integer score = scores.get(playerId);
+        if (score == null) {
+            return 0;
+        }
+        return (int) (countAbove(score) + 1);
+    }
+
+    /**
+     * Возвращает топ игроков. Повторные вызовы без изменений в топе отдают кешированный список.
+     */
+    public List<LeaderboardEntry> top() {
+        long version = topVersion.get();
+        TopSnapshot snapshot = topCache;
+        if (snapshot != null && snapshot.version() == version) {
+            return snapshot.entries();
+        }
+
+        List<LeaderboardEntry> entries = new ArrayList<>(topSize);
+        Key last = null;
+        Iterator<Key> iterator = ordered.iterator();
+        while (iterator.hasNext() && entries.size() < topSize) {
+            last = iterator.next();
+            entries.add(toEntry(last));
+        }
+        List<LeaderboardEntry> result = List.copyOf(entries);
+        topCache = new TopSnapshot(version, result, last);
+        return result;
+    }
+
+    /**
+     * Обходит всех игроков по убыванию результата.
+     */
+    public void forEach(Consumer<LeaderboardEntry> action) {
+        for (Key key : ordered) {
+            action.accept(toEntry(key));
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int topSize() {
+        return topSize;
+    }
+
+    private void invalidateTopIfReached(Key key) {
+        TopSnapshot snapshot = topCache;
+        if (snapshot == null
+                || snapshot.entries().size() < topSize
+                || ORDER.compare(key, snapshot.last()) < 0) {
+            topVersion.incrementAndGet();
+        }
+    }
+
+    private LeaderboardEntry toEntry(Key key) {
+        return new LeaderboardEntry(key.playerId(), names.getOrDefault(key.playerId(), ""), key.score());
+    }
+
+    private void addCount(int score, long delta) {
+        for (int i = score + 1; i < fenwick.length(); i += i & -i) {
+            fenwick.addAndGet(i, delta);
+        }
+    }
+
+    private long countAtMost(int score) {
+        long sum = 0;
+        for (int i = score + 1; i > 0; i -= i & -i) {
+            sum += fenwick.get(i);
+        }
+        return sum;
+    }
+
+    private long countAbove(int score) {
+        return Math.max(0, countAtMost(maxScore) - countAtMost(score));
+    }
+
+    private record Key(long playerId, int score) {
+    }
+
+    private record TopSnapshot(long version, List<LeaderboardEntry> entries, Key last) {
+    }
+}
@@ -0,0 +1,163 @@
+package movie_quiz.service;
+
+import bot.utils.CsvResourceReader;
+import bot.utils.PeriodicSnapshot;
+import movie_quiz.core.MovieStat;
+import movie_quiz.core.QuizEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потоковая статистика сложности фильмов кино-квиза.
+ * <p>
+ * Каждое событие журнала сразу учитывается в счётчиках {@link LongAdder} своего фильма,
+ * поэтому отчёт собирается за один проход по каталогу, без повторного чтения журнала.
+ * Если задан файл снапшота, счётчики загружаются из него при старте и периодически
+ * сохраняются целиком с атомарной заменой; без новых событий снапшот не пишется.
+ */
+public class MovieStats {
+
+    private static final Logger log = LogManager.getLogger(MovieStats.class);
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final Path snapshotFile;
+    private final CsvResourceReader reader;
+    private final PeriodicSnapshot periodicSnapshot =
+            new PeriodicSnapshot("снапшот статистики фильмов", this::writeSnapshot);
+
+    /**
+     * Создаёт статистику без сохранения на диск.
+     */
+    public MovieStats() {
+        this(null, null);
+    }
+
+    /**
+     * @param snapshotFile файл снапшота или null, если сохранять не нужно
+     * @param reader       читатель CSV для загрузки снапшота
+     */
+    public MovieStats(Path snapshotFile, CsvResourceReader reader) {
+        this.snapshotFile = snapshotFile;
+        this.reader = reader;
+    }
+
+    /**
+     * Учитывает исход вопроса.
+     */
+    public void record(QuizEvent event) {
+        Counters movie = counters.computeIfAbsent(event.movieTitle(), title -> new Counters());
+        movie.shown.increment();
+        if (event.correct()) {
+            movie.correct.increment();
+        }
+        if (event.timedOut()) {
+            movie.timedOut.increment();
+        } else {
+            movie.totalLatencyMillis.add(event.latencyMillis());
+        }
+        periodicSnapshot.markDirty();
+    }
+
+    /**
+     * @return доля верных ответов по фильму или пустое значение, если фильм ещё не загадывался
+     */
+    public OptionalDouble accuracy(String title) {
+        Counters movie = counters.get(title);
+        if (movie == null) {
+            return OptionalDouble.empty();
+        }
+        long shown = movie.shown.sum();
+        return shown == 0 ? OptionalDouble.empty() : OptionalDouble.of((double) movie.correct.sum() / shown);
+    }
+
+    /**
+     * Возвращает текущие значения счётчиков по всем фильмам.
+     * Значения каждого фильма читаются без блокировок и могут не учитывать событие, записываемое одновременно.
+     */
+    public List<MovieStat> snapshot() {
+        List<MovieStat> stats = new ArrayList<>(counters.size());
+        counters.forEach((title, movie) -> stats.add(movie.toStat(title)));
+        return stats;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Загружает счётчики из снапшота, если он есть.
+     */
+    public void load() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        try (InputStream inputStream = Files.newInputStream(snapshotFile)) {
+            reader.forEach(inputStream, ',', row -> {
+                Counters movie = counters.computeIfAbsent(row[4], title -> new Counters());
+                movie.shown.add(Long.parseLong(row[0]));
+                movie.correct.add(Long.parseLong(row[1]));
+                movie.timedOut.add(Long.parseLong(row[2]));
+                movie.totalLatencyMillis.add(Long.parseLong(row[3]));
+            });
+            log.info("Загружена статистика фильмов кино-квиза: фильмов={}", counters.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось прочитать снапшот статистики фильмов {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Запускает периодическое сохранение снапшота.
+     */
+    public void start(ScheduledExecutorService scheduler, Duration period) {
+        if (snapshotFile != null) {
+            periodicSnapshot.start(scheduler, period);
+        }
+    }
+
+    /**
+     * Сохраняет снапшот, если с прошлого сохранения были новые события.
+     *
+     * @return true, если снапшот записан
+     */
+    public boolean saveSnapshot() {
+        return snapshotFile != null && periodicSnapshot.save();
+    }
+
+    private void writeSnapshot() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (MovieStat stat : snapshot()) {
+            builder.append(stat.shown()).append(',')
+                    .append(stat.correct()).append(',')
+                    .append(stat.timedOut()).append(',')
+                    .append(stat.totalLatencyMillis()).append(",\"")
+                    .append(stat.title().replace("\"", "\"\""))
+                    .append("\"\n");
+        }
+        PeriodicSnapshot.writeAtomically(snapshotFile, builder);
+        log.debug("Сохранён снапшот статистики фильмов: фильмов={}", counters.size());
+    }
+
+    private static final class Counters {
+        private final LongAdder shown = new LongAdder();
+        private final LongAdder correct = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder totalLatencyMillis = new LongAdder();
+
+        private MovieStat toStat(String title) {
+            return new MovieStat(title, shown.sum(), correct.sum(), timedOut.sum(), totalLatencyMillis.sum());
+        }
+    }
+}
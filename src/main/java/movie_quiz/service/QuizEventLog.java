@@ -0,0 +1,124 @@
+package movie_quiz.service;
+
+import movie_quiz.core.QuizEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Журнал исходов вопросов кино-квиза, дописываемый в CSV пачками.
+ * <p>
+ * События складываются в неблокирующую очередь и не трогают диск в потоке обработки обновлений.
+ * Периодическая задача сбрасывает всю накопленную пачку одной дозаписью в файл.
+ * Если очередь переполнена, новые события отбрасываются с предупреждением в лог.
+ * <p>
+ * Формат строки: {@code время_мс,chatId,вариант,верно(0|1),задержка_мс,"название"}.
+ */
+public class QuizEventLog {
+
+    private static final Logger log = LogManager.getLogger(QuizEventLog.class);
+
+    private final Path file;
+    private final int maxPending;
+    private final Queue<QuizEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /**
+     * @param file       файл журнала или null, если журнал не сохраняется
+     * @param maxPending максимальное число несброшенных событий
+     */
+    public QuizEventLog(Path file, int maxPending) {
+        this.file = file;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Добавляет событие в очередь на запись.
+     *
+     * @return false, если событие отброшено из-за переполнения очереди
+     */
+    public boolean append(QuizEvent event) {
+        if (file == null) {
+            return true;
+        }
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            log.warn("Очередь журнала событий квиза переполнена, событие отброшено: chatId={}", event.chatId());
+            return false;
+        }
+        pending.add(event);
+        return true;
+    }
+
+    /**
+     * Запускает периодический сброс событий на диск.
+     */
+    public void start(ScheduledExecutorService scheduler, Duration period) {
+        if (file == null) {
+            return;
+        }
+        long periodMillis = period.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Не удалось сбросить журнал событий квиза", e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Дописывает все накопленные события одной операцией записи.
+     *
+     * @return число записанных событий
+     */
+    public synchronized int flush() {
+        StringBuilder builder = new StringBuilder();
+        int count = 0;
+        QuizEvent event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            appendLine(builder, event);
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, builder, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи журнала событий квиза в " + file
+                    + ", потеряно событий: " + count, e);
+        }
+        log.debug("Сброшено событий квиза: {}", count);
+        return count;
+    }
+
+    public int pendingSize() {
+        return pendingCount.get();
+    }
+
+    private static void appendLine(StringBuilder builder, QuizEvent event) {
+        builder.append(event.timestampMillis()).append(',')
+                .append(event.chatId()).append(',')
+                .append(event.option()).append(',')
+                .append(event.correct() ? 1 : 0).append(',')
+                .append(event.latencyMillis()).append(",\"")
+                .append(event.movieTitle().replace("\"", "\"\""))
+                .append("\"\n");
+    }
+}
@@ -0,0 +1,292 @@
+package movie_quiz.service;
+
+import bot.utils.CsvResourceReader;
+import bot.utils.PeriodicSnapshot;
+import movie_quiz.core.LeaderboardEntry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Таблицы лидеров кино-квиза: за всё время, за текущую неделю (с понедельника),
+ * рейтинг вызова дня и отдельные таблицы групповых чатов.
+ * <p>
+ * Недельная и дневная таблицы заменяются пустыми при первом обращении в новой неделе или новом дне.
+ * Если задан каталог снапшотов, таблицы загружаются из него при старте и периодически
+ * сохраняются целиком во временный файл с атомарной заменой; без изменений снапшот не пишется.
+ */
+public class QuizLeaderboards {
+
+    private static final Logger log = LogManager.getLogger(QuizLeaderboards.class);
+
+    static final String ALL_TIME_FILE = "leaderboard_all_time.csv";
+    static final String WEEKLY_FILE = "leaderboard_weekly.csv";
+    static final String GROUPS_FILE = "leaderboard_groups.csv";
+    static final String DAILY_FILE = "leaderboard_daily.csv";
+    private static final String WEEK_HEADER = "week";
+    private static final String DAY_HEADER = "day";
+
+    private final int maxScore;
+    private final int topSize;
+    private final Clock clock;
+    private final Path snapshotDir;
+    private final CsvResourceReader reader;
+    private final Leaderboard allTime;
+    private final AtomicReference<PeriodBoard> weekly;
+    private final AtomicReference<PeriodBoard> daily;
+    private final AtomicReference<PeriodBoard> previousDaily = new AtomicReference<>();
+    private final Map<Long, Leaderboard> groups = new ConcurrentHashMap<>();
+    private final PeriodicSnapshot periodicSnapshot =
+            new PeriodicSnapshot("снапшот таблиц лидеров кино-квиза", this::writeSnapshot);
+
+    /**
+     * Создаёт таблицы лидеров без сохранения на диск.
+     */
+    public QuizLeaderboards(int maxScore, int topSize, Clock clock) {
+        this(maxScore, topSize, clock, null, null);
+    }
+
+    /**
+     * @param maxScore    максимально возможный результат игры
+     * @param topSize     размер топа
+     * @param clock       часы для определения текущей недели
+     * @param snapshotDir каталог снапшотов или null, если сохранять не нужно
+     * @param reader      читатель CSV для загрузки снапшотов
+     */
+    public QuizLeaderboards(int maxScore, int topSize, Clock clock, Path snapshotDir, CsvResourceReader reader) {
+        this.maxScore = maxScore;
+        this.topSize = topSize;
+        this.clock = clock;
+        this.snapshotDir = snapshotDir;
+        this.reader = reader;
+        this.allTime = new Leaderboard(maxScore, topSize);
+        this.weekly = new AtomicReference<>(new PeriodBoard(currentWeek(), new Leaderboard(maxScore, topSize)));
+        this.daily = new AtomicReference<>(new PeriodBoard(currentDay(), new Leaderboard(maxScore, topSize)));
+    }
+
+    /**
+     * Учитывает результат завершённой игры в обеих таблицах.
+     */
+    public void record(long playerId, String name, int score) {
+        boolean changed = allTime.submit(playerId, name, score);
+        changed |= weekly().submit(playerId, name, score);
+        if (changed) {
+            periodicSnapshot.markDirty();
+        }
+    }
+
+    /**
+     * Учитывает результат участника группового раунда в таблице группы и в общих таблицах.
+     *
+     * @param groupId  идентификатор группового чата
+     * @param playerId идентификатор пользователя
+     */
+    public void recordGroup(long groupId, long playerId, String name, int score) {
+        if (group(groupId).submit(playerId, name, score)) {
+            periodicSnapshot.markDirty();
+        }
+        record(playerId, name, score);
+    }
+
+    /**
+     * Учитывает результат вызова дня в рейтинге его дня и в общих таблицах.
+     *
+     * @param date день вызова: попытка, начатая до полуночи, попадает в рейтинг своего дня
+     */
+    public void recordDaily(long playerId, String name, int score, LocalDate date) {
+        Leaderboard board = daily(date);
+        if (board != null && board.submit(playerId, name, score)) {
+            periodicSnapshot.markDirty();
+        }
+        record(playerId, name, score);
+    }
+
+    /**
+     * Возвращает таблицу группового чата, создавая пустую при первом обращении.
+     */
+    public Leaderboard group(long groupId) {
+        return groups.computeIfAbsent(groupId, id -> new Leaderboard(maxScore, topSize));
+    }
+
+    public Leaderboard allTime() {
+        return allTime;
+    }
+
+    /**
+     * Возвращает таблицу текущей недели, при смене недели начиная новую.
+     */
+    public Leaderboard weekly() {
+        return current(weekly, currentWeek(), "недельная таблица лидеров");
+    }
+
+    /**
+     * Возвращает рейтинг вызова текущего дня, при смене дня начиная новый.
+     */
+    public Leaderboard daily() {
+        return current(daily, currentDay(), "таблица вызова дня", previousDaily);
+    }
+
+    /**
+     * Возвращает рейтинг вызова дня на дату. Кроме текущего в памяти остаётся рейтинг предыдущего дня,
+     * чтобы попытки, начатые до полуночи, попали в свой день.
+     *
+     * @return рейтинг или null, если рейтинг этого дня уже не хранится
+     */
+    public Leaderboard daily(LocalDate date) {
+        long day = date.toEpochDay();
+        Leaderboard today = daily();
+        if (day == currentDay()) {
+            return today;
+        }
+        PeriodBoard previous = previousDaily.get();
+        return previous != null && previous.periodStart() == day ? previous.board() : null;
+    }
+
+    private Leaderboard current(AtomicReference<PeriodBoard> reference, long period, String description) {
+        return current(reference, period, description, null);
+    }
+
+    /**
+     * @param previous куда положить закрытую таблицу при смене периода или null, если её не нужно хранить
+     */
+    private Leaderboard current(AtomicReference<PeriodBoard> reference, long period, String description,
+                                AtomicReference<PeriodBoard> previous) {
+        PeriodBoard current = reference.get();
+        if (current.periodStart() == period) {
+            return current.board();
+        }
+        PeriodBoard fresh = new PeriodBoard(period, new Leaderboard(maxScore, topSize));
+        if (reference.compareAndSet(current, fresh)) {
+            if (previous != null) {
+                previous.set(current);
+            }
+            log.info("Начата новая {} кино-квиза с {}", description, LocalDate.ofEpochDay(period));
+            periodicSnapshot.markDirty();
+            return fresh.board();
+        }
+        return reference.get().board();
+    }
+
+    /**
+     * Загружает таблицы из снапшотов, если они есть. Устаревшие недельный и дневной снапшоты пропускаются.
+     */
+    public void load() {
+        if (snapshotDir == null) {
+            return;
+        }
+        loadInto(snapshotDir.resolve(ALL_TIME_FILE), allTime, 0, false);
+        loadInto(snapshotDir.resolve(WEEKLY_FILE), weekly(), currentWeek(), true);
+        loadInto(snapshotDir.resolve(DAILY_FILE), daily(), currentDay(), true);
+        loadGroups(snapshotDir.resolve(GROUPS_FILE));
+        log.info("Загружены таблицы лидеров кино-квиза: всего игроков={}, за неделю={}",
+                allTime.size(), weekly().size());
+    }
+
+    /**
+     * Запускает периодическое сохранение снапшотов.
+     */
+    public void start(ScheduledExecutorService scheduler, Duration period) {
+        if (snapshotDir != null) {
+            periodicSnapshot.start(scheduler, period);
+        }
+    }
+
+    /**
+     * Сохраняет снапшоты обеих таблиц, если с прошлого сохранения были изменения.
+     *
+     * @return true, если снапшот записан
+     */
+    public boolean saveSnapshot() {
+        return snapshotDir != null && periodicSnapshot.save();
+    }
+
+    private void writeSnapshot() throws IOException {
+        PeriodBoard currentWeekly = weekly.get();
+        PeriodBoard currentDaily = daily.get();
+        write(snapshotDir.resolve(ALL_TIME_FILE), null, null, allTime);
+        write(snapshotDir.resolve(WEEKLY_FILE), WEEK_HEADER, currentWeekly.periodStart(), currentWeekly.board());
+        write(snapshotDir.resolve(DAILY_FILE), DAY_HEADER, currentDaily.periodStart(), currentDaily.board());
+        writeGroups(snapshotDir.resolve(GROUPS_FILE));
+        log.debug("Сохранён снапшот таблиц лидеров кино-квиза: игроков={}", allTime.size());
+    }
+
+    private void loadInto(Path file, Leaderboard board, long period, boolean periodFile) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        boolean[] skip = new boolean[1];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            reader.forEach(inputStream, ',', row -> {
+                if (WEEK_HEADER.equals(row[0]) || DAY_HEADER.equals(row[0])) {
+                    skip[0] = periodFile && Long.parseLong(row[1]) != period;
+                    return;
+                }
+                if (!skip[0]) {
+                    board.submit(Long.parseLong(row[0]), row.length > 2 ? row[2] : "", Integer.parseInt(row[1]));
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось прочитать снапшот таблицы лидеров {}", file, e);
+        }
+    }
+
+    private void loadGroups(Path file) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            reader.forEach(inputStream, ',', row -> group(Long.parseLong(row[0])).submit(
+                    Long.parseLong(row[1]), row.length > 3 ? row[3] : "", Integer.parseInt(row[2])));
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось прочитать снапшот таблиц групп {}", file, e);
+        }
+    }
+
+    private void write(Path file, String header, Long periodStart, Leaderboard board) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        if (header != null) {
+            builder.append(header).append(',').append(periodStart).append('\n');
+        }
+        board.forEach(entry -> appendEntry(builder, entry));
+        PeriodicSnapshot.writeAtomically(file, builder);
+    }
+
+    private void writeGroups(Path file) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        groups.forEach((groupId, board) -> board.forEach(entry -> {
+            builder.append(groupId).append(',');
+            appendEntry(builder, entry);
+        }));
+        PeriodicSnapshot.writeAtomically(file, builder);
+    }
+
+    private static void appendEntry(StringBuilder builder, LeaderboardEntry entry) {
+        builder.append(entry.playerId()).append(',')
+                .append(entry.score()).append(",\"")
+                .append(entry.name().replace("\"", "\"\""))
+                .append("\"\n");
+    }
+
+    private long currentWeek() {
+        return LocalDate.now(clock).with(DayOfWeek.MONDAY).toEpochDay();
+    }
+
+    private long currentDay() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private record PeriodBoard(long periodStart, Leaderboard board) {
+    }
+}
@@ -0,0 +1,385 @@
+package movie_quiz.service;
+
+import bot.utils.PeriodicSnapshot;
+import movie_quiz.core.MovieCatalog;
+import movie_quiz.core.MovieHistory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Хранилище истории игроков кино-квиза: какие фильмы игрок видел и какие не угадал.
+ * <p>
+ * История каждого игрока — два битсета, индексированных номером фильма в каталоге.
+ * Все игроки хранятся в одном файле слотами фиксированной ширины:
+ * <pre>
+ * заголовок: magic (int), версия (int), слов в битсете (int), занято слотов (int),
+ *            фильмов в каталоге (int), резерв (int), отпечаток каталога (long)
+ * слот:      userId (long), seen (long × слов), missed (long × слов)
+ * </pre>
+ * Размер слота зависит только от размера каталога, поэтому миллион игроков занимает предсказуемый
+ * объём. Индекс {@code userId → номер слота} строится в памяти при открытии, доступ к слоту — O(1).
+ * <p>
+ * Файл отображается в память сегментами по {@value #SEGMENT_BYTES} байт, а не одним буфером:
+ * один {@link MappedByteBuffer} ограничен 2 ГБ, а сегменты снимают этот предел. Файл растёт
+ * на сегмент, уже отображённые сегменты при этом не переотображаются.
+ * <p>
+ * Номер фильма имеет смысл только для своего каталога, поэтому в заголовке хранится отпечаток
+ * каталога ({@link MovieCatalog#fingerprint(int)}). Если каталог дополнился фильмами в конце,
+ * история остаётся; если старые номера теперь указывают на другие фильмы, история сбрасывается.
+ * Ёмкость битсетов берётся с запасом; если каталог её перерос, файл переписывается с более широкими
+ * слотами. Изменения сбрасываются на диск периодически и при закрытии.
+ */
+public class SeenMovieStore implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(SeenMovieStore.class);
+
+    private static final int MAGIC = 0x4D51_5342;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int VERSION_OFFSET = 4;
+    private static final int WORDS_OFFSET = 8;
+    private static final int USED_OFFSET = 12;
+    private static final int CATALOG_SIZE_OFFSET = 16;
+    private static final int FINGERPRINT_OFFSET = 24;
+    private static final int SEGMENT_BYTES = 16 * 1024 * 1024;
+    private static final int IN_MEMORY_SEGMENT_SLOTS = 1024;
+
+    private final Path file;
+    private final int words;
+    private final int slotBytes;
+    private final int segmentSlots;
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private FileChannel channel;
+    private ByteBuffer header;
+    private final PeriodicSnapshot periodicSnapshot = new PeriodicSnapshot("историю игроков", this::force);
+
+    private SeenMovieStore(Path file, int words, int segmentBytes) {
+        this.file = file;
+        this.words = words;
+        this.slotBytes = Long.BYTES * (1 + 2 * words);
+        this.segmentSlots = Math.max(1, segmentBytes / slotBytes);
+    }
+
+    /**
+     * Создаёт хранилище в памяти без сохранения на диск.
+     *
+     * @param catalogSize число фильмов в каталоге
+     */
+    public static SeenMovieStore inMemory(int catalogSize) {
+        int words = wordsFor(catalogSize);
+        SeenMovieStore store = new SeenMovieStore(null, words, IN_MEMORY_SEGMENT_SLOTS * Long.BYTES * (1 + 2 * words));
+        store.header = ByteBuffer.allocate(HEADER_BYTES);
+        store.addSegment();
+        store.writeHeader(catalogSize, 0);
+        return store;
+    }
+
+    /**
+     * Открывает файл хранилища, создавая его при отсутствии.
+     *
+     * @param file    файл хранилища
+     * @param catalog каталог фильмов, по номерам которого записана история
+     * @throws UncheckedIOException если файл не удалось открыть или отобразить в память
+     */
+    public static SeenMovieStore open(Path file, MovieCatalog catalog) {
+        return open(file, catalog, SEGMENT_BYTES);
+    }
+
+    /**
+     * Открывает файл хранилища с заданным размером сегмента; нужен тестам, чтобы не писать
+     * гигабайты ради нескольких сегментов.
+     */
+    static SeenMovieStore open(Path file, MovieCatalog catalog, int segmentBytes) {
+        try {
+            int requiredWords = wordsFor(catalog.size());
+            if (Files.exists(file) && Files.size(file) >= HEADER_BYTES) {
+                Header stored = readHeader(file);
+                if (!stored.matches(catalog)) {
+                    log.warn("Каталог фильмов изменился, история игроков в {} сброшена: игроков было {}",
+                            file, stored.used());
+                    Files.delete(file);
+                } else if ((long) stored.words() * Long.SIZE >= catalog.size()) {
+                    return map(file, stored.words(), catalog, segmentBytes);
+                } else {
+                    migrate(file, stored.words(), requiredWords, catalog, segmentBytes);
+                }
+            }
+            return map(file, requiredWords, catalog, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть хранилище истории игроков " + file, e);
+        }
+    }
+
+    /**
+     * Отмечает фильм просмотренным и запоминает, угадал ли его игрок.
+     *
+     * @param userId  идентификатор игрока
+     * @param movieId индекс фильма в каталоге
+     * @param missed  true, если игрок не угадал фильм
+     */
+    public synchronized void record(long userId, int movieId, boolean missed) {
+        if (movieId < 0 || movieId >= words * Long.SIZE) {
+            return;
+        }
+        int slot = slotFor(userId);
+        ByteBuffer segment = segmentOf(slot);
+        int base = offsetOf(slot);
+        setBit(segment, base + Long.BYTES, movieId, true);
+        setBit(segment, base + Long.BYTES * (1 + words), movieId, missed);
+        periodicSnapshot.markDirty();
+    }
+
+    /**
+     * Возвращает копию истории игрока.
+     */
+    public synchronized MovieHistory history(long userId) {
+        Integer slot = slots.get(userId);
+        if (slot == null) {
+            return new MovieHistory(new BitSet(), new BitSet());
+        }
+        ByteBuffer segment = segmentOf(slot);
+        int base = offsetOf(slot);
+        return new MovieHistory(readBits(segment, base + Long.BYTES),
+                readBits(segment, base + Long.BYTES * (1 + words)));
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return размер слота одного игрока, байт
+     */
+    public int slotBytes() {
+        return slotBytes;
+    }
+
+    /**
+     * @return число сегментов, отображённых в память
+     */
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Запускает периодический сброс изменений на диск.
+     */
+    public void start(ScheduledExecutorService scheduler, Duration period) {
+        if (file != null) {
+            periodicSnapshot.start(scheduler, period);
+        }
+    }
+
+    /**
+     * Сбрасывает изменённые страницы файла на диск, если были изменения.
+     */
+    public void flush() {
+        periodicSnapshot.save();
+    }
+
+    private synchronized void force() {
+        if (channel == null) {
+            return;
+        }
+        for (ByteBuffer segment : segments) {
+            ((MappedByteBuffer) segment).force();
+        }
+        ((MappedByteBuffer) header).force();
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Не удалось закрыть файл истории игроков {}", file, e);
+            }
+            channel = null;
+        }
+    }
+
+    private int slotFor(long userId) {
+        Integer slot = slots.get(userId);
+        if (slot != null) {
+            return slot;
+        }
+        int created = slots.size();
+        if (created == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Хранилище истории игроков переполнено: слотов " + created);
+        }
+        if (created == (long) segments.size() * segmentSlots) {
+            addSegment();
+            log.info("Хранилище истории игроков расширено до {} сегментов ({} слотов)",
+                    segments.size(), (long) segments.size() * segmentSlots);
+        }
+        segmentOf(created).putLong(offsetOf(created), userId);
+        header.putInt(USED_OFFSET, created + 1);
+        slots.put(userId, created);
+        return created;
+    }
+
+    /**
+     * Добавляет сегмент в конец: в памяти — новый буфер, в файле — отображение следующего участка.
+     */
+    private void addSegment() {
+        int segmentSize = segmentSlots * slotBytes;
+        if (channel == null) {
+            segments.add(ByteBuffer.allocate(segmentSize));
+            return;
+        }
+        long position = HEADER_BYTES + (long) segments.size() * segmentSize;
+        try {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось расширить файл истории игроков " + file, e);
+        }
+    }
+
+    private ByteBuffer segmentOf(int slot) {
+        return segments.get(slot / segmentSlots);
+    }
+
+    private int offsetOf(int slot) {
+        return (slot % segmentSlots) * slotBytes;
+    }
+
+    private static void setBit(ByteBuffer segment, int setOffset, int bit, boolean value) {
+        int offset = setOffset + (bit >>> 6) * Long.BYTES;
+        long word = segment.getLong(offset);
+        long mask = 1L << (bit & 63);
+        segment.putLong(offset, value ? word | mask : word & ~mask);
+    }
+
+    private BitSet readBits(ByteBuffer segment, int setOffset) {
+        long[] bits = new long[words];
+        for (int i = 0; i < words; i++) {
+            bits[i] = segment.getLong(setOffset + i * Long.BYTES);
+        }
+        return BitSet.valueOf(bits);
+    }
+
+    private void writeBits(ByteBuffer segment, int setOffset, BitSet bits) {
+        long[] source = bits.toLongArray();
+        for (int i = 0; i < source.length && i < words; i++) {
+            segment.putLong(setOffset + i * Long.BYTES, source[i]);
+        }
+    }
+
+    private void writeHeader(int catalogSize, long fingerprint) {
+        header.putInt(0, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putInt(WORDS_OFFSET, words);
+        header.putInt(USED_OFFSET, slots.size());
+        header.putInt(CATALOG_SIZE_OFFSET, catalogSize);
+        header.putLong(FINGERPRINT_OFFSET, fingerprint);
+    }
+
+    private static SeenMovieStore map(Path file, int words, MovieCatalog catalog, int segmentBytes)
+            throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        SeenMovieStore store = new SeenMovieStore(file, words, segmentBytes);
+        store.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int used = store.channel.size() >= HEADER_BYTES ? readHeader(store.channel, file).used() : 0;
+            store.header = store.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            int segmentCount = Math.max(1, (int) (((long) used + store.segmentSlots - 1) / store.segmentSlots));
+            for (int i = 0; i < segmentCount; i++) {
+                store.addSegment();
+            }
+            for (int slot = 0; slot < used; slot++) {
+                store.slots.put(store.segmentOf(slot).getLong(store.offsetOf(slot)), slot);
+            }
+        } catch (IOException | RuntimeException e) {
+            store.channel.close();
+            throw e;
+        }
+        store.writeHeader(catalog.size(), catalog.fingerprint(catalog.size()));
+        store.periodicSnapshot.markDirty();
+        log.info("Открыто хранилище истории игроков {}: игроков={}, байт на игрока={}, сегментов={}",
+                file, store.slots.size(), store.slotBytes, store.segments.size());
+        return store;
+    }
+
+    /**
+     * Переписывает файл со слотами большей ширины, когда каталог перерос ёмкость битсетов.
+     */
+    private static void migrate(Path file, int oldWords, int newWords, MovieCatalog catalog, int segmentBytes)
+            throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try (SeenMovieStore source = map(file, oldWords, catalog, segmentBytes);
+             SeenMovieStore target = map(tmp, newWords, catalog, segmentBytes)) {
+            source.slots.forEach((userId, slot) -> {
+                MovieHistory history = source.history(userId);
+                int created = target.slotFor(userId);
+                ByteBuffer segment = target.segmentOf(created);
+                int base = target.offsetOf(created);
+                target.writeBits(segment, base + Long.BYTES, history.seen());
+                target.writeBits(segment, base + Long.BYTES * (1 + newWords), history.missed());
+            });
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Файл истории игроков {} перестроен: слов в битсете {} -> {}", file, oldWords, newWords);
+    }
+
+    private static Header readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel, file);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Неизвестный формат файла истории игроков " + file);
+        }
+        return new Header(header.getInt(WORDS_OFFSET), header.getInt(USED_OFFSET),
+                header.getInt(CATALOG_SIZE_OFFSET), header.getLong(FINGERPRINT_OFFSET));
+    }
+
+    /**
+     * Ёмкость битсетов с запасом в половину каталога, чтобы новые фильмы не требовали перестройки файла.
+     */
+    private static int wordsFor(int catalogSize) {
+        int capacity = Math.max(Long.SIZE, catalogSize + catalogSize / 2);
+        return (capacity + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Заголовок файла хранилища.
+     *
+     * @param catalogSize сколько фильмов было в каталоге при последнем открытии
+     * @param fingerprint отпечаток этих фильмов
+     */
+    private record Header(int words, int used, int catalogSize, long fingerprint) {
+
+        /**
+         * @return true, если номера фильмов в файле указывают на те же фильмы каталога
+         */
+        private boolean matches(MovieCatalog catalog) {
+            return catalogSize <= catalog.size() && catalog.fingerprint(catalogSize) == fingerprint;
+        }
+    }
+}
@@ -4,12 +4,22 @@ import bot.utils.CsvResourceReader;
 import bot.utils.CsvStatsReader;
 import bot.utils.StatsUtils;
 import bot.utils.StatsWriter;
+import interfaces.BotModule;
+import interfaces.SessionListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import pomodoro.core.*;
+import pomodoro.service.ChatActors;
+import pomodoro.service.HeapSessionStore;
+import pomodoro.service.LiveStatusTicker;
+import pomodoro.service.PhaseScheduler;
 import pomodoro.service.PomodoroManager;
+import pomodoro.service.PomodoroPresets;
+import pomodoro.service.SessionStore;
+import pomodoro.service.SlabSessionStore;
 import pomodoro.service.StatsLogger;
+import pomodoro.service.StatsService;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -17,39 +27,127 @@ import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
 
 /**
  * Основной класс бота-Pomodoro.
  * Управляет сессиями пользователей, командами начала и завершения
  * временных циклов, выводом и сохранением статистики.
+ * <p>
+ * Состояние Pomodoro каждого чата принадлежит актору чата ({@link ChatActors}): команды пользователя
+ * и окончания фаз по таймеру выполняются через его почтовый ящик строго по очереди, поэтому пауза,
+ * пришедшая одновременно с окончанием фазы, не может запланировать следующую фазу дважды.
+ * Акторы работают в своём пуле, отдельном от планировщика таймеров, а поток обновлений их не ждёт:
+ * ответ на сообщение актор сам передаёт в {@link PomodoroSender}.
  */
-public class PomodoroBot {
+public class PomodoroBot implements BotModule<PomodoroReply> {
 
     private static final Logger log = LogManager.getLogger(PomodoroBot.class);
-    private final ScheduledExecutorService scheduled;
+    private static final Duration LIVE_STATUS_CADENCE = Duration.ofMinutes(1);
+    private static final Duration LIVE_STATUS_JITTER = Duration.ofSeconds(15);
+    private static final int LIVE_STATUS_EDITS_PER_SECOND = 20;
+    private static final Duration LIVE_STATUS_TICK = Duration.ofSeconds(1);
+    private static final Duration PRESETS_SAVE_PERIOD = Duration.ofMinutes(1);
+    private static final String SESSION_STORE = System.getProperty("pomodoro.sessionStore", "heap");
+    private static final int STATS_IO_THREADS = 2;
+    private static final int ACTOR_THREADS = 4;
+    /**
+     * Длительность фазы сессии, пока пользователь не закончил настройку: таймер в это время не идёт,
+     * а после настройки сессия создаётся заново с выбранными интервалами.
+     */
+    private static final Duration SETUP_PHASE_DURATION = Duration.ofMinutes(25);
+    /**
+     * Ответ {@link #handleAnswer(Update)}: настоящий ответ отправляет актор чата.
+     */
+    private static final PomodoroReply NO_REPLY = new PomodoroReply("", null, false);
+    private final PhaseScheduler phaseScheduler;
+    private final Clock clock;
     private final Map<Long, UserSetupState> stateUsers;
     private final PomodoroSender sender;
     private final StatsLogger statsLogger;
     private final CsvResourceReader reader;
-    private final CsvStatsReader csvStatsReader;
-    private Map<Phase, List<MotivationPhoto>> motivationPhotos = new HashMap<>();
+    private final StatsService statsService;
+    private final Set<Long> statsRequests = ConcurrentHashMap.newKeySet();
+    private Map<Phase, List<MotivationPhoto>> motivationPhotos;
     private PomodoroManager pomodoroManager = null;
-    private PomodoroStats stats;
     private final StatsUtils statsUtils;
+    private final LiveStatusTicker liveStatus;
+    private final PomodoroPresets presets;
+    private final ChatActors actors;
+    private volatile SessionListener sessionListener = SessionListener.NONE;
+    private volatile SessionReplicator replicator = SessionReplicator.NONE;
 
     public PomodoroBot(PomodoroSender sender) {
+        this(sender, newActorExecutor());
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    PomodoroBot(PomodoroSender sender, Executor actorExecutor) {
+        this(sender, loadMotivationPhotos(), Executors.newScheduledThreadPool(4), actorExecutor, newStatsExecutor(),
+                Path.of(PomodoroPaths.LOGS_DIR));
+    }
+
+    /**
+     * Создаёт Pomodoro на общих ресурсах процесса: картинки и пулы потоков могут принадлежать
+     * нескольким ботам, а статистика и пресеты хранятся в каталоге бота.
+     *
+     * @param sender           отправитель сообщений по таймеру
+     * @param motivationPhotos мотивационные картинки по фазам
+     * @param scheduled        планировщик таймеров фаз, живых статусов и сохранения пресетов
+     * @param actorExecutor    пул акторов чатов
+     * @param statsExecutor    пул чтения статистики
+     * @param logsDir          каталог файлов бота
+     */
+    public PomodoroBot(PomodoroSender sender,
+                       Map<Phase, List<MotivationPhoto>> motivationPhotos,
+                       ScheduledExecutorService scheduled,
+                       Executor actorExecutor,
+                       ExecutorService statsExecutor,
+                       Path logsDir) {
         reader = new CsvResourceReader();
-        try (InputStream is = getClass()
+        this.motivationPhotos = motivationPhotos;
+        this.sender = sender;
+        stateUsers = new ConcurrentHashMap<>();
+        clock = Clock.systemUTC();
+        pomodoroManager = new PomodoroManager(motivationPhotos, createSessionStore(), clock);
+        phaseScheduler = PhaseScheduler.of(scheduled);
+        actors = new ChatActors(actorExecutor);
+        statsService = new StatsService(
+                new CsvStatsReader(logsDir, Clock.systemDefaultZone(), reader),
+                statsExecutor);
+        StatsWriter writer = new StatsWriter();
+        statsLogger = new StatsLogger(writer, logsDir, statsService);
+        statsUtils = new StatsUtils();
+        liveStatus = createLiveStatusTicker();
+        liveStatus.start(scheduled);
+        presets = new PomodoroPresets(logsDir.resolve(PomodoroPaths.PRESETS_FILE), reader);
+        presets.load();
+        presets.start(scheduled, PRESETS_SAVE_PERIOD);
+    }
+
+    /**
+     * Читает мотивационные картинки из {@link PomodoroPaths#RESOURCES_DIR} и раскладывает их по фазам:
+     * картинки с названием на {@code work} — для работы, остальные — для перерывов.
+     */
+    public static Map<Phase, List<MotivationPhoto>> loadMotivationPhotos() {
+        try (InputStream is = PomodoroBot.class
                 .getClassLoader()
                 .getResourceAsStream(PomodoroPaths.RESOURCES_DIR)) {
 
-            List<MotivationPhoto> photos = reader.read(is, ',', row -> new MotivationPhoto(row[0], row[1]));
+            List<MotivationPhoto> photos = new CsvResourceReader().read(is, ',', row -> new MotivationPhoto(row[0], row[1]));
             List<MotivationPhoto> photosForWork = new ArrayList<>();
             List<MotivationPhoto> photosForRest = new ArrayList<>();
 
@@ -61,22 +159,15 @@ public class PomodoroBot {
                     photosForRest.add(photo);
                 }
             });
+            Map<Phase, List<MotivationPhoto>> motivationPhotos = new EnumMap<>(Phase.class);
             motivationPhotos.put(Phase.WORK, photosForWork);
             motivationPhotos.put(Phase.SHORT_BREAK, photosForRest);
             motivationPhotos.put(Phase.LONG_BREAK, photosForRest);
-            this.motivationPhotos = Collections.unmodifiableMap(motivationPhotos);
+            return Collections.unmodifiableMap(motivationPhotos);
         } catch (IOException e) {
-            log.error("Не удалось прочитать файл movies.csv", e);
+            log.error("Не удалось прочитать файл motivations.csv", e);
             throw new UncheckedIOException(e);
         }
-        this.sender = sender;
-        stateUsers = new HashMap<>();
-        pomodoroManager = new PomodoroManager(motivationPhotos);
-        scheduled = Executors.newScheduledThreadPool(4);
-        StatsWriter writer = new StatsWriter();
-        statsLogger = new StatsLogger(writer, Path.of(PomodoroPaths.LOGS_DIR));
-        csvStatsReader = new CsvStatsReader(Path.of(PomodoroPaths.LOGS_DIR), Clock.systemDefaultZone(), reader);
-        statsUtils = new StatsUtils();
     }
 
     /**
@@ -89,25 +180,93 @@ public class PomodoroBot {
                 CsvStatsReader csvStatsReader,
                 StatsUtils statsUtils,
                 ScheduledExecutorService scheduled) {
+        this(sender, manager, motivationPhotos, statsLogger, csvStatsReader, statsUtils, scheduled,
+                new PomodoroPresets());
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    PomodoroBot(PomodoroSender sender,
+                PomodoroManager manager,
+                Map<Phase, List<MotivationPhoto>> motivationPhotos,
+                StatsLogger statsLogger,
+                CsvStatsReader csvStatsReader,
+                StatsUtils statsUtils,
+                ScheduledExecutorService scheduled,
+                PomodoroPresets presets) {
+        this(sender, manager, motivationPhotos, statsLogger, new StatsService(csvStatsReader, scheduled), statsUtils,
+                presets, scheduled, PhaseScheduler.of(scheduled), Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    PomodoroBot(PomodoroSender sender,
+                PomodoroManager manager,
+                Map<Phase, List<MotivationPhoto>> motivationPhotos,
+                StatsLogger statsLogger,
+                StatsService statsService,
+                StatsUtils statsUtils,
+                PomodoroPresets presets,
+                Executor actorExecutor,
+                PhaseScheduler phaseScheduler,
+                Clock clock) {
         this.sender = sender;
         this.pomodoroManager = manager;
         this.motivationPhotos = motivationPhotos;
         this.statsLogger = statsLogger;
-        this.csvStatsReader = csvStatsReader;
+        this.statsService = statsService;
         this.statsUtils = statsUtils;
-        this.scheduled = scheduled;
+        this.phaseScheduler = phaseScheduler;
+        this.clock = clock;
         this.reader = null;
-        this.stateUsers = null;
+        this.stateUsers = new ConcurrentHashMap<>();
+        this.liveStatus = createLiveStatusTicker();
+        this.presets = presets;
+        this.actors = new ChatActors(actorExecutor);
+    }
+
+    /**
+     * Выбирает хранилище сессий по системному свойству {@code pomodoro.sessionStore}:
+     * {@code slab} — записи вне кучи, иначе обычные карты на куче.
+     */
+    private static SessionStore createSessionStore() {
+        if ("slab".equalsIgnoreCase(SESSION_STORE)) {
+            log.info("Сессии Pomodoro хранятся вне кучи");
+            return new SlabSessionStore();
+        }
+        return new HeapSessionStore();
+    }
+
+    private LiveStatusTicker createLiveStatusTicker() {
+        return new LiveStatusTicker(
+                this::renderLiveStatus,
+                sender::editLiveStatus,
+                sender::liveStatusBudget,
+                LIVE_STATUS_CADENCE,
+                LIVE_STATUS_JITTER,
+                LIVE_STATUS_EDITS_PER_SECOND,
+                LIVE_STATUS_TICK);
     }
 
     /**
-     * Первый запуск бота
+     * Первый запуск бота. Актор чата отправляет приветственное сообщение и просит ввести длительность
+     * рабочего цикла; если пользователь уже настраивал таймер, предлагает применить прошлые настройки
+     * одной кнопкой.
+     * <p>
+     * Сессия отмечается начатой сразу, до обработки актором: следующее сообщение чата попадёт в Pomodoro
+     * и встанет в ящик актора после команды запуска.
      *
      * @param update обновление Telegram
-     * @return приветственное сообщение и просит ввести длительность рабочего цикла
      */
-    public PomodoroReply startPomodoro(Update update) {
+    public void startPomodoro(Update update) {
         Long chatId = update.getMessage().getChatId();
+        sessionListener.onSessionStarted(chatId, this);
+        tellActor(chatId, () -> startSetup(update, chatId));
+    }
+
+    private PomodoroReply startSetup(Update update, Long chatId) {
         UserSetupState state = new UserSetupState();
         state.setStep(SetupStep.WAITING_WORK_DURATION);
         stateUsers.put(chatId, state);
@@ -119,17 +278,40 @@ public class PomodoroBot {
 
         pomodoroManager.addSession(chatId, new PomodoroSession(
                 Phase.WORK,
-                Duration.ofMinutes(25)));
+                SETUP_PHASE_DURATION,
+                clock));
 
-        return new PomodoroReply(PomodoroMessages.WELCOME_MESSAGE, null, true);
+        PomodoroServiceSettings lastSettings = presets.get(chatId);
+        if (lastSettings == null) {
+            return new PomodoroReply(PomodoroMessages.WELCOME_MESSAGE, null, true);
+        }
+        String offer = String.format(PomodoroMessages.LAST_SETTINGS_OFFER_TEMPLATE,
+                PomodoroMessages.USE_LAST_SETTINGS_MESSAGE,
+                lastSettings.workDuration().toMinutes(),
+                lastSettings.shortRestDuration().toMinutes(),
+                lastSettings.longRestDuration().toMinutes(),
+                lastSettings.sessionsBeforeLongBreak());
+        return new PomodoroReply(PomodoroMessages.WELCOME_MESSAGE + offer, null, false, true);
     }
 
     /**
-     * Обрабатывает ответ пользователя и возвращает сообщение
+     * Ставит ответ пользователя в ящик актора чата и сразу возвращается; ответ бота актор отправляет сам.
+     *
+     * @return пустой ответ, который маршрутизатору отправлять не нужно
      */
+    @Override
     public PomodoroReply handleAnswer(Update update) {
-
         Long chatId = update.getMessage().getChatId();
+        tellActor(chatId, () -> processAnswer(update, chatId));
+        return NO_REPLY;
+    }
+
+    private PomodoroReply processAnswer(Update update, Long chatId) {
+        if (!pomodoroManager.hasActiveSession(chatId)) {
+            // Например, второе «Да», пришедшее после ответа со статистикой: сессия уже закрыта
+            log.info("Пропуск ответа для закрытой сессии Pomodoro, chatId={}", chatId);
+            return NO_REPLY;
+        }
         StringBuilder builder = new StringBuilder();
         var from = update.getMessage().getFrom();
         String firstName = from != null ? from.getFirstName() : "unknown";
@@ -165,38 +347,52 @@ public class PomodoroBot {
                 pomodoroManager.cancelFuture(chatId);
                 pomodoroManager.getSession(chatId).setState(SessionState.WAITING);
                 sender.sendPomodoroReply(chatId, new PomodoroReply(PomodoroMessages.CANSEL_CURRENT_CYCLE, null, false));
+            } else if (textMessage.equalsIgnoreCase(PomodoroMessages.LIVE_STATUS_MESSAGE)) {
+                startLiveStatus(chatId);
             } else if (textMessage.equalsIgnoreCase(PomodoroMessages.END_SEANCE_MESSAGE)) {
+                liveStatus.untrack(chatId);
                 closingMessage(builder, chatId);
                 pomodoroManager.cancelFuture(chatId);
                 sender.sendPomodoroReply(chatId, new PomodoroReply(builder.toString(), null, true));
                 sender.sendFinalStatsQuestion(chatId, PomodoroMessages.QUESTION_STATS_MESSAGE);
             } else if (textMessage.equalsIgnoreCase(PomodoroMessages.YES_ANSWER_MESSAGE)) {
-                stats = csvStatsReader.readMonthlyStats(chatId);
-                if (stats.getWorkSessions() == 0) {
-                    sender.sendPomodoroReply(chatId, new PomodoroReply(PomodoroMessages.MESSAGE_WITHOUT_STATS, null, true));
-                    log.info("Завершена сессия для пользователя chatId={}, firstName={}, userName={}", chatId, firstName, userName);
-                    pomodoroManager.endSession(chatId);
-                } else {
-                    sender.sendPomodoroReply(chatId, new PomodoroReply(statsUtils.getStatsMessage(stats), null, true));
-                    log.info("Завершена сессия для пользователя chatId={}, firstName={}, userName={}", chatId, firstName, userName);
-                    pomodoroManager.endSession(chatId);
+                if (statsRequests.add(chatId)) {
+                    statsService.monthlyStats(chatId).whenComplete((stats, error) ->
+                            actors.tell(chatId, () -> {
+                                finishWithStats(chatId, stats, error, firstName, userName);
+                                replicate(chatId);
+                            }));
                 }
             } else if (textMessage.equalsIgnoreCase(PomodoroMessages.NO_ANSWER_MESSAGE)) {
                 sender.sendPomodoroReply(chatId, new PomodoroReply(PomodoroMessages.END_MESSAGE_WITHOUT_STATS, null, true));
                 log.info("Завершена сессия для пользователя chatId={}, firstName={}, userName={}", chatId, firstName, userName);
-                pomodoroManager.endSession(chatId);
+                endSession(chatId);
             }
 
-            return new PomodoroReply("", null, false);
+            return NO_REPLY;
         }
     }
 
+    /**
+     * Планирует окончание фазы. Таймер только кладёт событие в ящик актора чата; если к моменту
+     * обработки задача уже отменена паузой или заменена новой либо сессия закрыта, событие игнорируется.
+     */
     public void scheduledPhaseEnd(Long chatId, Duration duration) {
-        ScheduledFuture<?> future = scheduled.schedule(
-                () -> onPhaseFinished(chatId),
-                duration.toMinutes(),
-                TimeUnit.MINUTES
-        );
+        AtomicReference<Future<?>> self = new AtomicReference<>();
+        Future<?> future = phaseScheduler.schedule(
+                () -> actors.tell(chatId, () -> {
+                    if (!pomodoroManager.isCurrentFuture(chatId, self.get())) {
+                        log.debug("Пропущено устаревшее окончание фазы для chatId={}", chatId);
+                    } else if (!pomodoroManager.hasActiveSession(chatId)) {
+                        log.debug("Пропущено окончание фазы закрытой сессии для chatId={}", chatId);
+                        pomodoroManager.cancelFuture(chatId);
+                    } else {
+                        onPhaseFinished(chatId);
+                    }
+                    replicate(chatId);
+                }),
+                duration);
+        self.set(future);
         pomodoroManager.saveFuture(chatId, future);
     }
 
@@ -217,14 +413,15 @@ public class PomodoroBot {
                 case SHORT_BREAK -> settings.shortRestDuration();
                 case LONG_BREAK -> settings.longRestDuration();
             };
-            statsLogger.logPhase(chatId, currentPhase, currentDuration, Instant.now());
+            statsLogger.logPhase(chatId, currentPhase, currentDuration, clock.instant());
             session.completeCurrentPhase();
 
             sender.sendPomodoroReply(chatId, new PomodoroReply(
                     builder.toString(),
                     pomodoroManager.chooseMotivationForSession(session).pathToPhoto(),
                     true));
-            pomodoroManager.endSession(chatId);
+            endSession(chatId);
+            return;
         } else if (!session.isWarnedAboutLimit() &&
                 pomodoroManager.isCloseToLimit(session, Duration.ofHours(2))) {
             builder.append(PomodoroMessages.WARNED_LIMIT_MESSAGE);
@@ -279,6 +476,45 @@ public class PomodoroBot {
         }
     }
 
+    /**
+     * Отправляет сообщение с живым статусом таймера и, когда Telegram вернёт его идентификатор,
+     * включает периодическое обновление в акторе чата, если сессия к тому времени не закрылась.
+     */
+    private void startLiveStatus(Long chatId) {
+        String text = renderLiveStatus(chatId);
+        sender.sendLiveStatus(chatId, text).thenAccept(messageId -> {
+            if (messageId != null) {
+                actors.tell(chatId, () -> {
+                    if (pomodoroManager.hasActiveSession(chatId)) {
+                        liveStatus.track(chatId, messageId, text);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Формирует текст живого статуса по оставшемуся времени текущей фазы.
+     *
+     * @return текст статуса или null, если сессии уже нет
+     */
+    String renderLiveStatus(Long chatId) {
+        if (!pomodoroManager.hasActiveSession(chatId)) {
+            return null;
+        }
+        PomodoroSession session = pomodoroManager.getSession(chatId);
+        if (session.getState() != SessionState.RUNNING) {
+            return PomodoroMessages.LIVE_STATUS_IDLE;
+        }
+        long seconds = Math.max(0, session.getReminingTime().toSeconds());
+        String phaseTitle = switch (session.getCurrentPhase()) {
+            case WORK -> PomodoroMessages.LIVE_STATUS_WORK;
+            case SHORT_BREAK -> PomodoroMessages.LIVE_STATUS_SHORT_BREAK;
+            case LONG_BREAK -> PomodoroMessages.LIVE_STATUS_LONG_BREAK;
+        };
+        return String.format(PomodoroMessages.LIVE_STATUS_TEMPLATE, phaseTitle, (seconds + 59) / 60);
+    }
+
     private PomodoroReply checkUserSetupState(Update update, Long chatId) {
         UserSetupState state = stateUsers.get(chatId);
         int value;
@@ -289,6 +525,15 @@ public class PomodoroBot {
             return new PomodoroReply(PomodoroMessages.WRONG_VALUE_MESSAGE, null, true);
         } else {
             textMessage = update.getMessage().getText().trim();
+            PomodoroServiceSettings lastSettings = presets.get(chatId);
+            if (lastSettings != null
+                    && state.getStep().equals(SetupStep.WAITING_WORK_DURATION)
+                    && textMessage.equalsIgnoreCase(PomodoroMessages.USE_LAST_SETTINGS_MESSAGE)) {
+                state.setStep(SetupStep.READY);
+                applySettings(chatId, lastSettings);
+                log.info("Применены прошлые настройки Pomodoro для chatId={}", chatId);
+                return new PomodoroReply(PomodoroMessages.LAST_SETTINGS_APPLIED_MESSAGE, null, false);
+            }
             try {
                 value = Integer.parseInt(textMessage);
             } catch (NumberFormatException e) {
@@ -324,15 +569,22 @@ public class PomodoroBot {
                     state.getLongRestDuration(),
                     state.getSessionsBeforeLongBreak());
             textAnswer = PomodoroMessages.ALL_PERIODS_CREATE_MESSAGE;
-            pomodoroManager.setSettings(chatId, settings);
-            pomodoroManager.addSession(
-                    chatId,
-                    new PomodoroSession(Phase.WORK, pomodoroManager.getSettings(chatId).workDuration()));
-            pomodoroManager.getSession(chatId).setState(SessionState.WAITING);
+            applySettings(chatId, presets.remember(chatId, settings));
         }
         return new PomodoroReply(textAnswer, null, false);
     }
 
+    /**
+     * Применяет настройки к сессии пользователя и переводит её в ожидание старта.
+     */
+    private void applySettings(Long chatId, PomodoroServiceSettings settings) {
+        pomodoroManager.setSettings(chatId, settings);
+        pomodoroManager.addSession(
+                chatId,
+                new PomodoroSession(Phase.WORK, pomodoroManager.getSettings(chatId).workDuration(), clock));
+        pomodoroManager.getSession(chatId).setState(SessionState.WAITING);
+    }
+
     /**
      * Формирует завершающее сообщение пользователю перед закрытием сессии
      */
@@ -353,10 +605,238 @@ public class PomodoroBot {
             case SHORT_BREAK -> settings.shortRestDuration();
             case LONG_BREAK -> settings.longRestDuration();
         };
-        statsLogger.logPhase(chatId, currentPhase, currentDuration, Instant.now());
+        statsLogger.logPhase(chatId, currentPhase, currentDuration, clock.instant());
+    }
+
+    /**
+     * Снимает сессии чатов, которые переходят на другой узел кластера, и закрывает их здесь без сообщений
+     * пользователю. Каждый чат снимается в своём акторе, поэтому окончание фазы по таймеру не может
+     * выполниться между снимком и закрытием.
+     *
+     * @param moving отбирает переносимые чаты
+     * @return снимки снятых сессий
+     */
+    public List<PomodoroSnapshot> exportSessions(LongPredicate moving) {
+        List<PomodoroSnapshot> snapshots = new ArrayList<>();
+        for (Long chatId : pomodoroManager.sessionChatIds()) {
+            if (moving.test(chatId)) {
+                PomodoroSnapshot snapshot = askActor(chatId, () -> detachSession(chatId));
+                if (snapshot != null) {
+                    snapshots.add(snapshot);
+                }
+            }
+        }
+        log.info("Сняты сессии Pomodoro для переноса: {}", snapshots.size());
+        return snapshots;
+    }
+
+    /**
+     * Восстанавливает сессии, перенесённые с другого узла кластера. Запущенная фаза продолжается
+     * с тем же остатком, лимит времени сессии считается от её исходного начала.
+     */
+    public void importSessions(List<PomodoroSnapshot> snapshots) {
+        for (PomodoroSnapshot snapshot : snapshots) {
+            askActor(snapshot.chatId(), () -> {
+                restoreSession(snapshot);
+                return null;
+            });
+        }
+        log.info("Приняты сессии Pomodoro: {}", snapshots.size());
+    }
+
+    private PomodoroSnapshot detachSession(Long chatId) {
+        if (!pomodoroManager.hasActiveSession(chatId)) {
+            return null;
+        }
+        PomodoroSnapshot snapshot = snapshotOf(chatId);
+        pomodoroManager.cancelFuture(chatId);
+        stateUsers.remove(chatId);
+        statsRequests.remove(chatId);
+        endSession(chatId);
+        return snapshot;
+    }
+
+    private PomodoroSnapshot snapshotOf(Long chatId) {
+        PomodoroSession session = pomodoroManager.getSession(chatId);
+        return new PomodoroSnapshot(
+                chatId,
+                session.getState(),
+                session.getCurrentPhase(),
+                session.getStartTime(),
+                session.isTimerStarted() ? session.getReminingTime() : null,
+                session.getCompleteWorkingCycles(),
+                session.isWarnedAboutLimit(),
+                pomodoroManager.getSettings(chatId),
+                session.getState() == SessionState.SETUP ? stateUsers.get(chatId) : null);
+    }
+
+    /**
+     * Включает репликацию сессий: после каждого сообщения актора чата репликатор получает
+     * снимок сессии или сообщение о том, что сессии нет.
+     */
+    public void setReplicator(SessionReplicator replicator) {
+        this.replicator = replicator;
+    }
+
+    /**
+     * Ставит в ящики акторов передачу текущего состояния всех сессий. Нужна, когда резервный узел
+     * подключился заново и должен получить полную копию.
+     */
+    public void replicateAll() {
+        for (Long chatId : pomodoroManager.sessionChatIds()) {
+            actors.tell(chatId, () -> replicate(chatId));
+        }
+    }
+
+    private void replicate(Long chatId) {
+        SessionReplicator current = replicator;
+        if (current == SessionReplicator.NONE) {
+            return;
+        }
+        if (pomodoroManager.hasActiveSession(chatId)) {
+            current.sessionChanged(snapshotOf(chatId));
+        } else {
+            current.sessionRemoved(chatId);
+        }
+    }
+
+    private void restoreSession(PomodoroSnapshot snapshot) {
+        Long chatId = snapshot.chatId();
+        if (snapshot.settings() != null) {
+            pomodoroManager.setSettings(chatId, snapshot.settings());
+        }
+        pomodoroManager.addSession(chatId, new PomodoroSession(
+                snapshot.phase(),
+                phaseDuration(snapshot.phase(), snapshot.settings()),
+                clock,
+                snapshot.startTime(),
+                snapshot.completeWorkingCycles()));
+        PomodoroSession session = pomodoroManager.getSession(chatId);
+        session.setState(snapshot.state());
+        session.setWantedAboutLimit(snapshot.warnedAboutLimit());
+        if (snapshot.remaining() != null) {
+            session.startCurrentPhase(snapshot.remaining());
+        }
+        if (snapshot.setup() != null) {
+            stateUsers.put(chatId, snapshot.setup());
+        }
+        sessionListener.onSessionStarted(chatId, this);
+        if (snapshot.state() == SessionState.RUNNING && snapshot.remaining() != null) {
+            scheduledPhaseEnd(chatId, snapshot.remaining().isNegative() ? Duration.ZERO : snapshot.remaining());
+        }
+    }
+
+    /**
+     * @return длительность фазы по настройкам или {@link #SETUP_PHASE_DURATION}, если настройки ещё не заданы
+     */
+    private static Duration phaseDuration(Phase phase, PomodoroServiceSettings settings) {
+        if (settings == null) {
+            return SETUP_PHASE_DURATION;
+        }
+        return switch (phase) {
+            case WORK -> settings.workDuration();
+            case SHORT_BREAK -> settings.shortRestDuration();
+            case LONG_BREAK -> settings.longRestDuration();
+        };
+    }
+
+    /**
+     * Отправляет статистику за 30 дней и закрывает сессию. Вызывается в акторе чата, когда
+     * запрос статистики в пуле ввода-вывода завершился.
+     */
+    private void finishWithStats(Long chatId, PomodoroStats stats, Throwable error, String firstName, String userName) {
+        statsRequests.remove(chatId);
+        if (error != null) {
+            log.error("Не удалось прочитать статистику для chatId={}", chatId, error);
+            sender.sendPomodoroReply(chatId, new PomodoroReply(PomodoroMessages.END_MESSAGE_WITHOUT_STATS, null, true));
+        } else if (stats.getWorkSessions() == 0) {
+            sender.sendPomodoroReply(chatId, new PomodoroReply(PomodoroMessages.MESSAGE_WITHOUT_STATS, null, true));
+        } else {
+            sender.sendPomodoroReply(chatId, new PomodoroReply(statsUtils.getStatsMessage(stats), null, true));
+        }
+        log.info("Завершена сессия для пользователя chatId={}, firstName={}, userName={}", chatId, firstName, userName);
+        endSession(chatId);
+    }
+
+    /**
+     * Пул чтения файлов статистики: запросы статистики не занимают потоки обработки обновлений.
+     */
+    public static ExecutorService newStatsExecutor() {
+        return Executors.newFixedThreadPool(STATS_IO_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "pomodoro-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Пул акторов чатов. Он отделён от планировщика, чтобы разбор ящиков не задерживал таймеры фаз.
+     */
+    public static ExecutorService newActorExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(ACTOR_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "pomodoro-actor-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
+    /**
+     * Ставит сообщение в ящик актора чата и не ждёт его. Непустой ответ актор передаёт
+     * в {@link PomodoroSender}, а получившееся состояние сессии — репликатору.
+     */
+    private void tellActor(Long chatId, Supplier<PomodoroReply> message) {
+        actors.tell(chatId, () -> {
+            try {
+                PomodoroReply reply = message.get();
+                if (!reply.text().isBlank()) {
+                    sender.sendPomodoroReply(chatId, reply);
+                }
+            } finally {
+                replicate(chatId);
+            }
+        });
+    }
+
+    /**
+     * Выполняет сообщение в акторе чата и ждёт результата. Получившееся состояние сессии
+     * передаётся репликатору в том же акторе. Ждать актора можно только при переносе сессий
+     * между узлами, но не в потоке обновлений.
+     */
+    private <T> T askActor(Long chatId, Supplier<T> message) {
+        try {
+            return actors.ask(chatId, () -> {
+                try {
+                    return message.get();
+                } finally {
+                    replicate(chatId);
+                }
+            }).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    PomodoroPresets getPresets() {
+        return presets;
+    }
+
+    @Override
     public boolean hasSession(Long chatId) {
         return pomodoroManager.hasActiveSession(chatId);
     }
+
+    @Override
+    public void setSessionListener(SessionListener listener) {
+        this.sessionListener = listener;
+    }
+
+    private void endSession(Long chatId) {
+        liveStatus.untrack(chatId);
+        pomodoroManager.endSession(chatId);
+        sessionListener.onSessionEnded(chatId, this);
+    }
 }
@@ -39,6 +39,18 @@ public final class PomodoroMessages {
 
     public static final String END_SEANCE_MESSAGE = "Завершить сеанс ✅";
 
+    public static final String LIVE_STATUS_MESSAGE = "Таймер ⏱\uFE0F";
+
+    public static final String LIVE_STATUS_TEMPLATE = "%s\nОсталось примерно %d мин. ⏳\n(сообщение обновляется автоматически)";
+
+    public static final String LIVE_STATUS_IDLE = "⏸\uFE0F Таймер сейчас не идёт.\nНажмите \"Старт \uD83D\uDE80\", чтобы начать цикл.";
+
+    public static final String LIVE_STATUS_WORK = "\uD83D\uDCBC Рабочий цикл";
+
+    public static final String LIVE_STATUS_SHORT_BREAK = "☕ Короткий перерыв";
+
+    public static final String LIVE_STATUS_LONG_BREAK = "\uD83C\uDF34 Длинный перерыв";
+
     public static final String QUESTION_STATS_MESSAGE = "📊 Хотите вывести статистику за последние 30 дней?";
 
     public static final String NO_ANSWER_MESSAGE = "Нет ❌";
@@ -76,6 +88,15 @@ public final class PomodoroMessages {
 
     public static final String ALL_PERIODS_CREATE_MESSAGE = "Количество циклов работы до длинного отдыха определено, теперь можно начинать! \nОжидаю команду \"Старт \uD83D\uDE80\"!";
 
+    public static final String USE_LAST_SETTINGS_MESSAGE = "Как в прошлый раз \u26A1";
+
+    public static final String LAST_SETTINGS_OFFER_TEMPLATE = """
+
+            Или нажми «%s» — работа %d мин, короткий отдых %d мин, длинный отдых %d мин, циклов до длинного отдыха: %d.
+            """;
+
+    public static final String LAST_SETTINGS_APPLIED_MESSAGE = "Настройки прошлой сессии применены ✅\nОжидаю команду \"Старт \uD83D\uDE80\"!";
+
     public static final String CLOSING_MESSAGE_TEMPLATE = """
             Сессия завершена. ✅
             Совершено рабочих циклов: %d 💼
@@ -83,4 +104,9 @@ public final class PomodoroMessages {
 
 
     public static final String END_MESSAGE_WITHOUT_STATS = "✅ Сессия завершена! Отличная работа, возвращайся, когда будешь готов к новой \uD83D\uDE80";
-}
\ No newline at end of file
+
+    public static final String SESSION_ALREADY_RUNNING = "\uD83E\uDD16 У вас уже запущен бот Pomodoro.\n" +
+            "\uD83C\uDF45 Пожалуйста, сначала завершите текущую сессию, а затем запускайте другого бота.\n";
+
+    public static final String PHOTO_FALLBACK_SUFFIX = "\n\n(⚠️ Мотивашку с картинкой отправить не удалось из-за ошибки соединения.)";
+}
@@ -9,4 +9,8 @@ public class PomodoroPaths {
     public static final String RESOURCES_DIR = "assets/motivations/motivations.csv";
 
     public static final String LOGS_DIR = "logs";
+
+    public static final String REPORT_STATE_FILE = "report_state.csv";
+
+    public static final String PRESETS_FILE = "pomodoro_presets.csv";
 }
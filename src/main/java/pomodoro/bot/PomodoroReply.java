@@ -3,10 +3,15 @@ package pomodoro.bot;
 /**
  * Запрос/ответ для Телеграм-бота
  *
- * @param text       текст сообщения
- * @param imagePath  мотивационное фото
- * @param isFinished проверяет активна ли сессия (для управления клавиатурой)
+ * @param text          текст сообщения
+ * @param imagePath     мотивационное фото
+ * @param isFinished    проверяет активна ли сессия (для управления клавиатурой)
+ * @param offersPreset  показывать ли кнопку применения прошлых настроек
  */
-public record PomodoroReply(String text, String imagePath, boolean isFinished
+public record PomodoroReply(String text, String imagePath, boolean isFinished, boolean offersPreset
 ) {
+
+    public PomodoroReply(String text, String imagePath, boolean isFinished) {
+        this(text, imagePath, isFinished, false);
+    }
 }
@@ -1,6 +1,28 @@
 package pomodoro.bot;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface PomodoroSender {
     void sendPomodoroReply(Long chatId, PomodoroReply reply);
     void sendFinalStatsQuestion(Long chatId, String text);
+
+    /**
+     * Отправляет сообщение с живым статусом таймера, не дожидаясь Telegram.
+     *
+     * @return идентификатор отправленного сообщения или null, если отправить не удалось
+     */
+    CompletableFuture<Integer> sendLiveStatus(Long chatId, String text);
+
+    /**
+     * Редактирует ранее отправленное сообщение с живым статусом, не дожидаясь Telegram.
+     *
+     * @return true, если сообщение отредактировано
+     */
+    CompletableFuture<Boolean> editLiveStatus(Long chatId, int messageId, String text);
+
+    /**
+     * @return сколько правок живых статусов можно отправить сейчас, не задерживая другие сообщения бота;
+     * ноль или меньше — лимит отправки бота занят
+     */
+    int liveStatusBudget();
 }
@@ -0,0 +1,294 @@
+package pomodoro.bot;
+
+import bot.utils.StatsUtils;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.chat.Chat;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import pomodoro.core.MotivationPhoto;
+import pomodoro.core.Phase;
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.service.HeapSessionStore;
+import pomodoro.service.PomodoroManager;
+import pomodoro.service.PomodoroPresets;
+import pomodoro.service.SessionStore;
+import pomodoro.service.SlabSessionStore;
+import pomodoro.service.StatsLogger;
+import pomodoro.service.VirtualScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Симуляция нагрузки Pomodoro-бота на виртуальном времени.
+ * <p>
+ * Синтетические пользователи запускают сессии в течение первой половины интервала, проходят настройку
+ * (или применяют прошлые настройки), иногда ставят паузу и завершают сеанс через несколько циклов;
+ * часть пользователей не завершает сеанс и доходит до лимита времени сессии. Все сообщения проходят
+ * через настоящий {@link PomodoroBot}, а время и таймеры фаз — через {@link VirtualScheduler}, поэтому
+ * сутки работы прокручиваются за секунды, а при одном зерне сценарий всегда один и тот же.
+ * Отправки в Telegram (фото и текст — отдельные запросы) и запись статистики только подсчитываются.
+ */
+public final class PomodoroSimulator {
+
+    /**
+     * Начало виртуального времени симуляции.
+     */
+    public static final Instant START = Instant.parse("2026-01-05T00:00:00Z");
+
+    private static final int[][] SETUPS = {
+            {25, 5, 15, 4}, {25, 5, 15, 4}, {25, 5, 15, 4}, {50, 10, 30, 2}, {45, 15, 30, 3}, {15, 3, 10, 4}};
+    private static final double PRESET_SHARE = 0.3;
+    private static final double PAUSE_SHARE = 0.1;
+    private static final double ENDLESS_SHARE = 0.05;
+    private static final Duration TYPING = Duration.ofSeconds(10);
+    private static final Duration SAMPLE_PERIOD = Duration.ofMinutes(1);
+
+    private final Options options;
+    private final VirtualScheduler scheduler;
+    private final SessionStore store;
+    private final PomodoroBot bot;
+    private final PomodoroPresets presets = new PomodoroPresets();
+    private final int[] sendsPerSecond;
+    private long sends;
+    private long loggedPhases;
+
+    /**
+     * Параметры симуляции.
+     *
+     * @param users     число пользователей
+     * @param length    длительность виртуального интервала
+     * @param seed      зерно сценария
+     * @param workers   число потоков моделируемого пула для оценки задержки планировщика
+     * @param slabStore true, если сессии хранятся вне кучи
+     */
+    public record Options(int users, Duration length, long seed, int workers, boolean slabStore) {
+
+        public Options {
+            if (users <= 0) {
+                throw new IllegalArgumentException("Число пользователей должно быть положительным: " + users);
+            }
+            if (length == null || length.compareTo(SAMPLE_PERIOD) < 0) {
+                throw new IllegalArgumentException("Интервал симуляции должен быть не короче минуты: " + length);
+            }
+        }
+    }
+
+    /**
+     * Итоги симуляции.
+     *
+     * @param options            параметры запуска
+     * @param wallTime           реальное время выполнения
+     * @param events             выполнено задач планировщика
+     * @param sends              запросов отправки в Telegram
+     * @param peakSendsPerSecond максимум отправок за одну виртуальную секунду
+     * @param meanLag            средняя задержка задач в моделируемом пуле
+     * @param p99Lag             99-й перцентиль задержки (оценка сверху)
+     * @param maxLag             максимальная задержка
+     * @param peakSessions       максимум одновременно открытых сессий
+     * @param peakHeapBytes      максимум занятой кучи по ежеминутным замерам
+     * @param offHeapBytes       память сессий вне кучи
+     * @param loggedPhases       записано завершённых фаз в статистику
+     */
+    public record Report(Options options, Duration wallTime, long events, long sends, int peakSendsPerSecond,
+                         Duration meanLag, Duration p99Lag, Duration maxLag, int peakSessions,
+                         long peakHeapBytes, long offHeapBytes, long loggedPhases) {
+
+        public double meanSendsPerSecond() {
+            return (double) sends / options.length().toSeconds();
+        }
+
+        /**
+         * @return многострочная сводка для консоли
+         */
+        public String summary() {
+            return """
+                    Симуляция Pomodoro: пользователей %d, виртуально %s, реально %d мс, хранилище %s
+                    Событий планировщика: %d
+                    Отправок: %d, в среднем %.2f/с, пик %d/с
+                    Задержка планировщика (%d потоков): средняя %d мкс, p99 ≤ %d мкс, макс %d мкс
+                    Одновременных сессий: до %d
+                    Память: куча до %d МБ, вне кучи %d МБ
+                    Завершённых фаз: %d"""
+                    .formatted(options.users(), options.length(), wallTime.toMillis(),
+                            options.slabStore() ? "slab" : "heap",
+                            events,
+                            sends, meanSendsPerSecond(), peakSendsPerSecond,
+                            options.workers(), meanLag.toNanos() / 1_000, p99Lag.toNanos() / 1_000,
+                            maxLag.toNanos() / 1_000,
+                            peakSessions,
+                            peakHeapBytes >> 20, offHeapBytes >> 20,
+                            loggedPhases);
+        }
+    }
+
+    private PomodoroSimulator(Options options) {
+        this.options = options;
+        this.scheduler = new VirtualScheduler(START, options.workers());
+        this.store = options.slabStore() ? new SlabSessionStore(scheduler.clock()) : new HeapSessionStore();
+        this.sendsPerSecond = new int[(int) options.length().toSeconds() + 1];
+        Map<Phase, List<MotivationPhoto>> photos = Map.of(
+                Phase.WORK, List.of(new MotivationPhoto("simulation/work.jpg", "work")),
+                Phase.SHORT_BREAK, List.of(new MotivationPhoto("simulation/rest.jpg", "rest")),
+                Phase.LONG_BREAK, List.of(new MotivationPhoto("simulation/rest.jpg", "rest")));
+        StatsLogger statsLogger = new StatsLogger(null, null) {
+            @Override
+            public void logPhase(Long chatId, Phase phase, Duration duration, Instant finishedAt) {
+                loggedPhases++;
+            }
+        };
+        this.bot = new PomodoroBot(
+                new CountingSender(),
+                new PomodoroManager(photos, store, scheduler.clock()),
+                photos,
+                statsLogger,
+                null,
+                new StatsUtils(),
+                presets,
+                Runnable::run,
+                scheduler,
+                scheduler.clock());
+    }
+
+    /**
+     * Прогоняет симуляцию в текущем потоке.
+     */
+    public static Report run(Options options) {
+        return new PomodoroSimulator(options).simulate();
+    }
+
+    private Report simulate() {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(options.seed());
+        long arrivalWindow = options.length().toSeconds() / 2;
+        for (long chatId = 1; chatId <= options.users(); chatId++) {
+            planUser(chatId, Duration.ofSeconds(random.nextLong(arrivalWindow + 1)), random.split());
+        }
+
+        int peakSessions = 0;
+        long peakHeap = 0;
+        Runtime runtime = Runtime.getRuntime();
+        Instant end = START.plus(options.length());
+        for (Instant at = START; at.isBefore(end); ) {
+            at = at.plus(SAMPLE_PERIOD).isAfter(end) ? end : at.plus(SAMPLE_PERIOD);
+            scheduler.runUntil(at);
+            peakSessions = Math.max(peakSessions, store.sessionCount());
+            peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+        }
+
+        int peakSends = 0;
+        for (int count : sendsPerSecond) {
+            peakSends = Math.max(peakSends, count);
+        }
+        long offHeap = store instanceof SlabSessionStore slab ? slab.offHeapBytes() : 0;
+        return new Report(options, Duration.ofNanos(System.nanoTime() - started), scheduler.executed(), sends,
+                peakSends, scheduler.meanLag(), scheduler.lagPercentile(99), scheduler.maxLag(), peakSessions,
+                peakHeap, offHeap, loggedPhases);
+    }
+
+    /**
+     * Планирует все действия одного пользователя.
+     */
+    private void planUser(long chatId, Duration arrival, SplittableRandom random) {
+        int[] setup = SETUPS[random.nextInt(SETUPS.length)];
+        Duration at = arrival;
+        at = plan(at, Duration.ZERO, chatId, null);
+        if (random.nextDouble() < PRESET_SHARE) {
+            presets.remember(chatId, new PomodoroServiceSettings(Duration.ofMinutes(setup[0]),
+                    Duration.ofMinutes(setup[1]), Duration.ofMinutes(setup[2]), setup[3]));
+            at = plan(at, TYPING, chatId, PomodoroMessages.USE_LAST_SETTINGS_MESSAGE);
+        } else {
+            for (int value : setup) {
+                at = plan(at, TYPING, chatId, Integer.toString(value));
+            }
+        }
+        Duration running = plan(at, TYPING, chatId, PomodoroMessages.START_MESSAGE);
+
+        if (random.nextDouble() < PAUSE_SHARE) {
+            Duration paused = plan(running, Duration.ofMinutes(5 + random.nextInt(setup[0])), chatId,
+                    PomodoroMessages.PAUSE_MESSAGE);
+            running = plan(paused, Duration.ofMinutes(2), chatId, PomodoroMessages.START_MESSAGE);
+        }
+        if (random.nextDouble() < ENDLESS_SHARE) {
+            return;
+        }
+        int cycles = 2 + random.nextInt(11);
+        Duration working = Duration.ofMinutes((long) cycles * (setup[0] + setup[1]) + random.nextInt(setup[0]));
+        Duration quit = plan(running, working, chatId, PomodoroMessages.END_SEANCE_MESSAGE);
+        plan(quit, TYPING, chatId, PomodoroMessages.NO_ANSWER_MESSAGE);
+    }
+
+    /**
+     * Планирует сообщение пользователя через {@code delay} после {@code after}.
+     *
+     * @param text текст сообщения или null для команды запуска
+     * @return момент сообщения от начала симуляции
+     */
+    private Duration plan(Duration after, Duration delay, long chatId, String text) {
+        Duration at = after.plus(delay);
+        scheduler.schedule(() -> deliver(chatId, text), at);
+        return at;
+    }
+
+    private void deliver(long chatId, String text) {
+        Update update = update(chatId, text == null ? "/startpomodoro" : text);
+        if (text == null) {
+            bot.startPomodoro(update);
+        } else if (bot.hasSession(chatId)) {
+            bot.handleAnswer(update);
+        }
+    }
+
+    private void countSend() {
+        sends++;
+        long second = Duration.between(START, scheduler.now()).toSeconds();
+        if (second < sendsPerSecond.length) {
+            sendsPerSecond[(int) second]++;
+        }
+    }
+
+    private static Update update(long chatId, String text) {
+        Update update = new Update();
+        Message message = new Message();
+        message.setChat(new Chat(chatId, "private"));
+        message.setText(text);
+        update.setMessage(message);
+        return update;
+    }
+
+    private final class CountingSender implements PomodoroSender {
+
+        @Override
+        public void sendPomodoroReply(Long chatId, PomodoroReply reply) {
+            if (reply.imagePath() != null) {
+                countSend();
+            }
+            countSend();
+        }
+
+        @Override
+        public void sendFinalStatsQuestion(Long chatId, String text) {
+            countSend();
+        }
+
+        @Override
+        public CompletableFuture<Integer> sendLiveStatus(Long chatId, String text) {
+            countSend();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> editLiveStatus(Long chatId, int messageId, String text) {
+            countSend();
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public int liveStatusBudget() {
+            return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package pomodoro.bot;
+
+import pomodoro.core.Phase;
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.core.SessionState;
+import pomodoro.core.SetupStep;
+import pomodoro.core.UserSetupState;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Снимок Pomodoro-сессии чата для переноса на другой узел кластера.
+ * <p>
+ * Передаётся одной строкой CSV:
+ * {@code chatId,state,phase,startMillis,remainingMillis,cycles,warned,work,short,long,beforeLong,setupStep,setupWork,setupShort,setupLong}.
+ * Длительности записываются в секундах, {@code remainingMillis} равен -1, если таймер фазы не запущен.
+ * Поля настроек пустые, если настройка ещё не завершена, а поля настройки — если её нет.
+ * Для репликации на резервный узел тот же снимок пишется в двоичном виде ({@link #writeTo}).
+ *
+ * @param chatId                идентификатор чата
+ * @param state                 состояние сессии
+ * @param phase                 текущая фаза
+ * @param startTime             начало сессии, от которого считается лимит времени
+ * @param remaining             остаток запущенной фазы или null
+ * @param completeWorkingCycles число завершённых рабочих циклов
+ * @param warnedAboutLimit      отправлено ли предупреждение о лимите
+ * @param settings              настройки сессии или null
+ * @param setup                 незавершённая настройка или null
+ */
+public record PomodoroSnapshot(long chatId,
+                               SessionState state,
+                               Phase phase,
+                               Instant startTime,
+                               Duration remaining,
+                               int completeWorkingCycles,
+                               boolean warnedAboutLimit,
+                               PomodoroServiceSettings settings,
+                               UserSetupState setup) {
+
+    private static final int FIELDS = 15;
+    private static final Phase[] PHASES = Phase.values();
+    private static final SessionState[] STATES = SessionState.values();
+    private static final SetupStep[] SETUP_STEPS = SetupStep.values();
+
+    /**
+     * @return строка CSV без перевода строки
+     */
+    public String toCsv() {
+        StringBuilder builder = new StringBuilder(96)
+                .append(chatId).append(',')
+                .append(state == null ? "" : state.name()).append(',')
+                .append(phase.name()).append(',')
+                .append(startTime.toEpochMilli()).append(',')
+                .append(remaining == null ? -1 : remaining.toMillis()).append(',')
+                .append(completeWorkingCycles).append(',')
+                .append(warnedAboutLimit).append(',');
+        if (settings == null) {
+            builder.append(",,,,");
+        } else {
+            builder.append(settings.workDuration().toSeconds()).append(',')
+                    .append(settings.shortRestDuration().toSeconds()).append(',')
+                    .append(settings.longRestDuration().toSeconds()).append(',')
+                    .append(settings.sessionsBeforeLongBreak()).append(',');
+        }
+        if (setup == null) {
+            builder.append(",,,");
+        } else {
+            builder.append(setup.getStep().name()).append(',')
+                    .append(seconds(setup.getWorkDuration())).append(',')
+                    .append(seconds(setup.getShortRestDuration())).append(',')
+                    .append(seconds(setup.getLongRestDuration()));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Разбирает строку, записанную {@link #toCsv()}.
+     *
+     * @throws IllegalArgumentException если строка повреждена
+     */
+    public static PomodoroSnapshot parse(String line) {
+        String[] row = line.split(",", -1);
+        if (row.length != FIELDS) {
+            throw new IllegalArgumentException("Некорректный снимок сессии Pomodoro: " + line);
+        }
+        try {
+            long remainingMillis = Long.parseLong(row[4]);
+            PomodoroServiceSettings settings = row[7].isEmpty() ? null : new PomodoroServiceSettings(
+                    Duration.ofSeconds(Long.parseLong(row[7])),
+                    Duration.ofSeconds(Long.parseLong(row[8])),
+                    Duration.ofSeconds(Long.parseLong(row[9])),
+                    Integer.parseInt(row[10]));
+            UserSetupState setup = null;
+            if (!row[11].isEmpty()) {
+                setup = new UserSetupState();
+                setup.setStep(SetupStep.valueOf(row[11]));
+                setup.setWorkDuration(duration(row[12]));
+                setup.setShortRestDuration(duration(row[13]));
+                setup.setLongRestDuration(duration(row[14]));
+            }
+            return new PomodoroSnapshot(
+                    Long.parseLong(row[0]),
+                    row[1].isEmpty() ? null : SessionState.valueOf(row[1]),
+                    Phase.valueOf(row[2]),
+                    Instant.ofEpochMilli(Long.parseLong(row[3])),
+                    remainingMillis < 0 ? null : Duration.ofMillis(remainingMillis),
+                    Integer.parseInt(row[5]),
+                    Boolean.parseBoolean(row[6]),
+                    settings,
+                    setup);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный снимок сессии Pomodoro: " + line, e);
+        }
+    }
+
+    /**
+     * Записывает снимок в компактном двоичном виде для потоковой репликации.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(chatId);
+        out.writeByte(state == null ? 0 : state.ordinal() + 1);
+        out.writeByte(phase.ordinal());
+        out.writeLong(startTime.toEpochMilli());
+        out.writeLong(remaining == null ? -1 : remaining.toMillis());
+        out.writeInt(completeWorkingCycles);
+        out.writeBoolean(warnedAboutLimit);
+        out.writeBoolean(settings != null);
+        if (settings != null) {
+            out.writeInt((int) settings.workDuration().toSeconds());
+            out.writeInt((int) settings.shortRestDuration().toSeconds());
+            out.writeInt((int) settings.longRestDuration().toSeconds());
+            out.writeInt(settings.sessionsBeforeLongBreak());
+        }
+        out.writeBoolean(setup != null);
+        if (setup != null) {
+            out.writeByte(setup.getStep().ordinal());
+            out.writeInt(setup.getWorkDuration() == null ? -1 : (int) setup.getWorkDuration().toSeconds());
+            out.writeInt(setup.getShortRestDuration() == null ? -1 : (int) setup.getShortRestDuration().toSeconds());
+            out.writeInt(setup.getLongRestDuration() == null ? -1 : (int) setup.getLongRestDuration().toSeconds());
+        }
+    }
+
+    /**
+     * Читает снимок, записанный {@link #writeTo(DataOutput)}.
+     */
+    public static PomodoroSnapshot readFrom(DataInput in) throws IOException {
+        long chatId = in.readLong();
+        int state = in.readByte();
+        Phase phase = PHASES[in.readByte()];
+        Instant startTime = Instant.ofEpochMilli(in.readLong());
+        long remainingMillis = in.readLong();
+        int cycles = in.readInt();
+        boolean warned = in.readBoolean();
+        PomodoroServiceSettings settings = null;
+        if (in.readBoolean()) {
+            settings = new PomodoroServiceSettings(
+                    Duration.ofSeconds(in.readInt()),
+                    Duration.ofSeconds(in.readInt()),
+                    Duration.ofSeconds(in.readInt()),
+                    in.readInt());
+        }
+        UserSetupState setup = null;
+        if (in.readBoolean()) {
+            setup = new UserSetupState();
+            setup.setStep(SETUP_STEPS[in.readByte()]);
+            setup.setWorkDuration(durationOrNull(in.readInt()));
+            setup.setShortRestDuration(durationOrNull(in.readInt()));
+            setup.setLongRestDuration(durationOrNull(in.readInt()));
+        }
+        return new PomodoroSnapshot(chatId, state == 0 ? null : STATES[state - 1], phase, startTime,
+                remainingMillis < 0 ? null : Duration.ofMillis(remainingMillis), cycles, warned, settings, setup);
+    }
+
+    /**
+     * @return тот же снимок с другим остатком фазы
+     */
+    public PomodoroSnapshot withRemaining(Duration remaining) {
+        return new PomodoroSnapshot(chatId, state, phase, startTime, remaining, completeWorkingCycles,
+                warnedAboutLimit, settings, setup);
+    }
+
+    private static Duration durationOrNull(int seconds) {
+        return seconds < 0 ? null : Duration.ofSeconds(seconds);
+    }
+
+    private static String seconds(Duration duration) {
+        return duration == null ? "" : Long.toString(duration.toSeconds());
+    }
+
+    private static Duration duration(String seconds) {
+        return seconds.isEmpty() ? null : Duration.ofSeconds(Long.parseLong(seconds));
+    }
+}
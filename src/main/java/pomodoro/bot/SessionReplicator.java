@@ -0,0 +1,35 @@
+package pomodoro.bot;
+
+/**
+ * Получает состояние Pomodoro-сессий после каждого его изменения для передачи на резервный узел.
+ * Вызывается в акторе чата, поэтому изменения одного чата приходят в порядке их применения.
+ */
+public interface SessionReplicator {
+
+    /**
+     * Репликатор, который ничего не делает. Используется по умолчанию.
+     */
+    SessionReplicator NONE = new SessionReplicator() {
+        @Override
+        public void sessionChanged(PomodoroSnapshot snapshot) {
+        }
+
+        @Override
+        public void sessionRemoved(long chatId) {
+        }
+    };
+
+    /**
+     * Вызывается, когда сессия чата создана или изменилась.
+     *
+     * @param snapshot текущее состояние сессии
+     */
+    void sessionChanged(PomodoroSnapshot snapshot);
+
+    /**
+     * Вызывается, когда у чата нет сессии: она закрыта или её не было.
+     *
+     * @param chatId идентификатор чата
+     */
+    void sessionRemoved(long chatId);
+}
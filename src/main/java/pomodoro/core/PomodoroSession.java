@@ -3,30 +3,69 @@ package pomodoro.core;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 
+/**
+ * Сессия Pomodoro одного чата.
+ * <p>
+ * Сессию изменяет только актор её чата, поэтому методы не синхронизированы. Живой статус
+ * читает фазу, состояние и таймер из другого потока, поэтому эти поля volatile.
+ * Кроме обычных объектов на куче сессия может быть представлением записи во внешнем
+ * хранилище, см. {@code pomodoro.service.SlabSessionStore}.
+ */
 public class PomodoroSession {
 
     private static final Logger log = LogManager.getLogger(PomodoroSession.class);
     private final Instant startTime;
-    private Timer timer;
-    private Phase currentPhase;
-    private SessionState state;
+    private final Clock clock;
+    private volatile Timer timer;
+    private volatile Phase currentPhase;
+    private volatile SessionState state;
     private int completeWorkingCycles;
     private boolean warnedAboutLimit;
     private boolean finished;
 
     public PomodoroSession(Phase phase, Duration phaseDuration) {
+        this(phase, phaseDuration, Clock.systemUTC());
+    }
+
+    /**
+     * @param clock часы, по которым идут сессия и таймеры её фаз
+     */
+    public PomodoroSession(Phase phase, Duration phaseDuration, Clock clock) {
+        this(phase, phaseDuration, clock, clock.instant(), 0);
+    }
+
+    /**
+     * Восстанавливает сессию, начатую раньше, например при переносе чата на другой узел кластера.
+     *
+     * @param startTime             момент начала сессии, от которого считается лимит времени
+     * @param completeWorkingCycles число уже завершённых рабочих циклов
+     */
+    public PomodoroSession(Phase phase, Duration phaseDuration, Clock clock, Instant startTime,
+                           int completeWorkingCycles) {
         if (phaseDuration == null || !phaseDuration.isPositive()) {
             log.error("Попытка создать PomodoroSession с некорректным Duration {}", phaseDuration);
             throw new IllegalArgumentException("значение Duration должно быть позитивным");
         }
         finished = false;
-        startTime = Instant.now();
+        this.clock = clock;
+        this.startTime = startTime;
+        this.completeWorkingCycles = completeWorkingCycles;
         warnedAboutLimit = false;
         this.currentPhase = phase;
-        timer = new Timer(currentPhase, phaseDuration);
+        timer = new Timer(currentPhase, phaseDuration, clock);
+    }
+
+    /**
+     * Конструктор для представлений сессии, которые хранят состояние вне объекта
+     * и переопределяют все публичные методы.
+     */
+    protected PomodoroSession() {
+        startTime = null;
+        clock = null;
     }
 
     /**
@@ -35,7 +74,7 @@ public class PomodoroSession {
      */
     public void startCurrentPhase(Duration duration) {
         ensureNotFinished();
-        timer = new Timer(currentPhase, duration);
+        timer = new Timer(currentPhase, duration, clock);
         timer.startTimer();
     }
 
@@ -54,7 +93,7 @@ public class PomodoroSession {
      *
      * @throws IllegalStateException если завершение фазы вызвано, когда таймер ещё не завершил работу
      */
-    public synchronized boolean completeCurrentPhase() {
+    public boolean completeCurrentPhase() {
         ensureNotFinished();
         if (!timer.isFinished()) {
             log.error("Завершение фазы вызвано, когда таймер ещё не завершил работу");
@@ -79,6 +118,13 @@ public class PomodoroSession {
         }
     }
 
+    /**
+     * @return true, если таймер текущей фазы запущен
+     */
+    public boolean isTimerStarted() {
+        return timer.isStarted();
+    }
+
     public Duration getReminingTime() {
         return timer.remaining();
     }
@@ -107,11 +153,11 @@ public class PomodoroSession {
         currentPhase = phase;
     }
 
-    public synchronized void setWantedAboutLimit(boolean wantedAboutLimit) {
+    public void setWantedAboutLimit(boolean wantedAboutLimit) {
         this.warnedAboutLimit = wantedAboutLimit;
     }
 
-    public synchronized void setFinished(boolean finishedFlag) {
+    public void setFinished(boolean finishedFlag) {
         finished = finishedFlag;
     }
 
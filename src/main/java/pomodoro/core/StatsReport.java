@@ -0,0 +1,112 @@
+package pomodoro.core;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сводная статистика Pomodoro по всем пользователям.
+ * <p>
+ * Хранит число и суммарную длительность фаз, гистограммы длительностей циклов
+ * и последний день активности каждого чата (для подсчёта DAU/MAU).
+ * Экземпляр не потокобезопасен: каждый поток собирает свой частичный отчёт,
+ * а затем отчёты объединяются через {@link #merge(StatsReport)}.
+ */
+public class StatsReport {
+
+    private final long[] phaseCounts = new long[Phase.values().length];
+    private final long[] phaseMinutes = new long[Phase.values().length];
+    private final Map<Phase, TreeMap<Long, Long>> cycleHistograms = new EnumMap<>(Phase.class);
+    private final Map<Long, Long> lastActiveDays = new HashMap<>();
+
+    /**
+     * Учитывает одну завершённую фазу.
+     *
+     * @param chatId        идентификатор чата
+     * @param phase         фаза
+     * @param minutes       длительность фазы в минутах
+     * @param finishedEpochDay день завершения фазы (epoch day)
+     */
+    public void record(long chatId, Phase phase, long minutes, long finishedEpochDay) {
+        addPhaseTotals(phase, 1, minutes);
+        addHistogramBucket(phase, minutes, 1);
+        markActive(chatId, finishedEpochDay);
+    }
+
+    public void addPhaseTotals(Phase phase, long count, long minutes) {
+        phaseCounts[phase.ordinal()] += count;
+        phaseMinutes[phase.ordinal()] += minutes;
+    }
+
+    public void addHistogramBucket(Phase phase, long minutes, long count) {
+        cycleHistograms.computeIfAbsent(phase, p -> new TreeMap<>()).merge(minutes, count, Long::sum);
+    }
+
+    public void markActive(long chatId, long epochDay) {
+        lastActiveDays.merge(chatId, epochDay, Math::max);
+    }
+
+    /**
+     * Добавляет к отчёту данные другого отчёта.
+     *
+     * @param other частичный отчёт
+     * @return этот же отчёт
+     */
+    public StatsReport merge(StatsReport other) {
+        for (Phase phase : Phase.values()) {
+            addPhaseTotals(phase, other.phaseCounts[phase.ordinal()], other.phaseMinutes[phase.ordinal()]);
+        }
+        other.cycleHistograms.forEach((phase, histogram) ->
+                histogram.forEach((minutes, count) -> addHistogramBucket(phase, minutes, count)));
+        other.lastActiveDays.forEach(this::markActive);
+        return this;
+    }
+
+    public long getPhaseCount(Phase phase) {
+        return phaseCounts[phase.ordinal()];
+    }
+
+    public long getPhaseMinutes(Phase phase) {
+        return phaseMinutes[phase.ordinal()];
+    }
+
+    public long getTotalFocusMinutes() {
+        return getPhaseMinutes(Phase.WORK);
+    }
+
+    /**
+     * @return гистограмма "длительность в минутах → количество фаз" для указанной фазы
+     */
+    public Map<Long, Long> getCycleHistogram(Phase phase) {
+        TreeMap<Long, Long> histogram = cycleHistograms.get(phase);
+        return histogram == null ? Map.of() : Collections.unmodifiableMap(histogram);
+    }
+
+    public Map<Long, Long> getLastActiveDays() {
+        return Collections.unmodifiableMap(lastActiveDays);
+    }
+
+    /**
+     * @param epochDay день отчёта
+     * @return количество чатов, активных в указанный день
+     */
+    public long dailyActiveUsers(long epochDay) {
+        return activeSince(epochDay);
+    }
+
+    /**
+     * @param epochDay день отчёта
+     * @return количество чатов, активных за 30 дней, включая указанный
+     */
+    public long monthlyActiveUsers(long epochDay) {
+        return activeSince(epochDay - 29);
+    }
+
+    private long activeSince(long epochDay) {
+        return lastActiveDays.values().stream()
+                .filter(day -> day >= epochDay)
+                .count();
+    }
+}
@@ -3,6 +3,7 @@ package pomodoro.core;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 
@@ -16,21 +17,32 @@ public class Timer {
     private Phase timerPhase;
     private Instant startTime;
     private final Duration duration;
+    private final Clock clock;
 
     /**
      * Конструктор таймера
      * @param duration инициализация длительности таймера
      */
     public Timer(Phase phase, Duration duration) {
+        this(phase, duration, Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор таймера с заданными часами
+     * @param duration инициализация длительности таймера
+     * @param clock    часы, по которым идёт отсчёт
+     */
+    public Timer(Phase phase, Duration duration, Clock clock) {
         this.duration = duration;
         this.timerPhase = phase;
+        this.clock = clock;
     }
 
     /**
      * Начало отсчета времени, инициализация startTimer
      */
     public void startTimer() {
-        startTime = Instant.now();
+        startTime = clock.instant();
     }
 
     /**
@@ -44,10 +56,17 @@ public class Timer {
             log.error("Вызван метод remaining, когда startTime={}", startTime);
             throw new IllegalStateException("невозможно рассчитать оставшееся время до вызова команды startTimer()");
         }
-        Duration elapsed = Duration.between(startTime, Instant.now());
+        Duration elapsed = Duration.between(startTime, clock.instant());
         return duration.minus(elapsed);
     }
 
+    /**
+     * @return true, если отсчёт уже начат
+     */
+    public boolean isStarted() {
+        return startTime != null;
+    }
+
     public Phase getPhaseTimer() {
         return timerPhase;
     }
@@ -0,0 +1,137 @@
+package pomodoro.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Акторы чатов: у каждого чата свой почтовый ящик, сообщения которого выполняются строго по очереди.
+ * <p>
+ * Команды пользователя и события таймера одного чата попадают в один ящик, поэтому состояние
+ * Pomodoro чата изменяет только один поток за раз и без блокировок в самом коде бота. Ящики
+ * разбираются общим пулом: ящик с сообщениями ставится в пул одной задачей, которая выполняет
+ * до {@link #DEFAULT_BATCH} сообщений и, если ящик не опустел, ставит себя в очередь заново,
+ * чтобы активный чат не занимал поток пула надолго. Опустевший ящик удаляется, поэтому
+ * память занимают только чаты с необработанными сообщениями.
+ * <p>
+ * Блокировка (бакет {@link ConcurrentHashMap}) берётся лишь на постановку сообщения и на проверку
+ * опустевшего ящика; сами сообщения, включая отправку ответов в Telegram, выполняются без блокировок.
+ */
+public class ChatActors {
+
+    private static final Logger log = LogManager.getLogger(ChatActors.class);
+
+    /**
+     * Сколько сообщений ящик обрабатывает за одну задачу пула.
+     */
+    public static final int DEFAULT_BATCH = 32;
+
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final int batch;
+
+    public ChatActors(Executor executor) {
+        this(executor, DEFAULT_BATCH);
+    }
+
+    /**
+     * @param executor общий пул, разбирающий ящики
+     * @param batch    сколько сообщений ящик обрабатывает за одну задачу пула
+     * @throws IllegalArgumentException если размер пачки не положительный
+     */
+    public ChatActors(Executor executor, int batch) {
+        if (batch <= 0) {
+            throw new IllegalArgumentException("Размер пачки сообщений должен быть положительным: " + batch);
+        }
+        this.executor = executor;
+        this.batch = batch;
+    }
+
+    /**
+     * Ставит сообщение в ящик чата. Сообщения одного чата выполняются в порядке постановки.
+     */
+    public void tell(Long chatId, Runnable message) {
+        boolean[] schedule = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(chatId, (id, existing) -> {
+            Mailbox box = existing == null ? new Mailbox(id) : existing;
+            box.messages.add(message);
+            if (!box.scheduled) {
+                box.scheduled = true;
+                schedule[0] = true;
+            }
+            return box;
+        });
+        if (schedule[0]) {
+            executor.execute(() -> drain(mailbox));
+        }
+    }
+
+    /**
+     * Ставит сообщение в ящик чата и возвращает его результат.
+     * Ответ нельзя ждать из сообщения того же чата: ящик выполняет сообщения по одному.
+     */
+    public <T> CompletableFuture<T> ask(Long chatId, Supplier<T> message) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        tell(chatId, () -> {
+            try {
+                result.complete(message.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return число чатов с необработанными сообщениями
+     */
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    private void drain(Mailbox mailbox) {
+        for (int i = 0; i < batch; i++) {
+            Runnable message = mailbox.messages.poll();
+            if (message == null) {
+                break;
+            }
+            try {
+                message.run();
+            } catch (RuntimeException e) {
+                log.error("Ошибка обработки сообщения чата chatId={}", mailbox.chatId, e);
+            }
+        }
+        boolean[] reschedule = new boolean[1];
+        mailboxes.computeIfPresent(mailbox.chatId, (id, box) -> {
+            if (box.messages.isEmpty()) {
+                box.scheduled = false;
+                return null;
+            }
+            reschedule[0] = true;
+            return box;
+        });
+        if (reschedule[0]) {
+            executor.execute(() -> drain(mailbox));
+        }
+    }
+
+    /**
+     * Ящик чата. Флаг {@code scheduled} читается и меняется только внутри {@code compute} карты ящиков.
+     */
+    private static final class Mailbox {
+        private final Long chatId;
+        private final Queue<Runnable> messages = new ConcurrentLinkedQueue<>();
+        private boolean scheduled;
+
+        private Mailbox(Long chatId) {
+            this.chatId = chatId;
+        }
+    }
+}
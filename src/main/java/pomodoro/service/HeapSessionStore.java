@@ -0,0 +1,52 @@
+package pomodoro.service;
+
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.core.PomodoroSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранилище сессий в обычных картах на куче. Используется по умолчанию.
+ */
+public class HeapSessionStore implements SessionStore {
+
+    private final Map<Long, PomodoroSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, PomodoroServiceSettings> settings = new ConcurrentHashMap<>();
+
+    @Override
+    public void putSession(Long chatId, PomodoroSession session) {
+        sessions.put(chatId, session);
+    }
+
+    @Override
+    public PomodoroSession getSession(Long chatId) {
+        return sessions.get(chatId);
+    }
+
+    @Override
+    public boolean removeSession(Long chatId) {
+        return sessions.remove(chatId) != null;
+    }
+
+    @Override
+    public void putSettings(Long chatId, PomodoroServiceSettings settings) {
+        this.settings.put(chatId, settings);
+    }
+
+    @Override
+    public PomodoroServiceSettings getSettings(Long chatId) {
+        return settings.get(chatId);
+    }
+
+    @Override
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public List<Long> sessionChatIds() {
+        return List.copyOf(sessions.keySet());
+    }
+}
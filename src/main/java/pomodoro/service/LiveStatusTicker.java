@@ -0,0 +1,274 @@
+package pomodoro.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Общий тикер "живых" статусов Pomodoro.
+ * <p>
+ * Для каждого чата, включившего живой статус, хранится идентификатор отправленного сообщения,
+ * которое периодически редактируется на месте. Все чаты обслуживаются одной задачей планировщика:
+ * за тик из очереди {@link DelayQueue} забираются только те статусы, срок обновления которых наступил.
+ * <p>
+ * Нагрузка на Telegram ограничена двумя способами:
+ * <ul>
+ *     <li>интервал обновления чата растёт с числом активных статусов так, чтобы суммарно
+ *     выходило не больше {@code maxEditsPerSecond} правок в секунду, и получает случайный сдвиг,
+ *     чтобы статусы не обновлялись одновременно;</li>
+ *     <li>за один тик ставится не больше правок, чем позволяет бюджет тика и свободное место в лимите
+ *     отправки бота ({@code sendBudget}); остальные статусы остаются в очереди до следующего тика.</li>
+ * </ul>
+ * Тик только ставит правки в очередь отправки бота и не ждёт Telegram, поэтому не занимает поток
+ * планировщика; правки входят в общий лимит отправки бота и уступают место его остальным сообщениям.
+ * Если текст статуса не изменился, правка не отправляется и бюджет не расходуется.
+ */
+public class LiveStatusTicker {
+
+    private static final Logger log = LogManager.getLogger(LiveStatusTicker.class);
+
+    /**
+     * Формирует текст статуса для чата.
+     */
+    @FunctionalInterface
+    public interface StatusRenderer {
+        /**
+         * @param chatId идентификатор чата
+         * @return текст статуса или null, если сессии больше нет и статус нужно снять
+         */
+        String render(Long chatId);
+    }
+
+    /**
+     * Редактирует ранее отправленное сообщение со статусом.
+     */
+    @FunctionalInterface
+    public interface StatusEditor {
+        /**
+         * Ставит правку в очередь отправки, не дожидаясь Telegram.
+         *
+         * @return true, если сообщение отредактировано; false — статус нужно снять
+         */
+        CompletableFuture<Boolean> edit(Long chatId, int messageId, String text);
+    }
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final DelayQueue<Entry> due = new DelayQueue<>();
+    private final StatusRenderer renderer;
+    private final StatusEditor editor;
+    private final IntSupplier sendBudget;
+    private final LongSupplier nanoTime;
+    private final long cadenceNanos;
+    private final long maxJitterNanos;
+    private final long nanosPerEdit;
+    private final Duration tickPeriod;
+    private final int editsPerTick;
+    private ScheduledFuture<?> task;
+
+    /**
+     * @param renderer          источник текста статуса
+     * @param editor            отправитель правок сообщения
+     * @param sendBudget        сколько правок бот может отправить сейчас, не задерживая другие сообщения
+     * @param cadence           минимальный интервал обновления одного чата
+     * @param maxJitter         максимальный случайный сдвиг интервала
+     * @param maxEditsPerSecond допустимое суммарное число правок в секунду
+     * @param tickPeriod        период тика
+     */
+    public LiveStatusTicker(StatusRenderer renderer,
+                            StatusEditor editor,
+                            IntSupplier sendBudget,
+                            Duration cadence,
+                            Duration maxJitter,
+                            int maxEditsPerSecond,
+                            Duration tickPeriod) {
+        this(renderer, editor, sendBudget, cadence, maxJitter, maxEditsPerSecond, tickPeriod, System::nanoTime);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    LiveStatusTicker(StatusRenderer renderer,
+                     StatusEditor editor,
+                     IntSupplier sendBudget,
+                     Duration cadence,
+                     Duration maxJitter,
+                     int maxEditsPerSecond,
+                     Duration tickPeriod,
+                     LongSupplier nanoTime) {
+        if (maxEditsPerSecond <= 0) {
+            throw new IllegalArgumentException("maxEditsPerSecond должен быть больше 0");
+        }
+        if (tickPeriod == null || !tickPeriod.isPositive()) {
+            throw new IllegalArgumentException("Период тика должен быть положительным");
+        }
+        this.renderer = renderer;
+        this.editor = editor;
+        this.sendBudget = sendBudget;
+        this.nanoTime = nanoTime;
+        this.cadenceNanos = cadence.toNanos();
+        this.maxJitterNanos = maxJitter.toNanos();
+        this.nanosPerEdit = TimeUnit.SECONDS.toNanos(1) / maxEditsPerSecond;
+        this.tickPeriod = tickPeriod;
+        this.editsPerTick = (int) Math.max(1, tickPeriod.toNanos() / nanosPerEdit);
+    }
+
+    /**
+     * Запускает тикер на переданном планировщике.
+     */
+    public synchronized void start(ScheduledExecutorService scheduler) {
+        if (task != null) {
+            return;
+        }
+        long periodMillis = tickPeriod.toMillis();
+        task = scheduler.scheduleAtFixedRate(this::safeTick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        log.info("Запущен тикер живых статусов: период={} мс, правок за тик={}", periodMillis, editsPerTick);
+    }
+
+    /**
+     * Останавливает тикер. Отслеживаемые статусы сохраняются.
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    /**
+     * Начинает обновлять сообщение со статусом. Предыдущий статус чата, если был, перестаёт обновляться.
+     *
+     * @param chatId    идентификатор чата
+     * @param messageId идентификатор отправленного сообщения
+     * @param text      текст, с которым сообщение было отправлено
+     */
+    public void track(Long chatId, int messageId, String text) {
+        Entry entry = new Entry(chatId, messageId, text);
+        entry.dueAt = nanoTime.getAsLong() + nextInterval();
+        entries.put(chatId, entry);
+        due.add(entry);
+        log.debug("Живой статус включён для chatId={}, messageId={}", chatId, messageId);
+    }
+
+    /**
+     * Прекращает обновление статуса чата. Запись в очереди удаляется лениво при следующем тике.
+     */
+    public void untrack(Long chatId) {
+        if (entries.remove(chatId) != null) {
+            log.debug("Живой статус выключен для chatId={}", chatId);
+        }
+    }
+
+    public boolean isTracked(Long chatId) {
+        return entries.containsKey(chatId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ставит в очередь отправки правки статусов, срок которых наступил, в пределах бюджета тика
+     * и свободного места в лимите отправки бота.
+     *
+     * @return число поставленных правок
+     */
+    int tick() {
+        int budget = Math.min(editsPerTick, sendBudget.getAsInt());
+        int edits = 0;
+        while (edits < budget) {
+            Entry entry = due.poll();
+            if (entry == null) {
+                break;
+            }
+            if (entries.get(entry.chatId) != entry) {
+                continue;
+            }
+
+            String text = render(entry.chatId);
+            if (text == null) {
+                entries.remove(entry.chatId, entry);
+                continue;
+            }
+            if (!text.equals(entry.lastText)) {
+                edits++;
+                entry.lastText = text;
+                editor.edit(entry.chatId, entry.messageId, text).thenAccept(edited -> {
+                    if (!edited) {
+                        log.warn("Не удалось обновить живой статус, обновление остановлено для chatId={}", entry.chatId);
+                        entries.remove(entry.chatId, entry);
+                    }
+                });
+            }
+            entry.dueAt = nanoTime.getAsLong() + nextInterval();
+            due.add(entry);
+        }
+        return edits;
+    }
+
+    private void safeTick() {
+        try {
+            int edits = tick();
+            if (edits > 0) {
+                log.debug("Тик живых статусов: правок={}, активных статусов={}", edits, entries.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка в тике живых статусов", e);
+        }
+    }
+
+    private String render(Long chatId) {
+        try {
+            return renderer.render(chatId);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сформировать живой статус для chatId={}", chatId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Интервал до следующего обновления: не меньше заданной частоты и не меньше времени,
+     * за которое при допустимой скорости правок успевают обновиться все активные статусы.
+     */
+    private long nextInterval() {
+        long interval = Math.max(cadenceNanos, entries.size() * nanosPerEdit);
+        if (maxJitterNanos > 0) {
+            interval += ThreadLocalRandom.current().nextLong(maxJitterNanos + 1);
+        }
+        return interval;
+    }
+
+    private final class Entry implements Delayed {
+        private final Long chatId;
+        private final int messageId;
+        private volatile String lastText;
+        private long dueAt;
+
+        private Entry(Long chatId, int messageId, String lastText) {
+            this.chatId = chatId;
+            this.messageId = messageId;
+            this.lastText = lastText;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - nanoTime.getAsLong(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((Entry) other).dueAt);
+        }
+    }
+}
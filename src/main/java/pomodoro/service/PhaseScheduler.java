@@ -0,0 +1,32 @@
+package pomodoro.service;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик окончаний фаз Pomodoro.
+ * <p>
+ * В работе бота задачи выполняет {@link ScheduledExecutorService}, в симуляции —
+ * {@link VirtualScheduler}, который прокручивает виртуальное время без ожидания.
+ */
+@FunctionalInterface
+public interface PhaseScheduler {
+
+    /**
+     * Планирует задачу.
+     *
+     * @param task  задача
+     * @param delay задержка до выполнения
+     * @return задача, которую можно отменить
+     */
+    Future<?> schedule(Runnable task, Duration delay);
+
+    /**
+     * Планировщик поверх пула потоков.
+     */
+    static PhaseScheduler of(ScheduledExecutorService executor) {
+        return (task, delay) -> executor.schedule(task, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -4,36 +4,51 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pomodoro.core.*;
 
+import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Управляет PomodoroSession:
- * Контролирует фазы сессии, выдаёт мотивирующее фото с сообщением в соответствующей фазе
+ * Контролирует фазы сессии, выдаёт мотивирующее фото с сообщением в соответствующей фазе.
+ * Сессии и настройки хранятся в {@link SessionStore}: по умолчанию в картах на куче,
+ * при большом числе пользователей — в записях вне кучи ({@link SlabSessionStore}).
  */
 public class PomodoroManager {
 
     private static final Logger log = LogManager.getLogger(PomodoroManager.class);
     private static final Duration MAX_SESSION_DURATION = Duration.ofHours(16);
-    private final Map<Long, ScheduledFuture<?>> scheduledTasks;
+    private final Map<Long, Future<?>> scheduledTasks;
     private final Map<Phase, List<MotivationPhoto>> motivationPhotos;
-    private final Map<Long, PomodoroSession> sessions;
-    private final Map<Long, PomodoroServiceSettings> settings;
+    private final SessionStore store;
+    private final Clock clock;
 
     public PomodoroManager(Map<Phase, List<MotivationPhoto>> motivationPhotos) {
+        this(motivationPhotos, new HeapSessionStore());
+    }
+
+    public PomodoroManager(Map<Phase, List<MotivationPhoto>> motivationPhotos, SessionStore store) {
+        this(motivationPhotos, store, Clock.systemUTC());
+    }
+
+    /**
+     * @param motivationPhotos мотивационные фото по фазам
+     * @param store            хранилище сессий и настроек
+     * @param clock            часы для проверки лимита времени сессии
+     */
+    public PomodoroManager(Map<Phase, List<MotivationPhoto>> motivationPhotos, SessionStore store, Clock clock) {
         if (motivationPhotos == null || motivationPhotos.isEmpty()) {
             log.error("Попытка создать PomodoroManager, когда motivationPhoto пустой или null");
             throw new IllegalArgumentException("motivationPhotos не может быть пустым или null");
         }
 
         this.motivationPhotos = motivationPhotos;
-        this.settings = new ConcurrentHashMap<>();
         this.scheduledTasks = new ConcurrentHashMap<>();
-        this.sessions = new ConcurrentHashMap<>();
+        this.store = store;
+        this.clock = clock;
     }
 
     /**
@@ -42,7 +57,7 @@ public class PomodoroManager {
      * @param chatId идентификатор пользователя
      */
     public void startWorkSession(Long chatId, Duration phaseDuration) {
-        PomodoroSession session = sessions.get(chatId);
+        PomodoroSession session = store.getSession(chatId);
         session.setCurrentPhase(Phase.WORK);
         session.startCurrentPhase(phaseDuration);
     }
@@ -53,7 +68,7 @@ public class PomodoroManager {
      * @param chatId идентификатор пользователя
      */
     public void startShortRestSession(Long chatId, Duration phaseDuration) {
-        PomodoroSession session = sessions.get(chatId);
+        PomodoroSession session = store.getSession(chatId);
         session.setCurrentPhase(Phase.SHORT_BREAK);
         session.startCurrentPhase(phaseDuration);
     }
@@ -64,7 +79,7 @@ public class PomodoroManager {
      * @param chatId идентификатор пользователя
      */
     public void startLongRestSession(Long chatId, Duration phaseDuration) {
-        PomodoroSession session = sessions.get(chatId);
+        PomodoroSession session = store.getSession(chatId);
         session.setCurrentPhase(Phase.LONG_BREAK);
         session.startCurrentPhase(phaseDuration);
     }
@@ -94,7 +109,7 @@ public class PomodoroManager {
      */
     public boolean shouldStartLongBreak(PomodoroSession session, Long chatId) {
         int cycles = session.getCompleteWorkingCycles();
-        int cyclesBeforeLongBreak = settings.get(chatId).sessionsBeforeLongBreak();
+        int cyclesBeforeLongBreak = store.getSettings(chatId).sessionsBeforeLongBreak();
         return cycles > 0 && cycles % cyclesBeforeLongBreak == 0;
     }
 
@@ -128,7 +143,7 @@ public class PomodoroManager {
      * сравнивая прошедший период времени с максимально установленным
      */
     public boolean isOverLimit(PomodoroSession session) {
-        return Duration.between(session.getStartTime(), Instant.now())
+        return Duration.between(session.getStartTime(), clock.instant())
                 .compareTo(MAX_SESSION_DURATION) >= 0;
     }
 
@@ -138,7 +153,7 @@ public class PomodoroManager {
      * предупреждает пользователя о скором закрытии сессии по лимиту времени
      */
     public boolean isCloseToLimit(PomodoroSession session, Duration warnBefore) {
-        Duration elapsed = Duration.between(session.getStartTime(), Instant.now());
+        Duration elapsed = Duration.between(session.getStartTime(), clock.instant());
         return elapsed.compareTo(MAX_SESSION_DURATION.minus(warnBefore)) >= 0;
     }
 
@@ -146,9 +161,7 @@ public class PomodoroManager {
      * Удаляет существующую сессию по chatId
      */
     public void endSession(Long chatId) {
-        if (sessions.get(chatId) != null) {
-            sessions.remove(chatId);
-        } else {
+        if (!store.removeSession(chatId)) {
             log.warn("Попытка удаления несуществующей сессии по chatId={}", chatId);
         }
     }
@@ -157,7 +170,7 @@ public class PomodoroManager {
      * Отменяет действующую задачу в планировщике
      */
     public void cancelFuture(Long chatId) {
-        ScheduledFuture<?> future = scheduledTasks.remove(chatId);
+        Future<?> future = scheduledTasks.remove(chatId);
         if (future != null) {
             future.cancel(false);
         }
@@ -168,30 +181,45 @@ public class PomodoroManager {
      */
     public void addSession(Long chatId, PomodoroSession session) {
         session.setState(SessionState.SETUP);
-        sessions.put(chatId, session);
+        store.putSession(chatId, session);
+    }
+
+    /**
+     * @return идентификаторы чатов с сессиями на момент вызова
+     */
+    public List<Long> sessionChatIds() {
+        return store.sessionChatIds();
     }
 
     public boolean hasActiveSession(Long chatId) {
-        PomodoroSession session = sessions.get(chatId);
+        PomodoroSession session = store.getSession(chatId);
         return session != null && !session.isFinished();
     }
 
-    public void saveFuture(Long chatId, ScheduledFuture<?> future) {
+    public void saveFuture(Long chatId, Future<?> future) {
         scheduledTasks.put(chatId, future);
     }
 
+    /**
+     * @return true, если задача — текущая запланированная задача чата (не отменена и не заменена)
+     */
+    public boolean isCurrentFuture(Long chatId, Future<?> future) {
+        return future != null && scheduledTasks.get(chatId) == future;
+    }
+
     public PomodoroServiceSettings getSettings(Long chatId) {
-        return settings.get(chatId);
+        return store.getSettings(chatId);
     }
 
     public PomodoroSession getSession(Long chatId) {
-        if (sessions.get(chatId) == null) {
+        PomodoroSession session = store.getSession(chatId);
+        if (session == null) {
             throw new IllegalStateException("Невозможно получить сессию до её добавления в список");
         }
-        return sessions.get(chatId);
+        return session;
     }
 
     public void setSettings(Long chatId, PomodoroServiceSettings pomodoroServiceSettings) {
-        settings.put(chatId, pomodoroServiceSettings);
+        store.putSettings(chatId, pomodoroServiceSettings);
     }
 }
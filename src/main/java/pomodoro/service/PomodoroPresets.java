@@ -0,0 +1,145 @@
+package pomodoro.service;
+
+import bot.utils.CsvResourceReader;
+import bot.utils.PeriodicSnapshot;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pomodoro.core.PomodoroServiceSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Последние настройки Pomodoro каждого пользователя.
+ * <p>
+ * Настройки сохраняются после завершения диалога настройки, и при следующем запуске
+ * пользователь может применить их одной кнопкой. Одинаковые настройки хранятся одним
+ * экземпляром: большинство пользователей выбирает одни и те же интервалы, поэтому
+ * в памяти остаётся лишь несколько различных объектов.
+ * <p>
+ * Если задан файл снапшота, настройки загружаются из него при старте и периодически
+ * сохраняются целиком с атомарной заменой. Строка снапшота — идентификатор чата и четыре
+ * числа: минуты работы, короткого и длинного отдыха и число циклов до длинного отдыха.
+ */
+public class PomodoroPresets {
+
+    private static final Logger log = LogManager.getLogger(PomodoroPresets.class);
+
+    private final Map<Long, PomodoroServiceSettings> presets = new ConcurrentHashMap<>();
+    private final Map<PomodoroServiceSettings, PomodoroServiceSettings> interned = new ConcurrentHashMap<>();
+    private final Path snapshotFile;
+    private final CsvResourceReader reader;
+    private final PeriodicSnapshot periodicSnapshot =
+            new PeriodicSnapshot("снапшот настроек Pomodoro", this::writeSnapshot);
+
+    /**
+     * Создаёт хранилище без сохранения на диск.
+     */
+    public PomodoroPresets() {
+        this(null, null);
+    }
+
+    /**
+     * @param snapshotFile файл снапшота или null, если сохранять не нужно
+     * @param reader       читатель CSV для загрузки снапшота
+     */
+    public PomodoroPresets(Path snapshotFile, CsvResourceReader reader) {
+        this.snapshotFile = snapshotFile;
+        this.reader = reader;
+    }
+
+    /**
+     * Запоминает настройки пользователя.
+     *
+     * @return общий экземпляр настроек, равный переданным
+     */
+    public PomodoroServiceSettings remember(Long chatId, PomodoroServiceSettings settings) {
+        PomodoroServiceSettings shared = intern(settings);
+        if (presets.put(chatId, shared) != shared) {
+            periodicSnapshot.markDirty();
+        }
+        return shared;
+    }
+
+    /**
+     * @return последние настройки пользователя или null, если он их ещё не задавал
+     */
+    public PomodoroServiceSettings get(Long chatId) {
+        return presets.get(chatId);
+    }
+
+    /**
+     * Возвращает общий экземпляр настроек, равный переданным.
+     */
+    public PomodoroServiceSettings intern(PomodoroServiceSettings settings) {
+        PomodoroServiceSettings existing = interned.putIfAbsent(settings, settings);
+        return existing == null ? settings : existing;
+    }
+
+    public int size() {
+        return presets.size();
+    }
+
+    /**
+     * @return число различных экземпляров настроек в памяти
+     */
+    public int distinctSettings() {
+        return interned.size();
+    }
+
+    /**
+     * Загружает настройки из снапшота, если он есть.
+     */
+    public void load() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        try (InputStream inputStream = Files.newInputStream(snapshotFile)) {
+            reader.forEach(inputStream, ',', row -> presets.put(Long.parseLong(row[0]), intern(
+                    new PomodoroServiceSettings(
+                            Duration.ofMinutes(Long.parseLong(row[1])),
+                            Duration.ofMinutes(Long.parseLong(row[2])),
+                            Duration.ofMinutes(Long.parseLong(row[3])),
+                            Integer.parseInt(row[4])))));
+            log.info("Загружены настройки Pomodoro: пользователей={}, различных настроек={}",
+                    presets.size(), interned.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось прочитать снапшот настроек Pomodoro {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Запускает периодическое сохранение снапшота.
+     */
+    public void start(ScheduledExecutorService scheduler, Duration period) {
+        if (snapshotFile != null) {
+            periodicSnapshot.start(scheduler, period);
+        }
+    }
+
+    /**
+     * Сохраняет снапшот, если с прошлого сохранения настройки менялись.
+     *
+     * @return true, если снапшот записан
+     */
+    public boolean saveSnapshot() {
+        return snapshotFile != null && periodicSnapshot.save();
+    }
+
+    private void writeSnapshot() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        presets.forEach((chatId, settings) -> builder.append(chatId).append(',')
+                .append(settings.workDuration().toMinutes()).append(',')
+                .append(settings.shortRestDuration().toMinutes()).append(',')
+                .append(settings.longRestDuration().toMinutes()).append(',')
+                .append(settings.sessionsBeforeLongBreak()).append('\n'));
+        PeriodicSnapshot.writeAtomically(snapshotFile, builder);
+        log.debug("Сохранён снапшот настроек Pomodoro: пользователей={}", presets.size());
+    }
+}
@@ -0,0 +1,49 @@
+package pomodoro.service;
+
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.core.PomodoroSession;
+
+import java.util.List;
+
+/**
+ * Хранилище сессий и настроек Pomodoro, с которым работает {@link PomodoroManager}.
+ * <p>
+ * Сессии одного чата изменяются только актором чата, поэтому хранилищу достаточно
+ * безопасно обслуживать разные чаты из разных потоков.
+ */
+public interface SessionStore {
+
+    /**
+     * Сохраняет сессию чата, заменяя прежнюю.
+     */
+    void putSession(Long chatId, PomodoroSession session);
+
+    /**
+     * @return сессия чата или null, если её нет
+     */
+    PomodoroSession getSession(Long chatId);
+
+    /**
+     * Удаляет сессию чата. Настройки чата сохраняются.
+     *
+     * @return true, если сессия была
+     */
+    boolean removeSession(Long chatId);
+
+    void putSettings(Long chatId, PomodoroServiceSettings settings);
+
+    /**
+     * @return настройки чата или null, если они не заданы
+     */
+    PomodoroServiceSettings getSettings(Long chatId);
+
+    /**
+     * @return число активных сессий
+     */
+    int sessionCount();
+
+    /**
+     * @return идентификаторы чатов с сессиями на момент вызова
+     */
+    List<Long> sessionChatIds();
+}
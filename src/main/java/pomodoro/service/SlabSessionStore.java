@@ -0,0 +1,434 @@
+package pomodoro.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pomodoro.core.Phase;
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.core.PomodoroSession;
+import pomodoro.core.SessionState;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Хранилище сессий Pomodoro вне кучи: состояние каждого чата упаковано в запись фиксированного
+ * размера в прямых {@link ByteBuffer}.
+ * <pre>
+ * запись: chatId (long), начало сессии (long, мс эпохи), дедлайн фазы (long, мс эпохи),
+ *         рабочих циклов (int), id настроек (int), фаза (byte), состояние (byte), флаги (byte), резерв
+ * </pre>
+ * Записи лежат в кусках по {@link #CHUNK_RECORDS} штук; куски не перемещаются при росте, поэтому
+ * запись можно изменять без блокировок. Индекс {@code chatId → номер записи} — таблица с открытой
+ * адресацией на двух примитивных массивах. Запись чата создаётся один раз и не освобождается:
+ * после окончания сессии в ней остаются настройки, как и в {@link HeapSessionStore}.
+ * Одинаковые настройки хранятся одним объектом, в записи — только его номер.
+ * <p>
+ * {@link #getSession} возвращает лёгкое представление записи: объект живёт, пока его использует
+ * вызывающий код, а на куче долго хранятся только индекс, куски и таблица настроек.
+ * Значения, прочитанные из другого потока (живой статус), могут на мгновение отставать.
+ */
+public class SlabSessionStore implements SessionStore {
+
+    private static final Logger log = LogManager.getLogger(SlabSessionStore.class);
+
+    /**
+     * Размер записи одного чата, байт.
+     */
+    public static final int RECORD_BYTES = 40;
+
+    /**
+     * Число записей в одном куске.
+     */
+    public static final int CHUNK_RECORDS = 1 << 16;
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHAT_ID = 0;
+    private static final int START_MILLIS = 8;
+    private static final int DEADLINE_MILLIS = 16;
+    private static final int CYCLES = 24;
+    private static final int SETTINGS_ID = 28;
+    private static final int PHASE = 32;
+    private static final int STATE = 33;
+    private static final int FLAGS = 34;
+
+    private static final int HAS_SESSION = 1;
+    private static final int FINISHED = 1 << 1;
+    private static final int WARNED = 1 << 2;
+    private static final int TIMER_STARTED = 1 << 3;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final SessionState[] STATES = SessionState.values();
+    private static final int NO_SETTINGS = -1;
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+
+    private final LongSupplier clock;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Map<PomodoroServiceSettings, Integer> settingsIds = new HashMap<>();
+    private volatile PomodoroServiceSettings[] settingsById = new PomodoroServiceSettings[0];
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private long[] keys = new long[INITIAL_INDEX_CAPACITY];
+    private int[] slots = new int[INITIAL_INDEX_CAPACITY];
+    private int records;
+
+    public SlabSessionStore() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock часы, по которым считаются дедлайны фаз
+     */
+    public SlabSessionStore(Clock clock) {
+        this(clock::millis);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     *
+     * @param clock источник текущего времени, мс эпохи
+     */
+    SlabSessionStore(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void putSession(Long chatId, PomodoroSession session) {
+        int slot = slotFor(chatId);
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        boolean existed = (chunk.get(base + FLAGS) & HAS_SESSION) != 0;
+        int flags = HAS_SESSION;
+        if (session.isFinished()) {
+            flags |= FINISHED;
+        }
+        if (session.isWarnedAboutLimit()) {
+            flags |= WARNED;
+        }
+        long deadline = 0;
+        if (session.isTimerStarted()) {
+            flags |= TIMER_STARTED;
+            deadline = clock.getAsLong() + session.getReminingTime().toMillis();
+        }
+        chunk.putLong(base + START_MILLIS, session.getStartTime().toEpochMilli());
+        chunk.putLong(base + DEADLINE_MILLIS, deadline);
+        chunk.putInt(base + CYCLES, session.getCompleteWorkingCycles());
+        chunk.put(base + PHASE, (byte) session.getCurrentPhase().ordinal());
+        chunk.put(base + STATE, stateCode(session.getState()));
+        chunk.put(base + FLAGS, (byte) flags);
+        if (!existed) {
+            sessions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public PomodoroSession getSession(Long chatId) {
+        int slot = slotOf(chatId);
+        if (slot < 0 || (chunk(slot).get(base(slot) + FLAGS) & HAS_SESSION) == 0) {
+            return null;
+        }
+        return new SessionView(slot);
+    }
+
+    @Override
+    public boolean removeSession(Long chatId) {
+        int slot = slotOf(chatId);
+        if (slot < 0) {
+            return false;
+        }
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        byte flags = chunk.get(base + FLAGS);
+        if ((flags & HAS_SESSION) == 0) {
+            return false;
+        }
+        chunk.put(base + FLAGS, (byte) (flags & ~HAS_SESSION));
+        sessions.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public void putSettings(Long chatId, PomodoroServiceSettings settings) {
+        int slot = slotFor(chatId);
+        chunk(slot).putInt(base(slot) + SETTINGS_ID, settingsId(settings));
+    }
+
+    @Override
+    public PomodoroServiceSettings getSettings(Long chatId) {
+        int slot = slotOf(chatId);
+        if (slot < 0) {
+            return null;
+        }
+        int id = chunk(slot).getInt(base(slot) + SETTINGS_ID);
+        return id == NO_SETTINGS ? null : settingsById[id];
+    }
+
+    @Override
+    public int sessionCount() {
+        return sessions.get();
+    }
+
+    /**
+     * @return объём кусков вне кучи, байт
+     */
+    public long offHeapBytes() {
+        return (long) chunks.length * CHUNK_RECORDS * RECORD_BYTES;
+    }
+
+    /**
+     * @return объём индекса на куче, байт
+     */
+    public synchronized long indexBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * @return число различных настроек
+     */
+    public int distinctSettings() {
+        return settingsById.length;
+    }
+
+    @Override
+    public List<Long> sessionChatIds() {
+        int count;
+        synchronized (this) {
+            count = records;
+        }
+        List<Long> chatIds = new ArrayList<>();
+        for (int slot = 0; slot < count; slot++) {
+            ByteBuffer chunk = chunk(slot);
+            int base = base(slot);
+            if ((chunk.get(base + FLAGS) & HAS_SESSION) != 0) {
+                chatIds.add(chunk.getLong(base + CHAT_ID));
+            }
+        }
+        return chatIds;
+    }
+
+    /**
+     * Ищет запись чата.
+     *
+     * @return номер записи или -1
+     */
+    private synchronized int slotOf(long chatId) {
+        int mask = keys.length - 1;
+        for (int i = hash(chatId) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == chatId) {
+                return slots[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ищет запись чата и создаёт её, если записи ещё нет.
+     */
+    private synchronized int slotFor(long chatId) {
+        int mask = keys.length - 1;
+        int i = hash(chatId) & mask;
+        for (; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == chatId) {
+                return slots[i] - 1;
+            }
+        }
+        int slot = records;
+        if ((slot >>> CHUNK_SHIFT) == chunks.length) {
+            addChunk();
+        }
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        chunk.putLong(base + CHAT_ID, chatId);
+        chunk.putInt(base + SETTINGS_ID, NO_SETTINGS);
+        records++;
+        keys[i] = chatId;
+        slots[i] = slot + 1;
+        if (records * 4L > keys.length * 3L) {
+            rehash();
+        }
+        return slot;
+    }
+
+    private void addChunk() {
+        ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        grown[chunks.length] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_BYTES);
+        chunks = grown;
+        log.debug("Хранилище сессий Pomodoro расширено до {} записей", (long) grown.length * CHUNK_RECORDS);
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldSlots.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldSlots[j] == 0) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    private synchronized int settingsId(PomodoroServiceSettings settings) {
+        Integer id = settingsIds.get(settings);
+        if (id != null) {
+            return id;
+        }
+        PomodoroServiceSettings[] grown = Arrays.copyOf(settingsById, settingsById.length + 1);
+        grown[settingsById.length] = settings;
+        settingsById = grown;
+        settingsIds.put(settings, settingsById.length - 1);
+        return settingsById.length - 1;
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int base(int slot) {
+        return (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+    }
+
+    private static int hash(long chatId) {
+        long mixed = chatId * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private static byte stateCode(SessionState state) {
+        return (byte) (state == null ? 0 : state.ordinal() + 1);
+    }
+
+    /**
+     * Представление записи чата с поведением обычной {@link PomodoroSession}.
+     */
+    private final class SessionView extends PomodoroSession {
+
+        private final ByteBuffer chunk;
+        private final int base;
+
+        private SessionView(int slot) {
+            this.chunk = chunk(slot);
+            this.base = base(slot);
+        }
+
+        @Override
+        public void startCurrentPhase(Duration duration) {
+            ensureNotFinished();
+            chunk.putLong(base + DEADLINE_MILLIS, clock.getAsLong() + duration.toMillis());
+            setFlag(TIMER_STARTED, true);
+        }
+
+        @Override
+        public boolean isCurrentPhaseFinished() {
+            return !getReminingTime().isPositive();
+        }
+
+        @Override
+        public boolean completeCurrentPhase() {
+            ensureNotFinished();
+            if (!isCurrentPhaseFinished()) {
+                log.error("Завершение фазы вызвано, когда таймер ещё не завершил работу");
+                throw new IllegalStateException("Фаза ещё не завершена");
+            }
+            boolean workCompleted = getCurrentPhase() == Phase.WORK;
+            if (workCompleted) {
+                chunk.putInt(base + CYCLES, chunk.getInt(base + CYCLES) + 1);
+            }
+            return workCompleted;
+        }
+
+        @Override
+        public boolean isTimerStarted() {
+            return hasFlag(TIMER_STARTED);
+        }
+
+        @Override
+        public Duration getReminingTime() {
+            if (!isTimerStarted()) {
+                log.error("Запрошен остаток времени до запуска таймера");
+                throw new IllegalStateException("невозможно рассчитать оставшееся время до вызова команды startTimer()");
+            }
+            return Duration.ofMillis(chunk.getLong(base + DEADLINE_MILLIS) - clock.getAsLong());
+        }
+
+        @Override
+        public Phase getCurrentPhase() {
+            return PHASES[chunk.get(base + PHASE)];
+        }
+
+        @Override
+        public void setCurrentPhase(Phase phase) {
+            chunk.put(base + PHASE, (byte) phase.ordinal());
+        }
+
+        @Override
+        public int getCompleteWorkingCycles() {
+            return chunk.getInt(base + CYCLES);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return hasFlag(FINISHED);
+        }
+
+        @Override
+        public void setFinished(boolean finishedFlag) {
+            setFlag(FINISHED, finishedFlag);
+        }
+
+        @Override
+        public Instant getStartTime() {
+            return Instant.ofEpochMilli(chunk.getLong(base + START_MILLIS));
+        }
+
+        @Override
+        public boolean isWarnedAboutLimit() {
+            return hasFlag(WARNED);
+        }
+
+        @Override
+        public void setWantedAboutLimit(boolean wantedAboutLimit) {
+            setFlag(WARNED, wantedAboutLimit);
+        }
+
+        @Override
+        public SessionState getState() {
+            byte code = chunk.get(base + STATE);
+            return code == 0 ? null : STATES[code - 1];
+        }
+
+        @Override
+        public void setState(SessionState state) {
+            chunk.put(base + STATE, stateCode(state));
+        }
+
+        private void ensureNotFinished() {
+            if (isFinished()) {
+                log.error("Сессия завершена до начала работы таймера");
+                throw new IllegalStateException("Сессия уже завершена");
+            }
+        }
+
+        private boolean hasFlag(int flag) {
+            return (chunk.get(base + FLAGS) & flag) != 0;
+        }
+
+        private void setFlag(int flag, boolean value) {
+            byte flags = chunk.get(base + FLAGS);
+            chunk.put(base + FLAGS, (byte) (value ? flags | flag : flags & ~flag));
+        }
+    }
+}
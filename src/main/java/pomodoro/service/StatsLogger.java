@@ -11,16 +11,28 @@ public class StatsLogger {
 
     private final StatsWriter writer;
     private final Path baseDir;
+    private final StatsService statsService;
 
 
     public StatsLogger(StatsWriter writer, Path baseDir) {
+        this(writer, baseDir, null);
+    }
+
+    /**
+     * @param statsService сервис статистики, кэш которого сбрасывается после записи фазы, или null
+     */
+    public StatsLogger(StatsWriter writer, Path baseDir, StatsService statsService) {
         this.writer = writer;
         this.baseDir = baseDir;
+        this.statsService = statsService;
     }
 
     public void logPhase(Long chatId, Phase phase, Duration duration, Instant finishedAt) {
         Path file = baseDir.resolve("stats_" + chatId + ".csv");
         String line = phase.name() + "," + duration.toMinutes() + "," + finishedAt.getEpochSecond();
         writer.append(file, line);
+        if (statsService != null) {
+            statsService.invalidate(chatId);
+        }
     }
 }
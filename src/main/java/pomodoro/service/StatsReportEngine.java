@@ -0,0 +1,358 @@
+package pomodoro.service;
+
+import bot.utils.CsvResourceReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pomodoro.core.Phase;
+import pomodoro.core.StatsReport;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Строит сводный отчёт по всем файлам статистики {@code stats_*.csv}.
+ * <p>
+ * Файлы разбираются параллельно в {@link ForkJoinPool}: каждый лист задачи собирает
+ * собственный {@link StatsReport}, а частичные отчёты объединяются при join без блокировок.
+ * Для инкрементальных запусков в файл состояния сохраняются смещения уже обработанных
+ * байтов каждого файла вместе с накопленным отчётом.
+ * <p>
+ * Новый хвост файла читается потоком через CSV-ридер, а не целиком в память, и только до последней
+ * полной строки. Некорректные строки пропускаются по одной, не отбрасывая остаток файла.
+ */
+public class StatsReportEngine {
+
+    private static final Logger log = LogManager.getLogger(StatsReportEngine.class);
+    private static final String STATS_GLOB = "stats_*.csv";
+    private static final String STATS_PREFIX = "stats_";
+    private static final String STATS_SUFFIX = ".csv";
+    private static final int FILES_PER_TASK = 4;
+    private static final int TAIL_CHUNK_BYTES = 8192;
+
+    private final Path statsDir;
+    private final Path stateFile;
+    private final CsvResourceReader reader;
+    private final ForkJoinPool pool;
+    private final Clock clock;
+
+    public StatsReportEngine(Path statsDir, Path stateFile, CsvResourceReader reader, ForkJoinPool pool, Clock clock) {
+        this.statsDir = statsDir;
+        this.stateFile = stateFile;
+        this.reader = reader;
+        this.pool = pool;
+        this.clock = clock;
+    }
+
+    /**
+     * Строит отчёт.
+     *
+     * @param incremental если true, продолжает с сохранённых смещений и дополняет сохранённый отчёт
+     * @return итоговый отчёт
+     */
+    public StatsReport run(boolean incremental) {
+        ReportState state = incremental ? loadState() : new ReportState(new StatsReport(), new HashMap<>());
+        List<Path> files = listStatsFiles();
+
+        long started = System.nanoTime();
+        Partial partial = pool.invoke(new ParseTask(files, 0, files.size(), state.offsets()));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        state.report().merge(partial.report);
+        state.offsets().putAll(partial.offsets);
+        saveState(state);
+
+        log.info("Отчёт по статистике построен: файлов={}, новых байт={}, время={} мс, incremental={}",
+                files.size(), partial.bytesRead, elapsedMillis, incremental);
+        return state.report();
+    }
+
+    /**
+     * @return текущий день по часам движка (epoch day)
+     */
+    public long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private List<Path> listStatsFiles() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(statsDir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(statsDir, STATS_GLOB)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения каталога статистики " + statsDir, e);
+        }
+        return files;
+    }
+
+    /**
+     * Разбирает файл начиная с сохранённого смещения и до последнего полного перевода строки.
+     */
+    private Partial parseFile(Path file, long offset) {
+        Partial partial = new Partial();
+        String fileName = file.getFileName().toString();
+        long chatId;
+        try {
+            chatId = Long.parseLong(fileName.substring(STATS_PREFIX.length(), fileName.length() - STATS_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            log.warn("Пропуск файла статистики с некорректным именем {}", file);
+            return partial;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                log.warn("Файл {} стал короче сохранённого смещения ({} < {}), читаем заново", file, size, offset);
+                offset = 0;
+            }
+            if (size == offset) {
+                partial.offsets.put(fileName, offset);
+                return partial;
+            }
+
+            long complete = lastLineEnd(channel, offset, size);
+            if (complete > offset) {
+                StatsReport fileReport = new StatsReport();
+                InputStream rows = new LimitedInputStream(Channels.newInputStream(channel.position(offset)),
+                        complete - offset);
+                parseRows(chatId, rows, fileReport, file);
+                partial.report.merge(fileReport);
+            }
+            partial.offsets.put(fileName, complete);
+            partial.bytesRead += complete - offset;
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось обработать файл статистики {}", file, e);
+        }
+        return partial;
+    }
+
+    /**
+     * Разбирает строки потоком. Некорректная строка пропускается, остальные строки файла учитываются.
+     */
+    private void parseRows(long chatId, InputStream inputStream, StatsReport report, Path file) {
+        reader.forEach(inputStream, ',', row -> {
+            try {
+                Phase phase = Phase.valueOf(row[0]);
+                long minutes = Long.parseLong(row[1]);
+                long finishedAt = Long.parseLong(row[2]);
+                long epochDay = LocalDate.ofInstant(Instant.ofEpochSecond(finishedAt), clock.getZone()).toEpochDay();
+                report.record(chatId, phase, minutes, epochDay);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeException e) {
+                log.warn("Пропуск некорректной строки статистики в {}: {}", file, String.join(",", row));
+            }
+        }, e -> log.warn("Пропуск некорректной строки статистики в {}: {}", file, e.getMessage()));
+    }
+
+    /**
+     * Ищет конец последней полной строки, читая файл с конца небольшими блоками.
+     *
+     * @return позиция сразу после последнего перевода строки в [from, to) или from, если его нет
+     */
+    private static long lastLineEnd(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(TAIL_CHUNK_BYTES);
+        long end = to;
+        while (end > from) {
+            long start = Math.max(from, end - TAIL_CHUNK_BYTES);
+            chunk.clear().limit((int) (end - start));
+            while (chunk.hasRemaining() && channel.read(chunk, start + chunk.position()) > 0) {
+                // дочитываем блок
+            }
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    private ReportState loadState() {
+        StatsReport report = new StatsReport();
+        Map<String, Long> offsets = new HashMap<>();
+        if (!Files.exists(stateFile)) {
+            return new ReportState(report, offsets);
+        }
+
+        try (InputStream inputStream = Files.newInputStream(stateFile)) {
+            reader.forEach(inputStream, ',', row -> {
+                switch (row[0]) {
+                    case "offset" -> offsets.put(row[1], Long.parseLong(row[2]));
+                    case "phase" -> report.addPhaseTotals(Phase.valueOf(row[1]),
+                            Long.parseLong(row[2]), Long.parseLong(row[3]));
+                    case "hist" -> report.addHistogramBucket(Phase.valueOf(row[1]),
+                            Long.parseLong(row[2]), Long.parseLong(row[3]));
+                    case "active" -> report.markActive(Long.parseLong(row[1]), Long.parseLong(row[2]));
+                    default -> log.warn("Неизвестная запись в файле состояния отчёта: {}", row[0]);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось прочитать состояние отчёта {}, строим отчёт заново", stateFile, e);
+            return new ReportState(new StatsReport(), new HashMap<>());
+        }
+        return new ReportState(report, offsets);
+    }
+
+    private void saveState(ReportState state) {
+        StringBuilder builder = new StringBuilder();
+        state.offsets().forEach((file, offset) ->
+                builder.append("offset,").append(file).append(',').append(offset).append('\n'));
+
+        StatsReport report = state.report();
+        for (Phase phase : Phase.values()) {
+            builder.append("phase,").append(phase.name()).append(',')
+                    .append(report.getPhaseCount(phase)).append(',')
+                    .append(report.getPhaseMinutes(phase)).append('\n');
+            report.getCycleHistogram(phase).forEach((minutes, count) ->
+                    builder.append("hist,").append(phase.name()).append(',')
+                            .append(minutes).append(',').append(count).append('\n'));
+        }
+        report.getLastActiveDays().forEach((chatId, day) ->
+                builder.append("active,").append(chatId).append(',').append(day).append('\n'));
+
+        try {
+            Files.createDirectories(stateFile.toAbsolutePath().getParent());
+            Path tmp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            Files.writeString(tmp, builder, StandardCharsets.UTF_8);
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи состояния отчёта в " + stateFile, e);
+        }
+    }
+
+    /**
+     * Отдаёт не больше {@code remaining} байт исходного потока: неполная последняя строка,
+     * которую сейчас дописывают, не читается.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+
+    private record ReportState(StatsReport report, Map<String, Long> offsets) {
+    }
+
+    /**
+     * Частичный результат одной задачи: отчёт и новые смещения обработанных файлов.
+     */
+    private static final class Partial {
+        private final StatsReport report = new StatsReport();
+        private final Map<String, Long> offsets = new HashMap<>();
+        private long bytesRead;
+
+        private Partial merge(Partial other) {
+            report.merge(other.report);
+            offsets.putAll(other.offsets);
+            bytesRead += other.bytesRead;
+            return this;
+        }
+    }
+
+    /**
+     * Делит список файлов пополам, пока в задаче не останется не больше {@link #FILES_PER_TASK} файлов.
+     */
+    private final class ParseTask extends RecursiveTask<Partial> {
+
+        /**
+         * Задачи ForkJoin сериализуемы только формально: задача не покидает пул, поэтому поля transient.
+         */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Path> files;
+        private final int from;
+        private final int to;
+        private final transient Map<String, Long> offsets;
+
+        private ParseTask(List<Path> files, int from, int to, Map<String, Long> offsets) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.offsets = offsets;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= FILES_PER_TASK) {
+                Partial partial = new Partial();
+                for (int i = from; i < to; i++) {
+                    Path file = files.get(i);
+                    long offset = offsets.getOrDefault(file.getFileName().toString(), 0L);
+                    partial.merge(parseFile(file, offset));
+                }
+                return partial;
+            }
+
+            int middle = (from + to) >>> 1;
+            ParseTask left = new ParseTask(files, from, middle, offsets);
+            ParseTask right = new ParseTask(files, middle, to, offsets);
+            left.fork();
+            Partial rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+}
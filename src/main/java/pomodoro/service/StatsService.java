@@ -0,0 +1,109 @@
+package pomodoro.service;
+
+import bot.utils.StatsReader;
+import pomodoro.core.PomodoroStats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Асинхронные запросы статистики Pomodoro с кэшем результатов по чатам.
+ * <p>
+ * Чтение и разбор CSV выполняются в отдельном пуле ввода-вывода, поэтому тяжёлый запрос одного
+ * пользователя не задерживает обработку обновлений остальных. В кэше лежит future запроса: повторные
+ * запросы того же чата, пришедшие до завершения чтения, ждут тот же результат, а не читают файл заново.
+ * Запись новой фазы через {@link StatsLogger} сбрасывает кэш чата; кроме того, запись устаревает
+ * через {@link #DEFAULT_MAX_AGE}, чтобы окно «последние 30 дней» не застывало. Неудачный запрос
+ * из кэша удаляется сразу.
+ * <p>
+ * Возвращаемые {@link PomodoroStats} общие для всех запросов чата и не должны изменяться вызывающим кодом.
+ */
+public class StatsService {
+
+    /**
+     * Сколько живёт запись кэша без новых фаз в чате.
+     */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+
+    private final Map<Long, Entry> cache = new ConcurrentHashMap<>();
+    private final StatsReader reader;
+    private final Executor ioExecutor;
+    private final Clock clock;
+    private final Duration maxAge;
+
+    public StatsService(StatsReader reader, Executor ioExecutor) {
+        this(reader, ioExecutor, Clock.systemUTC(), DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * @param reader     источник статистики
+     * @param ioExecutor пул, в котором читаются файлы статистики
+     * @param clock      часы для устаревания записей кэша
+     * @param maxAge     время жизни записи кэша
+     */
+    public StatsService(StatsReader reader, Executor ioExecutor, Clock clock, Duration maxAge) {
+        this.reader = reader;
+        this.ioExecutor = ioExecutor;
+        this.clock = clock;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Возвращает статистику чата за последние 30 дней из кэша или ставит чтение в пул ввода-вывода.
+     */
+    public CompletableFuture<PomodoroStats> monthlyStats(Long chatId) {
+        Instant now = clock.instant();
+        Entry fresh = new Entry(new CompletableFuture<>(), now);
+        Entry entry = cache.compute(chatId, (id, existing) ->
+                existing != null && !existing.isExpired(now, maxAge) ? existing : fresh);
+        if (entry == fresh) {
+            load(chatId, fresh);
+        }
+        return entry.stats;
+    }
+
+    /**
+     * Сбрасывает кэш чата. Вызывается после записи новой фазы в статистику.
+     */
+    public void invalidate(Long chatId) {
+        cache.remove(chatId);
+    }
+
+    /**
+     * @return число чатов в кэше
+     */
+    public int cachedChats() {
+        return cache.size();
+    }
+
+    /**
+     * Читает статистику вне {@code compute}: прямой пул выполнит чтение и удаление неудачной записи
+     * сразу, а изменять карту изнутри её же {@code compute} нельзя.
+     */
+    private void load(Long chatId, Entry entry) {
+        entry.stats.whenComplete((stats, error) -> {
+            if (error != null) {
+                cache.remove(chatId, entry);
+            }
+        });
+        ioExecutor.execute(() -> {
+            try {
+                entry.stats.complete(reader.readMonthlyStats(chatId));
+            } catch (RuntimeException e) {
+                entry.stats.completeExceptionally(e);
+            }
+        });
+    }
+
+    private record Entry(CompletableFuture<PomodoroStats> stats, Instant loadedAt) {
+
+        private boolean isExpired(Instant now, Duration maxAge) {
+            return !now.isBefore(loadedAt.plus(maxAge));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package pomodoro.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Планировщик дискретных событий с виртуальными часами.
+ * <p>
+ * Задачи выполняются в порядке срока в вызывающем потоке, часы перед каждой задачей переводятся
+ * на её срок, поэтому сутки работы бота прокручиваются за секунды, а порядок событий при одинаковых
+ * входных данных всегда один и тот же. Задачи с одинаковым сроком выполняются в порядке планирования.
+ * <p>
+ * Для оценки задержки планировщика измеряется реальное время выполнения каждой задачи и моделируется
+ * пул из {@code workers} потоков: задача начинается, когда наступил её срок и освободился поток.
+ * Разница между началом и сроком — задержка, которую имела бы задача в настоящем пуле при такой
+ * нагрузке. На порядок и время выполнения задач в симуляции модель не влияет.
+ */
+public class VirtualScheduler implements PhaseScheduler {
+
+    private static final int LAG_BUCKETS = 64;
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(
+            Comparator.comparingLong((Task task) -> task.dueNanos).thenComparingLong(task -> task.sequence));
+    private final MutableClock clock;
+    private final long originNanos;
+    private final long[] workerFreeAt;
+    private final long[] lagCounts = new long[LAG_BUCKETS];
+    private long nowNanos;
+    private long sequence;
+    private long executed;
+    private long totalLagNanos;
+    private long maxLagNanos;
+
+    /**
+     * @param start   начальный момент виртуального времени
+     * @param workers число потоков моделируемого пула
+     * @throws IllegalArgumentException если число потоков не положительное
+     */
+    public VirtualScheduler(Instant start, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Число потоков пула должно быть положительным: " + workers);
+        }
+        this.clock = new MutableClock(start);
+        this.originNanos = start.getEpochSecond() * 1_000_000_000L + start.getNano();
+        this.workerFreeAt = new long[workers];
+    }
+
+    @Override
+    public Future<?> schedule(Runnable task, Duration delay) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        queue.add(new Task(nowNanos + Math.max(0, delay.toNanos()), sequence++, future));
+        return future;
+    }
+
+    /**
+     * Выполняет все задачи со сроком не позже {@code until} и переводит часы на {@code until}.
+     * Задачи, запланированные во время выполнения, тоже выполняются, если их срок наступил.
+     *
+     * @return число выполненных задач
+     */
+    public long runUntil(Instant until) {
+        long limit = toNanos(until);
+        long before = executed;
+        while (!queue.isEmpty() && queue.peek().dueNanos <= limit) {
+            Task task = queue.poll();
+            if (task.future.isCancelled()) {
+                continue;
+            }
+            advance(task.dueNanos);
+            long started = System.nanoTime();
+            task.future.run();
+            recordLag(task.dueNanos, System.nanoTime() - started);
+            executed++;
+        }
+        advance(Math.max(nowNanos, limit));
+        return executed - before;
+    }
+
+    public Clock clock() {
+        return clock;
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * @return число задач в очереди, включая отменённые, но ещё не извлечённые
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    public long executed() {
+        return executed;
+    }
+
+    public Duration meanLag() {
+        return executed == 0 ? Duration.ZERO : Duration.ofNanos(totalLagNanos / executed);
+    }
+
+    public Duration maxLag() {
+        return Duration.ofNanos(maxLagNanos);
+    }
+
+    /**
+     * Оценивает перцентиль задержки сверху с точностью до двух раз.
+     *
+     * @param percentile перцентиль от 0 до 100
+     */
+    public Duration lagPercentile(double percentile) {
+        if (executed == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(executed * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < LAG_BUCKETS; i++) {
+            seen += lagCounts[i];
+            if (seen >= rank) {
+                return i == 0 ? Duration.ZERO : Duration.ofNanos(1L << Math.min(62, i));
+            }
+        }
+        return maxLag();
+    }
+
+    private void recordLag(long dueNanos, long serviceNanos) {
+        int worker = 0;
+        for (int i = 1; i < workerFreeAt.length; i++) {
+            if (workerFreeAt[i] < workerFreeAt[worker]) {
+                worker = i;
+            }
+        }
+        long start = Math.max(dueNanos, workerFreeAt[worker]);
+        workerFreeAt[worker] = start + serviceNanos;
+        long lag = start - dueNanos;
+        totalLagNanos += lag;
+        maxLagNanos = Math.max(maxLagNanos, lag);
+        lagCounts[Math.min(LAG_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(lag))]++;
+    }
+
+    private void advance(long nanos) {
+        nowNanos = nanos;
+        long absolute = originNanos + nanos;
+        clock.instant = Instant.ofEpochSecond(Math.floorDiv(absolute, 1_000_000_000L),
+                Math.floorMod(absolute, 1_000_000_000L));
+    }
+
+    private long toNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano() - originNanos;
+    }
+
+    private record Task(long dueNanos, long sequence, FutureTask<Void> future) {
+    }
+
+    /**
+     * Виртуальные часы, которые переводит только планировщик.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
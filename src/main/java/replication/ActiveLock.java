@@ -0,0 +1,114 @@
+package replication;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Блокировка активного узла: Telegram опрашивает только узел, который держит эксклюзивную
+ * блокировку файла ОС.
+ * <p>
+ * Молчание активного узла ещё не значит, что он остановился: после долгой паузы GC он продолжит
+ * опрашивать Telegram, и два узла будут обрабатывать одни и те же обновления. Поэтому резерв,
+ * дождавшись молчания, ещё и берёт блокировку, а её отпускает только завершившийся процесс
+ * активного узла. Активный и резервный узлы работают на одной машине (репликация идёт через
+ * loopback), так что файл у них общий. Перезапущенный активный узел тоже ждёт блокировку
+ * и не начнёт опрос, пока работает резерв, принявший работу.
+ */
+public final class ActiveLock implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(ActiveLock.class);
+
+    private static final Duration RETRY_DELAY = Duration.ofMillis(500);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private ActiveLock(Path file, FileChannel channel, FileLock lock) {
+        this.file = file;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Файл блокировки пары узлов: {@code -Dreplication.lockFile} или файл во временном каталоге,
+     * названный по порту резерва, который знают оба узла.
+     *
+     * @param standbyPort порт резервного узла
+     */
+    public static Path pathFor(int standbyPort) {
+        String configured = System.getProperty("replication.lockFile");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"), "sandbox-multi-bot-replication-" + standbyPort + ".lock");
+    }
+
+    /**
+     * Пытается взять блокировку, не дожидаясь.
+     *
+     * @return блокировка или null, если её держит другой узел
+     * @throws IOException если файл блокировки не удалось открыть
+     */
+    public static ActiveLock tryAcquire(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return new ActiveLock(file, channel, lock);
+            }
+        } catch (OverlappingFileLockException e) {
+            // блокировку держит этот же процесс
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return null;
+    }
+
+    /**
+     * Ждёт, пока блокировку не отпустит другой узел, и берёт её.
+     *
+     * @throws IOException          если файл блокировки не удалось открыть
+     * @throws InterruptedException если ожидание прервано
+     */
+    public static ActiveLock acquire(Path file) throws IOException, InterruptedException {
+        boolean reported = false;
+        while (true) {
+            ActiveLock lock = tryAcquire(file);
+            if (lock != null) {
+                log.info("Блокировка активного узла {} взята", file);
+                return lock;
+            }
+            if (!reported) {
+                log.warn("Блокировку активного узла {} держит другой процесс, ждём", file);
+                reported = true;
+            }
+            Thread.sleep(RETRY_DELAY.toMillis());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Не удалось отпустить блокировку активного узла {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package replication;
+
+import pomodoro.bot.PomodoroSnapshot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Двоичный формат канала репликации.
+ * <p>
+ * Соединение начинается с заголовка {@link #MAGIC}, затем идут записи {@code тип, время записи в мкс, данные}:
+ * <ul>
+ *     <li>{@link #PUT} — снимок сессии ({@link PomodoroSnapshot#writeTo});</li>
+ *     <li>{@link #REMOVE} — chatId закрытой сессии;</li>
+ *     <li>{@link #RESET} — резерв забывает все сессии, следом придёт полная копия;</li>
+ *     <li>{@link #HEARTBEAT} — активный узел жив, данных нет.</li>
+ * </ul>
+ * Время записи нужно резерву, чтобы считать задержку репликации и дедлайны фаз.
+ */
+final class ReplicationProtocol {
+
+    static final int MAGIC = 0x504D5231;
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+    static final byte RESET = 3;
+    static final byte HEARTBEAT = 4;
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+    }
+
+    static void readHeader(DataInput in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Неизвестный заголовок канала репликации: " + Integer.toHexString(magic));
+        }
+    }
+
+    static void writePut(DataOutput out, PomodoroSnapshot snapshot, long capturedAtMicros) throws IOException {
+        out.writeByte(PUT);
+        out.writeLong(capturedAtMicros);
+        snapshot.writeTo(out);
+    }
+
+    static void writeRemove(DataOutput out, long chatId, long capturedAtMicros) throws IOException {
+        out.writeByte(REMOVE);
+        out.writeLong(capturedAtMicros);
+        out.writeLong(chatId);
+    }
+
+    static void writeControl(DataOutput out, byte type, long capturedAtMicros) throws IOException {
+        out.writeByte(type);
+        out.writeLong(capturedAtMicros);
+    }
+
+    /**
+     * @return текущее время часов в микросекундах от эпохи
+     */
+    static long micros(Clock clock) {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+}
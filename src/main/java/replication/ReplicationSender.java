@@ -0,0 +1,237 @@
+package replication;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pomodoro.bot.PomodoroSnapshot;
+import pomodoro.bot.SessionReplicator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Передаёт изменения Pomodoro-сессий активного узла резервному по TCP.
+ * <p>
+ * Акторы чатов только кладут изменения в ограниченную очередь, отправкой занимается отдельный
+ * поток: он пишет записи пачками в буферизованный поток и сбрасывает буфер, когда очередь опустела.
+ * Раз в {@link #HEARTBEAT_INTERVAL_MILLIS} мс простоя уходит пульс, по которому резерв понимает,
+ * что активный узел жив. После каждого подключения, а также если очередь переполнилась, резерв
+ * получает {@link ReplicationProtocol#RESET} и полную копию сессий через {@code resync}.
+ */
+public class ReplicationSender implements SessionReplicator, AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(ReplicationSender.class);
+
+    static final long HEARTBEAT_INTERVAL_MILLIS = 1_000;
+    private static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+    private static final int MAX_BATCH = 1_024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+    private static final long RECONNECT_DELAY_MILLIS = 1_000;
+
+    private final InetSocketAddress standby;
+    private final Runnable resync;
+    private final Clock clock;
+    private final BlockingQueue<Change> queue;
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean connected;
+    private volatile boolean running = true;
+    private volatile Socket socket;
+
+    /**
+     * @param standby адрес резервного узла
+     * @param resync  ставит в очередь текущее состояние всех сессий
+     */
+    public ReplicationSender(InetSocketAddress standby, Runnable resync) {
+        this(standby, resync, Clock.systemUTC(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    ReplicationSender(InetSocketAddress standby, Runnable resync, Clock clock, int queueCapacity) {
+        this.standby = standby;
+        this.resync = resync;
+        this.clock = clock;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.thread = new Thread(this::run, "replication-sender");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public void sessionChanged(PomodoroSnapshot snapshot) {
+        offer(new Change(snapshot.chatId(), snapshot, ReplicationProtocol.micros(clock)));
+    }
+
+    @Override
+    public void sessionRemoved(long chatId) {
+        offer(new Change(chatId, null, ReplicationProtocol.micros(clock)));
+    }
+
+    /**
+     * Пока резерв не подключён, изменения не копятся: при подключении он всё равно получит полную копию.
+     */
+    private void offer(Change change) {
+        if (!connected) {
+            return;
+        }
+        if (!queue.offer(change)) {
+            dropped.incrementAndGet();
+            if (overflowed.compareAndSet(false, true)) {
+                log.warn("Очередь репликации переполнена, резерв получит полную копию сессий");
+            }
+        }
+    }
+
+    /**
+     * @return подключён ли резервный узел
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * @return сколько раз резерв был сброшен и получил запрос полной копии; после первого раза
+     * изменения доходят до резерва
+     */
+    public long resyncCount() {
+        return resyncs.get();
+    }
+
+    /**
+     * @return число отправленных записей об изменениях
+     */
+    public long sentCount() {
+        return sent.get();
+    }
+
+    /**
+     * @return число изменений, отброшенных из-за переполнения очереди
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    private void run() {
+        boolean reported = false;
+        while (running) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(standby, CONNECT_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream(), BUFFER_SIZE));
+                ReplicationProtocol.writeHeader(out);
+                reported = false;
+                log.info("Подключён резервный узел {}", standby);
+                resync(out);
+                stream(out);
+            } catch (IOException e) {
+                if (running && !reported) {
+                    log.warn("Резервный узел {} недоступен: {}", standby, e.getMessage());
+                    reported = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                connected = false;
+            }
+            if (running && !sleep(RECONNECT_DELAY_MILLIS)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает копию резерва и запрашивает полную копию сессий.
+     * <p>
+     * Очередь очищается и {@link ReplicationProtocol#RESET} уходит до того, как изменения снова
+     * принимаются: всё, что попало в очередь после этого, новее сброса и отправляется после него.
+     * Полная копия идёт через ту же очередь, что и изменения, поэтому изменение, пришедшее
+     * во время {@code resync}, не обгонит более старую запись той же сессии из копии.
+     */
+    private void resync(DataOutputStream out) throws IOException {
+        connected = false;
+        overflowed.set(false);
+        queue.clear();
+        ReplicationProtocol.writeControl(out, ReplicationProtocol.RESET, ReplicationProtocol.micros(clock));
+        out.flush();
+        connected = true;
+        resync.run();
+        resyncs.incrementAndGet();
+    }
+
+    private void stream(DataOutputStream out) throws IOException, InterruptedException {
+        while (running) {
+            if (overflowed.get()) {
+                resync(out);
+            }
+            Change change = queue.poll(HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            if (change == null) {
+                ReplicationProtocol.writeControl(out, ReplicationProtocol.HEARTBEAT, ReplicationProtocol.micros(clock));
+            } else {
+                int batch = 0;
+                do {
+                    write(out, change);
+                    batch++;
+                } while (batch < MAX_BATCH && (change = queue.poll()) != null);
+                sent.addAndGet(batch);
+            }
+            out.flush();
+        }
+    }
+
+    private static void write(DataOutputStream out, Change change) throws IOException {
+        if (change.snapshot() == null) {
+            ReplicationProtocol.writeRemove(out, change.chatId(), change.capturedAtMicros());
+        } else {
+            ReplicationProtocol.writePut(out, change.snapshot(), change.capturedAtMicros());
+        }
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Ошибка закрытия канала репликации", e);
+            }
+        }
+    }
+
+    /**
+     * Изменение сессии; {@code snapshot == null} означает, что сессии больше нет.
+     */
+    private record Change(long chatId, PomodoroSnapshot snapshot, long capturedAtMicros) {
+    }
+}
@@ -0,0 +1,291 @@
+package replication;
+
+import movie_quiz.service.LatencyHistogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pomodoro.bot.PomodoroSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Резервный узел: принимает поток изменений от {@link ReplicationSender} и держит копию
+ * Pomodoro-сессий в памяти.
+ * <p>
+ * Для каждой сессии хранится время её снимка, поэтому при переходе на резерв остаток запущенной
+ * фазы пересчитывается от исходного дедлайна, а не начинается заново. Активный узел считается
+ * потерянным, если от него дольше заданного времени нет ни изменений, ни пульса. Работу резерв
+ * принимает, только когда ещё и взял блокировку активного узла ({@link ActiveLock}): молчание само по себе
+ * не доказывает, что активный узел остановился.
+ * Задержка репликации — разница между временем снимка на активном узле и временем его применения
+ * здесь, поэтому она имеет смысл, только когда оба узла работают на одной машине.
+ */
+public class StandbyReplica implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(StandbyReplica.class);
+
+    /**
+     * Молчание по умолчанию — 15 периодов пульса, чтобы пауза GC или медленный сброс буфера
+     * на активном узле не выглядели как его падение.
+     */
+    public static final Duration DEFAULT_SILENCE = Duration.ofMillis(15 * ReplicationSender.HEARTBEAT_INTERVAL_MILLIS);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+
+    private final ServerSocket server;
+    private final Clock clock;
+    private final Map<Long, Replica> sessions = new ConcurrentHashMap<>();
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Thread thread;
+    private volatile long lastRecordNanos;
+    private volatile boolean everConnected;
+    private volatile Socket connection;
+
+    /**
+     * @param port порт на loopback-интерфейсе, 0 — любой свободный
+     * @throws IOException если порт занят
+     */
+    public StandbyReplica(int port) throws IOException {
+        this(port, Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор для удобного тестирования
+     */
+    StandbyReplica(int port, Clock clock) throws IOException {
+        this.server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        this.clock = clock;
+        this.thread = new Thread(this::run, "replication-standby");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        log.info("Резервный узел ждёт активный на {}", address());
+    }
+
+    /**
+     * @return адрес, к которому подключается активный узел
+     */
+    public InetSocketAddress address() {
+        return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+    }
+
+    /**
+     * @return число сессий в копии
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return число применённых записей об изменениях
+     */
+    public long recordCount() {
+        return records.get();
+    }
+
+    /**
+     * @return число принятых байт
+     */
+    public long byteCount() {
+        return bytes.get();
+    }
+
+    /**
+     * @return гистограмма задержки от снимка на активном узле до применения на резерве
+     */
+    public LatencyHistogram lag() {
+        return lag;
+    }
+
+    /**
+     * @return строка с объёмом копии, числом записей, байт и задержкой репликации для лога
+     */
+    public String summary() {
+        return "сессий=%d, записей=%d, байт=%d, задержка: %s".formatted(size(), recordCount(), byteCount(), lag.summary());
+    }
+
+    /**
+     * @param silence допустимое время без записей и пульса
+     * @return подключался ли активный узел и молчит ли он дольше {@code silence}
+     */
+    public boolean isActiveLost(Duration silence) {
+        return everConnected && System.nanoTime() - lastRecordNanos > silence.toNanos();
+    }
+
+    /**
+     * Ждёт, пока активный узел не подключится, а затем не замолчит дольше {@code silence}.
+     */
+    public void awaitActiveLost(Duration silence) throws InterruptedException {
+        while (!isActiveLost(silence)) {
+            TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Ждёт, пока активный узел не замолчит дольше {@code silence} и не отпустит блокировку активного узла.
+     * Пока блокировку держит живой процесс активного узла, например замерший в паузе GC, резерв работу
+     * не принимает.
+     *
+     * @param silence  допустимое время без записей и пульса
+     * @param lockFile файл блокировки активного узла
+     * @return взятая блокировка; её нужно держать, пока резерв обрабатывает обновления
+     */
+    public ActiveLock awaitActiveStopped(Duration silence, Path lockFile) throws IOException, InterruptedException {
+        boolean reported = false;
+        while (true) {
+            awaitActiveLost(silence);
+            ActiveLock lock = ActiveLock.tryAcquire(lockFile);
+            if (lock != null) {
+                return lock;
+            }
+            if (!reported) {
+                log.warn("Активный узел молчит дольше {} мс, но держит блокировку {}, ждём", silence.toMillis(), lockFile);
+                reported = true;
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Прекращает приём изменений и возвращает копию сессий для запуска на этом узле.
+     * Остаток запущенной фазы пересчитывается на текущий момент и может оказаться отрицательным,
+     * если дедлайн прошёл, пока узлы переключались.
+     */
+    public List<PomodoroSnapshot> takeOver() {
+        close();
+        long now = ReplicationProtocol.micros(clock);
+        List<PomodoroSnapshot> snapshots = new ArrayList<>(sessions.size());
+        for (Replica replica : sessions.values()) {
+            PomodoroSnapshot snapshot = replica.snapshot();
+            if (snapshot.remaining() != null) {
+                Duration elapsed = Duration.of(now - replica.capturedAtMicros(), ChronoUnit.MICROS);
+                snapshot = snapshot.withRemaining(snapshot.remaining().minus(elapsed));
+            }
+            snapshots.add(snapshot);
+        }
+        log.info("Резервный узел принимает работу, сессий: {}", snapshots.size());
+        return snapshots;
+    }
+
+    private void run() {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                connection = socket;
+                CountingInputStream counting = new CountingInputStream(socket.getInputStream());
+                DataInputStream in = new DataInputStream(new BufferedInputStream(counting, BUFFER_SIZE));
+                ReplicationProtocol.readHeader(in);
+                lastRecordNanos = System.nanoTime();
+                everConnected = true;
+                log.info("Подключён активный узел {}", socket.getRemoteSocketAddress());
+                while (true) {
+                    apply(in);
+                    bytes.set(counting.count);
+                }
+            } catch (EOFException e) {
+                log.warn("Активный узел закрыл канал репликации");
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    log.warn("Канал репликации оборван: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        long capturedAt = in.readLong();
+        lastRecordNanos = System.nanoTime();
+        switch (type) {
+            case ReplicationProtocol.PUT -> {
+                PomodoroSnapshot snapshot = PomodoroSnapshot.readFrom(in);
+                sessions.put(snapshot.chatId(), new Replica(snapshot, capturedAt));
+                applied(capturedAt);
+            }
+            case ReplicationProtocol.REMOVE -> {
+                sessions.remove(in.readLong());
+                applied(capturedAt);
+            }
+            case ReplicationProtocol.RESET -> {
+                sessions.clear();
+                log.info("Резерв получает полную копию сессий");
+            }
+            case ReplicationProtocol.HEARTBEAT -> {
+            }
+            default -> throw new IOException("Неизвестный тип записи репликации: " + type);
+        }
+    }
+
+    private void applied(long capturedAtMicros) {
+        records.incrementAndGet();
+        lag.record(TimeUnit.MICROSECONDS.toNanos(ReplicationProtocol.micros(clock) - capturedAtMicros));
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.close();
+            Socket current = connection;
+            if (current != null) {
+                current.close();
+            }
+        } catch (IOException e) {
+            log.debug("Ошибка закрытия резервного узла", e);
+        }
+    }
+
+    /**
+     * Копия сессии и время её снимка на активном узле, мкс от эпохи.
+     */
+    private record Replica(PomodoroSnapshot snapshot, long capturedAtMicros) {
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
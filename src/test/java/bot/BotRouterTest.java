@@ -11,8 +11,13 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.GetMe;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
 import org.telegram.telegrambots.meta.api.objects.chat.Chat;
 import org.telegram.telegrambots.meta.api.objects.message.Message;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
@@ -20,8 +25,12 @@ import org.telegram.telegrambots.meta.generics.TelegramClient;
 import pomodoro.bot.PomodoroBot;
 import pomodoro.bot.PomodoroReply;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -53,19 +62,43 @@ class BotRouterTest {
 
         botRouter.consume(update);
 
-        verify(commandDispatcher).dispatch("/playmoviequiz", update);
+        verify(commandDispatcher).dispatch("/playmoviequiz", null, update);
         verifyNoMoreInteractions(commandDispatcher);
         verifyNoInteractions(telegramClient);
     }
 
+    @Test
+    @DisplayName("команда другому боту в группе пропускается без ответа о занятости")
+    void consume_commandForAnotherBot_shouldBeIgnored() throws Exception {
+        User me = new User(1L, "SandBox", true);
+        me.setUserName("SandBoxCraftBot");
+        when(telegramClient.execute(any(GetMe.class))).thenReturn(me);
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
+
+        botRouter.consume(createUpdateWithText(CHAT_ID, "/start@OtherBot"));
+
+        verifyNoInteractions(commandDispatcher);
+        verify(telegramClient, never()).execute(any(SendMessage.class));
+    }
+
+    @Test
+    @DisplayName("после неудачного запроса имени бота команды с суффиксом не повторяют запрос сразу")
+    void consume_commandsWithSuffix_shouldNotRetryGetMeBeforeBackoff() throws Exception {
+        when(telegramClient.execute(any(GetMe.class))).thenThrow(new TelegramApiException("сеть"));
+
+        assertThat(botRouter.resolveBotUsername()).isFalse();
+        botRouter.consume(createUpdateWithText(CHAT_ID, "/start@SandBoxCraftBot"));
+        botRouter.consume(createUpdateWithText(CHAT_ID, "/top@SandBoxCraftBot"));
+
+        verify(telegramClient, times(1)).execute(any(GetMe.class));
+        verify(commandDispatcher).dispatch(eq("/start@SandBoxCraftBot"), isNull(), any(Update.class));
+    }
+
     @Test
     @DisplayName("обычное сообщение без сессий отправляет системный ответ")
     void consume_plainMessageWithoutSessions_shouldSendSystemMessage() throws Exception {
         Update update = createUpdateWithText(CHAT_ID, "привет");
 
-        when(movieQuizBot.hasSession(CHAT_ID)).thenReturn(false);
-        when(pomodoroBot.hasSession(CHAT_ID)).thenReturn(false);
-
         botRouter.consume(update);
 
         verify(telegramClient).execute(argThat((SendMessage msg) ->
@@ -84,8 +117,7 @@ class BotRouterTest {
                 "img.png"
         );
 
-        when(movieQuizBot.hasSession(CHAT_ID)).thenReturn(true);
-        when(pomodoroBot.hasSession(CHAT_ID)).thenReturn(false);
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
         when(movieQuizBot.handleAnswer(update)).thenReturn(reply);
 
         botRouter.consume(update);
@@ -99,9 +131,7 @@ class BotRouterTest {
     void consume_messageWithPomodoroSession_shouldForwardToPomodoroBot() throws Exception {
         Update update = createUpdateWithText(CHAT_ID, "Старт");
         PomodoroReply reply = new PomodoroReply("text", "img.png", false);
-
-        when(movieQuizBot.hasSession(CHAT_ID)).thenReturn(false);
-        when(pomodoroBot.hasSession(CHAT_ID)).thenReturn(true);
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, pomodoroBot);
         when(pomodoroBot.handleAnswer(update)).thenReturn(reply);
 
         botRouter.consume(update);
@@ -110,6 +140,19 @@ class BotRouterTest {
         verify(telegramClient).execute(any(SendMessage.class));
     }
 
+    @Test
+    @DisplayName("ответ модуля без текста принимается молча, без отправки")
+    void consume_silentReply_shouldSendNothing() {
+        Update update = createUpdateWithText(CHAT_ID, "болтовня в группе");
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
+        when(movieQuizBot.handleAnswer(update)).thenReturn(new BotReply("", List.of(), false, null));
+
+        botRouter.consume(update);
+
+        verify(movieQuizBot).handleAnswer(update);
+        verifyNoInteractions(telegramClient);
+    }
+
     @Test
     @DisplayName("sendPomodoroReply отправляет сообщение")
     void sendPomodoroReply_shouldSendMessage() throws Exception {
@@ -120,11 +163,58 @@ class BotRouterTest {
         verify(telegramClient).execute(any(SendMessage.class));
     }
 
+    @Test
+    @DisplayName("sendQuizReply ставит сообщение в очередь отправки и не ждёт Telegram")
+    void sendQuizReply_shouldQueueMessage() throws Exception {
+        List<Runnable> outbox = new ArrayList<>();
+        BotRouter router = new BotRouter(telegramClient, commandDispatcher, movieQuizBot, pomodoroBot, outbox::add);
+
+        router.sendQuizReply(CHAT_ID, new BotReply("Время вышло", List.of("1", "2", "3", "4"), false, null));
+
+        verifyNoInteractions(telegramClient);
+        assertThat(outbox).hasSize(1);
+        outbox.get(0).run();
+        verify(telegramClient).execute(argThat((SendMessage message) -> message.getText().equals("Время вышло")));
+    }
+
+    @Test
+    @DisplayName("сообщения Pomodoro уходят через очередь отправки в порядке постановки")
+    void sendPomodoroReply_shouldQueueMessagesInOrder() throws Exception {
+        List<Runnable> outbox = new ArrayList<>();
+        BotRouter router = new BotRouter(telegramClient, commandDispatcher, movieQuizBot, pomodoroBot, outbox::add);
+
+        router.sendPomodoroReply(CHAT_ID, new PomodoroReply("Итоги", null, true));
+        router.sendFinalStatsQuestion(CHAT_ID, "Показать статистику?");
+
+        verifyNoInteractions(telegramClient);
+        outbox.forEach(Runnable::run);
+        InOrder inOrder = inOrder(telegramClient);
+        inOrder.verify(telegramClient).execute(argThat((SendMessage message) -> message.getText().equals("Итоги")));
+        inOrder.verify(telegramClient).execute(
+                argThat((SendMessage message) -> message.getText().equals("Показать статистику?")));
+    }
+
+    @Test
+    @DisplayName("правка живого статуса уходит через очередь отправки, а поставленные сообщения уменьшают её бюджет")
+    void editLiveStatus_shouldQueueEditAndCountQueuedSends() throws Exception {
+        List<Runnable> outbox = new ArrayList<>();
+        BotRouter router = new BotRouter(telegramClient, commandDispatcher, movieQuizBot, pomodoroBot, outbox::add);
+        int budget = router.liveStatusBudget();
+
+        router.sendPomodoroReply(CHAT_ID, new PomodoroReply("Итоги", null, true));
+        CompletableFuture<Boolean> edited = router.editLiveStatus(CHAT_ID, 5, "24 мин");
+
+        verifyNoInteractions(telegramClient);
+        assertThat(router.liveStatusBudget()).isEqualTo(budget - 2);
+        outbox.forEach(Runnable::run);
+        assertThat(edited).isCompletedWithValue(true);
+        verify(telegramClient).execute(any(EditMessageText.class));
+    }
+
     @Test
     @DisplayName("Проверка отработки условия невозможности запуска двух ботов одновременно")
     void createAnyBot_shouldCreateOnlyOneBot_whenUserCallOtherBot() throws TelegramApiException {
-        when(movieQuizBot.hasSession(CHAT_ID)).thenReturn(true);
-        when(pomodoroBot.hasSession(CHAT_ID)).thenReturn(false);
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
         botRouter.consume(createUpdateWithText(CHAT_ID, "/startpomodoro"));
 
         ArgumentMatcher<SendMessage> twoBotsWarning = msg ->
@@ -140,8 +230,7 @@ class BotRouterTest {
     @Test
     @DisplayName("Проверка отработки условия невозможности запуска двух ботов одновременно")
     void createAnyBot_shouldCreateOnlyOneBot_whenPomodoroBotSessionIsExist() throws TelegramApiException {
-        when(movieQuizBot.hasSession(CHAT_ID)).thenReturn(false);
-        when(pomodoroBot.hasSession(CHAT_ID)).thenReturn(true);
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, pomodoroBot);
         botRouter.consume(createUpdateWithText(CHAT_ID, "/playmoviequiz"));
 
         ArgumentMatcher<SendMessage> twoBotsWarning = msg ->
@@ -177,8 +266,7 @@ class BotRouterTest {
         Update update = createUpdateWithText(CHAT_ID, "ответ");
         PomodoroReply reply = new PomodoroReply("text", "img.png", false);
 
-        when(pomodoroBot.hasSession(CHAT_ID)).thenReturn(true);
-        when(movieQuizBot.hasSession(CHAT_ID)).thenReturn(false);
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, pomodoroBot);
         when(pomodoroBot.handleAnswer(update)).thenReturn(reply);
 
         doThrow(new TelegramApiException("fall"))
@@ -201,9 +289,7 @@ class BotRouterTest {
     void consume_BotReply_shouldSendFallbackOnTelegramException() throws Exception {
         Update update = createUpdateWithText(CHAT_ID, "ответ");
         BotReply reply = new BotReply("text", List.of("1", "2", "3", "4"), false, ".img");
-
-        when(pomodoroBot.hasSession(CHAT_ID)).thenReturn(false);
-        when(movieQuizBot.hasSession(CHAT_ID)).thenReturn(true);
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
         when(movieQuizBot.handleAnswer(update)).thenReturn(reply);
 
         doThrow(new TelegramApiException("fall"))
@@ -255,6 +341,90 @@ class BotRouterTest {
         ));
     }
 
+    @Test
+    @DisplayName("после завершения сессии модуля сообщения снова получают системный ответ")
+    void consume_afterSessionEnded_shouldSendSystemMessage() throws Exception {
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, pomodoroBot);
+        botRouter.moduleRegistry().onSessionEnded(CHAT_ID, pomodoroBot);
+
+        botRouter.consume(createUpdateWithText(CHAT_ID, "привет"));
+
+        verifyNoInteractions(pomodoroBot);
+        verify(telegramClient).execute(argThat((SendMessage msg) ->
+                msg.getText().contains("Сейчас я понимаю только команды")));
+    }
+
+    @Test
+    @DisplayName("команда при активной сессии не доходит до диспетчера и модуля")
+    void consume_commandWithActiveSession_shouldNotDispatch() throws Exception {
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
+
+        botRouter.consume(createUpdateWithText(CHAT_ID, "/startpomodoro"));
+
+        verifyNoInteractions(commandDispatcher, movieQuizBot);
+        verify(telegramClient, times(1)).execute(any(SendMessage.class));
+    }
+
+    @Test
+    @DisplayName("завершение сессии чужим модулем не сбрасывает активный модуль")
+    void onSessionEnded_otherModule_shouldKeepActiveRoute() {
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
+        botRouter.moduleRegistry().onSessionEnded(CHAT_ID, pomodoroBot);
+
+        assertThat(botRouter.moduleRegistry().activeRoute(CHAT_ID).module()).isSameAs(movieQuizBot);
+    }
+
+    @Test
+    @DisplayName("нажатие инлайн-кнопки уходит в модуль с активной сессией и подтверждается")
+    void consume_callbackWithQuizSession_shouldForwardAndAnswerCallback() throws Exception {
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
+        Update update = createCallbackUpdate(CHAT_ID, "q:abc:1:2");
+        BotReply reply = new BotReply("next", List.of("A", "B", "C", "D"), false, null, "q:abc:2:");
+        when(movieQuizBot.handleCallback(update.getCallbackQuery())).thenReturn(reply);
+
+        botRouter.consume(update);
+
+        InOrder inOrder = inOrder(telegramClient);
+        inOrder.verify(telegramClient).execute(isApiMethod(AnswerCallbackQuery.class, answer ->
+                answer.getCallbackQueryId().equals("cb-1") && answer.getText() == null));
+        inOrder.verify(telegramClient).execute(isApiMethod(SendMessage.class, msg -> msg.getText().equals("next")));
+        verifyNoInteractions(commandDispatcher);
+    }
+
+    @Test
+    @DisplayName("устаревшее нажатие инлайн-кнопки только подтверждается уведомлением")
+    void consume_staleCallback_shouldOnlyAnswerCallback() throws Exception {
+        botRouter.moduleRegistry().onSessionStarted(CHAT_ID, movieQuizBot);
+        Update update = createCallbackUpdate(CHAT_ID, "q:abc:1:2");
+
+        botRouter.consume(update);
+
+        verify(telegramClient).execute(isApiMethod(AnswerCallbackQuery.class, answer -> answer.getText() != null));
+        verify(telegramClient, never()).execute(any(SendMessage.class));
+    }
+
+    /**
+     * Сопоставляет аргумент перегрузки execute(BotApiMethod) по типу, не приводя чужие методы API.
+     */
+    private static <T> T isApiMethod(Class<T> type, Predicate<T> condition) {
+        ArgumentMatcher<Object> matcher = arg -> type.isInstance(arg) && condition.test(type.cast(arg));
+        argThat(matcher);
+        return null;
+    }
+
+    private static Update createCallbackUpdate(Long chatId, String data) {
+        Message message = new Message();
+        message.setChat(new Chat(chatId, ""));
+        message.setMessageId(7);
+        CallbackQuery callbackQuery = new CallbackQuery();
+        callbackQuery.setId("cb-1");
+        callbackQuery.setMessage(message);
+        callbackQuery.setData(data);
+        Update update = new Update();
+        update.setCallbackQuery(callbackQuery);
+        return update;
+    }
+
     private static Update createUpdateWithText(Long chatId, String text) {
         Update update = new Update();
         Message message = new Message();
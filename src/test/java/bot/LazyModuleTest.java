@@ -0,0 +1,35 @@
+package bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyModuleTest {
+
+    @Test
+    @DisplayName("модуль создаётся при первом обращении и только один раз")
+    void get_shouldCreateModuleOnce() {
+        AtomicInteger created = new AtomicInteger();
+        LazyModule<String> module = new LazyModule<>("Test", () -> "модуль " + created.incrementAndGet());
+
+        assertThat(module.getIfCreated()).isNull();
+        assertThat(created).hasValue(0);
+
+        assertThat(module.get()).isEqualTo("модуль 1");
+        assertThat(module.get()).isEqualTo("модуль 1");
+        assertThat(module.getIfCreated()).isEqualTo("модуль 1");
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("готовый модуль доступен сразу")
+    void of_shouldReturnReadyModule() {
+        LazyModule<String> module = LazyModule.of("Test", "готов");
+
+        assertThat(module.getIfCreated()).isEqualTo("готов");
+        assertThat(module.get()).isEqualTo("готов");
+    }
+}
@@ -0,0 +1,68 @@
+package bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SendRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    @DisplayName("первые burst вызовов проходят сразу, следующие ждут по интервалу лимита")
+    void reserve_shouldAllowBurstThenSpaceCalls() {
+        SendRateLimiter limiter = new SendRateLimiter(10, 3, new BotMetrics(), now::get);
+
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isEqualTo(Duration.ofMillis(100).toNanos());
+        assertThat(limiter.reserve()).isEqualTo(Duration.ofMillis(200).toNanos());
+    }
+
+    @Test
+    @DisplayName("available показывает, сколько вызовов пройдёт без ожидания, и не занимает лимит")
+    void available_shouldCountFreeCallsWithoutReserving() {
+        SendRateLimiter limiter = new SendRateLimiter(10, 3, new BotMetrics(), now::get);
+
+        assertThat(limiter.available()).isEqualTo(3);
+        limiter.reserve();
+        assertThat(limiter.available()).isEqualTo(2);
+        limiter.reserve();
+        limiter.reserve();
+        assertThat(limiter.available()).isZero();
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        assertThat(limiter.available()).isEqualTo(1);
+        assertThat(limiter.reserve()).isZero();
+    }
+
+    @Test
+    @DisplayName("за время простоя ведро наполняется, но не больше burst")
+    void reserve_shouldRefillUpToBurst() {
+        SendRateLimiter limiter = new SendRateLimiter(10, 2, new BotMetrics(), now::get);
+        limiter.reserve();
+        limiter.reserve();
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isEqualTo(Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    @DisplayName("у лимитов разных ботов независимые вёдра")
+    void reserve_shouldKeepBucketsPerBot() {
+        SendRateLimiter first = new SendRateLimiter(10, 1, new BotMetrics(), now::get);
+        SendRateLimiter second = new SendRateLimiter(10, 1, new BotMetrics(), now::get);
+
+        assertThat(first.reserve()).isZero();
+        assertThat(first.reserve()).isPositive();
+        assertThat(second.reserve()).isZero();
+    }
+}
@@ -0,0 +1,35 @@
+package bot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupProbeTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("синтетическое обновление разбирается как сообщение Telegram")
+    void update_shouldParseTextMessage() throws Exception {
+        Update update = StartupProbe.update(mapper, 7, 42L, "/start \"кавычки\"");
+
+        assertThat(update.getUpdateId()).isEqualTo(7);
+        assertThat(update.getMessage().getChatId()).isEqualTo(42L);
+        assertThat(update.getMessage().getText()).isEqualTo("/start \"кавычки\"");
+        assertThat(update.getMessage().getFrom().getFirstName()).isEqualTo("probe");
+    }
+
+    @Test
+    @DisplayName("клиент-заглушка ничего не отправляет и возвращает null")
+    void noOpClient_shouldReturnNull() throws Exception {
+        TelegramClient client = StartupProbe.noOpClient();
+
+        assertThat(client.execute(SendMessage.builder().chatId(1L).text("текст").build())).isNull();
+        assertThat(client.executeAsync(SendMessage.builder().chatId(1L).text("текст").build()).get()).isNull();
+    }
+}
@@ -0,0 +1,87 @@
+package bot;
+
+import config.ModuleKind;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmUpTest {
+
+    private static final Set<ModuleKind> ALL = EnumSet.allOf(ModuleKind.class);
+
+    @Test
+    @DisplayName("без JIT проводится один раунд для замера")
+    void run_withoutJit_shouldRunSingleRound() {
+        WarmUp warmUp = new WarmUp(Duration.ofSeconds(30), Duration.ofMillis(10), () -> -1);
+
+        WarmUp.Report report = warmUp.run(ALL);
+
+        assertThat(report.outcome()).isEqualTo(WarmUp.Outcome.NO_JIT);
+        assertThat(report.rounds()).isEqualTo(1);
+        assertThat(report.updates()).isEqualTo(WarmUp.scripts(ALL).stream().mapToInt(List::size).sum());
+        assertThat(report.before().count()).isEqualTo(report.updates());
+    }
+
+    @Test
+    @DisplayName("прогрев заканчивается, когда JIT перестаёт компилировать")
+    void run_withStableCompilation_shouldStopBeforeBudget() {
+        WarmUp warmUp = new WarmUp(Duration.ofSeconds(30), Duration.ofMillis(10), () -> 100);
+
+        WarmUp.Report report = warmUp.run(ALL);
+
+        assertThat(report.outcome()).isEqualTo(WarmUp.Outcome.STABLE);
+        assertThat(report.rounds()).isGreaterThan(1);
+        assertThat(report.millis()).isLessThan(Duration.ofSeconds(30).toMillis());
+        assertThat(report.after().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("если JIT всё ещё компилирует, прогрев ограничен бюджетом")
+    void run_withOngoingCompilation_shouldStopAtBudget() {
+        AtomicLong compiled = new AtomicLong();
+        WarmUp warmUp = new WarmUp(Duration.ofMillis(200), Duration.ofMillis(10), () -> compiled.addAndGet(1000));
+
+        WarmUp.Report report = warmUp.run(EnumSet.of(ModuleKind.POMODORO));
+
+        assertThat(report.outcome()).isEqualTo(WarmUp.Outcome.BUDGET);
+        assertThat(report.millis()).isGreaterThanOrEqualTo(200);
+        assertThat(report.summary()).contains("бюджет времени исчерпан");
+    }
+
+    @Test
+    @DisplayName("прогрев приглушает только логгеры диалогов и возвращает их уровни")
+    void run_shouldQuietOnlyDialogLoggers() {
+        Level root = LogManager.getRootLogger().getLevel();
+        Level pomodoro = LogManager.getLogger("pomodoro").getLevel();
+        List<Level> during = new ArrayList<>();
+        WarmUp warmUp = new WarmUp(Duration.ofSeconds(30), Duration.ofMillis(10), () -> {
+            during.add(LogManager.getLogger("pomodoro.bot.PomodoroBot").getLevel());
+            during.add(LogManager.getLogger("replication").getLevel());
+            return -1;
+        });
+
+        warmUp.run(EnumSet.of(ModuleKind.POMODORO));
+
+        assertThat(during).containsExactly(Level.ERROR, root);
+        assertThat(LogManager.getRootLogger().getLevel()).isEqualTo(root);
+        assertThat(LogManager.getLogger("pomodoro").getLevel()).isEqualTo(pomodoro);
+    }
+
+    @Test
+    @DisplayName("сценарии есть только у включённых модулей")
+    void scripts_shouldCoverOnlyEnabledModules() {
+        List<List<String>> scripts = WarmUp.scripts(EnumSet.of(ModuleKind.POMODORO));
+
+        assertThat(scripts).extracting(script -> script.get(0)).containsExactly("/start", "/startpomodoro");
+    }
+}
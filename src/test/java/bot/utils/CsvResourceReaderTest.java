@@ -8,7 +8,9 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -50,4 +52,72 @@ class CsvResourceReaderTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Некорректный формат в строке 1: 'Titanic.png,'");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Проверка разбора полей в кавычках с разделителем, переводом строки и экранированной кавычкой")
+    void read_shouldParseQuotedFields_whenFieldContainsDelimiter() {
+        String csv = "poster.png,\"Гарри Поттер, часть 1\"\r\n"
+                + "\"quote.png\",\"Фильм \"\"в кавычках\"\"\"\n"
+                + "\n"
+                + "multi.png,\"первая\nвторая\"";
+
+        InputStream is = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        List<String[]> rows = reader.read(is, ',', row -> row);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0)).containsExactly("poster.png", "Гарри Поттер, часть 1");
+        assertThat(rows.get(1)).containsExactly("quote.png", "Фильм \"в кавычках\"");
+        assertThat(rows.get(2)).containsExactly("multi.png", "первая\nвторая");
+    }
+
+    @Test
+    @DisplayName("Проверка потокового обхода строк через forEach и stream")
+    void forEachAndStream_shouldVisitRowsLazily() {
+        String csv = """
+                WORK;25;100
+                
+                SHORT_BREAK;5;200
+                """;
+
+        List<String> phases = new ArrayList<>();
+        reader.forEach(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ';', row -> phases.add(row[0]));
+
+        long minutes;
+        try (Stream<String[]> rows = reader.stream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ';')) {
+            minutes = rows.mapToLong(row -> Long.parseLong(row[1])).sum();
+        }
+
+        assertThat(phases).containsExactly("WORK", "SHORT_BREAK");
+        assertThat(minutes).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Проверка выбрасывания исключения при незакрытой кавычке")
+    void read_shouldThrow_whenQuoteIsNotClosed() {
+        String csv = "poster.png,\"Без конца";
+
+        InputStream is = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> reader.read(is, ',', row -> row))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Незакрытая кавычка");
+    }
+
+    @Test
+    @DisplayName("forEach с обработчиком ошибок пропускает некорректные строки и продолжает разбор")
+    void forEach_shouldSkipMalformedRows_whenHandlerGiven() {
+        String csv = """
+                a,1
+                только-одно-поле
+                "b"x,2
+                c,3
+                """;
+        List<String> rows = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        reader.forEach(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ',',
+                row -> rows.add(String.join(",", row)), e -> errors.add(e.getMessage()));
+
+        assertThat(rows).containsExactly("a,1", "c,3");
+        assertThat(errors).hasSize(2);
+    }
+}
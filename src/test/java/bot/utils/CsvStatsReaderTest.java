@@ -17,6 +17,7 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.Duration;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,15 +49,19 @@ class CsvStatsReaderTest {
     }
 
     @Test
-    @DisplayName("агрегирует статистику из RawEvent")
+    @DisplayName("агрегирует статистику из строк CSV за последние 30 дней")
     void aggregatesStats_fromRawEvents() throws IOException {
         when(clock.instant()).thenReturn(NOW);
-        when(reader.read(any(InputStream.class), eq(','), any()))
-                .thenReturn(List.of(
-                        new RawEvent("WORK", "15", String.valueOf(nowEpoch - 60)),
-                        new RawEvent("SHORT_BREAK", "5", String.valueOf(nowEpoch - 60)),
-                        new RawEvent("WORK", "25", String.valueOf(nowEpoch - 60))
-                ));
+        doAnswer(invocation -> {
+            Consumer<String[]> action = invocation.getArgument(2);
+            List.of(
+                    new String[]{"WORK", "15", String.valueOf(nowEpoch - 60)},
+                    new String[]{"SHORT_BREAK", "5", String.valueOf(nowEpoch - 60)},
+                    new String[]{"WORK", "25", String.valueOf(nowEpoch - 60)},
+                    new String[]{"WORK", "50", String.valueOf(nowEpoch - Duration.ofDays(31).toSeconds())}
+            ).forEach(action);
+            return null;
+        }).when(reader).forEach(any(InputStream.class), eq(','), any());
 
         PomodoroStats stats = statsReader.readMonthlyStats(CHAT_ID);
 
@@ -0,0 +1,59 @@
+package bot.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PeriodicSnapshotTest {
+
+    @Test
+    @DisplayName("Сохранение пропускается, пока не было изменений")
+    void save_shouldWriteOnlyWhenDirty() {
+        AtomicInteger writes = new AtomicInteger();
+        PeriodicSnapshot snapshot = new PeriodicSnapshot("тест", writes::incrementAndGet);
+
+        assertThat(snapshot.save()).isFalse();
+        snapshot.markDirty();
+        assertThat(snapshot.save()).isTrue();
+        assertThat(snapshot.save()).isFalse();
+        assertThat(writes).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("После неудачной записи изменения остаются отмеченными")
+    void save_shouldStayDirty_whenWriteFails() {
+        AtomicInteger attempts = new AtomicInteger();
+        PeriodicSnapshot snapshot = new PeriodicSnapshot("тест", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("диск занят");
+            }
+        });
+        snapshot.markDirty();
+
+        assertThatThrownBy(snapshot::save).isInstanceOf(UncheckedIOException.class);
+        assertThat(snapshot.save()).isTrue();
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Атомарная запись создаёт каталог, заменяет файл и не оставляет временный")
+    void writeAtomically_shouldReplaceFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("nested").resolve("snapshot.csv");
+
+        PeriodicSnapshot.writeAtomically(file, "старое");
+        PeriodicSnapshot.writeAtomically(file, "новое");
+
+        assertThat(Files.readString(file, StandardCharsets.UTF_8)).isEqualTo("новое");
+        assertThat(file.resolveSibling("snapshot.csv.tmp")).doesNotExist();
+    }
+}
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.api.objects.photo.PhotoSize;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboard;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardRemove;
@@ -21,12 +23,16 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ReplyUtilsTest {
 
     private final ClassLoader classLoader = mock(ClassLoader.class);
+    private final AssetCache assets = new AssetCache(classLoader);
+    private final PhotoCache photos = new PhotoCache(assets);
     private final Long CHAT_ID = 11L;
 
     @Test
@@ -89,7 +95,7 @@ class ReplyUtilsTest {
         InputStream is = new ByteArrayInputStream("data".getBytes(StandardCharsets.UTF_8));
         when(classLoader.getResourceAsStream("img.png")).thenReturn(is);
 
-        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, CHAT_ID, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, CHAT_ID, photos);
 
         assertThat(photo).isNotNull();
         assertThat(photo.getChatId()).isEqualTo("11");
@@ -106,7 +112,7 @@ class ReplyUtilsTest {
         SendPhoto photo = ReplyUtils.sendPhotoPomodoro(
                 reply,
                 CHAT_ID,
-                classLoader);
+                photos);
 
         assertThat(photo).isNotNull();
         assertThat(photo.getChatId()).isEqualTo("11");
@@ -116,7 +122,7 @@ class ReplyUtilsTest {
     @Test
     @DisplayName("Проверка не создания SendPhoto, когда BotReply null")
     void sendPhotoQuiz_shouldReturnNull_whenReplyIsNull() {
-        SendPhoto photo = ReplyUtils.sendPhotoQuiz(null, 123L, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoQuiz(null, 123L, photos);
         assertThat(photo).isNull();
     }
 
@@ -125,7 +131,7 @@ class ReplyUtilsTest {
     void sendPhotoQuiz_shouldReturnNull_whenChatIdIsNull() {
         BotReply reply = new BotReply("text", List.of(), false, "img.png");
 
-        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, null, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, null, photos);
 
         assertThat(photo).isNull();
     }
@@ -135,7 +141,7 @@ class ReplyUtilsTest {
     void sendPhotoQuiz_shouldReturnNull_whenImagePathBlank() {
         BotReply reply = new BotReply("text", List.of(), false, "   ");
 
-        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, 123L, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, 123L, photos);
 
         assertThat(photo).isNull();
     }
@@ -146,7 +152,7 @@ class ReplyUtilsTest {
         BotReply reply = new BotReply("text", List.of(), false, "img.png");
         when(classLoader.getResourceAsStream("img.png")).thenReturn(null);
 
-        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, 123L, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoQuiz(reply, 123L, photos);
 
         assertThat(photo).isNull();
     }
@@ -155,7 +161,7 @@ class ReplyUtilsTest {
     @Test
     @DisplayName("Проверка не создания SendPhoto, когда PomodoroReply null")
     void sendPhotoPomodoro_shouldReturnNull_whenReplyIsNull() {
-        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(null, CHAT_ID, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(null, CHAT_ID, photos);
         assertThat(photo).isNull();
     }
 
@@ -164,7 +170,7 @@ class ReplyUtilsTest {
     void sendPhotoPomodoro_shouldReturnNull_whenChatIdIsNull() {
         PomodoroReply reply = new PomodoroReply("text", "img.png", false);
 
-        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(reply, null, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(reply, null, photos);
 
         assertThat(photo).isNull();
     }
@@ -174,7 +180,7 @@ class ReplyUtilsTest {
     void sendPhotoPomodoro_shouldReturnNull_whenImagePathBlank() {
         PomodoroReply reply = new PomodoroReply("text", "    ", false);
 
-        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(reply, CHAT_ID, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(reply, CHAT_ID, photos);
 
         assertThat(photo).isNull();
     }
@@ -185,7 +191,7 @@ class ReplyUtilsTest {
         PomodoroReply reply = new PomodoroReply("text", "img.png", false);
         when(classLoader.getResourceAsStream("img.png")).thenReturn(null);
 
-        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(reply, CHAT_ID, classLoader);
+        SendPhoto photo = ReplyUtils.sendPhotoPomodoro(reply, CHAT_ID, photos);
 
         assertThat(photo).isNull();
     }
@@ -201,4 +207,30 @@ class ReplyUtilsTest {
     void sendMessageQuiz_shouldReturnNull_whenBotReplyNull() {
         assertThat(ReplyUtils.sendMessageQuiz(null, CHAT_ID)).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("после первой загрузки картинка отправляется по file_id, запомненному только для этого бота")
+    void sendPhotoQuiz_shouldReuseFileId_afterFirstUpload() {
+        BotReply reply = new BotReply("text", List.of(), false, "cached_frame.jpg");
+        when(classLoader.getResourceAsStream("cached_frame.jpg"))
+                .thenReturn(new ByteArrayInputStream("img".getBytes(StandardCharsets.UTF_8)));
+        SendPhoto upload = ReplyUtils.sendPhotoQuiz(reply, CHAT_ID, photos);
+        assertThat(upload.getPhoto().isNew()).isTrue();
+
+        PhotoSize small = new PhotoSize();
+        small.setFileId("small-id");
+        PhotoSize large = new PhotoSize();
+        large.setFileId("large-id");
+        Message sent = new Message();
+        sent.setPhoto(List.of(small, large));
+        photos.remember(upload, sent);
+
+        SendPhoto cached = ReplyUtils.sendPhotoQuiz(reply, 12L, photos);
+        assertThat(cached.getPhoto().isNew()).isFalse();
+        assertThat(cached.getPhoto().getAttachName()).isEqualTo("large-id");
+
+        PhotoCache otherBot = new PhotoCache(assets);
+        assertThat(ReplyUtils.sendPhotoQuiz(reply, 12L, otherBot).getPhoto().isNew()).isTrue();
+        verify(classLoader, times(1)).getResourceAsStream("cached_frame.jpg");
+    }
+}
@@ -0,0 +1,264 @@
+package cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateConsumer;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.chat.Chat;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ClusterFrontTest {
+
+    private static final int CHATS = 200;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    @DisplayName("обновления чата попадают на узел-владелец по кольцу")
+    void consume_shouldForwardUpdatesToOwnerNode() throws Exception {
+        ClusterFront front = front();
+        FakeNode first = node();
+        FakeNode second = node();
+        first.worker.join(front.uri());
+        second.worker.join(front.uri());
+        HashRing ring = new HashRing(List.of(first.worker.address(), second.worker.address()));
+
+        for (long chatId = 1; chatId <= CHATS; chatId++) {
+            front.consume(update(chatId, "привет"));
+        }
+
+        await().untilAsserted(() -> assertThat(first.received.size() + second.received.size()).isEqualTo(CHATS));
+        assertThat(front.nodes()).containsExactlyInAnyOrderElementsOf(ring.nodes());
+        assertThat(first.received).isNotEmpty();
+        assertThat(second.received).isNotEmpty();
+        assertThat(first.received.size() + second.received.size()).isEqualTo(CHATS);
+        for (FakeNode node : List.of(first, second)) {
+            assertThat(node.received).allSatisfy(chatId ->
+                    assertThat(ring.nodeFor(chatId)).isEqualTo(node.worker.address()));
+        }
+        assertThat(first.texts).containsOnly("привет");
+    }
+
+    @Test
+    @DisplayName("вход узла переносит на него сессии его чатов, выход возвращает их оставшимся")
+    void joinAndLeave_shouldMoveSessionSnapshots() throws Exception {
+        ClusterFront front = front();
+        FakeNode first = node();
+        first.worker.join(front.uri());
+        for (long chatId = 1; chatId <= CHATS; chatId++) {
+            first.sessions.put(chatId, chatId + ",сессия");
+        }
+
+        FakeNode second = node();
+        second.worker.join(front.uri());
+        HashRing ring = new HashRing(List.of(first.worker.address(), second.worker.address()));
+
+        assertThat(second.sessions).isNotEmpty();
+        assertThat(first.sessions.size() + second.sessions.size()).isEqualTo(CHATS);
+        assertThat(second.sessions.keySet()).allSatisfy(chatId ->
+                assertThat(ring.nodeFor(chatId)).isEqualTo(second.worker.address()));
+        assertThat(second.sessions.get(second.sessions.keySet().iterator().next())).endsWith(",сессия");
+
+        second.worker.leave(front.uri());
+
+        assertThat(second.sessions).isEmpty();
+        assertThat(first.sessions).hasSize(CHATS);
+        assertThat(front.nodes()).containsExactly(first.worker.address());
+    }
+
+    @Test
+    @DisplayName("обновления одного чата приходят на узел по порядку")
+    void consume_shouldKeepOrderWithinChat() throws Exception {
+        ClusterFront front = front();
+        FakeNode node = node();
+        node.worker.join(front.uri());
+
+        for (int i = 0; i < 50; i++) {
+            front.consume(update(7L, String.valueOf(i)));
+        }
+
+        await().untilAsserted(() -> assertThat(node.texts).hasSize(50));
+        assertThat(node.texts).containsExactlyElementsOf(
+                IntStream.range(0, 50).mapToObj(String::valueOf).toList());
+    }
+
+    @Test
+    @DisplayName("узел, занятый обработкой, не задерживает пересылку другим узлам")
+    void consume_slowNode_shouldNotBlockOthers() throws Exception {
+        ClusterFront front = front();
+        FakeNode slow = node();
+        FakeNode fast = node();
+        slow.worker.join(front.uri());
+        fast.worker.join(front.uri());
+        HashRing ring = new HashRing(List.of(slow.worker.address(), fast.worker.address()));
+        slow.gate = new CountDownLatch(1);
+
+        long fastChats = 0;
+        for (long chatId = 1; chatId <= CHATS; chatId++) {
+            front.consume(update(chatId, "привет"));
+            if (ring.nodeFor(chatId).equals(fast.worker.address())) {
+                fastChats++;
+            }
+        }
+
+        long expected = fastChats;
+        await().untilAsserted(() -> assertThat(fast.received).hasSize((int) expected));
+        assertThat(slow.received).isEmpty();
+        slow.gate.countDown();
+        await().untilAsserted(() -> assertThat(slow.received).hasSize(CHATS - (int) expected));
+    }
+
+    @Test
+    @DisplayName("узел, не прошедший проверку здоровья, исключается, обновления получает новый владелец")
+    void healthCheck_shouldEvictUnreachableNode() throws Exception {
+        ClusterFront front = front();
+        FakeNode first = node();
+        FakeNode second = node();
+        first.worker.join(front.uri());
+        second.worker.join(front.uri());
+        second.worker.close();
+
+        await().untilAsserted(() -> assertThat(front.nodes()).containsExactly(first.worker.address()));
+        for (long chatId = 1; chatId <= 20; chatId++) {
+            front.consume(update(chatId, "старт"));
+        }
+
+        await().untilAsserted(() -> assertThat(first.received).hasSize(20));
+    }
+
+    @Test
+    @DisplayName("обновления, не принятые исключённым узлом, получает новый владелец")
+    void healthCheck_shouldForwardPendingUpdatesOfEvictedNode() throws Exception {
+        ClusterFront front = front();
+        FakeNode first = node();
+        FakeNode second = node();
+        first.worker.join(front.uri());
+        second.worker.join(front.uri());
+        second.worker.close();
+
+        for (long chatId = 1; chatId <= 20; chatId++) {
+            front.consume(update(chatId, "старт"));
+        }
+
+        await().untilAsserted(() -> assertThat(front.nodes()).containsExactly(first.worker.address()));
+        await().untilAsserted(() -> assertThat(first.received).containsExactlyInAnyOrderElementsOf(
+                LongStream.rangeClosed(1, 20).boxed().toList()));
+    }
+
+    @Test
+    @DisplayName("ошибка пересылки не исключает узел: обновление отправляется повторно")
+    void consume_failedSend_shouldRetryWithoutEviction() throws Exception {
+        ClusterFront front = new ClusterFront(mapper, 0, Duration.ofMinutes(1));
+        front.start();
+        closeables.add(front);
+        FakeNode node = node();
+        node.worker.join(front.uri());
+        int port = Integer.parseInt(node.worker.address().substring(node.worker.address().lastIndexOf(':') + 1));
+        node.worker.close();
+
+        front.consume(update(5L, "повтор"));
+        Thread.sleep(700);
+        FakeNode restarted = new FakeNode();
+        restarted.worker = new ClusterWorker(restarted, restarted, mapper, port);
+        restarted.worker.start();
+        closeables.add(restarted.worker);
+
+        await().untilAsserted(() -> assertThat(restarted.texts).containsExactly("повтор"));
+        assertThat(front.nodes()).containsExactly(restarted.worker.address());
+    }
+
+    private ClusterFront front() throws IOException {
+        ClusterFront front = new ClusterFront(mapper, 0, Duration.ofMillis(100));
+        front.start();
+        closeables.add(front);
+        return front;
+    }
+
+    private FakeNode node() throws IOException {
+        FakeNode node = new FakeNode();
+        node.worker = new ClusterWorker(node, node, mapper, 0);
+        node.worker.start();
+        closeables.add(node.worker);
+        return node;
+    }
+
+    private static Update update(long chatId, String text) {
+        Update update = new Update();
+        Message message = new Message();
+        message.setChat(new Chat(chatId, "private"));
+        message.setText(text);
+        update.setMessage(message);
+        return update;
+    }
+
+    /**
+     * Узел, который запоминает полученные обновления и хранит «сессии» строками снимков.
+     */
+    private static final class FakeNode implements LongPollingSingleThreadUpdateConsumer, SessionHandoff {
+
+        private final List<Long> received = new CopyOnWriteArrayList<>();
+        private final List<String> texts = new CopyOnWriteArrayList<>();
+        private final Map<Long, String> sessions = new ConcurrentHashMap<>();
+        private ClusterWorker worker;
+        private volatile CountDownLatch gate;
+
+        @Override
+        public void consume(Update update) {
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(update.getMessage().getChatId());
+            texts.add(update.getMessage().getText());
+        }
+
+        @Override
+        public List<String> exportSessions(LongPredicate moving) {
+            List<String> snapshots = new ArrayList<>();
+            sessions.entrySet().removeIf(entry -> {
+                if (moving.test(entry.getKey())) {
+                    snapshots.add(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+            return snapshots;
+        }
+
+        @Override
+        public void importSessions(List<String> snapshots) {
+            for (String snapshot : snapshots) {
+                sessions.put(Long.parseLong(snapshot.substring(0, snapshot.indexOf(','))), snapshot);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cluster;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashRingTest {
+
+    private static final int CHATS = 100_000;
+
+    @Test
+    @DisplayName("распределение не зависит от порядка узлов")
+    void nodeFor_shouldNotDependOnNodeOrder() {
+        HashRing first = new HashRing(List.of("a:1", "b:2", "c:3"));
+        HashRing second = new HashRing(List.of("c:3", "a:1", "b:2"));
+
+        for (long chatId = 0; chatId < 1_000; chatId++) {
+            assertThat(second.nodeFor(chatId)).isEqualTo(first.nodeFor(chatId));
+        }
+        assertThat(first.nodes()).containsExactly("a:1", "b:2", "c:3");
+    }
+
+    @Test
+    @DisplayName("чаты распределяются по узлам примерно поровну")
+    void nodeFor_shouldSpreadChatsEvenly() {
+        HashRing ring = new HashRing(List.of("127.0.0.1:9001", "127.0.0.1:9002", "127.0.0.1:9003", "127.0.0.1:9004"));
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (long chatId = 1; chatId <= CHATS; chatId++) {
+            counts.merge(ring.nodeFor(chatId), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(CHATS / 4 * 3 / 4, CHATS / 4 * 5 / 4));
+    }
+
+    @Test
+    @DisplayName("новый узел забирает чаты только себе, остальные остаются на месте")
+    void with_shouldMoveOnlyChatsOfNewNode() {
+        HashRing before = new HashRing(List.of("a:1", "b:2", "c:3"));
+        HashRing after = before.with("d:4");
+        int moved = 0;
+
+        for (long chatId = 1; chatId <= CHATS; chatId++) {
+            String owner = after.nodeFor(chatId);
+            if (!owner.equals(before.nodeFor(chatId))) {
+                assertThat(owner).isEqualTo("d:4");
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(CHATS / 4 * 3 / 4, CHATS / 4 * 5 / 4);
+        assertThat(after.without("d:4").nodeFor(42)).isEqualTo(before.nodeFor(42));
+    }
+
+    @Test
+    @DisplayName("в пустом кольце владельца нет")
+    void nodeFor_shouldFailOnEmptyRing() {
+        HashRing ring = new HashRing(List.of());
+
+        assertThat(ring.isEmpty()).isTrue();
+        assertThatThrownBy(() -> ring.nodeFor(1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new HashRing(List.of("a:1"), 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
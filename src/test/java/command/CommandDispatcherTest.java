@@ -17,6 +17,7 @@ import org.telegram.telegrambots.meta.generics.TelegramClient;
 import pomodoro.bot.PomodoroBot;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -32,8 +33,11 @@ class CommandDispatcherTest {
 
     @BeforeEach
     void setUp() {
-        movieQuizBot = new MovieQuizBot();
-        commandDispatcher = new CommandDispatcher(telegramClient, movieQuizBot, pomodoroBot);
+        movieQuizBot = new MovieQuizBot(MovieQuizBot.loadCatalog().movies());
+        commandDispatcher = new CommandDispatcher()
+                .register("/start", new CommandStart(telegramClient))
+                .register("/playmoviequiz", new CommandMovieQuiz(telegramClient, movieQuizBot))
+                .register("/startpomodoro", new CommandPomodoro(pomodoroBot));
     }
 
     @Test
@@ -41,7 +45,7 @@ class CommandDispatcherTest {
     void dispatch_shouldCallStartCommand_whenStart() throws TelegramApiException {
         Update update = getUpdate("/Start", 12L);
 
-        commandDispatcher.dispatch(update.getMessage().getText(), update);
+        commandDispatcher.dispatch(update.getMessage().getText(), null, update);
 
         ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
         verify(telegramClient).execute(captor.capture());
@@ -57,7 +61,7 @@ class CommandDispatcherTest {
     void dispatch_shouldCallMovieQuizCommand_whenMovieQuiz() throws TelegramApiException {
         Update update = getUpdate("/Playmoviequiz", 17L);
 
-        commandDispatcher.dispatch(update.getMessage().getText(), update);
+        commandDispatcher.dispatch(update.getMessage().getText(), null, update);
 
         ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
         verify(telegramClient).execute(captor.capture());
@@ -72,11 +76,55 @@ class CommandDispatcherTest {
     void dispatch_shouldNotCallAnyCommand_whenCommandUnknown() throws TelegramApiException {
         Update update = getUpdate("/", 12L);
 
-        commandDispatcher.dispatch(update.getMessage().getText(), update);
+        commandDispatcher.dispatch(update.getMessage().getText(), null, update);
 
         verify(telegramClient, never()).execute(any(SendMessage.class));
     }
 
+    @Test
+    @DisplayName("Проверка команды с суффиксом @ИмяБота, ведущими пробелами и аргументами")
+    void dispatch_shouldCallStartCommand_whenBotNameSuffixAndArguments() throws TelegramApiException {
+        Update update = getUpdate("  /START@SandBoxCraftBot сегодня", 21L);
+
+        commandDispatcher.dispatch(update.getMessage().getText(), "sandboxcraftbot", update);
+
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramClient).execute(captor.capture());
+        assertThat(captor.getValue().getChatId()).isEqualTo("21");
+    }
+
+    @Test
+    @DisplayName("Проверка, что команда с суффиксом другого бота не выполняется")
+    void dispatch_shouldNotCallCommand_whenAddressedToAnotherBot() throws TelegramApiException {
+        Update other = getUpdate("/start@OtherBot", 12L);
+        Update longer = getUpdate("/start@SandBoxCraftBot2", 12L);
+
+        commandDispatcher.dispatch(other.getMessage().getText(), "SandBoxCraftBot", other);
+        commandDispatcher.dispatch(longer.getMessage().getText(), "SandBoxCraftBot", longer);
+
+        verify(telegramClient, never()).execute(any(SendMessage.class));
+    }
+
+    @Test
+    @DisplayName("Проверка, что префикс и продолжение имени команды не совпадают с командой")
+    void dispatch_shouldNotCallCommand_whenOnlyPrefixOrLongerName() throws TelegramApiException {
+        Update prefix = getUpdate("/sta", 12L);
+        Update longer = getUpdate("/startx", 12L);
+
+        commandDispatcher.dispatch(prefix.getMessage().getText(), null, prefix);
+        commandDispatcher.dispatch(longer.getMessage().getText(), null, longer);
+
+        verify(telegramClient, never()).execute(any(SendMessage.class));
+    }
+
+    @Test
+    @DisplayName("Проверка запрета повторной регистрации команды")
+    void register_shouldThrow_whenCommandAlreadyRegistered() {
+        assertThatThrownBy(() -> commandDispatcher.register("/START", new CommandStart(telegramClient)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("уже зарегистрирована");
+    }
+
     private Update getUpdate(String textMessage, Long chatId) {
         Update update = new Update();
         Chat chat = new Chat(chatId, "");
@@ -0,0 +1,71 @@
+package command;
+
+import movie_quiz.core.QuizEvent;
+import movie_quiz.service.MovieStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.chat.Chat;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CommandQuizStatsTest {
+
+    @Mock
+    TelegramClient telegramClient;
+    MovieStats movieStats;
+
+    @BeforeEach
+    void setUp() {
+        movieStats = new MovieStats();
+        movieStats.record(new QuizEvent(0L, 1L, "Титаник", 0, true, 2_000L));
+        movieStats.record(new QuizEvent(0L, 1L, "Матрица", 1, false, 4_000L));
+    }
+
+    @Test
+    @DisplayName("/quizstats отправляет администратору отчёт по фильмам")
+    void execute_shouldSendReportToAdmin() throws TelegramApiException {
+        new CommandQuizStats(telegramClient, movieStats, Set.of(42L)).execute(getUpdate(42L));
+
+        assertThat(sentText())
+                .contains("Фильмов: 2, вопросов: 2, верных: 50%")
+                .contains("Самые сложные:\nМатрица — 0% из 1, среднее время 4.0 с")
+                .contains("Самые простые:\nТитаник — 100% из 1");
+    }
+
+    @Test
+    @DisplayName("/quizstats отказывает пользователю не из списка администраторов")
+    void execute_shouldRefuseNonAdmin() throws TelegramApiException {
+        new CommandQuizStats(telegramClient, movieStats, Set.of(42L)).execute(getUpdate(7L));
+
+        assertThat(sentText()).isEqualTo(CommandQuizStats.ADMINS_ONLY);
+    }
+
+    private String sentText() throws TelegramApiException {
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramClient).execute(captor.capture());
+        return captor.getValue().getText();
+    }
+
+    private static Update getUpdate(Long chatId) {
+        Message message = new Message();
+        message.setChat(new Chat(chatId, "private"));
+        message.setText("/quizstats");
+        Update update = new Update();
+        update.setMessage(message);
+        return update;
+    }
+}
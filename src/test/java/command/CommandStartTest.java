@@ -1,5 +1,6 @@
 package command;
 
+import config.ModuleKind;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,8 @@ import org.telegram.telegrambots.meta.api.objects.message.Message;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -48,6 +51,20 @@ class CommandStartTest {
                 .contains("включить помидор‑таймер");
     }
 
+    @Test
+    @DisplayName("Бот только с Pomodoro не предлагает команды кино-квиза")
+    void execute_shouldDescribeOnlyEnabledModules() throws TelegramApiException {
+        new CommandStart(telegramClient, Set.of(ModuleKind.POMODORO)).execute(getUpdate());
+
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramClient).execute(captor.capture());
+
+        assertThat(captor.getValue().getText())
+                .contains("/startpomodoro")
+                .doesNotContain("/playmoviequiz")
+                .doesNotContain("/top");
+    }
+
     @Test
     @DisplayName("Команда /Start не падает, если TelegramClient кидает TelegramApiException")
     void execute_shouldNotThrow_whenTelegramClientFails() throws TelegramApiException {
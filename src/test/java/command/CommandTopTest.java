@@ -0,0 +1,67 @@
+package command;
+
+import movie_quiz.service.QuizLeaderboards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.chat.Chat;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CommandTopTest {
+
+    @Mock
+    TelegramClient telegramClient;
+    QuizLeaderboards leaderboards;
+
+    @BeforeEach
+    void setUp() {
+        leaderboards = new QuizLeaderboards(50, 10, Clock.systemUTC());
+        leaderboards.record(11L, "Аня", 12);
+        leaderboards.record(12L, "Борис", 20);
+    }
+
+    @Test
+    @DisplayName("/top отправляет игроков по убыванию результата")
+    void execute_shouldSendTopPlayers() throws TelegramApiException {
+        new CommandTop(telegramClient, leaderboards).execute(getUpdate(11L));
+
+        assertThat(sentText()).contains("1. Борис — 20").contains("2. Аня — 12");
+    }
+
+    @Test
+    @DisplayName("/myrank отправляет лучший результат и место игрока")
+    void execute_myRank_shouldSendPlayerPlace() throws TelegramApiException {
+        new CommandMyRank(telegramClient, leaderboards).execute(getUpdate(11L));
+
+        assertThat(sentText()).contains("лучший результат 12, место 2 из 2");
+    }
+
+    private String sentText() throws TelegramApiException {
+        ArgumentCaptor<SendMessage> captor = ArgumentCaptor.forClass(SendMessage.class);
+        verify(telegramClient).execute(captor.capture());
+        return captor.getValue().getText();
+    }
+
+    private static Update getUpdate(Long chatId) {
+        Message message = new Message();
+        message.setChat(new Chat(chatId, "private"));
+        message.setText("/top");
+        Update update = new Update();
+        update.setMessage(message);
+        return update;
+    }
+}
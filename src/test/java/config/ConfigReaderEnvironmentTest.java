@@ -3,6 +3,9 @@ package config;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -36,4 +39,76 @@ class ConfigReaderEnvironmentTest {
 
         assertEquals("Токен не введен!", ex.getMessage());
     }
+
+    @Test
+    @DisplayName("Читает идентификаторы администраторов из ADMIN_CHAT_IDS")
+    void shouldReadAdminChatIds() {
+        EnvProvider envProvider = mock(EnvProvider.class);
+        when(envProvider.getEnv("BOT_TOKEN")).thenReturn("env-token");
+        when(envProvider.getEnv("ADMIN_CHAT_IDS")).thenReturn(" 42, -100123 ,");
+
+        Config config = new ConfigReaderEnvironment(envProvider).reader();
+
+        assertEquals(Set.of(42L, -100123L), config.adminChatIds());
+    }
+
+    @Test
+    @DisplayName("Кидает IllegalStateException, если ADMIN_CHAT_IDS содержит не число")
+    void shouldThrowWhenAdminChatIdIsInvalid() {
+        EnvProvider envProvider = mock(EnvProvider.class);
+        when(envProvider.getEnv("BOT_TOKEN")).thenReturn("env-token");
+        when(envProvider.getEnv("ADMIN_CHAT_IDS")).thenReturn("42,admin");
+
+        ConfigReaderEnvironment reader = new ConfigReaderEnvironment(envProvider);
+
+        assertThrows(IllegalStateException.class, reader::reader);
+    }
+
+    @Test
+    @DisplayName("Без BOTS читает единственного бота со всеми модулями")
+    void readAll_shouldReturnSingleBot_whenBotsNotSet() {
+        EnvProvider envProvider = mock(EnvProvider.class);
+        when(envProvider.getEnv("BOT_TOKEN")).thenReturn("env-token");
+
+        List<Config> configs = new ConfigReaderEnvironment(envProvider).readAll();
+
+        assertEquals(1, configs.size());
+        assertEquals(Config.DEFAULT_NAME, configs.get(0).name());
+        assertEquals(Set.of(ModuleKind.POMODORO, ModuleKind.MOVIE_QUIZ), configs.get(0).modules());
+    }
+
+    @Test
+    @DisplayName("Читает токены, модули и администраторов каждого бота из BOTS")
+    void readAll_shouldReadEveryBot() {
+        EnvProvider envProvider = mock(EnvProvider.class);
+        when(envProvider.getEnv("BOTS")).thenReturn("focus, cinema");
+        when(envProvider.getEnv("BOT_TOKEN_FOCUS")).thenReturn("focus-token");
+        when(envProvider.getEnv("BOT_MODULES_FOCUS")).thenReturn("Pomodoro");
+        when(envProvider.getEnv("BOT_TOKEN_CINEMA")).thenReturn("cinema-token");
+        when(envProvider.getEnv("ADMIN_CHAT_IDS")).thenReturn("1");
+        when(envProvider.getEnv("ADMIN_CHAT_IDS_CINEMA")).thenReturn("2");
+
+        List<Config> configs = new ConfigReaderEnvironment(envProvider).readAll();
+
+        assertEquals(List.of("focus", "cinema"), configs.stream().map(Config::name).toList());
+        assertEquals("focus-token", configs.get(0).botToken());
+        assertEquals(Set.of(ModuleKind.POMODORO), configs.get(0).modules());
+        assertEquals(Set.of(1L), configs.get(0).adminChatIds());
+        assertEquals(Set.of(ModuleKind.POMODORO, ModuleKind.MOVIE_QUIZ), configs.get(1).modules());
+        assertEquals(Set.of(2L), configs.get(1).adminChatIds());
+    }
+
+    @Test
+    @DisplayName("Кидает IllegalStateException, если у ботов из BOTS одинаковый токен или неизвестный модуль")
+    void readAll_shouldThrowWhenTokenRepeatsOrModuleUnknown() {
+        EnvProvider envProvider = mock(EnvProvider.class);
+        when(envProvider.getEnv("BOTS")).thenReturn("a,b");
+        when(envProvider.getEnv("BOT_TOKEN_A")).thenReturn("same");
+        when(envProvider.getEnv("BOT_TOKEN_B")).thenReturn("same");
+        assertThrows(IllegalStateException.class, new ConfigReaderEnvironment(envProvider)::readAll);
+
+        when(envProvider.getEnv("BOTS")).thenReturn("a");
+        when(envProvider.getEnv("BOT_MODULES_A")).thenReturn("chess");
+        assertThrows(IllegalStateException.class, new ConfigReaderEnvironment(envProvider)::readAll);
+    }
 }
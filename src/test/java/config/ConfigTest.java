@@ -36,4 +36,11 @@ class ConfigTest {
 
         assertEquals("Токен не введен!", ex.getMessage());
     }
+
+    @Test
+    @DisplayName("Config без списка администраторов содержит пустой набор")
+    void shouldHaveNoAdminsByDefault() {
+        assertTrue(new Config("some-token").adminChatIds().isEmpty());
+        assertTrue(new Config("some-token", null).adminChatIds().isEmpty());
+    }
 }
@@ -2,6 +2,7 @@ package markups;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
 
@@ -45,4 +46,48 @@ class MovieQuizKeyboardFactoryTest {
                 .isNotNull()
                 .isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Кнопки фильмов и строка завершения игры переиспользуются между клавиатурами")
+    void createOptionsKeyboard_shouldReuseButtons() {
+        MovieQuizKeyboardFactory keyboardFactory = new MovieQuizKeyboardFactory();
+
+        ReplyKeyboardMarkup first = keyboardFactory.createOptionsKeyboard(
+                List.of("Фильм 1", "Фильм 2", "Фильм 3", "Фильм 4"));
+        ReplyKeyboardMarkup second = keyboardFactory.createOptionsKeyboard(
+                List.of("Фильм 5", "Фильм 1", "Фильм 6", "Фильм 7"));
+
+        assertThat(second.getKeyboard().get(0).get(1))
+                .isSameAs(first.getKeyboard().get(0).getFirst());
+        assertThat(second.getKeyboard().get(2))
+                .isSameAs(first.getKeyboard().get(2));
+    }
+
+    @Test
+    @DisplayName("Инлайн-клавиатура несёт индекс варианта в callback-данных")
+    void createInlineOptionsKeyboard_shouldCarryOptionIndexes() {
+        MovieQuizKeyboardFactory keyboardFactory = new MovieQuizKeyboardFactory();
+
+        InlineKeyboardMarkup markup = keyboardFactory.createInlineOptionsKeyboard(
+                List.of("Фильм 1", "Фильм 2", "Фильм 3", "Фильм 4"), "q:abc:3:");
+
+        assertThat(markup.getKeyboard()).hasSize(3);
+        assertThat(markup.getKeyboard().get(1).get(1).getText()).isEqualTo("Фильм 4");
+        assertThat(markup.getKeyboard().get(1).get(1).getCallbackData()).isEqualTo("q:abc:3:3");
+        assertThat(markup.getKeyboard().get(2).getFirst().getCallbackData()).isEqualTo("q:abc:3:x");
+    }
+
+    @Test
+    @DisplayName("Клавиатуры общих вопросов строятся заранее и отдаются всем игрокам одним объектом")
+    void createOptionsKeyboard_shouldReturnSharedKeyboard() {
+        MovieQuizKeyboardFactory keyboardFactory = new MovieQuizKeyboardFactory();
+        List<String> daily = List.of("Фильм 1", "Фильм 2", "Фильм 3", "Фильм 4");
+        keyboardFactory.shareOptionsKeyboards(List.of(daily));
+
+        ReplyKeyboardMarkup first = keyboardFactory.createOptionsKeyboard(daily);
+
+        assertThat(keyboardFactory.createOptionsKeyboard(List.copyOf(daily))).isSameAs(first);
+        assertThat(keyboardFactory.createOptionsKeyboard(List.of("Фильм 5", "Фильм 2", "Фильм 3", "Фильм 4")))
+                .isNotSameAs(first);
+    }
+}
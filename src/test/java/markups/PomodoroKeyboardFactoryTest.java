@@ -3,6 +3,7 @@ package markups;
 import org.junit.jupiter.api.Test;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
+import pomodoro.bot.PomodoroMessages;
 
 import java.util.List;
 
@@ -27,4 +28,25 @@ class PomodoroKeyboardFactoryTest {
                 .isNotEmpty()
                 .hasSize(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void keyboards_shouldBeBuiltOnceAndShared() {
+        PomodoroKeyboardFactory first = new PomodoroKeyboardFactory();
+        PomodoroKeyboardFactory second = new PomodoroKeyboardFactory();
+
+        assertThat(first.createButtonsKeyboard()).isSameAs(second.createButtonsKeyboard());
+        assertThat(first.createFinalAskKeyboard()).isSameAs(second.createFinalAskKeyboard());
+        assertThat(first.createFinalAskKeyboard().getKeyboard().getFirst()).hasSize(2);
+    }
+
+    @Test
+    void createPresetKeyboard_shouldContainSingleOneTimeButton() {
+        ReplyKeyboardMarkup keyboard = new PomodoroKeyboardFactory().createPresetKeyboard();
+
+        assertThat(keyboard.getOneTimeKeyboard()).isTrue();
+        assertThat(keyboard.getKeyboard()).hasSize(1);
+        assertThat(keyboard.getKeyboard().getFirst().getFirst().getText())
+                .isEqualTo(PomodoroMessages.USE_LAST_SETTINGS_MESSAGE);
+        assertThat(keyboard).isSameAs(new PomodoroKeyboardFactory().createPresetKeyboard());
+    }
+}
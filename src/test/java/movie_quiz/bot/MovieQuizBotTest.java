@@ -1,14 +1,24 @@
 package movie_quiz.bot;
 
 import movie_quiz.core.Movie;
+import movie_quiz.service.DailyRun;
+import movie_quiz.service.GameManager;
+import movie_quiz.service.GroupRound;
+import movie_quiz.service.QuizLeaderboards;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
 import org.telegram.telegrambots.meta.api.objects.chat.Chat;
 import org.telegram.telegrambots.meta.api.objects.message.Message;
 
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -70,6 +80,182 @@ class MovieQuizBotTest {
         assertThat(badResult2.isFinished()).isTrue();
     }
 
+    @Test
+    @DisplayName("инлайн-режим: ответ кнопкой проверяется по индексу, повторное нажатие отбрасывается")
+    void handleCallback_shouldCheckOptionIndexAndRejectDoubleTap() {
+        bot = new MovieQuizBot(List.of(
+                new Movie("a.png", "Фильм A"),
+                new Movie("b.png", "Фильм B"),
+                new Movie("c.png", "Фильм C"),
+                new Movie("d.png", "Фильм D")));
+
+        BotReply question = bot.startGame(makeUpdate(7L, "/playMovieQuiz inline"));
+        assertThat(question.isInline()).isTrue();
+
+        String firstMovieTitle = titleByImage(question.imagePath());
+        int rightOption = question.movieTitles().indexOf(firstMovieTitle);
+        String data = question.callbackPrefix() + rightOption;
+
+        BotReply answer = bot.handleCallback(makeCallback(7L, data));
+        BotReply doubleTap = bot.handleCallback(makeCallback(7L, data));
+
+        assertThat(answer.text()).contains("Это правильный ответ!");
+        assertThat(answer.callbackPrefix()).isNotEqualTo(question.callbackPrefix());
+        assertThat(doubleTap).isNull();
+        assertThat(bot.getMovieStats().accuracy(firstMovieTitle)).hasValue(1.0);
+    }
+
+    @Test
+    @DisplayName("инлайн-режим: кнопка завершения игры закрывает сессию")
+    void handleCallback_endGame_shouldFinishSession() {
+        BotReply question = bot.startGame(makeUpdate(8L, "/playMovieQuiz inline"));
+
+        BotReply reply = bot.handleCallback(makeCallback(8L, question.callbackPrefix() + "x"));
+
+        assertThat(reply.isFinished()).isTrue();
+        assertThat(reply.text()).contains("Ваше место в общем рейтинге: 1 из 1");
+        assertThat(bot.getLeaderboards().allTime().bestScore(8L)).hasValue(0);
+        assertThat(bot.hasSession(8L)).isFalse();
+        assertThat(bot.handleCallback(makeCallback(8L, question.callbackPrefix() + "0"))).isNull();
+    }
+
+    @Test
+    @DisplayName("без аргумента inline игра идёт на обычной клавиатуре")
+    void startGame_withoutInlineArgument_shouldUseReplyKeyboard() {
+        BotReply question = bot.startGame(makeUpdate(9L, "/playMovieQuiz"));
+
+        assertThat(question.isInline()).isFalse();
+    }
+
+    @Test
+    @DisplayName("групповой раунд: ответы принимаются молча, по дедлайну приходит один итог вопроса")
+    void groupRound_shouldAggregateAnswersAndSendSummaryOnDeadline() {
+        List<Movie> movies = List.of(
+                new Movie("a.png", "Фильм A"),
+                new Movie("b.png", "Фильм B"),
+                new Movie("c.png", "Фильм C"),
+                new Movie("d.png", "Фильм D"));
+        QuizLeaderboards leaderboards = new QuizLeaderboards(movies.size(), 10, Clock.systemUTC());
+        List<BotReply> sent = new ArrayList<>();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            bot = new MovieQuizBot(movies, leaderboards, (chatId, reply) -> sent.add(reply), scheduler);
+            long groupId = -100L;
+
+            BotReply question = bot.startGame(makeGroupUpdate(groupId, "/playMovieQuiz"));
+            assertThat(question.isInline()).isTrue();
+            int rightOption = question.movieTitles().indexOf(titleByImage(question.imagePath()));
+            String data = question.callbackPrefix() + rightOption;
+
+            assertThat(bot.handleCallback(makeCallback(groupId, data, new User(1L, "Аня", false))).text()).isEmpty();
+            assertThat(bot.handleCallback(makeCallback(groupId, data, new User(2L, "Боря", false))).text()).isEmpty();
+            assertThat(bot.handleCallback(makeCallback(groupId, data, new User(1L, "Аня", false)))).isNull();
+
+            GroupRound round = bot.getGroupRound(groupId);
+            bot.onGroupDeadline(groupId, round, 1);
+            bot.onGroupDeadline(groupId, round, 1);
+
+            assertThat(sent).hasSize(1);
+            assertThat(sent.get(0).text()).contains("Первым ответил верно: Аня");
+            assertThat(sent.get(0).isInline()).isTrue();
+
+            BotReply finished = bot.handleCallback(makeCallback(groupId, sent.get(0).callbackPrefix() + "x",
+                    new User(1L, "Аня", false)));
+
+            assertThat(finished.isFinished()).isTrue();
+            assertThat(finished.text()).contains("1. Аня — 2").contains("2. Боря — 1");
+            assertThat(bot.hasSession(groupId)).isFalse();
+            assertThat(leaderboards.group(groupId).rank(1L)).isEqualTo(1);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("вопрос с лимитом: дедлайн засчитывает неверный ответ, опоздавшее нажатие отбрасывается")
+    void timedQuestion_deadlineShouldCountAsWrongAndRejectLateAnswer() {
+        List<Movie> movies = List.of(
+                new Movie("a.png", "Фильм A"),
+                new Movie("b.png", "Фильм B"));
+        List<BotReply> sent = new ArrayList<>();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            bot = new MovieQuizBot(movies, new QuizLeaderboards(movies.size(), 10, Clock.systemUTC()),
+                    (chatId, reply) -> sent.add(reply), scheduler);
+
+            BotReply question = bot.startGame(makeUpdate(11L, "/playMovieQuiz inline 30"));
+            assertThat(question.text()).contains("30 сек.");
+
+            GameManager manager = bot.getSession(11L);
+            bot.onQuestionDeadline(11L, manager, 1, "Аня", "anya");
+            bot.onQuestionDeadline(11L, manager, 1, "Аня", "anya");
+
+            assertThat(sent).hasSize(1);
+            assertThat(sent.get(0).text()).contains("Время на ответ вышло!").contains("Правильный ответ:");
+            assertThat(manager.getScore()).isZero();
+            assertThat(manager.getQuestionNumber()).isEqualTo(2);
+            assertThat(bot.handleCallback(makeCallback(11L, question.callbackPrefix() + "0"))).isNull();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("следующий вопрос готовится на планировщике, пока игрок думает; время ответа учитывается")
+    void prefetch_shouldPrepareNextQuestionInBackground() throws Exception {
+        List<Movie> movies = List.of(
+                new Movie("a.png", "Фильм A"), new Movie("b.png", "Фильм B"),
+                new Movie("c.png", "Фильм C"), new Movie("d.png", "Фильм D"));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            MovieQuizBot eager = new MovieQuizBot(movies, new QuizLeaderboards(movies.size(), 10, Clock.systemUTC()),
+                    QuizSender.NONE, scheduler, true);
+            MovieQuizBot lazy = new MovieQuizBot(movies, new QuizLeaderboards(movies.size(), 10, Clock.systemUTC()),
+                    QuizSender.NONE, scheduler, false);
+
+            BotReply question = eager.startGame(makeUpdate(31L, "/playMovieQuiz"));
+            lazy.startGame(makeUpdate(32L, "/playMovieQuiz"));
+            scheduler.submit(() -> { }).get();
+
+            assertThat(eager.getSession(31L).hasPreparedQuestion()).isTrue();
+            assertThat(lazy.getSession(32L).hasPreparedQuestion()).isFalse();
+
+            BotReply next = eager.handleAnswer(makeUpdate(31L, titleByImage(question.imagePath())));
+            assertThat(next.text()).contains("Это правильный ответ!");
+            assertThat(next.movieTitles()).contains(titleByImage(next.imagePath()));
+            assertThat(eager.getReplyLatency().count()).isEqualTo(1);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static String titleByImage(String imagePath) {
+        return "Фильм " + imagePath.substring(0, 1).toUpperCase();
+    }
+
+    private CallbackQuery makeCallback(long chatId, String data, User from) {
+        CallbackQuery callbackQuery = makeCallback(chatId, data);
+        callbackQuery.setFrom(from);
+        return callbackQuery;
+    }
+
+    private Update makeGroupUpdate(long chatId, String messageText) {
+        Update update = makeUpdate(chatId, messageText);
+        update.getMessage().setChat(new Chat(chatId, "group"));
+        return update;
+    }
+
+    private CallbackQuery makeCallback(long chatId, String data) {
+        Message message = new Message();
+        message.setChat(new Chat(chatId, ""));
+        message.setMessageId(1);
+        CallbackQuery callbackQuery = new CallbackQuery();
+        callbackQuery.setId("cb");
+        callbackQuery.setMessage(message);
+        callbackQuery.setData(data);
+        return callbackQuery;
+    }
+
     private Update makeUpdate(long chatID, String messageText) {
         Update update = new Update();
         Message message = new Message();
@@ -80,4 +266,37 @@ class MovieQuizBotTest {
 
         return update;
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Вызов дня общий для всех игроков, попытка одна, результат попадает в рейтинг дня")
+    void startDaily_shouldShareQuestionsAndAllowOneAttempt() {
+        List<Movie> movies = List.of(
+                new Movie("a.jpg", "Фильм A"), new Movie("b.jpg", "Фильм B"),
+                new Movie("c.jpg", "Фильм C"), new Movie("d.jpg", "Фильм D"));
+        bot = new MovieQuizBot(movies);
+
+        BotReply first = bot.startDaily(makeUpdate(21L, "/daily"));
+        BotReply second = bot.startDaily(makeUpdate(22L, "/daily"));
+
+        assertThat(second.movieTitles()).isSameAs(first.movieTitles());
+        assertThat(bot.getDailyRun(22L).getChallenge()).isSameAs(bot.getDailyRun(21L).getChallenge());
+        assertThat(bot.hasSession(21L)).isTrue();
+
+        DailyRun run = bot.getDailyRun(21L);
+        BotReply restart = bot.startDaily(makeUpdate(21L, "/daily"));
+        assertThat(restart.text()).isEqualTo(MovieQuizMessages.DAILY_IN_PROGRESS);
+        assertThat(bot.getDailyRun(21L)).isSameAs(run);
+
+        BotReply reply = first;
+        while (!reply.isFinished()) {
+            reply = bot.handleAnswer(makeUpdate(21L, titleByImage(reply.imagePath())));
+        }
+        assertThat(reply.text()).contains("Вызов дня пройден: 4 из 4").contains("место в рейтинге дня: 1 из 1");
+        assertThat(bot.hasSession(21L)).isFalse();
+        assertThat(bot.getLeaderboards().daily().bestScore(21L)).hasValue(4);
+
+        BotReply again = bot.startDaily(makeUpdate(21L, "/daily"));
+        assertThat(again.isFinished()).isTrue();
+        assertThat(again.text()).contains("уже прошли");
+    }
+}
@@ -0,0 +1,31 @@
+package movie_quiz.bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizCallbackTest {
+
+    @Test
+    @DisplayName("данные кнопки варианта и завершения игры разбираются обратно")
+    void parse_shouldReadOptionAndEndGameData() {
+        String prefix = QuizCallback.questionPrefix("k3z9", 12);
+
+        assertThat(QuizCallback.parse(QuizCallback.optionData(prefix, 3)))
+                .isEqualTo(new QuizCallback("k3z9", 12, 3));
+        assertThat(QuizCallback.parse(QuizCallback.endGameData(prefix)).isEndGame()).isTrue();
+        assertThat(QuizCallback.optionData(prefix, 3).length()).isLessThanOrEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("чужие и повреждённые данные возвращают null")
+    void parse_shouldReturnNull_whenDataIsMalformed() {
+        assertThat(QuizCallback.parse(null)).isNull();
+        assertThat(QuizCallback.parse("p:abc:1:2")).isNull();
+        assertThat(QuizCallback.parse("q::1:2")).isNull();
+        assertThat(QuizCallback.parse("q:abc:1:")).isNull();
+        assertThat(QuizCallback.parse("q:abc:one:2")).isNull();
+        assertThat(QuizCallback.parse("q:abc:1:-5")).isNull();
+    }
+}
@@ -0,0 +1,32 @@
+package movie_quiz.bot;
+
+import movie_quiz.core.Difficulty;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizStartOptionsTest {
+
+    @Test
+    @DisplayName("разбирает инлайн-режим, лимит времени и сложность в любом порядке")
+    void parse_shouldReadInlineAndTimeLimit() {
+        assertThat(QuizStartOptions.parse("/playMovieQuiz 30 inline"))
+                .isEqualTo(new QuizStartOptions(true, Duration.ofSeconds(30), Difficulty.NORMAL));
+        assertThat(QuizStartOptions.parse("/playMovieQuiz@SandBoxBot 45s Сложно"))
+                .isEqualTo(new QuizStartOptions(false, Duration.ofSeconds(45), Difficulty.HARD));
+        assertThat(QuizStartOptions.parse("/playMovieQuiz easy").difficulty()).isEqualTo(Difficulty.EASY);
+    }
+
+    @Test
+    @DisplayName("без аргументов игра без лимита, лимит ограничивается допустимым диапазоном")
+    void parse_shouldDefaultAndClampTimeLimit() {
+        assertThat(QuizStartOptions.parse("/playMovieQuiz")).isEqualTo(QuizStartOptions.DEFAULT);
+        assertThat(QuizStartOptions.parse(null).isTimed()).isFalse();
+        assertThat(QuizStartOptions.parse("/playMovieQuiz 1").timeLimit()).isEqualTo(QuizStartOptions.MIN_TIME_LIMIT);
+        assertThat(QuizStartOptions.parse("/playMovieQuiz 99999").timeLimit()).isEqualTo(QuizStartOptions.MAX_TIME_LIMIT);
+        assertThat(QuizStartOptions.parse("/playMovieQuiz abc").isTimed()).isFalse();
+    }
+}
@@ -0,0 +1,53 @@
+package movie_quiz.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DailyChallengeTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 10, 19);
+
+    @Test
+    @DisplayName("для одной даты вызов дня всегда одинаковый, варианты указывают на правильный фильм")
+    void generate_shouldBeDeterministicForDate() {
+        MovieCatalog catalog = MovieCatalog.of(movies(30));
+
+        DailyChallenge first = DailyChallenge.generate(catalog, DATE, 10, Difficulty.NORMAL);
+        DailyChallenge second = DailyChallenge.generate(catalog, DATE, 10, Difficulty.NORMAL);
+        DailyChallenge nextDay = DailyChallenge.generate(catalog, DATE.plusDays(1), 10, Difficulty.NORMAL);
+
+        assertThat(first.questions()).isEqualTo(second.questions());
+        assertThat(first.questions()).isNotEqualTo(nextDay.questions());
+        assertThat(first.questions()).extracting(DailyChallenge.Question::movie).doesNotHaveDuplicates();
+        for (DailyChallenge.Question question : first.questions()) {
+            assertThat(question.options()).hasSize(4).doesNotHaveDuplicates();
+            assertThat(question.options().get(question.correctIndex())).isEqualTo(question.movie().title());
+        }
+    }
+
+    @Test
+    @DisplayName("число вопросов ограничивается размером каталога и должно быть положительным")
+    void generate_shouldClampLength() {
+        MovieCatalog catalog = MovieCatalog.of(movies(5));
+
+        assertThat(DailyChallenge.generate(catalog, DATE, 10, Difficulty.EASY).size()).isEqualTo(5);
+        assertThatThrownBy(() -> DailyChallenge.generate(catalog, DATE, 0, Difficulty.EASY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Movie> movies(int count) {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            movies.add(new Movie("movie" + i + ".jpg", "Фильм " + i, i % 2 == 0 ? "drama" : "comedy",
+                    1990 + i, "RU"));
+        }
+        return movies;
+    }
+}
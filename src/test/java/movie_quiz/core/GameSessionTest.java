@@ -4,6 +4,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -67,4 +68,29 @@ class GameSessionTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Список фильмов не может быть пустым");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Сначала идут не виденные фильмы, не угаданные повторяются через интервал, угаданные — в конце")
+    void session_shouldOrderUnseenFirst_andSpaceMissedMovies() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            movies.add(new Movie("movie" + i + ".jpg", "Фильм " + i));
+        }
+        BitSet seen = new BitSet();
+        seen.set(0, 6);
+        BitSet missed = new BitSet();
+        missed.set(0, 2);
+
+        GameSession session = new GameSession(movies, new MovieHistory(seen, missed));
+        List<String> kinds = new ArrayList<>();
+        while (!session.isFinished()) {
+            int index = movies.indexOf(session.getCurrentMovie());
+            kinds.add(missed.get(index) ? "missed" : seen.get(index) ? "known" : "unseen");
+            session.nextMovie();
+        }
+
+        assertThat(kinds).containsExactly(
+                "unseen", "unseen", "unseen", "missed", "unseen", "missed",
+                "known", "known", "known", "known");
+    }
+}
@@ -0,0 +1,49 @@
+package movie_quiz.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieCatalogTest {
+
+    @Test
+    @DisplayName("соседи подбираются по жанру, стране и году, фильмы без жанра соседей не получают")
+    void neighbours_shouldPreferSimilarMovies() {
+        List<Movie> movies = List.of(
+                new Movie("brat.jpg", "Брат", "crime|drama", 1997, "RU"),
+                new Movie("brat2.jpg", "Брат 2", "crime|action", 2000, "RU"),
+                new Movie("godfather.jpg", "Крёстный отец", "crime|drama", 1972, "US"),
+                new Movie("departed.jpg", "Отступники", "crime|thriller", 2006, "US"),
+                new Movie("shrek.jpg", "Шрек", "animation|comedy", 2001, "US"),
+                new Movie("unknown.jpg", "Без жанра"));
+        MovieCatalog catalog = new MovieCatalog(movies, 2, 64);
+
+        assertThat(catalog.similarMovies(0)).extracting(Movie::title).containsExactly("Брат 2", "Крёстный отец");
+        assertThat(catalog.neighbours(4)).isEmpty();
+        assertThat(catalog.neighbours(5)).isEmpty();
+        assertThat(catalog.indexOf(movies.get(3))).isEqualTo(3);
+        assertThat(catalog.indexOf(new Movie("x.jpg", "Нет в каталоге"))).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("индекс для 100 тысяч фильмов строится с ограниченным окном кандидатов и сообщает время построения")
+    void constructor_shouldBuildLargeCatalogIndex() {
+        String[] genres = {"drama", "comedy", "crime|drama", "scifi|action", "animation|family"};
+        String[] countries = {"US", "RU", "FR", "JP"};
+        List<Movie> movies = new ArrayList<>(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            movies.add(new Movie(i + ".jpg", "Фильм " + i, genres[i % genres.length],
+                    1950 + i % 75, countries[i % countries.length]));
+        }
+
+        MovieCatalog catalog = MovieCatalog.of(movies);
+
+        assertThat(catalog.size()).isEqualTo(100_000);
+        assertThat(catalog.neighbours(12_345)).hasSize(MovieCatalog.DEFAULT_NEIGHBOURS);
+        assertThat(catalog.getBuildNanos()).isPositive();
+    }
+}
@@ -48,4 +48,16 @@ class MovieTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Название фильма не может быть пустым");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Строка movies.csv читается с необязательными метаданными")
+    void fromCsvRow_shouldReadOptionalMetadata() {
+        Movie full = Movie.fromCsvRow(new String[]{"brat.jpg", "Брат", "crime|drama", "1997", "RU"});
+        Movie minimal = Movie.fromCsvRow(new String[]{"brat.jpg", "Брат"});
+
+        assertThat(full).isEqualTo(new Movie("brat.jpg", "Брат", "crime|drama", 1997, "RU"));
+        assertThat(minimal).isEqualTo(new Movie("brat.jpg", "Брат"));
+        assertThatThrownBy(() -> Movie.fromCsvRow(new String[]{"brat.jpg", "Брат", "crime", "девяностые"}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
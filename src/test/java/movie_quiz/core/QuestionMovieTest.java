@@ -150,4 +150,24 @@ class QuestionMovieTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Список фильмов для построения вопросов не может быть пустым");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("на сложном уровне неверные варианты берутся из похожих фильмов")
+    void getQuestions_hard_shouldUseSimilarMovies() {
+        List<Movie> listMovies = new ArrayList<>(List.of(
+                new Movie("toy.jpg", "История игрушек", "animation|family", 1995, "US"),
+                new Movie("nemo.jpg", "В поисках Немо", "animation|family", 2003, "US"),
+                new Movie("up.jpg", "Вверх", "animation|adventure", 2009, "US"),
+                new Movie("shrek.jpg", "Шрек", "animation|comedy", 2001, "US")));
+        for (int i = 0; i < 20; i++) {
+            listMovies.add(new Movie("drama" + i + ".jpg", "Драма " + i, "drama", 1990 + i, "FR"));
+        }
+        MovieCatalog catalog = MovieCatalog.of(listMovies);
+        QuestionMovie questionMovie = new QuestionMovie(catalog, Difficulty.HARD);
+        GameSession gameSession = new GameSession(List.of(listMovies.get(0)));
+
+        List<String> options = questionMovie.getQuestions(gameSession);
+
+        assertThat(options).containsExactlyInAnyOrder("История игрушек", "В поисках Немо", "Вверх", "Шрек");
+    }
+}
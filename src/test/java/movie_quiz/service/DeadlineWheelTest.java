@@ -0,0 +1,80 @@
+package movie_quiz.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineWheelTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private DeadlineWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new DeadlineWheel(Duration.ofMillis(100), 8, now::get);
+    }
+
+    @Test
+    @DisplayName("дедлайн срабатывает не раньше срока, в том числе дальше одного оборота колеса")
+    void tick_shouldExpireOnlyDueTimeouts() {
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(Duration.ofMillis(250), () -> fired.add("near"));
+        wheel.schedule(Duration.ofMillis(2_050), () -> fired.add("far"));
+
+        advance(200);
+        assertThat(wheel.tick()).isZero();
+        advance(100);
+        assertThat(wheel.tick()).isEqualTo(1);
+        assertThat(fired).containsExactly("near");
+
+        advance(1_600);
+        assertThat(wheel.tick()).isZero();
+        advance(200);
+        wheel.tick();
+        assertThat(fired).containsExactly("near", "far");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("ответ и дедлайн: ровно одна сторона выигрывает CAS")
+    void cancel_shouldRaceWithExpiryExactlyOnce() {
+        AtomicInteger fired = new AtomicInteger();
+        DeadlineWheel.Timeout cancelled = wheel.schedule(Duration.ofMillis(100), fired::incrementAndGet);
+        DeadlineWheel.Timeout expired = wheel.schedule(Duration.ofMillis(100), fired::incrementAndGet);
+
+        assertThat(cancelled.cancel()).isTrue();
+        advance(100);
+        wheel.tick();
+
+        assertThat(fired).hasValue(1);
+        assertThat(expired.isExpired()).isTrue();
+        assertThat(expired.cancel()).isFalse();
+        assertThat(cancelled.cancel()).isFalse();
+    }
+
+    @Test
+    @DisplayName("пропущенные тики догоняются за один вызов")
+    void tick_shouldCatchUpMissedTicks() {
+        AtomicInteger fired = new AtomicInteger();
+        for (int i = 1; i <= 100; i++) {
+            wheel.schedule(Duration.ofMillis(i * 10L), fired::incrementAndGet);
+        }
+
+        advance(5_000);
+
+        assertThat(wheel.tick()).isEqualTo(100);
+        assertThat(fired).hasValue(100);
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(Duration.ofMillis(millis).toNanos());
+    }
+}
@@ -5,6 +5,7 @@ import movie_quiz.core.QuestionView;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -84,4 +85,65 @@ class GameManagerTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("Нельзя проверять ответ до выдачи вопроса");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Проверка выбрасывания исключения при проверке варианта до выдачи вопроса")
+    void checkAnswerByOption_shouldThrowException_whenCalledBeforeQuestion() {
+        GameManager manager = new GameManager(List.of(new Movie("Titanic.jpg", "Титаник")));
+
+        assertThatThrownBy(() -> manager.checkAnswer(0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Нельзя проверять ответ до выдачи вопроса");
+    }
+
+    @Test
+    @DisplayName("истёкший вопрос засчитывается как неверный и игра переходит дальше")
+    void expireQuestion_shouldAdvanceWithoutScore() {
+        GameManager manager = new GameManager(List.of(
+                new Movie("Titanic.jpg", "Титаник"),
+                new Movie("The_Matrix.png", "Матрица")), true, Duration.ofSeconds(10));
+        manager.getNextQuestion();
+
+        manager.expireQuestion();
+
+        assertThat(manager.isTimed()).isTrue();
+        assertThat(manager.getScore()).isZero();
+        assertThat(manager.getNextQuestion()).isPresent();
+        assertThat(manager.getQuestionNumber()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Заранее подготовленный вопрос выдаётся следующим и проверяется по индексу варианта")
+    void prepareNextQuestion_shouldBeUsedByNextQuestion() {
+        List<Movie> movies = List.of(
+                new Movie("Titanic.jpg", "Титаник"),
+                new Movie("The_Matrix.png", "Матрица"),
+                new Movie("Avatar.jpg", "Аватар"),
+                new Movie("Brat.jpg", "Брат"),
+                new Movie("Stalker.jpg", "Сталкер")
+        );
+        GameManager manager = new GameManager(movies);
+        manager.getNextQuestion();
+
+        assertThat(manager.prepareNextQuestion()).isTrue();
+        assertThat(manager.hasPreparedQuestion()).isTrue();
+        assertThat(manager.checkAnswer(manager.getRightAnswer())).isTrue();
+
+        List<String> options = manager.getNextQuestion().orElseThrow().movieTitles();
+        assertThat(manager.hasPreparedQuestion()).isFalse();
+        assertThat(options).hasSize(4).contains(manager.getCurrentMovie().title());
+        assertThat(manager.getRightAnswer()).isEqualTo(manager.getCurrentMovie().title());
+        assertThat(manager.checkAnswer(options.indexOf(manager.getCurrentMovie().title()))).isTrue();
+        assertThat(manager.getScore()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("На последнем вопросе готовить нечего")
+    void prepareNextQuestion_shouldReturnFalse_onLastQuestion() {
+        GameManager manager = new GameManager(List.of(new Movie("Titanic.jpg", "Титаник")));
+        manager.getNextQuestion();
+
+        assertThat(manager.prepareNextQuestion()).isFalse();
+        assertThat(manager.hasPreparedQuestion()).isFalse();
+    }
+}
@@ -0,0 +1,101 @@
+package movie_quiz.service;
+
+import movie_quiz.core.Movie;
+import movie_quiz.core.QuestionView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroupRoundTest {
+
+    private GroupRound round;
+    private QuestionView question;
+    private int rightOption;
+
+    @BeforeEach
+    void setUp() {
+        round = new GroupRound(List.of(
+                new Movie("a.png", "Фильм A"),
+                new Movie("b.png", "Фильм B"),
+                new Movie("c.png", "Фильм C"),
+                new Movie("d.png", "Фильм D")), 2);
+        question = round.openNextQuestion().orElseThrow();
+        rightOption = question.movieTitles().indexOf(round.getManager().getCurrentMovie().title());
+    }
+
+    @Test
+    @DisplayName("первый верный ответ получает бонус, повторный ответ участника отбрасывается")
+    void answer_shouldGiveBonusToFirstCorrectAndRejectDuplicates() {
+        int wrongOption = (rightOption + 1) % question.movieTitles().size();
+
+        assertThat(answer(1L, "Аня", rightOption)).isEqualTo(GroupRound.AnswerResult.ACCEPTED);
+        assertThat(answer(2L, "Боря", rightOption)).isEqualTo(GroupRound.AnswerResult.ACCEPTED);
+        assertThat(answer(3L, "Вика", wrongOption)).isEqualTo(GroupRound.AnswerResult.ACCEPTED);
+        assertThat(answer(1L, "Аня", wrongOption)).isEqualTo(GroupRound.AnswerResult.DUPLICATE);
+
+        GroupRound.QuestionResult result = round.closeQuestion(1);
+
+        assertThat(result.winnerName()).isEqualTo("Аня");
+        assertThat(result.correctAnswers()).isEqualTo(2);
+        assertThat(result.totalAnswers()).isEqualTo(3);
+        assertThat(round.standings()).containsExactly(
+                new GroupRound.Standing(1L, "Аня", 2),
+                new GroupRound.Standing(2L, "Боря", 1));
+    }
+
+    @Test
+    @DisplayName("вопрос закрывается один раз, после закрытия ответы устаревают")
+    void closeQuestion_shouldCloseOnlyOnce() {
+        assertThat(round.closeQuestion(1)).isNotNull();
+        assertThat(round.closeQuestion(1)).isNull();
+        assertThat(round.isQuestionOpen()).isFalse();
+        assertThat(answer(1L, "Аня", rightOption)).isEqualTo(GroupRound.AnswerResult.STALE);
+
+        round.openNextQuestion().orElseThrow();
+        assertThat(round.closeQuestion(1)).isNull();
+        assertThat(round.closeQuestion(2)).isNotNull();
+        assertThat(round.openNextQuestion()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("одновременные ответы: каждый участник учтён один раз, бонус получает ровно один")
+    void answer_concurrent_shouldCountEachPlayerOnce() throws InterruptedException {
+        int players = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (long id = 1; id <= players; id++) {
+            long userId = id;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                answer(userId, "u" + userId, rightOption);
+                answer(userId, "u" + userId, rightOption);
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        GroupRound.QuestionResult result = round.closeQuestion(1);
+
+        assertThat(result.totalAnswers()).isEqualTo(players);
+        assertThat(result.correctAnswers()).isEqualTo(players);
+        assertThat(round.standings().stream().mapToLong(GroupRound.Standing::score).sum()).isEqualTo(players + 1);
+    }
+
+    private GroupRound.AnswerResult answer(long userId, String name, int option) {
+        return round.answer(round.getNonce(), 1, userId, name, option);
+    }
+}
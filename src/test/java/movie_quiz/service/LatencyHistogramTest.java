@@ -0,0 +1,31 @@
+package movie_quiz.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("перцентили оцениваются сверху границей логарифмической корзины")
+    void percentileMicros_shouldReturnBucketUpperBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.percentileMicros(50)).isZero();
+
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        assertThat(histogram.count()).isEqualTo(100);
+        assertThat(histogram.percentileMicros(50)).isEqualTo(128);
+        assertThat(histogram.percentileMicros(90)).isEqualTo(128);
+        assertThat(histogram.percentileMicros(99)).isEqualTo(8_192);
+        assertThat(histogram.summary()).startsWith("n=100, p50≤128 мкс");
+    }
+}
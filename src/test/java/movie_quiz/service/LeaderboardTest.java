@@ -0,0 +1,72 @@
+package movie_quiz.service;
+
+import movie_quiz.core.LeaderboardEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardTest {
+
+    @Test
+    @DisplayName("хранит лучший результат игрока и считает место по числу игроков с большим результатом")
+    void submit_shouldKeepBestScoreAndRank() {
+        Leaderboard leaderboard = new Leaderboard(50, 3);
+
+        leaderboard.submit(1L, "Аня", 10);
+        leaderboard.submit(2L, "Борис", 20);
+        leaderboard.submit(3L, "Вера", 10);
+        boolean improved = leaderboard.submit(1L, "Аня", 5);
+
+        assertThat(improved).isFalse();
+        assertThat(leaderboard.bestScore(1L)).hasValue(10);
+        assertThat(leaderboard.rank(2L)).isEqualTo(1);
+        assertThat(leaderboard.rank(1L)).isEqualTo(2);
+        assertThat(leaderboard.rank(3L)).isEqualTo(2);
+        assertThat(leaderboard.rank(99L)).isZero();
+        assertThat(leaderboard.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("топ кешируется и пересчитывается только при изменении топа")
+    void top_shouldBeCachedUntilTopChanges() {
+        Leaderboard leaderboard = new Leaderboard(50, 2);
+        leaderboard.submit(1L, "Аня", 30);
+        leaderboard.submit(2L, "Борис", 20);
+
+        List<LeaderboardEntry> first = leaderboard.top();
+        leaderboard.submit(3L, "Вера", 5);
+        List<LeaderboardEntry> afterLowScore = leaderboard.top();
+        leaderboard.submit(3L, "Вера", 25);
+        List<LeaderboardEntry> afterTopChange = leaderboard.top();
+
+        assertThat(afterLowScore).isSameAs(first);
+        assertThat(afterTopChange).extracting(LeaderboardEntry::playerId).containsExactly(1L, 3L);
+        assertThat(leaderboard.rank(2L)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("результаты больше максимума обрезаются, параллельные отправки не теряются")
+    void submit_shouldClampAndStayConsistentUnderConcurrency() throws InterruptedException {
+        Leaderboard leaderboard = new Leaderboard(100, 10);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4_000; i++) {
+            long playerId = i % 1_000;
+            int score = i % 150;
+            pool.execute(() -> leaderboard.submit(playerId, "p" + playerId, score));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(leaderboard.size()).isEqualTo(1_000);
+        assertThat(leaderboard.top().getFirst().score()).isEqualTo(100);
+        long[] counted = new long[1];
+        leaderboard.forEach(entry -> counted[0]++);
+        assertThat(counted[0]).isEqualTo(1_000);
+    }
+}
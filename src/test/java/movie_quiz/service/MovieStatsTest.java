@@ -0,0 +1,56 @@
+package movie_quiz.service;
+
+import bot.utils.CsvResourceReader;
+import movie_quiz.core.MovieStat;
+import movie_quiz.core.QuizEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieStatsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("события учитываются в счётчиках фильма, истёкшие вопросы не входят в среднее время")
+    void record_shouldAggregatePerMovie() {
+        MovieStats stats = new MovieStats();
+        stats.record(event("Титаник", 0, true, 3_000));
+        stats.record(event("Титаник", 1, false, 5_000));
+        stats.record(event("Титаник", QuizEvent.TIMED_OUT, false, 30_000));
+        stats.record(event("Матрица", 2, true, 1_000));
+
+        assertThat(stats.snapshot()).containsExactlyInAnyOrder(
+                new MovieStat("Титаник", 3, 1, 1, 8_000),
+                new MovieStat("Матрица", 1, 1, 0, 1_000));
+        assertThat(stats.accuracy("Матрица")).hasValue(1.0);
+        assertThat(stats.accuracy("Аватар")).isEmpty();
+        assertThat(new MovieStat("Титаник", 3, 1, 1, 8_000).meanLatencyMillis()).isEqualTo(4_000);
+    }
+
+    @Test
+    @DisplayName("снапшот сохраняется только после изменений и загружается обратно")
+    void saveSnapshot_shouldRoundTrip() {
+        Path file = dir.resolve("quiz_movie_stats.csv");
+        MovieStats stats = new MovieStats(file, new CsvResourceReader());
+        assertThat(stats.saveSnapshot()).isFalse();
+
+        stats.record(event("Фильм \"в кавычках\"", 0, true, 2_000));
+        assertThat(stats.saveSnapshot()).isTrue();
+        assertThat(stats.saveSnapshot()).isFalse();
+
+        MovieStats loaded = new MovieStats(file, new CsvResourceReader());
+        loaded.load();
+
+        assertThat(loaded.snapshot()).containsExactly(new MovieStat("Фильм \"в кавычках\"", 1, 1, 0, 2_000));
+    }
+
+    private static QuizEvent event(String title, int option, boolean correct, long latencyMillis) {
+        return new QuizEvent(0L, 1L, title, option, correct, latencyMillis);
+    }
+}
@@ -0,0 +1,49 @@
+package movie_quiz.service;
+
+import movie_quiz.core.QuizEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizEventLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("события копятся в очереди и дописываются в файл одной пачкой")
+    void flush_shouldAppendPendingBatch() throws IOException {
+        Path file = dir.resolve("quiz_events.csv");
+        QuizEventLog eventLog = new QuizEventLog(file, 10);
+
+        eventLog.append(new QuizEvent(1_000L, 7L, "Титаник", 2, true, 1_500L));
+        eventLog.append(new QuizEvent(2_000L, 8L, "Матрица", QuizEvent.TIMED_OUT, false, 30_000L));
+
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(eventLog.flush()).isEqualTo(2);
+        eventLog.append(new QuizEvent(3_000L, 7L, "Титаник", 0, false, 900L));
+        assertThat(eventLog.flush()).isEqualTo(1);
+        assertThat(eventLog.flush()).isZero();
+
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "1000,7,2,1,1500,\"Титаник\"",
+                "2000,8,-2,0,30000,\"Матрица\"",
+                "3000,7,0,0,900,\"Титаник\"");
+    }
+
+    @Test
+    @DisplayName("при переполнении очереди новые события отбрасываются")
+    void append_shouldDropWhenQueueIsFull() {
+        QuizEventLog eventLog = new QuizEventLog(dir.resolve("quiz_events.csv"), 1);
+
+        assertThat(eventLog.append(new QuizEvent(1L, 1L, "A", 0, true, 1L))).isTrue();
+        assertThat(eventLog.append(new QuizEvent(2L, 1L, "B", 0, true, 1L))).isFalse();
+        assertThat(eventLog.pendingSize()).isEqualTo(1);
+    }
+}
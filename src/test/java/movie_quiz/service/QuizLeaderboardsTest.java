@@ -0,0 +1,120 @@
+package movie_quiz.service;
+
+import bot.utils.CsvResourceReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizLeaderboardsTest {
+
+    private static final Instant MONDAY = Instant.parse("2026-10-19T10:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("снапшот сохраняется и загружается вместе с именами игроков")
+    void saveSnapshot_shouldRoundTripBoards() {
+        Clock clock = Clock.fixed(MONDAY, ZoneOffset.UTC);
+        QuizLeaderboards leaderboards = new QuizLeaderboards(50, 10, clock, dir, new CsvResourceReader());
+        leaderboards.record(1L, "Аня, \"Кинолюб\"", 12);
+        leaderboards.record(2L, "Борис", 7);
+
+        assertThat(leaderboards.saveSnapshot()).isTrue();
+        assertThat(leaderboards.saveSnapshot()).isFalse();
+
+        QuizLeaderboards restored = new QuizLeaderboards(50, 10, clock, dir, new CsvResourceReader());
+        restored.load();
+
+        assertThat(restored.allTime().top().getFirst().name()).isEqualTo("Аня, \"Кинолюб\"");
+        assertThat(restored.allTime().rank(2L)).isEqualTo(2);
+        assertThat(restored.weekly().bestScore(1L)).hasValue(12);
+    }
+
+    @Test
+    @DisplayName("недельная таблица начинается заново в новой неделе, общая сохраняется")
+    void weekly_shouldResetOnNewWeek() {
+        QuizLeaderboards current = new QuizLeaderboards(50, 10, Clock.fixed(MONDAY, ZoneOffset.UTC), dir,
+                new CsvResourceReader());
+        current.record(1L, "Аня", 12);
+        current.saveSnapshot();
+
+        Clock nextWeek = Clock.fixed(MONDAY.plus(7, ChronoUnit.DAYS), ZoneOffset.UTC);
+        QuizLeaderboards restored = new QuizLeaderboards(50, 10, nextWeek, dir, new CsvResourceReader());
+        restored.load();
+
+        assertThat(restored.allTime().bestScore(1L)).hasValue(12);
+        assertThat(restored.weekly().size()).isZero();
+    }
+
+    @Test
+    @DisplayName("рейтинг вызова дня сохраняется в течение дня и начинается заново на следующий день")
+    void daily_shouldRoundTripAndResetOnNewDay() {
+        Clock clock = Clock.fixed(MONDAY, ZoneOffset.UTC);
+        QuizLeaderboards current = new QuizLeaderboards(50, 10, clock, dir, new CsvResourceReader());
+        current.recordDaily(1L, "Аня", 8, LocalDate.of(2026, 10, 19));
+        current.saveSnapshot();
+
+        QuizLeaderboards sameDay = new QuizLeaderboards(50, 10, clock, dir, new CsvResourceReader());
+        sameDay.load();
+        QuizLeaderboards nextDay = new QuizLeaderboards(50, 10,
+                Clock.fixed(MONDAY.plus(1, ChronoUnit.DAYS), ZoneOffset.UTC), dir, new CsvResourceReader());
+        nextDay.load();
+
+        assertThat(sameDay.daily().bestScore(1L)).hasValue(8);
+        assertThat(sameDay.allTime().bestScore(1L)).hasValue(8);
+        assertThat(nextDay.daily().size()).isZero();
+        assertThat(nextDay.weekly().bestScore(1L)).hasValue(8);
+    }
+
+    @Test
+    @DisplayName("попытка вызова дня, законченная после полуночи, попадает в рейтинг своего дня")
+    void recordDaily_shouldUseChallengeDay_whenFinishedAfterMidnight() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-10-19T23:59:00Z"));
+        QuizLeaderboards leaderboards = new QuizLeaderboards(50, 10, clock);
+        LocalDate challengeDay = LocalDate.of(2026, 10, 19);
+        leaderboards.daily();
+
+        clock.instant = Instant.parse("2026-10-20T00:01:00Z");
+        leaderboards.recordDaily(1L, "Аня", 8, challengeDay);
+
+        assertThat(leaderboards.daily().bestScore(1L)).isEmpty();
+        assertThat(leaderboards.daily(challengeDay).bestScore(1L)).hasValue(8);
+        assertThat(leaderboards.allTime().bestScore(1L)).hasValue(8);
+        assertThat(leaderboards.daily(LocalDate.of(2026, 10, 17))).isNull();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package movie_quiz.service;
+
+import movie_quiz.core.Movie;
+import movie_quiz.core.MovieCatalog;
+import movie_quiz.core.MovieHistory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeenMovieStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("фильм отмечается просмотренным, а промах снимается после верного ответа")
+    void record_shouldTrackSeenAndMissed() {
+        SeenMovieStore store = SeenMovieStore.inMemory(100);
+        store.record(7L, 3, true);
+        store.record(7L, 5, false);
+
+        MovieHistory history = store.history(7L);
+        assertThat(history.seen().stream()).containsExactly(3, 5);
+        assertThat(history.missed().stream()).containsExactly(3);
+
+        store.record(7L, 3, false);
+        assertThat(store.history(7L).missed().isEmpty()).isTrue();
+        assertThat(store.history(8L).isEmpty()).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("история сохраняется в файле и читается после переоткрытия, в том числе после расширения файла")
+    void open_shouldRestoreHistoryFromFile() {
+        Path file = dir.resolve("quiz_seen_movies.bin");
+        try (SeenMovieStore store = SeenMovieStore.open(file, catalog(100))) {
+            for (long userId = 0; userId < 3_000; userId++) {
+                store.record(userId, (int) (userId % 100), userId % 2 == 0);
+            }
+        }
+
+        try (SeenMovieStore reopened = SeenMovieStore.open(file, catalog(100))) {
+            assertThat(reopened.size()).isEqualTo(3_000);
+            MovieHistory history = reopened.history(2_998L);
+            assertThat(history.seen().stream()).containsExactly(98);
+            assertThat(history.missed().stream()).containsExactly(98);
+            assertThat(reopened.history(2_999L).missed().isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("при росте каталога файл перестраивается с более широкими слотами без потери истории")
+    void open_shouldMigrate_whenCatalogOutgrowsSlots() throws Exception {
+        Path file = dir.resolve("quiz_seen_movies.bin");
+        int oldSlotBytes;
+        try (SeenMovieStore store = SeenMovieStore.open(file, catalog(10))) {
+            store.record(42L, 9, true);
+            oldSlotBytes = store.slotBytes();
+        }
+
+        try (SeenMovieStore migrated = SeenMovieStore.open(file, catalog(1_000))) {
+            assertThat(migrated.slotBytes()).isGreaterThan(oldSlotBytes);
+            assertThat(migrated.history(42L).missed().stream()).containsExactly(9);
+            migrated.record(42L, 999, false);
+            assertThat(migrated.history(42L).seen().stream()).containsExactly(9, 999);
+        }
+        assertThat(Files.exists(dir.resolve("quiz_seen_movies.bin.tmp"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("файл отображается сегментами: история в разных сегментах переживает переоткрытие")
+    void open_shouldSpreadSlotsOverSegments() {
+        Path file = dir.resolve("quiz_seen_movies.bin");
+        MovieCatalog catalog = catalog(100);
+        int segmentBytes = 10 * SeenMovieStore.inMemory(catalog.size()).slotBytes();
+
+        try (SeenMovieStore store = SeenMovieStore.open(file, catalog, segmentBytes)) {
+            for (long userId = 0; userId < 35; userId++) {
+                store.record(userId, (int) userId, true);
+            }
+            assertThat(store.segmentCount()).isEqualTo(4);
+        }
+
+        try (SeenMovieStore reopened = SeenMovieStore.open(file, catalog, segmentBytes)) {
+            assertThat(reopened.size()).isEqualTo(35);
+            assertThat(reopened.segmentCount()).isEqualTo(4);
+            assertThat(reopened.history(9L).missed().stream()).containsExactly(9);
+            assertThat(reopened.history(34L).seen().stream()).containsExactly(34);
+        }
+    }
+
+    @Test
+    @DisplayName("история сохраняется, если каталог дополнился, и сбрасывается, если фильмы сменили номера")
+    void open_shouldResetHistory_whenCatalogChanged() {
+        Path file = dir.resolve("quiz_seen_movies.bin");
+        try (SeenMovieStore store = SeenMovieStore.open(file, catalog(100))) {
+            store.record(42L, 7, true);
+        }
+
+        try (SeenMovieStore extended = SeenMovieStore.open(file, catalog(120))) {
+            assertThat(extended.history(42L).missed().stream()).containsExactly(7);
+        }
+
+        List<Movie> reordered = new ArrayList<>(catalog(120).movies());
+        reordered.add(0, reordered.remove(7));
+        try (SeenMovieStore reset = SeenMovieStore.open(file, MovieCatalog.of(reordered))) {
+            assertThat(reset.size()).isZero();
+            assertThat(reset.history(42L).isEmpty()).isTrue();
+        }
+    }
+
+    private static MovieCatalog catalog(int size) {
+        return MovieCatalog.of(IntStream.range(0, size)
+                .mapToObj(i -> new Movie("movie" + i + ".jpg", "Фильм " + i))
+                .toList());
+    }
+}
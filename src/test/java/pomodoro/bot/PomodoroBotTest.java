@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -14,9 +15,16 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.chat.Chat;
 import org.telegram.telegrambots.meta.api.objects.message.Message;
 import pomodoro.core.*;
+import pomodoro.service.PhaseScheduler;
 import pomodoro.service.PomodoroManager;
+import pomodoro.service.PomodoroPresets;
 import pomodoro.service.StatsLogger;
+import pomodoro.service.StatsService;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -26,10 +34,13 @@ import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -53,7 +64,7 @@ class PomodoroBotTest {
 
     @BeforeEach
     void setUp() {
-        pomodoroBot = new PomodoroBot(senderMock);
+        pomodoroBot = new PomodoroBot(senderMock, Runnable::run);
         Map<Phase, List<MotivationPhoto>> motivationPhotos = Map.of(
                 Phase.WORK, List.of(new MotivationPhoto("work1", "path")),
                 Phase.SHORT_BREAK, List.of(new MotivationPhoto("rest1", "path")),
@@ -77,7 +88,8 @@ class PomodoroBotTest {
     void startPomodoro_shouldSetInitialSetupState() {
         Update update = createUpdateWithText(CHAT_ID, "/start");
 
-        PomodoroReply reply = pomodoroBot.startPomodoro(update);
+        pomodoroBot.startPomodoro(update);
+        PomodoroReply reply = lastReply();
 
         assertThat(reply.text()).contains("Напиши, на сколько минут поставить");
         assertThat(reply.isFinished()).isTrue();
@@ -91,22 +103,26 @@ class PomodoroBotTest {
         assertThat(pomodoroBot.hasSession(CHAT_ID)).isTrue();
 
         Update update1 = createUpdateWithText(CHAT_ID, "25");
-        PomodoroReply reply1 = pomodoroBot.handleAnswer(update1);
+        pomodoroBot.handleAnswer(update1);
+        PomodoroReply reply1 = lastReply();
         assertThat(reply1.text()).contains("Период рабочего цикла определён ✅");
         assertThat(reply1.isFinished()).isTrue();
 
         Update update2 = createUpdateWithText(CHAT_ID, "5");
-        PomodoroReply reply2 = pomodoroBot.handleAnswer(update2);
+        pomodoroBot.handleAnswer(update2);
+        PomodoroReply reply2 = lastReply();
         assertThat(reply2.text()).contains("Период короткого отдыха определён ✅");
         assertThat(reply2.isFinished()).isTrue();
 
         Update update3 = createUpdateWithText(CHAT_ID, "15");
-        PomodoroReply reply3 = pomodoroBot.handleAnswer(update3);
+        pomodoroBot.handleAnswer(update3);
+        PomodoroReply reply3 = lastReply();
         assertThat(reply3.text()).contains("Период длинного отдыха определён ✅");
         assertThat(reply3.isFinished()).isTrue();
 
         Update update4 = createUpdateWithText(CHAT_ID, "3");
-        PomodoroReply reply4 = pomodoroBot.handleAnswer(update4);
+        pomodoroBot.handleAnswer(update4);
+        PomodoroReply reply4 = lastReply();
         assertThat(reply4.text()).contains("Количество циклов работы до длинного отдыха определено");
         assertThat(reply4.isFinished()).isFalse();
 
@@ -114,6 +130,39 @@ class PomodoroBotTest {
 
     }
 
+    @Test
+    @DisplayName("повторный запуск предлагает прошлые настройки и применяет их одной кнопкой")
+    void startPomodoro_shouldOfferAndApplyLastSettings() {
+        setupCompleteSettings(CHAT_ID);
+        PomodoroServiceSettings saved = pomodoroBot.getPresets().get(CHAT_ID);
+        assertThat(saved).isEqualTo(new PomodoroServiceSettings(
+                Duration.ofMinutes(25), Duration.ofMinutes(5), Duration.ofMinutes(15), 3));
+
+        pomodoroBot.startPomodoro(createUpdateWithText(CHAT_ID, "/start"));
+        PomodoroReply welcome = lastReply();
+        assertThat(welcome.offersPreset()).isTrue();
+        assertThat(welcome.text()).contains(PomodoroMessages.USE_LAST_SETTINGS_MESSAGE, "25 мин");
+
+        pomodoroBot.handleAnswer(createUpdateWithText(CHAT_ID, PomodoroMessages.USE_LAST_SETTINGS_MESSAGE));
+        PomodoroReply applied = lastReply();
+
+        assertThat(applied.text()).isEqualTo(PomodoroMessages.LAST_SETTINGS_APPLIED_MESSAGE);
+        assertThat(applied.isFinished()).isFalse();
+        assertThat(pomodoroBot.hasSession(CHAT_ID)).isTrue();
+    }
+
+    @Test
+    @DisplayName("первый запуск не предлагает прошлые настройки, а кнопка без них не принимается")
+    void startPomodoro_shouldNotOfferPresetForNewUser() {
+        pomodoroBot.startPomodoro(createUpdateWithText(CHAT_ID, "/start"));
+        PomodoroReply welcome = lastReply();
+        pomodoroBot.handleAnswer(createUpdateWithText(CHAT_ID, PomodoroMessages.USE_LAST_SETTINGS_MESSAGE));
+        PomodoroReply reply = lastReply();
+
+        assertThat(welcome.offersPreset()).isFalse();
+        assertThat(reply.text()).isEqualTo(PomodoroMessages.WRONG_VALUE_NOT_INTEGER_MESSAGE);
+    }
+
     @Test
     @DisplayName("checkUserSetupState - валидация ввода")
     void checkUserSetupState_shouldHandleInvalidInput() {
@@ -122,9 +171,12 @@ class PomodoroBotTest {
         Update negativeValue = createUpdateWithText(CHAT_ID, "-5");
 
         pomodoroBot.startPomodoro(createUpdateWithText(CHAT_ID, "/start"));
-        PomodoroReply replyText = pomodoroBot.handleAnswer(invalidText);
-        PomodoroReply replyZero = pomodoroBot.handleAnswer(zeroValue);
-        PomodoroReply replyNegative = pomodoroBot.handleAnswer(negativeValue);
+        pomodoroBot.handleAnswer(invalidText);
+        PomodoroReply replyText = lastReply();
+        pomodoroBot.handleAnswer(zeroValue);
+        PomodoroReply replyZero = lastReply();
+        pomodoroBot.handleAnswer(negativeValue);
+        PomodoroReply replyNegative = lastReply();
 
         assertThat(replyText.text()).contains("Нужно ввести целое число");
         assertThat(replyZero.text()).contains("Число должно быть больше 0");
@@ -176,6 +228,20 @@ class PomodoroBotTest {
         assertThat(reply.text()).isEmpty();
     }
 
+    @Test
+    @DisplayName("кнопка Таймер отправляет живой статус с оставшимся временем фазы")
+    void handleAnswer_liveStatusCommand_shouldSendRemainingTime() {
+        setupCompleteSettings(CHAT_ID);
+        pomodoroBot.handleAnswer(createUpdateWithText(CHAT_ID, "Старт \uD83D\uDE80"));
+        when(senderMock.sendLiveStatus(eq(CHAT_ID), any())).thenReturn(CompletableFuture.completedFuture(7));
+
+        PomodoroReply reply = pomodoroBot.handleAnswer(createUpdateWithText(CHAT_ID, PomodoroMessages.LIVE_STATUS_MESSAGE));
+
+        verify(senderMock).sendLiveStatus(eq(CHAT_ID),
+                argThat(text -> text.contains("Рабочий цикл") && text.contains("25 мин")));
+        assertThat(reply.text()).isEmpty();
+    }
+
     @Test
     @DisplayName("команда Завершить сеанс формирует финальную статистику")
     void handleAnswer_finishSessionCommand_shouldSendStats() {
@@ -202,13 +268,14 @@ class PomodoroBotTest {
         stats.setRestMinutes(Duration.ofMinutes(5));
 
         when(session.getState()).thenReturn(SessionState.RUNNING);
+        when(manager.hasActiveSession(CHAT_ID)).thenReturn(true);
         when(manager.getSession(CHAT_ID)).thenReturn(session);
         when(reader.readMonthlyStats(CHAT_ID)).thenReturn(stats);
 
         Update endUpdate = createUpdateWithText(CHAT_ID, "Завершить сеанс ✅");
         PomodoroReply reply = pomodoroBotTest.handleAnswer(endUpdate);
 
-        verify(senderMock).sendPomodoroReply(
+        verify(senderMock, timeout(1_000)).sendPomodoroReply(
                 eq(CHAT_ID),
                 argThat(msg ->
                         msg.text().contains("Сессия завершена. ✅")
@@ -216,7 +283,7 @@ class PomodoroBotTest {
                 )
         );
 
-        verify(senderMock).sendFinalStatsQuestion(
+        verify(senderMock, timeout(1_000)).sendFinalStatsQuestion(
                 eq(CHAT_ID),
                 argThat(text ->
                         text.contains("📊 Хотите вывести статистику за последние 30 дней?")
@@ -226,7 +293,7 @@ class PomodoroBotTest {
         Update finishUpdate = createUpdateWithText(CHAT_ID, "Да 📊");
         pomodoroBotTest.handleAnswer(finishUpdate);
 
-        verify(senderMock, atLeastOnce()).sendPomodoroReply(eq(CHAT_ID),
+        verify(senderMock, timeout(1_000).atLeastOnce()).sendPomodoroReply(eq(CHAT_ID),
                 argThat(msg ->
                         msg.text().contains("Статистика за последние тридцать дней")
                                 && msg.text().contains("Провели 2 сессий за работой")
@@ -238,6 +305,61 @@ class PomodoroBotTest {
         assertThat(reply.text()).isEmpty();
     }
 
+    @Test
+    @DisplayName("Повторное «Да» до ответа не читает статистику и не закрывает сессию второй раз")
+    void yesAnswer_shouldQueryStatsOnce_whenPressedTwice() {
+        CompletableFuture<PomodoroStats> pendingStats = new CompletableFuture<>();
+        StatsService statsService = mock(StatsService.class);
+        when(statsService.monthlyStats(CHAT_ID)).thenReturn(pendingStats);
+        PomodoroBot bot = botWithStatsService(statsService);
+        when(manager.hasActiveSession(CHAT_ID)).thenReturn(true);
+        when(manager.getSession(CHAT_ID)).thenReturn(session);
+        when(session.getState()).thenReturn(SessionState.WAITING);
+
+        bot.handleAnswer(createUpdateWithText(CHAT_ID, "Да 📊"));
+        bot.handleAnswer(createUpdateWithText(CHAT_ID, "Да 📊"));
+        verify(statsService, times(1)).monthlyStats(CHAT_ID);
+        verify(manager, never()).endSession(CHAT_ID);
+
+        PomodoroStats stats = new PomodoroStats();
+        stats.setWorkSessions(0);
+        pendingStats.complete(stats);
+
+        verify(manager, times(1)).endSession(CHAT_ID);
+        verify(senderMock, times(1)).sendPomodoroReply(eq(CHAT_ID),
+                argThat(msg -> msg.text().equals(PomodoroMessages.MESSAGE_WITHOUT_STATS)));
+    }
+
+    @Test
+    @DisplayName("«Да» после ответа со статистикой игнорируется: сессия уже закрыта")
+    void yesAnswer_shouldBeIgnored_afterStatsReplySent() {
+        StatsService statsService = mock(StatsService.class);
+        PomodoroStats stats = new PomodoroStats();
+        stats.setWorkSessions(0);
+        when(statsService.monthlyStats(CHAT_ID)).thenReturn(CompletableFuture.completedFuture(stats));
+        PomodoroBot bot = botWithStatsService(statsService);
+        when(manager.hasActiveSession(CHAT_ID)).thenReturn(true, false);
+        when(manager.getSession(CHAT_ID)).thenReturn(session);
+        when(session.getState()).thenReturn(SessionState.WAITING);
+
+        bot.handleAnswer(createUpdateWithText(CHAT_ID, "Да 📊"));
+        PomodoroReply reply = bot.handleAnswer(createUpdateWithText(CHAT_ID, "Да 📊"));
+
+        assertThat(reply.text()).isEmpty();
+        verify(statsService, times(1)).monthlyStats(CHAT_ID);
+        verify(manager, times(1)).endSession(CHAT_ID);
+        verify(senderMock, times(1)).sendPomodoroReply(eq(CHAT_ID), any());
+    }
+
+    /**
+     * Бот, у которого акторы чатов работают в вызывающем потоке, а статистику отдаёт переданный сервис.
+     */
+    private PomodoroBot botWithStatsService(StatsService statsService) {
+        return new PomodoroBot(senderMock, manager, Map.of(), statsLogger, statsService, new StatsUtils(),
+                new PomodoroPresets(), Runnable::run, PhaseScheduler.of(Executors.newSingleThreadScheduledExecutor()),
+                Clock.systemUTC());
+    }
+
     @Test
     @DisplayName("logCurrentPhase логирует WORK, SHORT_BREAK и LONG_BREAK с верной длительностью")
     void logCurrentPhase_shouldLogAllPhasesWithCorrectDurations() {
@@ -298,7 +420,6 @@ class PomodoroBotTest {
                 "path", "motivationTitle"));
         when(manager.getSettings(CHAT_ID)).thenReturn(settings);
         when(manager.isOverLimit(session)).thenReturn(true);
-        when(manager.getNextPhase(session, CHAT_ID)).thenReturn(Phase.LONG_BREAK);
 
         pomodoroBotTest.onPhaseFinished(CHAT_ID);
 
@@ -318,7 +439,9 @@ class PomodoroBotTest {
         verify(session).completeCurrentPhase();
         verify(manager).endSession(CHAT_ID);
         verify(manager).cancelFuture(CHAT_ID);
-        verify(senderMock, times(2)).sendPomodoroReply(anyLong(), any());
+        verify(senderMock, times(1)).sendPomodoroReply(anyLong(), any());
+        verify(manager, never()).getNextPhase(any(), anyLong());
+        verify(session, never()).setCurrentPhase(any());
     }
 
     @Test
@@ -389,6 +512,118 @@ class PomodoroBotTest {
     }
 
 
+    @Test
+    @DisplayName("Перенос сессии: запущенная фаза продолжается на другом боте, здесь сессия закрывается")
+    void exportAndImport_shouldMoveRunningSession() {
+        setupCompleteSettings(CHAT_ID);
+        pomodoroBot.handleAnswer(createUpdateWithText(CHAT_ID, PomodoroMessages.START_MESSAGE));
+        PomodoroBot target = new PomodoroBot(senderMock, Runnable::run);
+
+        List<PomodoroSnapshot> snapshots = pomodoroBot.exportSessions(chatId -> chatId == CHAT_ID);
+        target.importSessions(snapshots.stream().map(PomodoroSnapshot::toCsv).map(PomodoroSnapshot::parse).toList());
+
+        assertThat(snapshots).hasSize(1);
+        PomodoroSnapshot snapshot = snapshots.get(0);
+        assertThat(snapshot.state()).isEqualTo(SessionState.RUNNING);
+        assertThat(snapshot.phase()).isEqualTo(Phase.WORK);
+        assertThat(snapshot.remaining()).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(25));
+        assertThat(snapshot.settings()).isEqualTo(new PomodoroServiceSettings(
+                Duration.ofMinutes(25), Duration.ofMinutes(5), Duration.ofMinutes(15), 3));
+        assertThat(pomodoroBot.hasSession(CHAT_ID)).isFalse();
+        assertThat(target.hasSession(CHAT_ID)).isTrue();
+
+        target.handleAnswer(createUpdateWithText(CHAT_ID, PomodoroMessages.PAUSE_MESSAGE));
+        verify(senderMock).sendPomodoroReply(eq(CHAT_ID),
+                argThat(msg -> msg.text().equals(PomodoroMessages.CANSEL_CURRENT_CYCLE)));
+    }
+
+    @Test
+    @DisplayName("Перенос сессии: незавершённая настройка продолжается с того же шага")
+    void exportAndImport_shouldKeepSetupProgress() {
+        pomodoroBot.startPomodoro(createUpdateWithText(CHAT_ID, "/start"));
+        pomodoroBot.handleAnswer(createUpdateWithText(CHAT_ID, "50"));
+        PomodoroBot target = new PomodoroBot(senderMock, Runnable::run);
+
+        target.importSessions(pomodoroBot.exportSessions(chatId -> true).stream()
+                .map(PomodoroSnapshot::toCsv).map(PomodoroSnapshot::parse).toList());
+        target.handleAnswer(createUpdateWithText(CHAT_ID, "10"));
+        PomodoroReply reply = lastReply();
+        target.handleAnswer(createUpdateWithText(CHAT_ID, "30"));
+        target.handleAnswer(createUpdateWithText(CHAT_ID, "2"));
+
+        assertThat(reply.text()).isEqualTo(PomodoroMessages.CREATE_SHORT_REST_MESSAGE);
+        assertThat(target.getPresets().get(CHAT_ID)).isEqualTo(new PomodoroServiceSettings(
+                Duration.ofMinutes(50), Duration.ofMinutes(10), Duration.ofMinutes(30), 2));
+    }
+
+    @Test
+    @DisplayName("Снимок сессии без таймера и настроек переживает запись в CSV, повреждённая строка отклоняется")
+    void snapshot_shouldRoundTripThroughCsv() {
+        PomodoroSnapshot snapshot = new PomodoroSnapshot(7L, SessionState.WAITING, Phase.SHORT_BREAK,
+                Instant.ofEpochSecond(1_000), null, 2, true, null, null);
+
+        assertThat(PomodoroSnapshot.parse(snapshot.toCsv())).isEqualTo(snapshot);
+        assertThatThrownBy(() -> PomodoroSnapshot.parse("7,WAITING"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Снимок сессии с настройкой переживает двоичную запись для репликации")
+    void snapshot_shouldRoundTripThroughBinary() throws IOException {
+        UserSetupState setup = new UserSetupState();
+        setup.setStep(SetupStep.WAITING_SHORT_REST_DURATION);
+        setup.setWorkDuration(Duration.ofMinutes(50));
+        PomodoroSnapshot snapshot = new PomodoroSnapshot(-100L, SessionState.SETUP, Phase.WORK,
+                Instant.ofEpochMilli(1_234_567), Duration.ofMillis(90_500), 0, false,
+                new PomodoroServiceSettings(Duration.ofMinutes(50), Duration.ofMinutes(10), Duration.ofMinutes(30), 2),
+                setup);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        snapshot.writeTo(new DataOutputStream(bytes));
+        PomodoroSnapshot read = PomodoroSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read).usingRecursiveComparison().isEqualTo(snapshot);
+    }
+
+    @Test
+    @DisplayName("Репликатор получает снимок после каждого изменения сессии и удаление после её закрытия")
+    void replicator_shouldReceiveChangesAndRemoval() {
+        List<Object> changes = new CopyOnWriteArrayList<>();
+        pomodoroBot.setReplicator(new SessionReplicator() {
+            @Override
+            public void sessionChanged(PomodoroSnapshot snapshot) {
+                changes.add(snapshot);
+            }
+
+            @Override
+            public void sessionRemoved(long chatId) {
+                changes.add(chatId);
+            }
+        });
+
+        setupCompleteSettings(CHAT_ID);
+        pomodoroBot.handleAnswer(createUpdateWithText(CHAT_ID, PomodoroMessages.START_MESSAGE));
+        pomodoroBot.exportSessions(chatId -> true);
+
+        assertThat(changes).hasSize(7);
+        assertThat(changes.get(0)).isInstanceOfSatisfying(PomodoroSnapshot.class,
+                snapshot -> assertThat(snapshot.state()).isEqualTo(SessionState.SETUP));
+        assertThat(changes.get(5)).isInstanceOfSatisfying(PomodoroSnapshot.class, snapshot -> {
+            assertThat(snapshot.state()).isEqualTo(SessionState.RUNNING);
+            assertThat(snapshot.remaining()).isPositive();
+        });
+        assertThat(changes.get(6)).isEqualTo(CHAT_ID);
+    }
+
+    /**
+     * @return последний ответ, переданный ботом в отправку для {@link #CHAT_ID}
+     */
+    private PomodoroReply lastReply() {
+        ArgumentCaptor<PomodoroReply> replies = ArgumentCaptor.forClass(PomodoroReply.class);
+        verify(senderMock, atLeastOnce()).sendPomodoroReply(eq(CHAT_ID), replies.capture());
+        return replies.getValue();
+    }
+
     private void setupCompleteSettings(Long chatId) {
         pomodoroBot.startPomodoro(createUpdateWithText(CHAT_ID, "/start"));
         pomodoroBot.handleAnswer(createUpdateWithText(chatId, "25"));
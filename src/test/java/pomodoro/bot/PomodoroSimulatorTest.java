@@ -0,0 +1,66 @@
+package pomodoro.bot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PomodoroSimulatorTest {
+
+    @Test
+    @DisplayName("при одном зерне симуляция повторяет один и тот же сценарий")
+    void run_shouldBeDeterministicForSameSeed() {
+        PomodoroSimulator.Options options = new PomodoroSimulator.Options(200, Duration.ofHours(24), 7, 2, false);
+
+        PomodoroSimulator.Report first = PomodoroSimulator.run(options);
+        PomodoroSimulator.Report second = PomodoroSimulator.run(options);
+
+        assertThat(second.events()).isEqualTo(first.events());
+        assertThat(second.sends()).isEqualTo(first.sends());
+        assertThat(second.loggedPhases()).isEqualTo(first.loggedPhases());
+        assertThat(second.peakSessions()).isEqualTo(first.peakSessions());
+        assertThat(second.peakSendsPerSecond()).isEqualTo(first.peakSendsPerSecond());
+    }
+
+    @Test
+    @DisplayName("хранилище вне кучи даёт тот же сценарий, что и хранилище в куче")
+    void run_shouldProduceSameScenarioForSlabStore() {
+        PomodoroSimulator.Report heap = PomodoroSimulator.run(
+                new PomodoroSimulator.Options(200, Duration.ofHours(24), 11, 2, false));
+        PomodoroSimulator.Report slab = PomodoroSimulator.run(
+                new PomodoroSimulator.Options(200, Duration.ofHours(24), 11, 2, true));
+
+        assertThat(slab.events()).isEqualTo(heap.events());
+        assertThat(slab.sends()).isEqualTo(heap.sends());
+        assertThat(slab.loggedPhases()).isEqualTo(heap.loggedPhases());
+        assertThat(slab.offHeapBytes()).isPositive();
+        assertThat(heap.offHeapBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("отчёт содержит события, отправки и открытые сессии")
+    void run_shouldReportActivity() {
+        PomodoroSimulator.Report report = PomodoroSimulator.run(
+                new PomodoroSimulator.Options(100, Duration.ofHours(24), 42, 4, false));
+
+        assertThat(report.events()).isGreaterThan(100);
+        assertThat(report.sends()).isGreaterThan(report.options().users());
+        assertThat(report.loggedPhases()).isPositive();
+        assertThat(report.peakSessions()).isBetween(1, 100);
+        assertThat(report.peakSendsPerSecond()).isPositive();
+        assertThat(report.meanSendsPerSecond()).isPositive();
+        assertThat(report.summary()).contains("пользователей 100", "хранилище heap");
+    }
+
+    @Test
+    @DisplayName("некорректные параметры симуляции отклоняются")
+    void options_shouldRejectInvalidValues() {
+        assertThatThrownBy(() -> new PomodoroSimulator.Options(0, Duration.ofHours(1), 1, 1, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PomodoroSimulator.Options(10, Duration.ofSeconds(30), 1, 1, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
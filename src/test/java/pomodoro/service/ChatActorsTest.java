@@ -0,0 +1,116 @@
+package pomodoro.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatActorsTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("сообщения одного чата выполняются по порядку и не пересекаются")
+    void tell_shouldRunMessagesOfOneChatSequentially() throws InterruptedException {
+        ChatActors actors = new ChatActors(pool, 3);
+        List<Integer> order = new ArrayList<>();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1_000);
+
+        for (int i = 0; i < 1_000; i++) {
+            int number = i;
+            actors.tell(7L, () -> {
+                if (inside.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                order.add(number);
+                inside.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(overlaps).hasValue(0);
+        assertThat(order).hasSize(1_000).isSorted();
+    }
+
+    @Test
+    @DisplayName("ask возвращает результат сообщения, а исключение сообщения завершает future")
+    void ask_shouldCompleteWithResultOrException() {
+        ChatActors actors = new ChatActors(pool);
+
+        CompletableFuture<String> ok = actors.ask(1L, () -> "готово");
+        CompletableFuture<String> failed = actors.ask(1L, () -> {
+            throw new IllegalStateException("сбой");
+        });
+
+        assertThat(ok.join()).isEqualTo("готово");
+        assertThatThrownBy(failed::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(actors.ask(1L, () -> "после сбоя").join()).isEqualTo("после сбоя");
+    }
+
+    @Test
+    @DisplayName("опустевший ящик удаляется")
+    void drain_shouldRemoveIdleMailbox() {
+        ChatActors actors = new ChatActors(Runnable::run);
+
+        actors.tell(1L, () -> { });
+        actors.ask(2L, () -> 1).join();
+
+        assertThat(actors.activeMailboxes()).isZero();
+    }
+
+    @Test
+    @DisplayName("100 тысяч акторов обрабатывают по 10 сообщений без потерь и с сохранением порядка")
+    void tell_shouldHandleHundredThousandActors() throws InterruptedException {
+        int chats = 100_000;
+        int perChat = 10;
+        ChatActors actors = new ChatActors(pool);
+        AtomicIntegerArray lastSeen = new AtomicIntegerArray(chats);
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(chats * perChat);
+
+        long started = System.nanoTime();
+        for (int message = 1; message <= perChat; message++) {
+            for (int chat = 0; chat < chats; chat++) {
+                int chatIndex = chat;
+                int number = message;
+                actors.tell((long) chat, () -> {
+                    if (lastSeen.getAndSet(chatIndex, number) != number - 1) {
+                        outOfOrder.incrementAndGet();
+                    }
+                    done.countDown();
+                });
+            }
+        }
+
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        long elapsedNanos = System.nanoTime() - started;
+        assertThat(outOfOrder).hasValue(0);
+        assertThat(elapsedNanos).isPositive();
+        for (int chat = 0; chat < chats; chat += 9_999) {
+            assertThat(lastSeen.get(chat)).isEqualTo(perChat);
+        }
+    }
+}
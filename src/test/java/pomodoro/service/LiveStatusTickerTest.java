@@ -0,0 +1,117 @@
+package pomodoro.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveStatusTickerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final Map<Long, String> texts = new HashMap<>();
+    private final List<Long> edited = new ArrayList<>();
+    private final AtomicInteger sendBudget = new AtomicInteger(Integer.MAX_VALUE);
+
+    private LiveStatusTicker ticker(int maxEditsPerSecond, boolean editSucceeds) {
+        return new LiveStatusTicker(
+                texts::get,
+                (chatId, messageId, text) -> {
+                    edited.add(chatId);
+                    return CompletableFuture.completedFuture(editSucceeds);
+                },
+                sendBudget::get,
+                Duration.ofSeconds(60),
+                Duration.ZERO,
+                maxEditsPerSecond,
+                Duration.ofSeconds(1),
+                now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @DisplayName("статус редактируется только после наступления срока и только при изменении текста")
+    void tick_shouldEditDueStatusesWithChangedText() {
+        LiveStatusTicker ticker = ticker(20, true);
+        texts.put(1L, "25 мин");
+        ticker.track(1L, 100, "25 мин");
+
+        advance(Duration.ofSeconds(30));
+        assertThat(ticker.tick()).isZero();
+
+        advance(Duration.ofSeconds(30));
+        assertThat(ticker.tick()).isZero();
+
+        texts.put(1L, "23 мин");
+        advance(Duration.ofSeconds(60));
+        assertThat(ticker.tick()).isEqualTo(1);
+        assertThat(edited).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("за тик выполняется не больше правок, чем позволяет бюджет; остальные ждут следующего тика")
+    void tick_shouldRespectPerTickBudget() {
+        LiveStatusTicker ticker = ticker(2, true);
+        for (long chatId = 1; chatId <= 5; chatId++) {
+            texts.put(chatId, "старый");
+            ticker.track(chatId, (int) chatId, "старый");
+            texts.put(chatId, "новый");
+        }
+
+        advance(Duration.ofMinutes(2));
+
+        assertThat(ticker.tick()).isEqualTo(2);
+        assertThat(ticker.tick()).isEqualTo(2);
+        assertThat(ticker.tick()).isEqualTo(1);
+        assertThat(edited).hasSize(5).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("правки ждут, пока в лимите отправки бота не появится место")
+    void tick_shouldRespectBotSendBudget() {
+        LiveStatusTicker ticker = ticker(20, true);
+        for (long chatId = 1; chatId <= 3; chatId++) {
+            texts.put(chatId, "старый");
+            ticker.track(chatId, (int) chatId, "старый");
+            texts.put(chatId, "новый");
+        }
+        advance(Duration.ofMinutes(2));
+
+        sendBudget.set(0);
+        assertThat(ticker.tick()).isZero();
+        sendBudget.set(1);
+        assertThat(ticker.tick()).isEqualTo(1);
+        sendBudget.set(Integer.MAX_VALUE);
+        assertThat(ticker.tick()).isEqualTo(2);
+        assertThat(edited).hasSize(3).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("статус снимается, если сессии нет, правка не удалась или вызван untrack")
+    void tick_shouldDropFinishedStatuses() {
+        LiveStatusTicker ticker = ticker(20, false);
+        texts.put(2L, "было");
+        ticker.track(1L, 1, "было");
+        ticker.track(2L, 2, "было");
+        ticker.track(3L, 3, "было");
+        texts.put(2L, "стало");
+        ticker.untrack(3L);
+
+        advance(Duration.ofMinutes(2));
+        ticker.tick();
+
+        assertThat(edited).containsExactly(2L);
+        assertThat(ticker.size()).isZero();
+    }
+}
@@ -13,6 +13,10 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -219,4 +223,26 @@ class PomodoroManagerTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Невозможно получить сессию ");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Отменённая или заменённая задача таймера перестаёт быть текущей")
+    void isCurrentFuture_shouldTrackOnlyLatestFuture() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ScheduledFuture<?> first = scheduler.schedule(() -> { }, 1, TimeUnit.HOURS);
+            ScheduledFuture<?> second = scheduler.schedule(() -> { }, 1, TimeUnit.HOURS);
+
+            pomodoroManager.saveFuture(chatId, first);
+            assertThat(pomodoroManager.isCurrentFuture(chatId, first)).isTrue();
+
+            pomodoroManager.saveFuture(chatId, second);
+            assertThat(pomodoroManager.isCurrentFuture(chatId, first)).isFalse();
+
+            pomodoroManager.cancelFuture(chatId);
+            assertThat(pomodoroManager.isCurrentFuture(chatId, second)).isFalse();
+            assertThat(second.isCancelled()).isTrue();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
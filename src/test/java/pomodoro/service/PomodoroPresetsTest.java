@@ -0,0 +1,74 @@
+package pomodoro.service;
+
+import bot.utils.CsvResourceReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pomodoro.core.PomodoroServiceSettings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PomodoroPresetsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void remember_shouldShareEqualSettingsBetweenUsers() {
+        PomodoroPresets presets = new PomodoroPresets();
+
+        PomodoroServiceSettings first = presets.remember(1L, settings(25, 5, 15, 4));
+        PomodoroServiceSettings second = presets.remember(2L, settings(25, 5, 15, 4));
+        presets.remember(3L, settings(50, 10, 30, 2));
+
+        assertThat(second).isSameAs(first);
+        assertThat(presets.get(2L)).isSameAs(first);
+        assertThat(presets.size()).isEqualTo(3);
+        assertThat(presets.distinctSettings()).isEqualTo(2);
+    }
+
+    @Test
+    void get_shouldReturnNullForUnknownUser() {
+        assertThat(new PomodoroPresets().get(42L)).isNull();
+    }
+
+    @Test
+    void snapshot_shouldRestorePresetsAfterRestart() {
+        Path file = tempDir.resolve("presets.csv");
+        PomodoroPresets presets = new PomodoroPresets(file, new CsvResourceReader());
+        presets.remember(1L, settings(25, 5, 15, 4));
+        presets.remember(2L, settings(25, 5, 15, 4));
+        presets.remember(3L, settings(45, 10, 20, 3));
+
+        assertThat(presets.saveSnapshot()).isTrue();
+        assertThat(presets.saveSnapshot()).isFalse();
+        assertThat(Files.exists(file.resolveSibling("presets.csv.tmp"))).isFalse();
+
+        PomodoroPresets restored = new PomodoroPresets(file, new CsvResourceReader());
+        restored.load();
+
+        assertThat(restored.get(3L)).isEqualTo(settings(45, 10, 20, 3));
+        assertThat(restored.get(1L)).isSameAs(restored.get(2L));
+        assertThat(restored.distinctSettings()).isEqualTo(2);
+    }
+
+    @Test
+    void remember_shouldNotMarkDirtyWhenSettingsUnchanged() {
+        Path file = tempDir.resolve("presets.csv");
+        PomodoroPresets presets = new PomodoroPresets(file, new CsvResourceReader());
+        presets.remember(1L, settings(25, 5, 15, 4));
+        presets.saveSnapshot();
+
+        presets.remember(1L, settings(25, 5, 15, 4));
+
+        assertThat(presets.saveSnapshot()).isFalse();
+    }
+
+    private static PomodoroServiceSettings settings(int work, int shortRest, int longRest, int cycles) {
+        return new PomodoroServiceSettings(Duration.ofMinutes(work), Duration.ofMinutes(shortRest),
+                Duration.ofMinutes(longRest), cycles);
+    }
+}
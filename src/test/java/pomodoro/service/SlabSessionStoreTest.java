@@ -0,0 +1,137 @@
+package pomodoro.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pomodoro.core.MotivationPhoto;
+import pomodoro.core.Phase;
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.core.PomodoroSession;
+import pomodoro.core.SessionState;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlabSessionStoreTest {
+
+    private static final PomodoroServiceSettings CLASSIC = new PomodoroServiceSettings(
+            Duration.ofMinutes(25), Duration.ofMinutes(5), Duration.ofMinutes(15), 2);
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final SlabSessionStore store = new SlabSessionStore(now::get);
+
+    @Test
+    @DisplayName("представление сессии читает и изменяет запись вне кучи")
+    void session_shouldBeViewOverRecord() {
+        store.putSession(1L, new PomodoroSession(Phase.WORK, Duration.ofMinutes(25)));
+
+        PomodoroSession session = store.getSession(1L);
+        session.setState(SessionState.RUNNING);
+        session.setCurrentPhase(Phase.SHORT_BREAK);
+        session.setWantedAboutLimit(true);
+
+        PomodoroSession again = store.getSession(1L);
+        assertThat(again.getState()).isEqualTo(SessionState.RUNNING);
+        assertThat(again.getCurrentPhase()).isEqualTo(Phase.SHORT_BREAK);
+        assertThat(again.isWarnedAboutLimit()).isTrue();
+        assertThat(again.isFinished()).isFalse();
+        assertThat(again.isTimerStarted()).isFalse();
+        assertThat(store.sessionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("таймер фазы считается по дедлайну, рабочий цикл засчитывается после его окончания")
+    void session_shouldTrackDeadlineAndCycles() {
+        store.putSession(1L, new PomodoroSession(Phase.WORK, Duration.ofMinutes(25)));
+        PomodoroSession session = store.getSession(1L);
+
+        assertThatThrownBy(session::getReminingTime).isInstanceOf(IllegalStateException.class);
+        session.startCurrentPhase(Duration.ofMinutes(25));
+        now.addAndGet(Duration.ofMinutes(10).toMillis());
+
+        assertThat(session.getReminingTime()).isEqualTo(Duration.ofMinutes(15));
+        assertThatThrownBy(session::completeCurrentPhase).isInstanceOf(IllegalStateException.class);
+
+        now.addAndGet(Duration.ofMinutes(15).toMillis());
+        assertThat(session.isCurrentPhaseFinished()).isTrue();
+        assertThat(session.completeCurrentPhase()).isTrue();
+        assertThat(store.getSession(1L).getCompleteWorkingCycles()).isEqualTo(1);
+
+        session.setFinished(true);
+        assertThatThrownBy(() -> session.startCurrentPhase(Duration.ofMinutes(5)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("список чатов с сессиями не включает удалённые сессии")
+    void sessionChatIds_shouldListOnlyActiveSessions() {
+        for (long chatId = 1; chatId <= 5; chatId++) {
+            store.putSession(chatId, new PomodoroSession(Phase.WORK, Duration.ofMinutes(25)));
+        }
+        store.putSettings(9L, CLASSIC);
+        store.removeSession(3L);
+
+        assertThat(store.sessionChatIds()).containsExactlyInAnyOrder(1L, 2L, 4L, 5L);
+    }
+
+    @Test
+    @DisplayName("удаление сессии сохраняет настройки, одинаковые настройки хранятся одним объектом")
+    void removeSession_shouldKeepSharedSettings() {
+        store.putSettings(1L, CLASSIC);
+        store.putSettings(2L, new PomodoroServiceSettings(
+                Duration.ofMinutes(25), Duration.ofMinutes(5), Duration.ofMinutes(15), 2));
+        store.putSession(1L, new PomodoroSession(Phase.WORK, Duration.ofMinutes(25)));
+
+        assertThat(store.removeSession(1L)).isTrue();
+        assertThat(store.removeSession(1L)).isFalse();
+        assertThat(store.getSession(1L)).isNull();
+        assertThat(store.getSettings(1L)).isSameAs(CLASSIC);
+        assertThat(store.getSettings(2L)).isSameAs(CLASSIC);
+        assertThat(store.getSettings(3L)).isNull();
+        assertThat(store.distinctSettings()).isEqualTo(1);
+        assertThat(store.sessionCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("PomodoroManager работает поверх хранилища вне кучи")
+    void manager_shouldUseSlabStore() {
+        PomodoroManager manager = new PomodoroManager(
+                Map.of(Phase.WORK, List.of(new MotivationPhoto("work.png", "работа"))), store);
+        manager.setSettings(5L, CLASSIC);
+        manager.addSession(5L, new PomodoroSession(Phase.WORK, Duration.ofMinutes(25)));
+        manager.startWorkSession(5L, CLASSIC.workDuration());
+        now.addAndGet(CLASSIC.workDuration().toMillis());
+
+        PomodoroSession session = manager.getSession(5L);
+        session.completeCurrentPhase();
+        assertThat(session.getState()).isEqualTo(SessionState.SETUP);
+        assertThat(manager.getNextPhase(session, 5L)).isEqualTo(Phase.SHORT_BREAK);
+        assertThat(manager.hasActiveSession(5L)).isTrue();
+
+        manager.endSession(5L);
+        assertThat(manager.hasActiveSession(5L)).isFalse();
+        assertThat(manager.getSettings(5L)).isSameAs(CLASSIC);
+    }
+
+    @Test
+    @DisplayName("миллион сессий помещается в куски вне кучи и остаётся доступным по chatId")
+    void putSession_shouldHoldMillionSessions() {
+        int count = 1_000_000;
+        PomodoroSession template = new PomodoroSession(Phase.WORK, Duration.ofMinutes(25));
+        for (long chatId = 0; chatId < count; chatId++) {
+            store.putSession(chatId * 7919, template);
+            store.putSettings(chatId * 7919, CLASSIC);
+        }
+
+        assertThat(store.sessionCount()).isEqualTo(count);
+        assertThat(store.offHeapBytes())
+                .isLessThanOrEqualTo((long) (count + SlabSessionStore.CHUNK_RECORDS) * SlabSessionStore.RECORD_BYTES);
+        assertThat(store.getSession(123_456L * 7919).getCurrentPhase()).isEqualTo(Phase.WORK);
+        assertThat(store.getSettings(999_999L * 7919)).isSameAs(CLASSIC);
+        assertThat(store.getSession(1L)).isNull();
+    }
+}
@@ -0,0 +1,101 @@
+package pomodoro.service;
+
+import bot.utils.CsvResourceReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pomodoro.core.Phase;
+import pomodoro.core.StatsReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsReportEngineTest {
+
+    private static final long NOW = 1_700_000_000L;
+    private static final long DAY = 86_400L;
+
+    @TempDir
+    Path dir;
+    private ForkJoinPool pool;
+    private StatsReportEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        Clock clock = Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC);
+        engine = new StatsReportEngine(dir, dir.resolve("report_state.csv"), new CsvResourceReader(), pool, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("агрегирует все файлы stats_*.csv: минуты, фазы, гистограмму и DAU/MAU")
+    void run_shouldAggregateAllStatsFiles() throws IOException {
+        write(1L, "WORK,25," + NOW, "SHORT_BREAK,5," + NOW, "WORK,25," + (NOW - DAY));
+        write(2L, "WORK,50," + (NOW - 10 * DAY), "LONG_BREAK,15," + (NOW - 10 * DAY));
+        write(3L, "WORK,25," + (NOW - 40 * DAY));
+        Files.writeString(dir.resolve("other.csv"), "WORK,100," + NOW + "\n");
+
+        StatsReport report = engine.run(false);
+
+        assertThat(report.getTotalFocusMinutes()).isEqualTo(125);
+        assertThat(report.getPhaseCount(Phase.WORK)).isEqualTo(4);
+        assertThat(report.getPhaseCount(Phase.SHORT_BREAK)).isEqualTo(1);
+        assertThat(report.getPhaseMinutes(Phase.LONG_BREAK)).isEqualTo(15);
+        assertThat(report.getCycleHistogram(Phase.WORK)).containsEntry(25L, 3L).containsEntry(50L, 1L);
+        assertThat(report.dailyActiveUsers(engine.today())).isEqualTo(1);
+        assertThat(report.monthlyActiveUsers(engine.today())).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("инкрементальный запуск читает только дописанные строки")
+    void run_incremental_shouldReadOnlyAppendedLines() throws IOException {
+        write(1L, "WORK,25," + NOW);
+        engine.run(true);
+
+        Path file = dir.resolve("stats_1.csv");
+        Files.writeString(file, "WORK,30," + NOW + "\nSHORT_BR", StandardOpenOption.APPEND);
+        StatsReport second = engine.run(true);
+
+        assertThat(second.getPhaseCount(Phase.WORK)).isEqualTo(2);
+        assertThat(second.getTotalFocusMinutes()).isEqualTo(55);
+        assertThat(second.getPhaseCount(Phase.SHORT_BREAK)).isZero();
+
+        Files.writeString(file, "EAK,5," + NOW + "\n", StandardOpenOption.APPEND);
+        StatsReport third = engine.run(true);
+
+        assertThat(third.getPhaseCount(Phase.WORK)).isEqualTo(2);
+        assertThat(third.getPhaseCount(Phase.SHORT_BREAK)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("некорректные строки пропускаются по одной, остальные строки файла учитываются")
+    void run_shouldSkipMalformedRowsOnly() throws IOException {
+        write(1L, "WORK,25," + NOW, "мусор", "WORK,\"25\"x,1", "WORK,25,99999999999999999", "SHORT_BREAK,5," + NOW,
+                "WORK,30," + NOW);
+
+        StatsReport report = engine.run(false);
+
+        assertThat(report.getPhaseCount(Phase.WORK)).isEqualTo(2);
+        assertThat(report.getTotalFocusMinutes()).isEqualTo(55);
+        assertThat(report.getPhaseCount(Phase.SHORT_BREAK)).isEqualTo(1);
+    }
+
+    private void write(Long chatId, String... lines) throws IOException {
+        Files.writeString(dir.resolve("stats_" + chatId + ".csv"), String.join("\n", lines) + "\n");
+    }
+}
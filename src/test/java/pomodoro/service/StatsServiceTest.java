@@ -0,0 +1,143 @@
+package pomodoro.service;
+
+import bot.utils.StatsReader;
+import bot.utils.StatsWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pomodoro.core.Phase;
+import pomodoro.core.PomodoroStats;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatsServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-05T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private final StatsReader reader = chatId -> {
+        reads.incrementAndGet();
+        PomodoroStats stats = new PomodoroStats();
+        stats.setWorkSessions(chatId.intValue());
+        return stats;
+    };
+
+    @Test
+    @DisplayName("чтение выполняется в пуле ввода-вывода, а не в вызывающем потоке")
+    void monthlyStats_shouldReadOnIoExecutor() {
+        List<Runnable> io = new ArrayList<>();
+        StatsService service = new StatsService(reader, io::add);
+
+        CompletableFuture<PomodoroStats> stats = service.monthlyStats(3L);
+
+        assertThat(stats).isNotDone();
+        assertThat(reads).hasValue(0);
+        io.forEach(Runnable::run);
+        assertThat(stats.join().getWorkSessions()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("повторный запрос чата, в том числе до завершения чтения, берётся из кэша")
+    void monthlyStats_shouldShareCachedResultPerChat() {
+        List<Runnable> io = new ArrayList<>();
+        StatsService service = new StatsService(reader, io::add);
+
+        CompletableFuture<PomodoroStats> first = service.monthlyStats(1L);
+        CompletableFuture<PomodoroStats> pending = service.monthlyStats(1L);
+        service.monthlyStats(2L);
+        io.forEach(Runnable::run);
+
+        assertThat(pending).isSameAs(first);
+        assertThat(service.monthlyStats(1L)).isSameAs(first);
+        assertThat(reads).hasValue(2);
+        assertThat(service.cachedChats()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("запись фазы через StatsLogger сбрасывает кэш только своего чата")
+    void logPhase_shouldInvalidateCachedStatsOfChat() {
+        StatsService service = new StatsService(reader, Runnable::run);
+        StatsLogger logger = new StatsLogger(new StatsWriter(), tempDir, service);
+        CompletableFuture<PomodoroStats> first = service.monthlyStats(1L);
+        CompletableFuture<PomodoroStats> other = service.monthlyStats(2L);
+
+        logger.logPhase(1L, Phase.WORK, Duration.ofMinutes(25), NOW);
+
+        assertThat(service.monthlyStats(1L)).isNotSameAs(first);
+        assertThat(service.monthlyStats(2L)).isSameAs(other);
+        assertThat(reads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("запись кэша устаревает через заданное время")
+    void monthlyStats_shouldReloadExpiredEntry() {
+        MutableClock clock = new MutableClock(NOW);
+        StatsService service = new StatsService(reader, Runnable::run, clock, Duration.ofHours(1));
+        CompletableFuture<PomodoroStats> first = service.monthlyStats(1L);
+
+        clock.instant = NOW.plus(Duration.ofMinutes(59));
+        assertThat(service.monthlyStats(1L)).isSameAs(first);
+
+        clock.instant = NOW.plus(Duration.ofHours(1));
+        assertThat(service.monthlyStats(1L)).isNotSameAs(first);
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("неудачное чтение не остаётся в кэше")
+    void monthlyStats_shouldNotCacheFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        StatsService service = new StatsService(chatId -> {
+            if (attempts.getAndIncrement() == 0) {
+                throw new IllegalStateException("Ошибка чтения CSV");
+            }
+            return new PomodoroStats();
+        }, Runnable::run);
+
+        assertThatThrownBy(() -> service.monthlyStats(1L).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(service.cachedChats()).isZero();
+        assertThat(service.monthlyStats(1L).join()).isNotNull();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
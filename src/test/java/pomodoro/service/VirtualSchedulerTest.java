@@ -0,0 +1,110 @@
+package pomodoro.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualSchedulerTest {
+
+    private static final Instant START = Instant.parse("2026-01-05T00:00:00Z");
+
+    @Test
+    @DisplayName("задачи выполняются по сроку, а при равном сроке — в порядке планирования")
+    void runUntil_shouldRunTasksByDueTimeThenBySequence() {
+        VirtualScheduler scheduler = new VirtualScheduler(START, 1);
+        List<String> order = new ArrayList<>();
+
+        scheduler.schedule(() -> order.add("c"), Duration.ofMinutes(10));
+        scheduler.schedule(() -> order.add("a"), Duration.ofMinutes(5));
+        scheduler.schedule(() -> order.add("b"), Duration.ofMinutes(5));
+
+        assertThat(scheduler.runUntil(START.plus(Duration.ofHours(1)))).isEqualTo(3);
+        assertThat(order).containsExactly("a", "b", "c");
+        assertThat(scheduler.executed()).isEqualTo(3);
+        assertThat(scheduler.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("часы переводятся на срок задачи, а после прогона — на конец интервала")
+    void runUntil_shouldAdvanceClockToTaskDueTime() {
+        VirtualScheduler scheduler = new VirtualScheduler(START, 1);
+        List<Instant> seen = new ArrayList<>();
+
+        scheduler.schedule(() -> seen.add(scheduler.clock().instant()), Duration.ofSeconds(90));
+        scheduler.runUntil(START.plus(Duration.ofMinutes(10)));
+
+        assertThat(seen).containsExactly(START.plusSeconds(90));
+        assertThat(scheduler.now()).isEqualTo(START.plus(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    @DisplayName("задачи, запланированные из задачи, считаются от текущего виртуального времени")
+    void runUntil_shouldRunNestedTasksWhenTheyAreDue() {
+        VirtualScheduler scheduler = new VirtualScheduler(START, 1);
+        List<Instant> seen = new ArrayList<>();
+
+        scheduler.schedule(() -> scheduler.schedule(() -> seen.add(scheduler.now()), Duration.ofMinutes(25)),
+                Duration.ofMinutes(5));
+        scheduler.runUntil(START.plus(Duration.ofMinutes(20)));
+        assertThat(seen).isEmpty();
+        assertThat(scheduler.pending()).isEqualTo(1);
+
+        scheduler.runUntil(START.plus(Duration.ofMinutes(30)));
+        assertThat(seen).containsExactly(START.plus(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    @DisplayName("отменённая задача не выполняется")
+    void runUntil_shouldSkipCancelledTasks() {
+        VirtualScheduler scheduler = new VirtualScheduler(START, 1);
+        List<String> order = new ArrayList<>();
+
+        Future<?> cancelled = scheduler.schedule(() -> order.add("cancelled"), Duration.ofMinutes(1));
+        scheduler.schedule(() -> order.add("kept"), Duration.ofMinutes(2));
+        cancelled.cancel(false);
+        scheduler.runUntil(START.plus(Duration.ofMinutes(5)));
+
+        assertThat(order).containsExactly("kept");
+        assertThat(scheduler.executed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("одновременные тяжёлые задачи в пуле из одного потока дают ненулевую задержку")
+    void lag_shouldGrowWhenTasksQueueUpInModelledPool() {
+        VirtualScheduler single = new VirtualScheduler(START, 1);
+        for (int i = 0; i < 3; i++) {
+            single.schedule(VirtualSchedulerTest::busyWork, Duration.ofSeconds(1));
+        }
+        single.runUntil(START.plusSeconds(2));
+
+        assertThat(single.maxLag()).isPositive();
+        assertThat(single.meanLag()).isPositive().isLessThanOrEqualTo(single.maxLag());
+        assertThat(single.lagPercentile(99)).isPositive();
+
+        VirtualScheduler empty = new VirtualScheduler(START, 4);
+        assertThat(empty.meanLag()).isZero();
+        assertThat(empty.lagPercentile(99)).isZero();
+    }
+
+    @Test
+    @DisplayName("пул без потоков недопустим")
+    void constructor_shouldRejectNonPositiveWorkers() {
+        assertThatThrownBy(() -> new VirtualScheduler(START, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void busyWork() {
+        long until = System.nanoTime() + 1_000_000;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
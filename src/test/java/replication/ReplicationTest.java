@@ -0,0 +1,184 @@
+package replication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pomodoro.bot.PomodoroSnapshot;
+import pomodoro.core.Phase;
+import pomodoro.core.PomodoroServiceSettings;
+import pomodoro.core.SessionState;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicationTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+    private static final PomodoroServiceSettings SETTINGS = new PomodoroServiceSettings(
+            Duration.ofMinutes(25), Duration.ofMinutes(5), Duration.ofMinutes(15), 4);
+
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    @DisplayName("резерв применяет изменения и удаления в порядке отправки и считает задержку")
+    void standby_shouldApplyChangesInOrder() throws Exception {
+        StandbyReplica replica = replica(Clock.systemUTC());
+        ReplicationSender sender = sender(replica, () -> {
+        }, Clock.systemUTC());
+        await(() -> sender.resyncCount() > 0);
+
+        for (long chatId = 1; chatId <= 1_000; chatId++) {
+            sender.sessionChanged(running(chatId, 0));
+            sender.sessionChanged(running(chatId, 1));
+        }
+        for (long chatId = 1; chatId <= 500; chatId++) {
+            sender.sessionRemoved(chatId);
+        }
+        await(() -> replica.recordCount() == 2_500);
+
+        List<PomodoroSnapshot> snapshots = replica.takeOver();
+        assertThat(snapshots).hasSize(500);
+        assertThat(snapshots).allSatisfy(snapshot -> {
+            assertThat(snapshot.chatId()).isGreaterThan(500);
+            assertThat(snapshot.completeWorkingCycles()).isEqualTo(1);
+        });
+        assertThat(replica.lag().count()).isEqualTo(2_500);
+        assertThat(replica.byteCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("после подключения резерв сбрасывает копию и получает полную копию сессий")
+    void sender_shouldResyncOnConnect() throws Exception {
+        StandbyReplica replica = replica(Clock.systemUTC());
+        AtomicInteger resyncs = new AtomicInteger();
+        ReplicationSender[] holder = new ReplicationSender[1];
+        holder[0] = sender(replica, () -> {
+            resyncs.incrementAndGet();
+            holder[0].sessionChanged(running(42, 3));
+        }, Clock.systemUTC());
+
+        await(() -> replica.size() == 1);
+
+        assertThat(resyncs).hasValue(1);
+        assertThat(replica.takeOver()).extracting(PomodoroSnapshot::chatId).containsExactly(42L);
+    }
+
+    @Test
+    @DisplayName("при переходе на резерв остаток фазы считается от реплицированного дедлайна")
+    void takeOver_shouldRecalculateRemainingFromDeadline() throws Exception {
+        StandbyReplica replica = replica(Clock.fixed(NOW.plusSeconds(10), ZoneOffset.UTC));
+        ReplicationSender sender = sender(replica, () -> {
+        }, Clock.fixed(NOW, ZoneOffset.UTC));
+        await(() -> sender.resyncCount() > 0);
+
+        sender.sessionChanged(running(1, 0));
+        sender.sessionChanged(new PomodoroSnapshot(2, SessionState.WAITING, Phase.WORK, NOW, null, 0, false, SETTINGS, null));
+        await(() -> replica.recordCount() == 2);
+        List<PomodoroSnapshot> snapshots = replica.takeOver();
+
+        assertThat(snapshots).filteredOn(snapshot -> snapshot.chatId() == 1)
+                .extracting(PomodoroSnapshot::remaining)
+                .containsExactly(Duration.ofMinutes(25).minusSeconds(10));
+        assertThat(snapshots).filteredOn(snapshot -> snapshot.chatId() == 2)
+                .extracting(PomodoroSnapshot::remaining)
+                .containsOnlyNulls();
+    }
+
+    @Test
+    @DisplayName("активный узел считается потерянным только после подключения и молчания дольше порога")
+    void isActiveLost_shouldDetectSilenceAfterConnection() throws Exception {
+        StandbyReplica replica = replica(Clock.systemUTC());
+        Duration silence = Duration.ofMillis(ReplicationSender.HEARTBEAT_INTERVAL_MILLIS * 3 / 2);
+        assertThat(replica.isActiveLost(Duration.ZERO)).isFalse();
+
+        ReplicationSender sender = sender(replica, () -> {
+        }, Clock.systemUTC());
+        await(() -> replica.isActiveLost(Duration.ZERO));
+        TimeUnit.MILLISECONDS.sleep(ReplicationSender.HEARTBEAT_INTERVAL_MILLIS * 2);
+        assertThat(replica.isActiveLost(silence)).isFalse();
+
+        sender.close();
+        replica.awaitActiveLost(silence);
+
+        assertThat(replica.isActiveLost(silence)).isTrue();
+    }
+
+    @Test
+    @DisplayName("резерв не принимает работу, пока активный узел держит блокировку, даже если он молчит")
+    void awaitActiveStopped_shouldWaitForActiveLock(@TempDir Path dir) throws Exception {
+        Path lockFile = dir.resolve("active.lock");
+        ActiveLock active = ActiveLock.tryAcquire(lockFile);
+        assertThat(active).isNotNull();
+        assertThat(ActiveLock.tryAcquire(lockFile)).isNull();
+
+        StandbyReplica replica = replica(Clock.systemUTC());
+        ReplicationSender sender = sender(replica, () -> {
+        }, Clock.systemUTC());
+        await(() -> replica.isActiveLost(Duration.ZERO));
+        sender.close();
+        Duration silence = Duration.ofMillis(ReplicationSender.HEARTBEAT_INTERVAL_MILLIS / 2);
+        CompletableFuture<ActiveLock> takeover = CompletableFuture.supplyAsync(() -> {
+            try {
+                return replica.awaitActiveStopped(silence, lockFile);
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await(() -> replica.isActiveLost(silence));
+        TimeUnit.MILLISECONDS.sleep(ReplicationSender.HEARTBEAT_INTERVAL_MILLIS);
+        assertThat(takeover).isNotDone();
+
+        active.close();
+        try (ActiveLock standby = takeover.get(10, TimeUnit.SECONDS)) {
+            assertThat(standby).isNotNull();
+            assertThat(ActiveLock.tryAcquire(lockFile)).isNull();
+        }
+    }
+
+    private StandbyReplica replica(Clock clock) throws IOException {
+        StandbyReplica replica = new StandbyReplica(0, clock);
+        replica.start();
+        closeables.add(replica);
+        return replica;
+    }
+
+    private ReplicationSender sender(StandbyReplica replica, Runnable resync, Clock clock) {
+        ReplicationSender sender = new ReplicationSender(replica.address(), resync, clock, 16_384);
+        sender.start();
+        closeables.add(sender);
+        return sender;
+    }
+
+    private static PomodoroSnapshot running(long chatId, int cycles) {
+        return new PomodoroSnapshot(chatId, SessionState.RUNNING, Phase.WORK, NOW, Duration.ofMinutes(25),
+                cycles, false, SETTINGS, null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("условие не выполнилось за 10 с").isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+}